@@ -0,0 +1,63 @@
+package com.dafreurekadetails.logger;
+
+import ch.qos.logback.classic.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link AppLogger} calls whose level is disabled.
+ * <p>
+ * Run with {@code ./gradlew jmh}; the gc profiler is enabled in build.gradle and
+ * {@code gc.alloc.rate.norm} must stay at ~0 B/op for every benchmark here.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AppLoggerBenchmark {
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(AppLoggerBenchmark.class);
+
+    private String serviceName;
+    private String hostname;
+    private String instanceId;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(AppLoggerBenchmark.class)).setLevel(Level.INFO);
+        MDC.put("transactionId", "0190a2b4-7c1e-7d3f-9a61-2f4e5b6c7d8e");
+        serviceName = "SERVICE-A";
+        hostname = "server-1";
+        instanceId = "server-1:service-a:8080";
+    }
+
+    @Benchmark
+    public void disabledTraceTwoArgs() {
+        APP_LOGGER.trace("Added service {} to host {}", serviceName, hostname);
+    }
+
+    @Benchmark
+    public void disabledDebugOneArg() {
+        APP_LOGGER.debug("Fetching Eureka apps from: {}", hostname);
+    }
+
+    @Benchmark
+    public void disabledDebugNoArgs() {
+        APP_LOGGER.debug("Skipping application with empty name");
+    }
+
+    @Benchmark
+    public void disabledDebugVarargsGuarded() {
+        if (APP_LOGGER.isDebugEnabled()) {
+            APP_LOGGER.debug("Instance {} of {} on {}", instanceId, serviceName, hostname);
+        }
+    }
+}
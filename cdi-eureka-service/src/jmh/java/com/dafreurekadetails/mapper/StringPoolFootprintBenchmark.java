@@ -0,0 +1,83 @@
+package com.dafreurekadetails.mapper;
+
+import com.dafreurekadetails.config.StringPoolProperties;
+import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.service.EurekaClientHelper;
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
+import com.dafreurekadetails.service.strategy.ServiceGroupingStrategy;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the heap footprint of a grouped 50k-instance registry with the {@link StringPool}
+ * disabled ({@code pooled=false}, the previous behavior) and enabled.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=StringPoolFootprintBenchmark}. {@code retainedFootprint}
+ * reports the retained size of the grouped result as the {@code retainedBytes} counter (its time score
+ * includes the heap walk and is not meaningful); {@code groupRegistry} reports time and, through the gc
+ * profiler, {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StringPoolFootprintBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    private byte[] registryJson;
+    private ServiceGroupingStrategy strategy;
+    private JsonNode root;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        registryJson = OBJECT_MAPPER.writeValueAsBytes(EurekaTestDataBuilder.createSyntheticRegistry(500, 100));
+        StringPool stringPool = new StringPool(new StringPoolProperties(pooled, 16384));
+        EurekaClientHelper client = new EurekaClientHelper(null, null, null, null, null) {
+            @Override
+            public JsonNode getEurekaApps(String eurekaURL) {
+                return root;
+            }
+        };
+        strategy = new ServiceGroupingStrategy(client, new InstanceMapper(stringPool), stringPool);
+    }
+
+    //Every iteration parses the payload afresh, so each value starts out as its own String like in production.
+    @Setup(Level.Invocation)
+    public void parseRegistry() throws IOException {
+        root = OBJECT_MAPPER.readTree(registryJson);
+    }
+
+    @Benchmark
+    public GroupedResult groupRegistry() {
+        return strategy.group("http://localhost:8761/eureka");
+    }
+
+    @Benchmark
+    public void retainedFootprint(Footprint footprint) {
+        GroupedResult result = strategy.group("http://localhost:8761/eureka");
+        footprint.retainedBytes = GraphLayout.parseInstance(result).totalSize();
+    }
+}
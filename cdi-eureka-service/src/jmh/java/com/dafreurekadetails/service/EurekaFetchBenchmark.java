@@ -0,0 +1,95 @@
+package com.dafreurekadetails.service;
+
+import com.dafreurekadetails.config.BulkheadProperties;
+import com.dafreurekadetails.config.CircuitBreakerProperties;
+import com.dafreurekadetails.config.GroupingProperties;
+import com.dafreurekadetails.config.RecordingProperties;
+import com.dafreurekadetails.config.StringPoolProperties;
+import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
+import com.dafreurekadetails.recording.RegistryRecorder;
+import com.dafreurekadetails.resilience.UpstreamBulkheads;
+import com.dafreurekadetails.resilience.UpstreamCircuitBreakers;
+import com.dafreurekadetails.service.strategy.ParallelGrouping;
+import com.dafreurekadetails.service.strategy.ServiceGroupingStrategy;
+import com.dafreurekadetails.service.strategy.StatsGroupingStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures queries end to end, socket I/O and JSON parsing included, against a
+ * {@link StubEurekaServer} serving a 50k-instance registry on loopback.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=EurekaFetchBenchmark}. {@code latencyMs} delays every
+ * response on the server, to compare the fixed cost of a round trip with the time spent reading
+ * and grouping the body; {@code parallel} groups the registry in chunks on one thread per processor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EurekaFetchBenchmark {
+
+    @Param({"0", "20"})
+    public int latencyMs;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private StubEurekaServer eureka;
+    private EurekaClientHelper client;
+    private ParallelGrouping parallelGrouping;
+    private ServiceGroupingStrategy serviceStrategy;
+    private StatsGroupingStrategy statsStrategy;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        eureka = StubEurekaServer.withSyntheticRegistry(500, 100).withLatency(Duration.ofMillis(latencyMs));
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(1000);
+        requestFactory.setReadTimeout(30_000);
+        client = new EurekaClientHelper(new RestTemplate(requestFactory),
+                new UpstreamBulkheads(new BulkheadProperties(false, 20, 2, 200, 2.0, 1024)),
+                new UpstreamCircuitBreakers(new CircuitBreakerProperties(false, 3, Duration.ofSeconds(5), Duration.ofSeconds(30), 1024)),
+                new RegistryRecorder(new RecordingProperties(RecordingProperties.Mode.OFF, "unused",
+                        DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), 1.0, true)),
+                new ObjectMapper());
+        StringPool stringPool = new StringPool(new StringPoolProperties(true, 16384));
+        parallelGrouping = new ParallelGrouping(new GroupingProperties(parallel, 20_000, 0));
+        serviceStrategy = new ServiceGroupingStrategy(client, new InstanceMapper(stringPool), stringPool, parallelGrouping);
+        statsStrategy = new StatsGroupingStrategy(client);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parallelGrouping.shutdown();
+        client.shutdown();
+        eureka.close();
+    }
+
+    @Benchmark
+    public GroupedResult fetchAndGroupServices() {
+        return serviceStrategy.group(eureka.url());
+    }
+
+    @Benchmark
+    public GroupedResult streamStats() {
+        return statsStrategy.group(eureka.url());
+    }
+}
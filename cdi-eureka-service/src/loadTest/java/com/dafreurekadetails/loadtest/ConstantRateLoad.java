@@ -0,0 +1,132 @@
+package com.dafreurekadetails.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ConstantRateLoad sends the same request at a fixed rate, each on its own virtual thread, and
+ * records how long each one took into an HdrHistogram.
+ * <p>
+ * Latency is measured from the moment a request was due to be sent, not from when it actually
+ * went out: a request held back by the concurrency limit, or by the generator falling behind,
+ * is charged for its wait. This keeps a stalled service from hiding its stall by slowing down
+ * the load it is measured with (coordinated omission). Requests due during the warmup are sent
+ * but not recorded.
+ */
+final class ConstantRateLoad {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final LoadTestSettings settings;
+    private final HttpRequest request;
+    private final HttpClient client;
+    private final Recorder recorder = new Recorder(3);
+    private final Semaphore inFlight;
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * What a run measured.
+     *
+     * @param histogram latencies of the measured requests, in nanoseconds
+     * @param statuses  measured responses by HTTP status
+     * @param failures  measured requests that got no response at all
+     * @param elapsed   from the first measured request being due to the last one completing
+     */
+    record Result(Histogram histogram, Map<Integer, Long> statuses, long failures, Duration elapsed) {
+
+        long requests() {
+            return histogram.getTotalCount();
+        }
+
+        double throughput() {
+            return requests() / (elapsed.toNanos() / 1e9);
+        }
+    }
+
+    ConstantRateLoad(LoadTestSettings settings, String appsUrl, String body) {
+        this.settings = settings;
+        this.inFlight = new Semaphore(settings.concurrency());
+        this.request = HttpRequest.newBuilder(URI.create(appsUrl))
+                .header("Content-Type", "application/json")
+                .timeout(REQUEST_TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    Result run() throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long due = start + i * interval;
+                if (due >= end) {
+                    break;
+                }
+                waitUntil(due);
+                boolean measured = due >= measureFrom;
+                requests.execute(() -> send(due, measured));
+            }
+        }
+        long elapsed = System.nanoTime() - measureFrom;
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return new Result(recorder.getIntervalHistogram(), counts, failures.sum(), Duration.ofNanos(elapsed));
+    }
+
+    private void send(long due, boolean measured) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        Integer status = null;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            //Counted below; the latency of a failed request is still recorded.
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.release();
+        }
+        if (!measured) {
+            return;
+        }
+        recorder.recordValue(System.nanoTime() - due);
+        if (status == null) {
+            failures.increment();
+        } else {
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+    }
+
+    private static void waitUntil(long due) {
+        for (long remaining = due - System.nanoTime(); remaining > 0; remaining = due - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
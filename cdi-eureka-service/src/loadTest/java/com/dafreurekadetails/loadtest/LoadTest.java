@@ -0,0 +1,111 @@
+package com.dafreurekadetails.loadtest;
+
+import com.dafreurekadetails.CdiEurekaServiceApplication;
+import com.dafreurekadetails.service.StubEurekaServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test of {@code POST /cdi-eureka-service/v1/eureka/apps}: starts a {@link StubEurekaServer}
+ * with a synthetic registry and the service itself in-process, drives the endpoint at a constant
+ * rate (see {@link ConstantRateLoad}), and writes the latency percentiles and throughput to
+ * {@code build/reports/load-test}, next to the full HdrHistogram percentile distribution.
+ * <p>
+ * Run with {@code ./gradlew loadTest}; every {@link LoadTestSettings} field can be set as
+ * {@code -PloadTest.<field>=...}, and properties of the in-process service as
+ * {@code -PloadTest.app.<property>=...}, so that runs with and without a change can be compared
+ * on the same registry shape.
+ */
+public final class LoadTest {
+
+    private static final String APPS_PATH = "/cdi-eureka-service/v1/eureka/apps";
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        StubEurekaServer eureka = null;
+        ConfigurableApplicationContext service = null;
+        try {
+            String eurekaUrl = settings.eurekaUrl();
+            if (eurekaUrl == null) {
+                eureka = StubEurekaServer.withSyntheticRegistry(settings.applications(), settings.instancesPerApplication())
+                        .withLatency(settings.upstreamLatency());
+                eurekaUrl = eureka.url();
+            }
+            String target = settings.target();
+            if (target == null) {
+                service = startService(settings);
+                target = "http://127.0.0.1:" + service.getEnvironment().getProperty("local.server.port");
+            }
+            String body = new ObjectMapper().writeValueAsString(Map.of("eurekaServerURL", eurekaUrl, "groupBy", settings.groupBy()));
+
+            System.out.printf("Sending %d requests/s to %s%s for %s after a %s warmup%n",
+                    settings.rate(), target, APPS_PATH, settings.duration(), settings.warmup());
+            ConstantRateLoad.Result result = new ConstantRateLoad(settings, target + APPS_PATH, body).run();
+            report(settings, result);
+        } finally {
+            if (service != null) {
+                service.close();
+            }
+            if (eureka != null) {
+                eureka.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startService(LoadTestSettings settings) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "eureka.client.enabled=false",
+                "logging.level.com.dafreurekadetails=WARN"));
+        settings.appProperties().forEach((name, value) -> properties.add(name + "=" + value));
+        return new SpringApplicationBuilder(CdiEurekaServiceApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    //Prints the summary and writes it, with the percentile distribution in milliseconds, to the report directory.
+    private static void report(LoadTestSettings settings, ConstantRateLoad.Result result) throws IOException {
+        Histogram histogram = result.histogram();
+        StringBuilder summary = new StringBuilder()
+                .append(String.format("groupBy=%s, registry=%d x %d instances, upstream latency=%s%n",
+                        settings.groupBy(), settings.applications(), settings.instancesPerApplication(), settings.upstreamLatency()))
+                .append(String.format("rate=%d/s, concurrency=%d, duration=%s, warmup=%s, service properties=%s%n",
+                        settings.rate(), settings.concurrency(), settings.duration(), settings.warmup(), settings.appProperties()))
+                .append(String.format("requests=%d, failed=%d, statuses=%s, throughput=%.1f/s%n",
+                        result.requests(), result.failures(), result.statuses(), result.throughput()))
+                .append(String.format("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                        millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                        millis(histogram.getMaxValue())));
+        System.out.print(summary);
+
+        Path directory = Files.createDirectories(Path.of(settings.reportDirectory()));
+        String name = "load-test-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Files.writeString(directory.resolve(name + ".txt"), summary, StandardCharsets.UTF_8);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + ".hgrm")), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+        System.out.println("Reports written to " + directory.toAbsolutePath().resolve(name) + ".{txt,hgrm}");
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,75 @@
+package com.dafreurekadetails.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Settings of a load-test run, read from {@code loadTest.*} system properties (passed on as
+ * {@code -PloadTest.*} by the Gradle task).
+ *
+ * @param rate                    requests started per second, whether or not earlier ones completed
+ * @param concurrency             most requests in flight at once; requests over it wait, and the wait counts
+ * @param duration                how long the measured part of the run lasts
+ * @param warmup                  how long the run goes on before measuring starts
+ * @param groupBy                 grouping asked for in every request
+ * @param applications            services in the stub registry
+ * @param instancesPerApplication instances per service in the stub registry
+ * @param upstreamLatency         delay of every stub Eureka response
+ * @param target                  base URL of an already running service; {@code null} starts one in-process
+ * @param eurekaUrl               Eureka URL put in the requests; {@code null} starts a stub Eureka server
+ * @param reportDirectory         where reports are written
+ * @param appProperties           properties of the in-process service, from {@code loadTest.app.*}
+ */
+public record LoadTestSettings(
+        int rate,
+        int concurrency,
+        Duration duration,
+        Duration warmup,
+        String groupBy,
+        int applications,
+        int instancesPerApplication,
+        Duration upstreamLatency,
+        String target,
+        String eurekaUrl,
+        String reportDirectory,
+        Map<String, String> appProperties
+) {
+    private static final String PREFIX = "loadTest.";
+    private static final String APP_PREFIX = PREFIX + "app.";
+
+    public static LoadTestSettings fromSystemProperties() {
+        Properties properties = System.getProperties();
+        Map<String, String> appProperties = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(APP_PREFIX)) {
+                appProperties.put(name.substring(APP_PREFIX.length()), properties.getProperty(name));
+            }
+        }
+        LoadTestSettings settings = new LoadTestSettings(
+                Integer.parseInt(property("rate", "200")),
+                Integer.parseInt(property("concurrency", "64")),
+                DurationStyle.detectAndParse(property("duration", "60s")),
+                DurationStyle.detectAndParse(property("warmup", "15s")),
+                property("groupBy", "services"),
+                Integer.parseInt(property("applications", "500")),
+                Integer.parseInt(property("instancesPerApplication", "100")),
+                DurationStyle.detectAndParse(property("upstreamLatency", "0ms")),
+                property("target", null),
+                property("eurekaUrl", null),
+                property("reportDirectory", "build/reports/load-test"),
+                appProperties);
+        if (settings.rate() <= 0 || settings.concurrency() <= 0) {
+            throw new IllegalArgumentException("loadTest.rate and loadTest.concurrency must be positive");
+        }
+        return settings;
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
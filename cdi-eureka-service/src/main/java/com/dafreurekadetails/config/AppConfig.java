@@ -1,5 +1,6 @@
 package com.dafreurekadetails.config;
 
+import com.dafreurekadetails.interceptor.TransactionIdPropagationInterceptor;
 import org.apache.http.HttpHeaders;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
@@ -12,9 +13,18 @@ import org.springframework.web.client.RestTemplate;
 @Configuration
 public class AppConfig {
     @Bean
-    public RestTemplate restTemplate() {
+    public RestTemplate restTemplate(TimeoutProperties timeouts) {
         return new RestTemplateBuilder()
+                .requestFactory(() -> requestFactory(timeouts))
                 .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .additionalInterceptors(new TransactionIdPropagationInterceptor())
                 .build();
     }
+
+    private ClientHttpRequestFactory requestFactory(TimeoutProperties timeouts) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) timeouts.connect().toMillis());
+        requestFactory.setReadTimeout((int) timeouts.read().toMillis());
+        return requestFactory;
+    }
 }
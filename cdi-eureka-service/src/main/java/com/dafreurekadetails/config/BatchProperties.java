@@ -0,0 +1,17 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits of batch queries.
+ *
+ * @param maxItems       largest number of queries accepted in one batch
+ * @param maxParallelism number of queries of one batch that run at the same time
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.batch")
+public record BatchProperties(
+        @DefaultValue("50") int maxItems,
+        @DefaultValue("8") int maxParallelism
+) {
+}
@@ -0,0 +1,25 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-target bulkhead settings for calls to Eureka servers.
+ *
+ * @param enabled      whether calls are limited at all
+ * @param initialLimit concurrency limit a new target starts with
+ * @param minLimit     lowest limit the adaptive algorithm may reach
+ * @param maxLimit     highest limit the adaptive algorithm may reach
+ * @param rttTolerance how much slower than the baseline latency a call may be before the limit shrinks
+ * @param maxTargets   number of targets tracked before idle ones are dropped
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.bulkhead")
+public record BulkheadProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("2") int minLimit,
+        @DefaultValue("200") int maxLimit,
+        @DefaultValue("2.0") double rttTolerance,
+        @DefaultValue("1024") int maxTargets
+) {
+}
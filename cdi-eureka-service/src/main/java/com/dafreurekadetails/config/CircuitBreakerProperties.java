@@ -0,0 +1,25 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Per-target circuit breaker settings for calls to Eureka servers.
+ *
+ * @param enabled                 whether failing targets are short-circuited at all
+ * @param failureThreshold        consecutive connectivity failures that open the breaker
+ * @param openDuration            how long a down or timing-out target is failed fast before a probe
+ * @param invalidHostOpenDuration how long an unresolvable host is failed fast before a probe
+ * @param maxTargets              number of targets tracked before closed breakers, then the open one due for a probe soonest, are dropped
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.circuit-breaker")
+public record CircuitBreakerProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("3") int failureThreshold,
+        @DefaultValue("5s") Duration openDuration,
+        @DefaultValue("30s") Duration invalidHostOpenDuration,
+        @DefaultValue("1024") int maxTargets
+) {
+}
@@ -0,0 +1,19 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of parallel grouping of fetched registries.
+ *
+ * @param parallel          whether large registries are mapped and grouped on several threads
+ * @param parallelThreshold smallest number of instances grouped in parallel; smaller registries are grouped on the calling thread
+ * @param parallelism       threads of the grouping pool; 0 uses one per available processor
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.grouping")
+public record GroupingProperties(
+        @DefaultValue("false") boolean parallel,
+        @DefaultValue("20000") int parallelThreshold,
+        @DefaultValue("0") int parallelism
+) {
+}
@@ -0,0 +1,24 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the registry history that serves {@code asOf} queries.
+ *
+ * @param enabled            whether fetched registries are recorded at all
+ * @param maxSize            estimated heap size of one registry's history before its oldest
+ *                           checkpoint and the deltas on top of it are dropped
+ * @param checkpointInterval number of deltas recorded before the next full checkpoint, which bounds
+ *                           how many deltas a reconstruction has to replay
+ * @param maxRegistries      number of Eureka URLs with a history; the least recently recorded is dropped first
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.history")
+public record HistoryProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("32MB") DataSize maxSize,
+        @DefaultValue("16") int checkpointInterval,
+        @DefaultValue("16") int maxRegistries
+) {
+}
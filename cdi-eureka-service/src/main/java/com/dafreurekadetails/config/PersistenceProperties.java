@@ -0,0 +1,22 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of registry snapshot persistence, which lets a restarted instance serve the registries
+ * it cached before the restart while it fetches fresh ones. Needs the snapshot store.
+ *
+ * @param enabled   whether cached snapshots are written to disk and restored on startup
+ * @param directory where snapshot files are kept; should survive redeploys, e.g. a mounted volume
+ * @param maxAge    files older than this are deleted on startup instead of being restored
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.persistence")
+public record PersistenceProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/snapshots") String directory,
+        @DefaultValue("24h") Duration maxAge
+) {
+}
@@ -0,0 +1,31 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the recording and replay of raw Eureka {@code /apps} payloads.
+ *
+ * @param mode         {@code off}; {@code record} to archive every payload fetched from Eureka; or
+ *                     {@code replay} to serve archived payloads instead of calling Eureka at all
+ * @param directory    where the archive's segment files are kept
+ * @param maxSize      total size of the archive before its oldest segments are deleted
+ * @param segmentSize  size at which the archive rolls over to a new segment file
+ * @param replaySpeed  how much faster than recorded the replayed registries change; {@code 1} replays
+ *                     at the original pace
+ * @param replayLoop   whether replay starts over after the last recording, or keeps serving it
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.recording")
+public record RecordingProperties(
+        @DefaultValue("off") Mode mode,
+        @DefaultValue("data/recordings") String directory,
+        @DefaultValue("512MB") DataSize maxSize,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("1.0") double replaySpeed,
+        @DefaultValue("true") boolean replayLoop
+) {
+    public enum Mode {
+        OFF, RECORD, REPLAY
+    }
+}
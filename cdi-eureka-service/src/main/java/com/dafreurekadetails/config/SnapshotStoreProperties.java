@@ -0,0 +1,23 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the off-heap registry snapshot store.
+ *
+ * @param enabled whether queries are served from cached off-heap snapshots at all
+ * @param maxSize total encoded size of all snapshots before the least recently used are evicted;
+ *                must fit in {@code -XX:MaxDirectMemorySize}
+ * @param maxAge  how long a snapshot is served before the registry is fetched again
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.snapshot-store")
+public record SnapshotStoreProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("256MB") DataSize maxSize,
+        @DefaultValue("30s") Duration maxAge
+) {
+}
@@ -0,0 +1,17 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the pool that canonicalizes repeated registry strings.
+ *
+ * @param enabled    whether repeated values share one instance at all
+ * @param maxEntries distinct values kept before the pool is reset
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.string-pool")
+public record StringPoolProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("16384") int maxEntries
+) {
+}
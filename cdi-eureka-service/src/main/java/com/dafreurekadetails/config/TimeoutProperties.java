@@ -0,0 +1,36 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Request time budgets and upstream socket timeouts.
+ *
+ * @param defaultRequest budget used when the caller does not send one
+ * @param maxRequest     upper bound for budgets sent by callers
+ * @param connect        connect timeout of calls to Eureka servers
+ * @param read           read timeout of calls to Eureka servers, a safety net below the request budget
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.timeout")
+public record TimeoutProperties(
+        @DefaultValue("10s") Duration defaultRequest,
+        @DefaultValue("60s") Duration maxRequest,
+        @DefaultValue("2s") Duration connect,
+        @DefaultValue("30s") Duration read
+) {
+    /**
+     * Resolves a caller's budget; caller budgets are capped so a single request cannot hold threads indefinitely.
+     *
+     * @param timeoutMs the caller's budget in milliseconds, or {@code null} or non-positive for the default
+     * @return the budget to enforce
+     */
+    public Duration budgetFor(Long timeoutMs) {
+        if (timeoutMs == null || timeoutMs <= 0) {
+            return defaultRequest;
+        }
+        Duration requested = Duration.ofMillis(timeoutMs);
+        return requested.compareTo(maxRequest) > 0 ? maxRequest : requested;
+    }
+}
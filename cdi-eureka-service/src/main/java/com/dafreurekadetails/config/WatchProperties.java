@@ -0,0 +1,24 @@
+package com.dafreurekadetails.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of registry watch streams.
+ *
+ * @param refreshInterval   pause between two fetches of a watched registry; with the snapshot store
+ *                          enabled, refreshes see new data at most once per {@code snapshot-store.max-age}
+ * @param streamTimeout     how long a watch stream stays open before clients have to reconnect
+ * @param maxRegistries     how many Eureka URLs may be watched at once; watches of further URLs are refused
+ * @param subscriberBacklog how many events may wait for a slow subscriber before its stream is closed
+ */
+@ConfigurationProperties(prefix = "cdi.eureka.watch")
+public record WatchProperties(
+        @DefaultValue("5s") Duration refreshInterval,
+        @DefaultValue("30m") Duration streamTimeout,
+        @DefaultValue("32") int maxRegistries,
+        @DefaultValue("64") int subscriberBacklog
+) {
+}
@@ -1,14 +1,23 @@
 package com.dafreurekadetails.config;
 
 import com.dafreurekadetails.interceptor.TransactionIdInterceptor;
+import com.dafreurekadetails.transaction.TransactionIdGenerator;
+import com.dafreurekadetails.transaction.UuidV7TransactionIdGenerator;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    @Bean
+    public TransactionIdGenerator transactionIdGenerator() {
+        return new UuidV7TransactionIdGenerator();
+    }
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new TransactionIdInterceptor());
+        registry.addInterceptor(new TransactionIdInterceptor(transactionIdGenerator()));
     }
 }
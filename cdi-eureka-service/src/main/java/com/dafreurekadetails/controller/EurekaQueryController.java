@@ -1,12 +1,31 @@
 package com.dafreurekadetails.controller;
 
 import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.dto.recordingdto.RecordingSegment;
+import com.dafreurekadetails.dto.request.BatchQueryRequest;
 import com.dafreurekadetails.dto.request.EurekaQueryRequest;
+import com.dafreurekadetails.dto.request.RegistryDiffRequest;
+import com.dafreurekadetails.dto.request.RegistryLookupRequest;
+import com.dafreurekadetails.dto.request.RegistrySearchRequest;
+import com.dafreurekadetails.dto.request.RegistryWatchRequest;
+import com.dafreurekadetails.dto.response.BatchQueryResponse;
 import com.dafreurekadetails.dto.response.EurekaQueryResponse;
+import com.dafreurekadetails.recording.RegistryRecorder;
+import com.dafreurekadetails.service.BatchQueryService;
 import com.dafreurekadetails.service.EurekaQueryService;
+import com.dafreurekadetails.service.RegistryWatchService;
+import com.dafreurekadetails.snapshot.IndexedField;
 import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.file.Path;
+import java.util.List;
 /**
  * REST controller that exposes endpoints for querying applications from a Eureka server.
  * Accepts grouping instructions and a Eureka URL, and returns grouped data.
@@ -14,23 +33,150 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/cdi-eureka-service/v1/eureka")
 public class EurekaQueryController {
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
     private final EurekaQueryService eurekaQueryService;
-    public EurekaQueryController(EurekaQueryService eurekaQueryService) {
+    private final BatchQueryService batchQueryService;
+    private final RegistryWatchService registryWatchService;
+    private final RegistryRecorder registryRecorder;
+    public EurekaQueryController(EurekaQueryService eurekaQueryService, BatchQueryService batchQueryService,
+                                 RegistryWatchService registryWatchService, RegistryRecorder registryRecorder) {
         this.eurekaQueryService = eurekaQueryService;
+        this.batchQueryService = batchQueryService;
+        this.registryWatchService = registryWatchService;
+        this.registryRecorder = registryRecorder;
     }
 
     /**
      * Receives client requests to fetch and group apps from Eureka.
      *
-     * @param request contains the groupBy key and the Eureka server URL
+     * @param request       contains the groupBy key, the Eureka server URL, an optional time budget
+     *                      and an optional {@code asOf} moment to read from the registry history
+     * @param timeoutHeader optional time budget in milliseconds, used when the body has none
      * @return response entity containing the grouped result and metadata
      */
     @PostMapping("/apps")
-    public ResponseEntity<EurekaQueryResponse<? extends GroupedResult>> getApps(@Valid @RequestBody EurekaQueryRequest request) {
+    public ResponseEntity<EurekaQueryResponse<? extends GroupedResult>> getApps(@Valid @RequestBody EurekaQueryRequest request,
+                                                                                @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long timeoutHeader) {
+        Long timeoutMs = request.timeoutMs() != null ? request.timeoutMs() : timeoutHeader;
+        EurekaQueryResponse<? extends GroupedResult> response = request.asOf() != null
+                ? eurekaQueryService.handleQueryAsOf(request.groupBy(), request.eurekaServerURL(), request.asOf(), timeoutMs)
+                : eurekaQueryService.handleQuery(request.groupBy(), request.eurekaServerURL(), timeoutMs);
+
+        return ResponseEntity.status(response.httpStatusCode()).body(response);
+
+    }
+
+    /**
+     * Answers lookups such as "which services run on host X" or "all DOWN instances" from the
+     * registry's secondary indexes, grouping only the matching instances. The indexes are kept with
+     * the snapshot store's registries, so lookups need the store enabled.
+     *
+     * @param request       contains the groupBy key, the Eureka server URL, the field and value to match
+     *                      and an optional time budget
+     * @param timeoutHeader optional time budget in milliseconds, used when the body has none
+     * @return response entity containing the grouped matching instances and metadata
+     */
+    @PostMapping("/apps/lookup")
+    public ResponseEntity<EurekaQueryResponse<? extends GroupedResult>> lookupApps(@Valid @RequestBody RegistryLookupRequest request,
+                                                                                   @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long timeoutHeader) {
+        Long timeoutMs = request.timeoutMs() != null ? request.timeoutMs() : timeoutHeader;
+        EurekaQueryResponse<? extends GroupedResult> response = eurekaQueryService.handleLookup(
+                request.groupBy(), request.eurekaServerURL(), IndexedField.fromKey(request.field()), request.value(), timeoutMs);
+
+        return ResponseEntity.status(response.httpStatusCode()).body(response);
+    }
+
+    /**
+     * Type-ahead search over the registry's service and host names, answered from a per-snapshot trie.
+     * The tries are kept with the snapshot store's registries, so searches need the store enabled.
+     *
+     * @param request       contains the Eureka server URL, the typed query and optional kind, limit,
+     *                      fuzziness and time budget
+     * @param timeoutHeader optional time budget in milliseconds, used when the body has none
+     * @return response entity containing the best matching names and metadata
+     */
+    @PostMapping("/apps/search")
+    public ResponseEntity<EurekaQueryResponse<? extends GroupedResult>> searchApps(@Valid @RequestBody RegistrySearchRequest request,
+                                                                                   @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long timeoutHeader) {
+        Long timeoutMs = request.timeoutMs() != null ? request.timeoutMs() : timeoutHeader;
+        EurekaQueryResponse<? extends GroupedResult> response = eurekaQueryService.handleSearch(request.eurekaServerURL(),
+                request.query(), request.kindOrDefault(), request.fuzzyOrDefault(), request.limitOrDefault(), timeoutMs);
+
+        return ResponseEntity.status(response.httpStatusCode()).body(response);
+    }
+
+    /**
+     * Compares two registries instance by instance: two Eureka servers, or one server at two moments
+     * when {@code asOf} or {@code compareToAsOf} is given.
+     *
+     * @param request       contains the Eureka server URLs, optional moments of each side and an optional time budget
+     * @param timeoutHeader optional time budget in milliseconds, used when the body has none
+     * @return response entity containing the added, removed and modified instances and metadata
+     */
+    @PostMapping("/apps/diff")
+    public ResponseEntity<EurekaQueryResponse<? extends GroupedResult>> diffApps(@Valid @RequestBody RegistryDiffRequest request,
+                                                                                 @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long timeoutHeader) {
+        Long timeoutMs = request.timeoutMs() != null ? request.timeoutMs() : timeoutHeader;
         EurekaQueryResponse<? extends GroupedResult> response =
-                eurekaQueryService.handleQuery(request.groupBy(), request.eurekaServerURL());
+                eurekaQueryService.handleDiff(request.eurekaServerURL(), request.asOf(),
+                        request.compareToURLOrDefault(), request.compareToAsOf(), timeoutMs);
 
         return ResponseEntity.status(response.httpStatusCode()).body(response);
+    }
+
+    /**
+     * Runs several queries concurrently, e.g. one per cluster, and reports each one's outcome
+     * separately, so one slow or failing Eureka server does not fail the whole batch.
+     *
+     * @param request       contains the queries and an optional time budget for the whole batch
+     * @param timeoutHeader optional time budget in milliseconds, used when the body has none
+     * @return response entity containing one result per query, in request order
+     */
+    @PostMapping("/apps/batch")
+    public ResponseEntity<BatchQueryResponse> batchApps(@Valid @RequestBody BatchQueryRequest request,
+                                                        @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long timeoutHeader) {
+        Long timeoutMs = request.timeoutMs() != null ? request.timeoutMs() : timeoutHeader;
+        BatchQueryResponse response = batchQueryService.handleBatch(request.queries(), timeoutMs);
+
+        return ResponseEntity.status(response.httpStatusCode()).body(response);
+    }
+
+    /**
+     * Streams a registry as Server-Sent Events: one grouped snapshot, then the instances added,
+     * removed or changed in status at every refresh.
+     *
+     * @param request contains the Eureka server URL and the grouping of the initial snapshot
+     * @return the event stream
+     */
+    @GetMapping(value = "/apps/watch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter watchApps(@Valid @ModelAttribute RegistryWatchRequest request) {
+        SseEmitter emitter = registryWatchService.newEmitter();
+        registryWatchService.subscribe(emitter, request.eurekaServerURL(), request.groupBy());
+        return emitter;
+    }
 
+    /**
+     * Lists the segment files of the payload recording archive, oldest first.
+     *
+     * @return the segments with their size, payload count and time range
+     */
+    @GetMapping("/recordings")
+    public ResponseEntity<List<RecordingSegment>> listRecordings() {
+        return ResponseEntity.ok(registryRecorder.segments());
+    }
+
+    /**
+     * Downloads one segment file of the payload recording archive, e.g. to replay it on a load-test instance.
+     *
+     * @param name the segment's file name, as listed by {@code /recordings}
+     * @return the file's content
+     */
+    @GetMapping("/recordings/{name}")
+    public ResponseEntity<Resource> exportRecording(@PathVariable String name) {
+        Path segment = registryRecorder.segment(name);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(segment));
     }
 }
@@ -0,0 +1,65 @@
+package com.dafreurekadetails.deadline;
+
+import com.dafreurekadetails.exception.DeadlineExceededException;
+
+import java.time.Duration;
+
+/**
+ * An absolute point in time by which a request must be answered.
+ * Created once per request from its time budget and checked at every stage boundary.
+ */
+public final class Deadline {
+
+    private final long budgetMillis;
+    private final long expiresAtNanos;
+
+    private Deadline(long budgetMillis, long expiresAtNanos) {
+        this.budgetMillis = budgetMillis;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * Creates a deadline that expires after the given budget, measured from now.
+     *
+     * @param budget the time budget of the request
+     * @return a new deadline
+     */
+    public static Deadline after(Duration budget) {
+        return new Deadline(budget.toMillis(), System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Creates the deadline of a sub-task that has its own budget but must not outlive this deadline.
+     *
+     * @param budget the time budget of the sub-task
+     * @return whichever of this deadline and one after {@code budget} expires first
+     */
+    public Deadline within(Duration budget) {
+        long expiresAt = System.nanoTime() + budget.toNanos();
+        return expiresAt - expiresAtNanos < 0 ? new Deadline(budget.toMillis(), expiresAt) : this;
+    }
+
+    public long budgetMillis() {
+        return budgetMillis;
+    }
+
+    public long remainingNanos() {
+        return expiresAtNanos - System.nanoTime();
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Fails the request if the deadline has passed.
+     *
+     * @param stage the stage about to run, used in the error message
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Request deadline of " + budgetMillis + " ms exceeded before " + stage);
+        }
+    }
+}
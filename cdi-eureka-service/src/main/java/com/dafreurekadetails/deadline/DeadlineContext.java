@@ -0,0 +1,41 @@
+package com.dafreurekadetails.deadline;
+
+/**
+ * Holds the {@link Deadline} of the request running on the current thread, the same way
+ * the MDC holds its transaction ID, so that lower layers can enforce it without every
+ * method signature carrying it.
+ */
+public final class DeadlineContext {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    public static void bind(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the deadline bound to the current thread, or {@code null} if there is none
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Fails the current request if it has a deadline and the deadline has passed.
+     *
+     * @param stage the stage about to run, used in the error message
+     */
+    public static void check(String stage) {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check(stage);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.dafreurekadetails.dto;
+
+import com.dafreurekadetails.dto.diffdto.InstanceDiff;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+@Schema(description = "Registry diff result")
+public record DiffResult(
+        @Schema(description = "Number of instances only in the compared registry", example = "2")
+        int added,
+        @Schema(description = "Number of instances only in the base registry", example = "1")
+        int removed,
+        @Schema(description = "Number of instances in both registries with different fields", example = "3")
+        int modified,
+        @Schema(description = "Number of instances identical in both registries", example = "412")
+        int unchanged,
+        @Schema(description = "The added, removed and modified instances")
+        List<InstanceDiff> differences) implements GroupedResult {
+}
@@ -0,0 +1,11 @@
+package com.dafreurekadetails.dto;
+
+import com.dafreurekadetails.dto.searchdto.NameMatch;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+@Schema(description = "Name search result")
+public record SearchResult(
+        @Schema(description = "Matching names, best first")
+        List<NameMatch> matches) implements GroupedResult {
+}
@@ -0,0 +1,9 @@
+package com.dafreurekadetails.dto;
+
+import com.dafreurekadetails.dto.statsdto.RegistryStats;
+import io.swagger.v3.oas.annotations.media.Schema;
+@Schema(description = "Aggregate-only result")
+public record StatsResult(
+        @Schema(description = "Instance counts per service, host, status and zone")
+        RegistryStats stats) implements GroupedResult {
+}
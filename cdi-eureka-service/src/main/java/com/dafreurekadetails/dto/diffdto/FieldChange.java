@@ -0,0 +1,12 @@
+package com.dafreurekadetails.dto.diffdto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+@Schema(description = "A field whose value differs between the two registries")
+public record FieldChange(
+        @Schema(description = "Name of the field", example = "status")
+        String field,
+        @Schema(description = "Value in the base registry", example = "UP")
+        String base,
+        @Schema(description = "Value in the compared registry", example = "DOWN")
+        String target) {
+}
@@ -0,0 +1,23 @@
+package com.dafreurekadetails.dto.diffdto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+@Schema(description = "An instance that is only in one of the registries, or differs between them")
+public record InstanceDiff(
+        @Schema(description = "added: only in the compared registry; removed: only in the base one; modified: in both with different fields",
+                example = "modified")
+        String change,
+        @Schema(description = "Name of the service the instance belongs to", example = "ORDER-SERVICE")
+        String serviceName,
+        @Schema(description = "Eureka instance ID", example = "host-1:order-service:8080")
+        String instanceId,
+        @Schema(description = "Host the instance runs on, in the compared registry unless removed", example = "host-1")
+        String hostName,
+        @Schema(description = "The differing fields; empty for added and removed instances")
+        List<FieldChange> fields) {
+
+    public static final String ADDED = "added";
+    public static final String REMOVED = "removed";
+    public static final String MODIFIED = "modified";
+}
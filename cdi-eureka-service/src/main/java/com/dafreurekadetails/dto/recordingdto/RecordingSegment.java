@@ -0,0 +1,16 @@
+package com.dafreurekadetails.dto.recordingdto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+@Schema(description = "A segment file of the payload recording archive")
+public record RecordingSegment(
+        @Schema(description = "File name, used to download the segment", example = "recording-1700000000000.bin")
+        String name,
+        @Schema(description = "Size of the file in bytes", example = "67108864")
+        long sizeBytes,
+        @Schema(description = "Number of payloads recorded in the segment", example = "1200")
+        int payloads,
+        @Schema(description = "When the first payload of the segment was fetched, epoch milliseconds", example = "1700000000000")
+        Long firstRecordedAt,
+        @Schema(description = "When the last payload of the segment was fetched, epoch milliseconds", example = "1700000360000")
+        Long lastRecordedAt) {
+}
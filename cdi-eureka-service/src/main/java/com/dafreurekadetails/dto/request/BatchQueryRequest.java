@@ -0,0 +1,22 @@
+package com.dafreurekadetails.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+
+import java.util.List;
+
+public record BatchQueryRequest(
+        @NotEmpty(message = "queries must contain at least one query.")
+        @Schema(description = "Queries to run concurrently; each may carry its own timeoutMs within the batch budget")
+        List<@Valid EurekaQueryRequest> queries,
+        @Positive(message = "timeoutMs must be a positive number of milliseconds")
+        @Schema(description = "Time budget of the whole batch in milliseconds. Falls back to the X-Request-Timeout-Ms header, then to the server default.",
+                example = "5000")
+        Long timeoutMs
+) {
+    public BatchQueryRequest(List<EurekaQueryRequest> queries) {
+        this(queries, null);
+    }
+}
@@ -1,7 +1,9 @@
 package com.dafreurekadetails.dto.request;
 
+import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 
 public record EurekaQueryRequest(
         @NotBlank(message = "Eureka server URL must not be blank.")
@@ -11,8 +13,23 @@ public record EurekaQueryRequest(
         )
         String eurekaServerURL,
         @NotBlank(message = "GroupBy parameter is required.")
-        @Pattern(regexp = "^(servers|services)$", flags = Pattern.Flag.CASE_INSENSITIVE,
-                message = "groupBy must be either 'servers' or 'services'")
-        String groupBy
+        @Pattern(regexp = "^(servers|services|stats)$", flags = Pattern.Flag.CASE_INSENSITIVE,
+                message = "groupBy must be one of 'servers', 'services' or 'stats'")
+        String groupBy,
+        @Positive(message = "timeoutMs must be a positive number of milliseconds")
+        @Schema(description = "Time budget of the request in milliseconds. Falls back to the X-Request-Timeout-Ms header, then to the server default.",
+                example = "2000")
+        Long timeoutMs,
+        @Positive(message = "asOf must be a positive epoch timestamp in milliseconds")
+        @Schema(description = "Returns the registry as last recorded at or before this moment, in milliseconds since the epoch, from the registry history instead of the live server.",
+                example = "1760000000000")
+        Long asOf
 ) {
+    public EurekaQueryRequest(String eurekaServerURL, String groupBy) {
+        this(eurekaServerURL, groupBy, null);
+    }
+
+    public EurekaQueryRequest(String eurekaServerURL, String groupBy, Long timeoutMs) {
+        this(eurekaServerURL, groupBy, timeoutMs, null);
+    }
 }
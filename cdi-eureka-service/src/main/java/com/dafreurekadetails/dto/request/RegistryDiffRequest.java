@@ -0,0 +1,47 @@
+package com.dafreurekadetails.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+public record RegistryDiffRequest(
+        @NotBlank(message = "Eureka server URL must not be blank.")
+        @Pattern(
+                regexp = "^https?://[\\w.-]+(:\\d+)?/eureka/?$",
+                message = "Eureka server URL must start with http:// or https://, contain a valid host, and end with /eureka"
+        )
+        @Schema(description = "The Eureka server to compare from", example = "http://eureka1:8761/eureka")
+        String eurekaServerURL,
+        @Pattern(
+                regexp = "^https?://[\\w.-]+(:\\d+)?/eureka/?$",
+                message = "compareToURL must start with http:// or https://, contain a valid host, and end with /eureka"
+        )
+        @Schema(description = "The Eureka server to compare to. Defaults to eurekaServerURL, e.g. to compare a server with itself at another moment.",
+                example = "http://eureka2:8761/eureka")
+        String compareToURL,
+        @Positive(message = "timeoutMs must be a positive number of milliseconds")
+        @Schema(description = "Time budget of the request in milliseconds. Falls back to the X-Request-Timeout-Ms header, then to the server default.",
+                example = "2000")
+        Long timeoutMs,
+        @Positive(message = "asOf must be a positive epoch timestamp in milliseconds")
+        @Schema(description = "Compares from eurekaServerURL's registry as last recorded at or before this moment, in milliseconds since the epoch, instead of the live one.",
+                example = "1760000000000")
+        Long asOf,
+        @Positive(message = "compareToAsOf must be a positive epoch timestamp in milliseconds")
+        @Schema(description = "Compares to compareToURL's registry as last recorded at or before this moment, in milliseconds since the epoch, instead of the live one.",
+                example = "1760000600000")
+        Long compareToAsOf
+) {
+    public RegistryDiffRequest(String eurekaServerURL, String compareToURL) {
+        this(eurekaServerURL, compareToURL, null);
+    }
+
+    public RegistryDiffRequest(String eurekaServerURL, String compareToURL, Long timeoutMs) {
+        this(eurekaServerURL, compareToURL, timeoutMs, null, null);
+    }
+
+    public String compareToURLOrDefault() {
+        return compareToURL != null ? compareToURL : eurekaServerURL;
+    }
+}
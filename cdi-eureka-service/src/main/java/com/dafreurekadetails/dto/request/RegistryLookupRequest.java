@@ -0,0 +1,35 @@
+package com.dafreurekadetails.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+public record RegistryLookupRequest(
+        @NotBlank(message = "Eureka server URL must not be blank.")
+        @Pattern(
+                regexp = "^https?://[\\w.-]+(:\\d+)?/eureka/?$",
+                message = "Eureka server URL must start with http:// or https://, contain a valid host, and end with /eureka"
+        )
+        String eurekaServerURL,
+        @NotBlank(message = "GroupBy parameter is required.")
+        @Pattern(regexp = "^(servers|services|stats)$", flags = Pattern.Flag.CASE_INSENSITIVE,
+                message = "groupBy must be one of 'servers', 'services' or 'stats'")
+        String groupBy,
+        @NotBlank(message = "Field parameter is required.")
+        @Pattern(regexp = "^(host|ip|status|zone|version)$", flags = Pattern.Flag.CASE_INSENSITIVE,
+                message = "field must be one of 'host', 'ip', 'status', 'zone' or 'version'")
+        @Schema(description = "Indexed instance field to match on", example = "status")
+        String field,
+        @NotBlank(message = "Value parameter is required.")
+        @Schema(description = "Value the field must equal; status is matched case-insensitively", example = "DOWN")
+        String value,
+        @Positive(message = "timeoutMs must be a positive number of milliseconds")
+        @Schema(description = "Time budget of the request in milliseconds. Falls back to the X-Request-Timeout-Ms header, then to the server default.",
+                example = "2000")
+        Long timeoutMs
+) {
+    public RegistryLookupRequest(String eurekaServerURL, String groupBy, String field, String value) {
+        this(eurekaServerURL, groupBy, field, value, null);
+    }
+}
@@ -0,0 +1,52 @@
+package com.dafreurekadetails.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+public record RegistrySearchRequest(
+        @NotBlank(message = "Eureka server URL must not be blank.")
+        @Pattern(
+                regexp = "^https?://[\\w.-]+(:\\d+)?/eureka/?$",
+                message = "Eureka server URL must start with http:// or https://, contain a valid host, and end with /eureka"
+        )
+        String eurekaServerURL,
+        @NotBlank(message = "Query parameter is required.")
+        @Schema(description = "Typed prefix of a service or host name, matched case-insensitively", example = "ord")
+        String query,
+        @Pattern(regexp = "^(all|services|hosts)$", flags = Pattern.Flag.CASE_INSENSITIVE,
+                message = "kind must be one of 'all', 'services' or 'hosts'")
+        @Schema(description = "Which names to search; defaults to all", example = "services")
+        String kind,
+        @Min(value = 1, message = "limit must be between 1 and 100")
+        @Max(value = 100, message = "limit must be between 1 and 100")
+        @Schema(description = "Maximum number of matches; defaults to 10", example = "10")
+        Integer limit,
+        @Schema(description = "Whether to tolerate typos in the query", example = "false")
+        Boolean fuzzy,
+        @Positive(message = "timeoutMs must be a positive number of milliseconds")
+        @Schema(description = "Time budget of the request in milliseconds. Falls back to the X-Request-Timeout-Ms header, then to the server default.",
+                example = "2000")
+        Long timeoutMs
+) {
+    public static final int DEFAULT_LIMIT = 10;
+
+    public RegistrySearchRequest(String eurekaServerURL, String query) {
+        this(eurekaServerURL, query, null, null, null, null);
+    }
+
+    public String kindOrDefault() {
+        return kind != null ? kind : "all";
+    }
+
+    public int limitOrDefault() {
+        return limit != null ? limit : DEFAULT_LIMIT;
+    }
+
+    public boolean fuzzyOrDefault() {
+        return Boolean.TRUE.equals(fuzzy);
+    }
+}
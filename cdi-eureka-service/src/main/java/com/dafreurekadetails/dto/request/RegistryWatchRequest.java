@@ -0,0 +1,21 @@
+package com.dafreurekadetails.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+public record RegistryWatchRequest(
+        @NotBlank(message = "Eureka server URL must not be blank.")
+        @Pattern(
+                regexp = "^https?://[\\w.-]+(:\\d+)?/eureka/?$",
+                message = "Eureka server URL must start with http:// or https://, contain a valid host, and end with /eureka"
+        )
+        String eurekaServerURL,
+        @NotBlank(message = "GroupBy parameter is required.")
+        @Pattern(regexp = "^(servers|services|stats)$", flags = Pattern.Flag.CASE_INSENSITIVE,
+                message = "groupBy must be one of 'servers', 'services' or 'stats'")
+        @Schema(description = "Grouping of the initial snapshot; the following change events are the same for every grouping",
+                example = "services")
+        String groupBy
+) {
+}
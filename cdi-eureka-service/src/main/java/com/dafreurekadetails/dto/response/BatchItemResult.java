@@ -0,0 +1,50 @@
+package com.dafreurekadetails.dto.response;
+
+import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.dto.ServerResult;
+import com.dafreurekadetails.dto.ServiceResult;
+import com.dafreurekadetails.dto.StatsResult;
+import com.dafreurekadetails.dto.request.EurekaQueryRequest;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * The outcome of one query of a batch.
+ *
+ * @param eurekaServerURL the queried Eureka server
+ * @param groupBy         the requested grouping
+ * @param returnCode      standardized return code of this query
+ * @param message         human-readable message about this query
+ * @param httpStatusCode  HTTP status this query would have had on its own
+ * @param elapsedTime     time taken by this query in milliseconds
+ * @param data            the grouped result, absent if the query failed
+ */
+@Schema(name = "BatchItemResult", description = "Result of one query of a batch.")
+public record BatchItemResult(
+        @Schema(description = "The queried Eureka server URL.", example = "http://localhost:8761/eureka")
+        String eurekaServerURL,
+        @Schema(description = "The requested grouping.", example = "servers")
+        String groupBy,
+        @Schema(description = "Standardized return code of this query.", example = "SUCCESS")
+        String returnCode,
+        @Schema(description = "Human-readable message about this query.", example = "Request completed successfully.")
+        String message,
+        @Schema(description = "HTTP status this query would have had on its own.", example = "200")
+        int httpStatusCode,
+        @Schema(description = "Time taken by this query in milliseconds.", example = "85.0")
+        double elapsedTime,
+        @JsonUnwrapped
+        @Schema(description = "Grouped data of this query, unwrapped as in single queries; absent if the query failed.",
+                oneOf = { ServerResult.class, ServiceResult.class, StatsResult.class })
+        GroupedResult data
+) {
+    public static BatchItemResult success(EurekaQueryRequest query, double elapsed, GroupedResult data) {
+        return new BatchItemResult(query.eurekaServerURL(), query.groupBy(), ReturnCode.SUCCESS.getCode(),
+                ReturnCode.SUCCESS.getMessage(), ReturnCode.SUCCESS.status(), elapsed, data);
+    }
+
+    public static BatchItemResult failure(EurekaQueryRequest query, double elapsed, ReturnCode rc, String message) {
+        return new BatchItemResult(query.eurekaServerURL(), query.groupBy(), rc.getCode(),
+                message != null ? message : rc.getMessage(), rc.status(), elapsed, null);
+    }
+}
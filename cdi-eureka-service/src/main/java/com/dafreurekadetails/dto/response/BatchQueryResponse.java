@@ -0,0 +1,33 @@
+package com.dafreurekadetails.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Response of a batch query. The batch succeeds as a whole as long as one of its queries succeeded;
+ * each query reports its own outcome in {@code results}, in request order.
+ *
+ * @param returnCode     standardized return code of the batch, that of its queries if none succeeded
+ * @param message        summary of how many queries succeeded
+ * @param httpStatusCode HTTP status code of the batch
+ * @param transactionID  unique ID for tracing the request lifecycle
+ * @param elapsedTime    time taken by the whole batch in milliseconds
+ * @param results        one result per query, in request order
+ */
+@Schema(name = "BatchQueryResponse", description = "Per-query results of a batch query.")
+public record BatchQueryResponse(
+        @Schema(description = "Standardized return code of the batch.", example = "SUCCESS")
+        String returnCode,
+        @Schema(description = "Summary of the batch.", example = "29 of 30 queries succeeded.")
+        String message,
+        @Schema(description = "HTTP status code of the batch.", example = "200")
+        int httpStatusCode,
+        @Schema(description = "Unique transaction ID for tracing the request.", example = "f6e6f1f8-379e-45d3-b7cb-0cc9d823a7f6")
+        String transactionID,
+        @Schema(description = "Time taken by the whole batch in milliseconds.", example = "412.0")
+        double elapsedTime,
+        @Schema(description = "One result per query, in request order.")
+        List<BatchItemResult> results
+) {
+}
@@ -1,8 +1,11 @@
 package com.dafreurekadetails.dto.response;
 
+import com.dafreurekadetails.dto.DiffResult;
 import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.dto.SearchResult;
 import com.dafreurekadetails.dto.ServerResult;
 import com.dafreurekadetails.dto.ServiceResult;
+import com.dafreurekadetails.dto.StatsResult;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -31,8 +34,8 @@ public record EurekaQueryResponse<T extends GroupedResult>(
         double elapsedTime,
         @JsonUnwrapped
         @Schema(description = "Polymorphic response data. The actual JSON response does not contain a `data` field.  " +
-                "Instead, fields from either ServerResult (`servers`) or ServiceResult (`services`) appear directly at the root level.",
-                oneOf = { ServerResult.class, ServiceResult.class })
+                "Instead, fields from ServerResult (`servers`), ServiceResult (`services`), StatsResult (`stats`) or SearchResult (`matches`) appear directly at the root level.",
+                oneOf = { ServerResult.class, ServiceResult.class, StatsResult.class, SearchResult.class, DiffResult.class })
         T data
 ) {
     /**
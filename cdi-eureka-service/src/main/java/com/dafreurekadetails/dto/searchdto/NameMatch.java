@@ -0,0 +1,14 @@
+package com.dafreurekadetails.dto.searchdto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+@Schema(description = "A service or host name matching a search")
+public record NameMatch(
+        @Schema(description = "The matched name as registered in Eureka", example = "ORDER-SERVICE")
+        String name,
+        @Schema(description = "Whether the name is a service or a host", example = "service")
+        String kind,
+        @Schema(description = "Number of instances carrying the name", example = "4")
+        int instances,
+        @Schema(description = "Number of typos between the query and the name; always 0 for exact prefix matches", example = "0")
+        int distance) {
+}
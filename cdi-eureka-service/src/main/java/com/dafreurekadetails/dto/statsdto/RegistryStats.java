@@ -0,0 +1,20 @@
+package com.dafreurekadetails.dto.statsdto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+@Schema(description = "Instance counts of a registry")
+public record RegistryStats(
+        @Schema(description = "Number of services with at least one instance", example = "42")
+        int applications,
+        @Schema(description = "Total number of instances", example = "310")
+        int instances,
+        @Schema(description = "Number of instances per service name")
+        Map<String, Integer> instancesPerService,
+        @Schema(description = "Number of instances per host name; instances without one are counted under UNKNOWN")
+        Map<String, Integer> instancesPerHost,
+        @Schema(description = "Number of instances per status; instances without one are counted under UNKNOWN")
+        Map<String, Integer> instancesPerStatus,
+        @Schema(description = "Number of instances per zone; instances without one are counted under UNKNOWN")
+        Map<String, Integer> instancesPerZone) {
+}
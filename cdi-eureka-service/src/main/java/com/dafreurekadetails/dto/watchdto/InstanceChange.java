@@ -0,0 +1,22 @@
+package com.dafreurekadetails.dto.watchdto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+@Schema(description = "An instance that appeared, disappeared or changed status between two registry refreshes")
+public record InstanceChange(
+        @Schema(description = "What happened to the instance: added, removed or status", example = "status")
+        String change,
+        @Schema(description = "Name of the service the instance belongs to", example = "ORDER-SERVICE")
+        String serviceName,
+        @Schema(description = "Eureka instance ID", example = "host-1:order-service:8080")
+        String instanceId,
+        @Schema(description = "Host the instance runs on", example = "host-1")
+        String hostName,
+        @Schema(description = "Current status; the last known status for removed instances", example = "DOWN")
+        String status,
+        @Schema(description = "Status before the change; only set for status changes", example = "UP")
+        String previousStatus) {
+
+    public static final String ADDED = "added";
+    public static final String REMOVED = "removed";
+    public static final String STATUS = "status";
+}
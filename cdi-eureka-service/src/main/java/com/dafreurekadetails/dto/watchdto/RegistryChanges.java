@@ -0,0 +1,14 @@
+package com.dafreurekadetails.dto.watchdto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+@Schema(description = "Changes of a watched registry since the previous event")
+public record RegistryChanges(
+        @Schema(description = "The watched Eureka server URL", example = "http://localhost:8761/eureka")
+        String eurekaServerURL,
+        @Schema(description = "Sequence number of this change set; also sent as the SSE event id", example = "42")
+        long sequence,
+        @Schema(description = "Instances added, removed or changed in status")
+        List<InstanceChange> changes) {
+}
@@ -0,0 +1,15 @@
+package com.dafreurekadetails.exception;
+
+/**
+ * Thrown when a request's own time budget runs out, as opposed to the Eureka server timing out.
+ */
+public class DeadlineExceededException extends EurekaTimeoutException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
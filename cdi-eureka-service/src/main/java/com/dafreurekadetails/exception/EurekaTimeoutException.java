@@ -4,6 +4,12 @@ import com.dafreurekadetails.dto.response.ReturnCode;
 
 public class EurekaTimeoutException extends ApiException {
 
+    public EurekaTimeoutException(String message) {
+        super(
+                ReturnCode.TIMEOUT,
+                message);
+    }
+
     public EurekaTimeoutException(String message, Throwable cause) {
         super(
                 ReturnCode.TIMEOUT,
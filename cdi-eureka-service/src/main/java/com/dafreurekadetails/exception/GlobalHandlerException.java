@@ -4,6 +4,7 @@ import com.dafreurekadetails.dto.GroupedResult;
 import com.dafreurekadetails.dto.response.EurekaQueryResponse;
 import com.dafreurekadetails.dto.response.ReturnCode;
 import com.dafreurekadetails.logger.AppLogger;
+import com.dafreurekadetails.transaction.TransactionIdGenerator;
 import org.slf4j.MDC;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -11,12 +12,16 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.util.UUID;
-
 
 @RestControllerAdvice
 public class GlobalHandlerException {
 
+    private final TransactionIdGenerator transactionIdGenerator;
+
+    public GlobalHandlerException(TransactionIdGenerator transactionIdGenerator) {
+        this.transactionIdGenerator = transactionIdGenerator;
+    }
+
     @ExceptionHandler(ApiException.class)
     public ResponseEntity<EurekaQueryResponse<GroupedResult>> handleApi(ApiException ex) {
         String transactionId = getTransactionId();
@@ -64,6 +69,6 @@ public class GlobalHandlerException {
     }
     private String getTransactionId() {
         String transactionId = MDC.get("transactionId");
-        return transactionId != null ? transactionId : UUID.randomUUID().toString();
+        return transactionId != null ? transactionId : transactionIdGenerator.generate();
     }
 }
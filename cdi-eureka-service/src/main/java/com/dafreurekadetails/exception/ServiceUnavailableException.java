@@ -7,6 +7,10 @@ public class ServiceUnavailableException extends ApiException{
         super(ReturnCode.SERVICE_DOWN, message);
     }
 
+    public ServiceUnavailableException(ReturnCode returnCode, String message) {
+        super(returnCode, message);
+    }
+
     public ServiceUnavailableException(ReturnCode returnCode,String message, Throwable cause) {
         super(
                 returnCode,
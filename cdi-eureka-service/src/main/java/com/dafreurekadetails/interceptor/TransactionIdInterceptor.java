@@ -1,24 +1,44 @@
 package com.dafreurekadetails.interceptor;
 
+import com.dafreurekadetails.transaction.TransactionIdGenerator;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.MDC;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.util.UUID;
+import java.util.Objects;
 /**
- * Interceptor that generates a unique transaction ID for each incoming HTTP request.
- * The transaction ID is stored in the request attributes and in the MDC for logging.
+ * Interceptor that assigns a transaction ID to each incoming HTTP request.
+ * <p>
+ * If the caller already sent an {@value #TRANSACTION_ID_HEADER} header with a well-formed value,
+ * that ID is reused so a request keeps one ID across the service chain; otherwise a new one is
+ * created by the configured {@link TransactionIdGenerator}.
+ * The transaction ID is stored in the request attributes and in the MDC for logging,
+ * and echoed back in the response header.
  */
 public class TransactionIdInterceptor implements HandlerInterceptor {
+
+    public static final String TRANSACTION_ID_HEADER = "X-Transaction-Id";
+    private static final int MAX_TRANSACTION_ID_LENGTH = 64;
+
+    private final TransactionIdGenerator transactionIdGenerator;
+
+    public TransactionIdInterceptor(TransactionIdGenerator transactionIdGenerator) {
+        this.transactionIdGenerator = Objects.requireNonNull(transactionIdGenerator, "TransactionIdGenerator cannot be null");
+    }
+
     /**
-     * Generates a UUID as a transaction ID and stores it in both the request and MDC.
+     * Resolves the transaction ID and stores it in the request, the MDC and the response header.
      */
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        String transactionId = UUID.randomUUID().toString();
+        String transactionId = request.getHeader(TRANSACTION_ID_HEADER);
+        if (!isValid(transactionId)) {
+            transactionId = transactionIdGenerator.generate();
+        }
         request.setAttribute("transactionId", transactionId);
         MDC.put("transactionId", transactionId);
+        response.setHeader(TRANSACTION_ID_HEADER, transactionId);
         return true;
     }
     /**
@@ -28,4 +48,20 @@ public class TransactionIdInterceptor implements HandlerInterceptor {
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
         MDC.remove("transactionId");
     }
+
+    //Incoming IDs end up in logs and headers, so only short IDs made of safe characters are accepted.
+    static boolean isValid(String transactionId) {
+        if (transactionId == null || transactionId.isEmpty() || transactionId.length() > MAX_TRANSACTION_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < transactionId.length(); i++) {
+            char c = transactionId.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == ':';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,24 @@
+package com.dafreurekadetails.interceptor;
+
+import org.slf4j.MDC;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+/**
+ * RestTemplate interceptor that forwards the current transaction ID to upstream calls
+ * in the {@value TransactionIdInterceptor#TRANSACTION_ID_HEADER} header.
+ */
+public class TransactionIdPropagationInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String transactionId = MDC.get("transactionId");
+        if (transactionId != null && !request.getHeaders().containsKey(TransactionIdInterceptor.TRANSACTION_ID_HEADER)) {
+            request.getHeaders().set(TransactionIdInterceptor.TRANSACTION_ID_HEADER, transactionId);
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -2,10 +2,15 @@ package com.dafreurekadetails.logger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 
 /**
- * Wrapper class around SLF4J logger that enriches logs with transaction ID for traceability.
+ * Wrapper class around SLF4J logger used across the service.
+ * <p>
+ * Every method checks the level before doing any work, and the fixed-arity overloads
+ * let callers with one or two arguments avoid the varargs array, so disabled
+ * {@code debug} and {@code trace} calls cost a level check only.
+ * The transaction ID is not added here; it is rendered from the {@code transactionId}
+ * MDC entry by the log pattern (see {@code logging.pattern.level} in application.yml).
  */
 public class AppLogger {
     private final Logger logger;
@@ -24,46 +29,118 @@ public class AppLogger {
         return new AppLogger(clazz);
     }
 
-    //Prepends the transaction ID (if present) to all log messages.
-    private String formatMessage(String message) {
-        String transactionId = MDC.get("transactionId");
-        if (transactionId != null) {
-            return "[TxID: " + transactionId + "] " + message;
-        }
-        return message;
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    public boolean isTraceEnabled() {
+        return logger.isTraceEnabled();
     }
-    // Log methods enriched with transaction ID
+
+    // Log methods guarded by level checks
     public void info(String message) {
-        logger.info(formatMessage(message));
+        if (logger.isInfoEnabled()) {
+            logger.info(message);
+        }
+    }
+    public void info(String message, Object arg) {
+        if (logger.isInfoEnabled()) {
+            logger.info(message, arg);
+        }
+    }
+    public void info(String message, Object arg1, Object arg2) {
+        if (logger.isInfoEnabled()) {
+            logger.info(message, arg1, arg2);
+        }
     }
     public void info(String message, Object... args) {
-        logger.info(formatMessage(message), args);
+        if (logger.isInfoEnabled()) {
+            logger.info(message, args);
+        }
     }
     public void debug(String message) {
-        logger.debug(formatMessage(message));
+        if (logger.isDebugEnabled()) {
+            logger.debug(message);
+        }
+    }
+    public void debug(String message, Object arg) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(message, arg);
+        }
+    }
+    public void debug(String message, Object arg1, Object arg2) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(message, arg1, arg2);
+        }
     }
     public void debug(String message, Object... args) {
-        logger.debug(formatMessage(message), args);
+        if (logger.isDebugEnabled()) {
+            logger.debug(message, args);
+        }
     }
     public void warn(String message) {
-        logger.warn(formatMessage(message));
+        if (logger.isWarnEnabled()) {
+            logger.warn(message);
+        }
+    }
+    public void warn(String message, Object arg) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(message, arg);
+        }
+    }
+    public void warn(String message, Object arg1, Object arg2) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(message, arg1, arg2);
+        }
     }
     public void warn(String message, Object... args) {
-        logger.warn(formatMessage(message), args);
+        if (logger.isWarnEnabled()) {
+            logger.warn(message, args);
+        }
     }
     public void error(String message) {
-        logger.error(formatMessage(message));
+        if (logger.isErrorEnabled()) {
+            logger.error(message);
+        }
     }
     public void error(String message, Throwable throwable) {
-        logger.error(formatMessage(message), throwable);
+        if (logger.isErrorEnabled()) {
+            logger.error(message, throwable);
+        }
+    }
+    public void error(String message, Object arg) {
+        if (logger.isErrorEnabled()) {
+            logger.error(message, arg);
+        }
+    }
+    public void error(String message, Object arg1, Object arg2) {
+        if (logger.isErrorEnabled()) {
+            logger.error(message, arg1, arg2);
+        }
     }
     public void error(String message, Object... args) {
-        logger.error(formatMessage(message), args);
+        if (logger.isErrorEnabled()) {
+            logger.error(message, args);
+        }
     }
     public void trace(String message) {
-        logger.trace(formatMessage(message));
+        if (logger.isTraceEnabled()) {
+            logger.trace(message);
+        }
+    }
+    public void trace(String message, Object arg) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(message, arg);
+        }
+    }
+    public void trace(String message, Object arg1, Object arg2) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(message, arg1, arg2);
+        }
     }
     public void trace(String message, Object... args) {
-        logger.trace(formatMessage(message), args);
+        if (logger.isTraceEnabled()) {
+            logger.trace(message, args);
+        }
     }
 }
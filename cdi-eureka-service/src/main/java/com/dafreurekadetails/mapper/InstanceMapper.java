@@ -4,17 +4,24 @@ import com.dafreurekadetails.dto.base.BaseInstanceDetail;
 import com.dafreurekadetails.dto.base.LeaseInfo;
 import com.dafreurekadetails.dto.base.Metadata;
 import com.dafreurekadetails.dto.servicedto.ServiceDetail;
+import com.dafreurekadetails.snapshot.RegistrySnapshot;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
 /**
  * Utility component responsible for mapping raw JSON from Eureka
  * into strongly typed Java DTOs like {@link BaseInstanceDetail}, {@link Metadata}, and {@link LeaseInfo}.
+ * Low-cardinality fields are canonicalized through the {@link StringPool}.
  */
 @Component
 public class InstanceMapper {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringPool stringPool;
+
+    public InstanceMapper(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
 
     /**
      * Maps a JSON node representing an instance to a {@link BaseInstanceDetail}.
@@ -34,7 +41,7 @@ public class InstanceMapper {
                 instanceNode.path("healthCheckUrl").asText(null),
                 instanceNode.path("homePageUrl").asText(null),
                 instanceNode.path("statusPageUrl").asText(null),
-                instanceNode.path("status").asText(""),
+                stringPool.canonical(instanceNode.path("status").asText("")),
                 instanceNode.path("lastUpdatedTimestamp").asLong(0L),
                 instanceNode.path("lastDirtyTimestamp").asLong(0L),
                 instanceNode.path("isCoordinatingDiscoveryServer").asBoolean(false),
@@ -43,6 +50,37 @@ public class InstanceMapper {
         );
     }
 
+    /**
+     * Maps a whole Eureka applications response into a columnar {@link RegistrySnapshot}.
+     * Applications without a name are skipped; instances without a host are kept, since each
+     * grouping strategy treats them differently.
+     *
+     * @param root the root JSON node returned by the Eureka server
+     * @return the snapshot of all registered instances
+     */
+    public RegistrySnapshot mapToSnapshot(JsonNode root) {
+        RegistrySnapshot.Builder builder = RegistrySnapshot.builder();
+        for (JsonNode appNode : root.path("applications").path("application")) {
+            String app = stringPool.canonical(appNode.path("name").asText(null));
+            if (app == null || app.isBlank()) {
+                continue;
+            }
+            JsonNode instances = appNode.path("instance");
+            if (instances.isObject()) {
+                addToSnapshot(builder, app, instances);
+            } else {
+                for (JsonNode instanceNode : instances) {
+                    addToSnapshot(builder, app, instanceNode);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private void addToSnapshot(RegistrySnapshot.Builder builder, String app, JsonNode instanceNode) {
+        String hostName = stringPool.canonical(instanceNode.path("hostName").asText(null));
+        builder.add(app, instanceNode.path("instanceId").asText(null), hostName, mapToBaseInstanceDetail(instanceNode));
+    }
 
     //Handles variations in port representation (either as int, string, or wrapped).
     private int parsePort(JsonNode portNode) {
@@ -52,11 +90,18 @@ public class InstanceMapper {
         return portNode.path("$").asInt(0);
     }
 
-    //Maps a JSON node to a Metadata object.
+    //Maps a JSON node to a Metadata object, sharing the values that repeat across instances.
     public Metadata mapMetadata(JsonNode node) {
-        return node == null || node.isMissingNode()
-                ? null
-                : objectMapper.convertValue(node, Metadata.class);
+        if (node == null || node.isMissingNode() || node.isNull()) {
+            return null;
+        }
+        return new Metadata(
+                stringPool.canonical(node.path("version").asText(null)),
+                stringPool.canonical(node.path("region").asText(null)),
+                stringPool.canonical(node.path("zone").asText(null)),
+                stringPool.canonical(node.path("instanceType").asText(null)),
+                node.path("buildNumber").asText(null)
+        );
     }
     //Maps a JSON node to a LeaseInfo object.
     public LeaseInfo mapLeaseInfo(JsonNode node) {
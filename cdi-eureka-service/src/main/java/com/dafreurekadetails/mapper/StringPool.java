@@ -0,0 +1,56 @@
+package com.dafreurekadetails.mapper;
+
+import com.dafreurekadetails.config.StringPoolProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * StringPool hands out one shared instance per distinct value of the low-cardinality
+ * registry fields (status, service names, host names, metadata version/region/zone/type),
+ * so a grouped result holds each value once instead of once per instance.
+ * <p>
+ * The pool is bounded: once it holds {@code maxEntries} values it is reset, so
+ * unexpectedly high-cardinality input costs at most one pool's worth of memory.
+ */
+@Component
+public class StringPool {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Map<String, String> pool = new ConcurrentHashMap<>();
+
+    public StringPool(StringPoolProperties properties) {
+        this.enabled = properties.enabled();
+        this.maxEntries = properties.maxEntries();
+    }
+
+    /**
+     * Returns the pooled instance equal to the given value.
+     *
+     * @param value the value to canonicalize, may be {@code null}
+     * @return the shared instance, or {@code value} itself if it is new, {@code null} or pooling is disabled
+     */
+    public String canonical(String value) {
+        if (!enabled || value == null) {
+            return value;
+        }
+        String pooled = pool.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (pool.size() >= maxEntries) {
+            pool.clear();
+        }
+        pooled = pool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    public int size() {
+        return pool.size();
+    }
+
+    public void clear() {
+        pool.clear();
+    }
+}
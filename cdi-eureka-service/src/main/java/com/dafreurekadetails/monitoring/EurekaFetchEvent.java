@@ -0,0 +1,35 @@
+package com.dafreurekadetails.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded around the upstream /apps call. The event duration covers the
+ * HTTP round trip and JSON parsing of the response body.
+ */
+@Name("com.dafreurekadetails.EurekaFetch")
+@Label("Eureka Fetch")
+@Category({"CDI Eureka Service", "Upstream"})
+@Description("Fetch and parse of the Eureka /apps document")
+@StackTrace(false)
+public class EurekaFetchEvent extends Event {
+
+    @Label("Transaction ID")
+    public String transactionId;
+
+    @Label("Eureka URL")
+    public String eurekaUrl;
+
+    @Label("Bytes Read")
+    @Description("Size of the response body, -1 when the upstream did not report a content length")
+    @DataAmount
+    public long bytesRead;
+
+    @Label("Return Code")
+    public String returnCode;
+}
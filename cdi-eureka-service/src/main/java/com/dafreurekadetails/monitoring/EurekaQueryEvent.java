@@ -0,0 +1,35 @@
+package com.dafreurekadetails.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering the full lifecycle of a single Eureka query, from validation
+ * to the grouped response. The event duration is the end-to-end query time.
+ * <p>
+ * Stage level timings are recorded by {@link EurekaFetchEvent} and {@link GroupingEvent}
+ * and can be correlated with this event through the transaction ID.
+ */
+@Name("com.dafreurekadetails.EurekaQuery")
+@Label("Eureka Query")
+@Category({"CDI Eureka Service", "Query"})
+@Description("End-to-end processing of a Eureka query request")
+@StackTrace(false)
+public class EurekaQueryEvent extends Event {
+
+    @Label("Transaction ID")
+    public String transactionId;
+
+    @Label("Eureka URL")
+    public String eurekaUrl;
+
+    @Label("Group By")
+    public String groupBy;
+
+    @Label("Return Code")
+    public String returnCode;
+}
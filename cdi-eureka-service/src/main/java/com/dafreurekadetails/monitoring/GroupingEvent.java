@@ -0,0 +1,86 @@
+package com.dafreurekadetails.monitoring;
+
+import com.dafreurekadetails.dto.response.ReturnCode;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.slf4j.MDC;
+
+/**
+ * JFR event recorded by the grouping strategies. The event begins once the registry has been
+ * fetched, so its duration covers mapping and grouping only; the upstream call is reported
+ * separately by {@link EurekaFetchEvent}. The stats strategy counts while it reads the response,
+ * so its event covers that streaming pass over the body. Registries grouped from a loaded snapshot
+ * are marked as such and carry no Eureka URL; the transaction ID ties them to their query.
+ */
+@Name("com.dafreurekadetails.Grouping")
+@Label("Eureka Grouping")
+@Category({"CDI Eureka Service", "Grouping"})
+@Description("Mapping and grouping of Eureka instances")
+@StackTrace(false)
+public class GroupingEvent extends Event {
+
+    @Label("Transaction ID")
+    public String transactionId;
+
+    @Label("Eureka URL")
+    public String eurekaUrl;
+
+    @Label("Group By")
+    public String groupBy;
+
+    @Label("Application Count")
+    public int applicationCount;
+
+    @Label("Instance Count")
+    public int instanceCount;
+
+    @Label("Return Code")
+    public String returnCode;
+
+    @Label("From Snapshot")
+    @Description("Whether an already loaded registry snapshot was grouped rather than a fetched response")
+    public boolean fromSnapshot;
+
+    /**
+     * @return a new event whose timing has begun
+     */
+    public static GroupingEvent started() {
+        GroupingEvent event = new GroupingEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and, if it is enabled, commits it with the outcome of the grouping and the
+     * request's transaction ID.
+     */
+    public void complete(String eurekaUrl, String groupBy, int applicationCount, int instanceCount, ReturnCode outcome) {
+        complete(eurekaUrl, false, groupBy, applicationCount, instanceCount, outcome);
+    }
+
+    /**
+     * Like {@link #complete}, for the grouping of an already loaded registry snapshot.
+     */
+    public void completeSnapshot(String groupBy, int applicationCount, int instanceCount, ReturnCode outcome) {
+        complete(null, true, groupBy, applicationCount, instanceCount, outcome);
+    }
+
+    private void complete(String eurekaUrl, boolean fromSnapshot, String groupBy, int applicationCount, int instanceCount,
+                          ReturnCode outcome) {
+        end();
+        if (shouldCommit()) {
+            this.transactionId = MDC.get("transactionId");
+            this.eurekaUrl = eurekaUrl;
+            this.fromSnapshot = fromSnapshot;
+            this.groupBy = groupBy;
+            this.applicationCount = applicationCount;
+            this.instanceCount = instanceCount;
+            this.returnCode = outcome.getCode();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.dafreurekadetails.recording;
+
+import com.dafreurekadetails.logger.AppLogger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+/**
+ * PayloadArchive appends raw registry payloads to rolling segment files and reads them back.
+ * <p>
+ * A segment starts with a magic number and a format version, followed by one record per payload:
+ * <pre>
+ * recordedAt   long, epoch milliseconds
+ * URL          unsigned short length, then its UTF-8 bytes
+ * lengths      int raw length, int compressed length
+ * payload      the raw bytes, deflated on their own
+ * </pre>
+ * Payloads are compressed one by one rather than as a stream, so that any single payload can be
+ * read back with one positional read. A record cut short by a crash simply ends its segment.
+ * Once the archive outgrows its size limit, its oldest segments are deleted when it rolls over.
+ */
+final class PayloadArchive {
+
+    static final int MAGIC = 0x45524543;
+    static final int VERSION = 1;
+    static final String PREFIX = "recording-";
+    static final String SUFFIX = ".bin";
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(PayloadArchive.class);
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int RECORD_HEAD_BYTES = Long.BYTES + Short.BYTES;
+    private static final int MAX_URL_BYTES = 0xFFFF;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private FileChannel current;
+    private Path currentPath;
+
+    /**
+     * Where a payload sits in the archive.
+     *
+     * @param segment          the segment file
+     * @param offset           position of the compressed payload in the segment
+     * @param recordedAt       when the payload was fetched, epoch milliseconds
+     * @param url              the {@code /apps} URL the payload was fetched from
+     * @param rawLength        size of the payload as fetched
+     * @param compressedLength size of the payload in the segment
+     */
+    record Entry(Path segment, long offset, long recordedAt, String url, int rawLength, int compressedLength) {
+    }
+
+    PayloadArchive(Path directory, long maxBytes, long segmentBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Appends a payload to the current segment, rolling over to a new one when it is full.
+     *
+     * @param recordedAt when the payload was fetched
+     * @param url        the {@code /apps} URL it was fetched from
+     * @param payload    the raw response body
+     * @throws IOException if the segment cannot be written
+     */
+    void append(long recordedAt, String url, byte[] payload) throws IOException {
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        if (urlBytes.length > MAX_URL_BYTES) {
+            throw new IOException("URL too long to record: " + urlBytes.length + " bytes");
+        }
+        byte[] compressed = deflate(payload);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEAD_BYTES + urlBytes.length + 2 * Integer.BYTES + compressed.length)
+                .putLong(recordedAt)
+                .putShort((short) urlBytes.length)
+                .put(urlBytes)
+                .putInt(payload.length)
+                .putInt(compressed.length)
+                .put(compressed)
+                .flip();
+        synchronized (this) {
+            if (current == null || current.size() >= segmentBytes) {
+                roll(recordedAt);
+            }
+            while (record.hasRemaining()) {
+                current.write(record);
+            }
+        }
+    }
+
+    /**
+     * Lists every payload in the archive, oldest segment first. Segments that cannot be read are skipped.
+     *
+     * @return the payloads, in the order they were appended
+     */
+    List<Entry> scan() {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : segments()) {
+            try {
+                entries.addAll(scan(segment));
+            } catch (IOException ex) {
+                APP_LOGGER.warn("Skipping unreadable recording segment {}: {}", segment, ex.getMessage());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Lists the payloads of one segment, stopping at a truncated or corrupt record.
+     *
+     * @param segment the segment file
+     * @return its payloads, in the order they were appended
+     * @throws IOException if the file cannot be read or is not a segment
+     */
+    List<Entry> scan(Path segment) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (read(channel, header, 0) < HEADER_BYTES || header.getInt(0) != MAGIC) {
+                throw new IOException("not a recording segment");
+            }
+            if (header.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException("unsupported recording version " + header.getInt(Integer.BYTES));
+            }
+            ByteBuffer head = ByteBuffer.allocate(RECORD_HEAD_BYTES);
+            long position = HEADER_BYTES;
+            while (position < size) {
+                head.clear();
+                if (read(channel, head, position) < RECORD_HEAD_BYTES) {
+                    break;
+                }
+                long recordedAt = head.getLong(0);
+                int urlLength = head.getShort(Long.BYTES) & MAX_URL_BYTES;
+                ByteBuffer rest = ByteBuffer.allocate(urlLength + 2 * Integer.BYTES);
+                if (read(channel, rest, position + RECORD_HEAD_BYTES) < rest.capacity()) {
+                    break;
+                }
+                String url = new String(rest.array(), 0, urlLength, StandardCharsets.UTF_8);
+                int rawLength = rest.getInt(urlLength);
+                int compressedLength = rest.getInt(urlLength + Integer.BYTES);
+                long payloadAt = position + RECORD_HEAD_BYTES + rest.capacity();
+                //Lengths that do not fit the file are treated like a record cut short.
+                if (rawLength < 0 || compressedLength < 0 || compressedLength > size - payloadAt) {
+                    break;
+                }
+                entries.add(new Entry(segment, payloadAt, recordedAt, url, rawLength, compressedLength));
+                position = payloadAt + compressedLength;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads a payload back as it was fetched.
+     *
+     * @param entry where the payload sits
+     * @return the raw response body
+     * @throws IOException if the segment cannot be read or the payload is corrupt
+     */
+    byte[] read(Entry entry) throws IOException {
+        ByteBuffer compressed = ByteBuffer.allocate(entry.compressedLength());
+        try (FileChannel channel = FileChannel.open(entry.segment(), StandardOpenOption.READ)) {
+            if (read(channel, compressed, entry.offset()) < entry.compressedLength()) {
+                throw new IOException("recording segment truncated: " + entry.segment());
+            }
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array());
+            byte[] payload = new byte[entry.rawLength()];
+            int inflated = 0;
+            while (inflated < payload.length && !inflater.finished()) {
+                int n = inflater.inflate(payload, inflated, payload.length - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != payload.length) {
+                throw new IOException("corrupt payload in " + entry.segment() + " at " + entry.offset());
+            }
+            return payload;
+        } catch (DataFormatException ex) {
+            throw new IOException("corrupt payload in " + entry.segment() + " at " + entry.offset(), ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Lists the segment files, oldest first.
+     *
+     * @return the segment files; empty if nothing was recorded yet
+     */
+    List<Path> segments() {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (isSegmentName(file.getFileName().toString())) {
+                    segments.add(file);
+                }
+            }
+        } catch (IOException ex) {
+            APP_LOGGER.warn("Could not list recording segments in {}: {}", directory, ex.getMessage());
+        }
+        segments.sort(Comparator.comparingLong(PayloadArchive::startedAt)
+                .thenComparingInt(PayloadArchive::sequence));
+        return segments;
+    }
+
+    /**
+     * Whether a file name is one the archive gives its segments, e.g. {@code recording-1700000000000.bin}.
+     * The digits are bounded so that every accepted name parses back into a timestamp and counter.
+     *
+     * @param name the file name
+     * @return true for segment names
+     */
+    static boolean isSegmentName(String name) {
+        return name.matches(PREFIX + "\\d{1,18}(-\\d{1,9})?" + SUFFIX.replace(".", "\\."));
+    }
+
+    synchronized void close() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+
+    //Segments are named after their first payload; a counter tells apart segments started in the same millisecond.
+    private void roll(long recordedAt) throws IOException {
+        close();
+        Files.createDirectories(directory);
+        Path path = directory.resolve(PREFIX + recordedAt + SUFFIX);
+        for (int n = 1; Files.exists(path); n++) {
+            path = directory.resolve(PREFIX + recordedAt + "-" + n + SUFFIX);
+        }
+        current = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        currentPath = path;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            current.write(header);
+        }
+        APP_LOGGER.debug("Recording payloads to {}", path);
+        trim();
+    }
+
+    //Deletes the oldest segments until the archive fits its limit again, never the segment being written.
+    private void trim() throws IOException {
+        List<Path> segments = segments();
+        long total = 0;
+        for (Path segment : segments) {
+            total += Files.size(segment);
+        }
+        for (Path oldest : segments) {
+            if (total <= maxBytes || oldest.equals(currentPath)) {
+                break;
+            }
+            total -= Files.size(oldest);
+            Files.deleteIfExists(oldest);
+            APP_LOGGER.info("Deleted recording segment {} to keep the archive under {} bytes", oldest, maxBytes);
+        }
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, payload.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    //Positional reads leave the channel's own position alone, so readers never disturb each other.
+    private static int read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static long startedAt(Path segment) {
+        String stem = stem(segment);
+        int dash = stem.indexOf('-');
+        return Long.parseLong(dash < 0 ? stem : stem.substring(0, dash));
+    }
+
+    private static int sequence(Path segment) {
+        String stem = stem(segment);
+        int dash = stem.indexOf('-');
+        return dash < 0 ? 0 : Integer.parseInt(stem.substring(dash + 1));
+    }
+
+    private static String stem(Path segment) {
+        String name = segment.getFileName().toString();
+        return name.substring(PREFIX.length(), name.length() - SUFFIX.length());
+    }
+}
@@ -0,0 +1,49 @@
+package com.dafreurekadetails.recording;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+/**
+ * RecordedResponse presents a recorded payload as a successful JSON response, so that response
+ * extractors read it exactly as they would read the live one.
+ */
+public final class RecordedResponse implements ClientHttpResponse {
+
+    private final byte[] payload;
+    private final HttpHeaders headers = new HttpHeaders();
+
+    public RecordedResponse(byte[] payload) {
+        this.payload = payload;
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(payload.length);
+    }
+
+    @Override
+    public InputStream getBody() {
+        return new ByteArrayInputStream(payload);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() {
+        return HttpStatus.OK;
+    }
+
+    @Override
+    public String getStatusText() {
+        return "OK";
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,245 @@
+package com.dafreurekadetails.recording;
+
+import com.dafreurekadetails.config.RecordingProperties;
+import com.dafreurekadetails.dto.recordingdto.RecordingSegment;
+import com.dafreurekadetails.dto.response.ReturnCode;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import com.dafreurekadetails.logger.AppLogger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+/**
+ * RegistryRecorder captures the raw {@code /apps} payloads fetched from Eureka into a rolling
+ * {@link PayloadArchive}, and can later serve them back in place of the Eureka servers, so that
+ * load tests and benchmarks run against real registries without touching production.
+ * <p>
+ * In {@code record} mode payloads are appended by a single background writer; when it falls
+ * behind, new payloads are dropped rather than queued, so recording never slows down queries.
+ * In {@code replay} mode the archive is scanned once on startup, and each fetch returns the payload
+ * recorded at the matching moment of the recording: the clock starts at the first replayed fetch
+ * and runs {@code replaySpeed} times faster than the original, starting over at the end if
+ * {@code replayLoop} is set.
+ */
+@Component
+public class RegistryRecorder {
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(RegistryRecorder.class);
+    private static final int MAX_PENDING_WRITES = 16;
+
+    private final RecordingProperties properties;
+    private final PayloadArchive archive;
+    private final LongSupplier clock;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("payload-recorder").factory());
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final AtomicLong replayStartedAt = new AtomicLong(-1L);
+    private final Map<String, Served> served = new ConcurrentHashMap<>();
+    private volatile Map<String, List<PayloadArchive.Entry>> recordings = Map.of();
+    private long firstRecordedAt;
+    private long lastRecordedAt;
+
+    //The payload last served for a URL, kept so that replays between two recordings skip the read.
+    private record Served(PayloadArchive.Entry entry, byte[] payload) {
+    }
+
+    public RegistryRecorder(RecordingProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    RegistryRecorder(RecordingProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.archive = new PayloadArchive(Path.of(properties.directory()),
+                properties.maxSize().toBytes(), properties.segmentSize().toBytes());
+    }
+
+    /**
+     * @return true when payloads are recorded or replayed, i.e. fetches should go through this recorder
+     */
+    public boolean isActive() {
+        return properties.mode() != RecordingProperties.Mode.OFF;
+    }
+
+    /**
+     * @return true when fetches are answered from the archive instead of the Eureka servers
+     */
+    public boolean isReplaying() {
+        return properties.mode() == RecordingProperties.Mode.REPLAY;
+    }
+
+    @PostConstruct
+    void loadRecordings() {
+        if (!isReplaying()) {
+            return;
+        }
+        Map<String, List<PayloadArchive.Entry>> byUrl = new HashMap<>();
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        List<PayloadArchive.Entry> entries = archive.scan();
+        for (PayloadArchive.Entry entry : entries) {
+            byUrl.computeIfAbsent(entry.url(), url -> new ArrayList<>()).add(entry);
+            first = Math.min(first, entry.recordedAt());
+            last = Math.max(last, entry.recordedAt());
+        }
+        for (List<PayloadArchive.Entry> timeline : byUrl.values()) {
+            timeline.sort(Comparator.comparingLong(PayloadArchive.Entry::recordedAt));
+        }
+        firstRecordedAt = first;
+        lastRecordedAt = last;
+        recordings = byUrl;
+        if (properties.replaySpeed() <= 0) {
+            APP_LOGGER.warn("Ignoring replay speed {}, replaying at the original pace", properties.replaySpeed());
+        }
+        APP_LOGGER.info("Replaying {} payloads of {} Eureka URLs from {}", entries.size(), byUrl.size(), properties.directory());
+    }
+
+    /**
+     * Queues a fetched payload to be archived. Does nothing unless recording.
+     *
+     * @param appsUrl the {@code /apps} URL the payload was fetched from
+     * @param payload the raw response body
+     */
+    public void record(String appsUrl, byte[] payload) {
+        if (properties.mode() != RecordingProperties.Mode.RECORD) {
+            return;
+        }
+        long recordedAt = clock.getAsLong();
+        if (pendingWrites.incrementAndGet() > MAX_PENDING_WRITES) {
+            pendingWrites.decrementAndGet();
+            APP_LOGGER.warn("Recorder is falling behind, dropping payload of {}", appsUrl);
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                archive.append(recordedAt, appsUrl, payload);
+            } catch (IOException ex) {
+                APP_LOGGER.warn("Could not record payload of {}: {}", appsUrl, ex.getMessage());
+            } finally {
+                pendingWrites.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Returns the payload recorded for a URL at the current replay moment: the latest one recorded
+     * at or before it, or the first one if the URL was only recorded later.
+     *
+     * @param appsUrl the {@code /apps} URL being fetched
+     * @return the raw response body as it was recorded
+     * @throws ServiceUnavailableException if the URL was never recorded, or its payload cannot be read
+     */
+    public byte[] replay(String appsUrl) {
+        List<PayloadArchive.Entry> timeline = recordings.get(appsUrl);
+        if (timeline == null) {
+            throw new ServiceUnavailableException(ReturnCode.SERVICE_DOWN, "No recorded payload to replay for: " + appsUrl);
+        }
+        PayloadArchive.Entry entry = timeline.get(latestAtOrBefore(timeline, replayPosition()));
+        Served last = served.get(appsUrl);
+        if (last != null && last.entry().equals(entry)) {
+            return last.payload();
+        }
+        try {
+            byte[] payload = archive.read(entry);
+            served.put(appsUrl, new Served(entry, payload));
+            return payload;
+        } catch (IOException ex) {
+            throw new ServiceUnavailableException(ReturnCode.UNKNOWN, "Cannot read recorded payload of: " + appsUrl, ex);
+        }
+    }
+
+    /**
+     * Lists the archive's segment files, oldest first, for export.
+     *
+     * @return one description per segment
+     */
+    public List<RecordingSegment> segments() {
+        List<RecordingSegment> segments = new ArrayList<>();
+        for (Path segment : archive.segments()) {
+            try {
+                List<PayloadArchive.Entry> entries = archive.scan(segment);
+                segments.add(new RecordingSegment(segment.getFileName().toString(), Files.size(segment), entries.size(),
+                        entries.isEmpty() ? null : entries.getFirst().recordedAt(),
+                        entries.isEmpty() ? null : entries.getLast().recordedAt()));
+            } catch (IOException ex) {
+                APP_LOGGER.warn("Skipping unreadable recording segment {}: {}", segment, ex.getMessage());
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Resolves a segment file for download.
+     *
+     * @param name the segment's file name, as listed by {@link #segments()}
+     * @return the file
+     * @throws InvalidRequestException if the name is not a segment name or no such segment exists
+     */
+    public Path segment(String name) {
+        if (name == null || !PayloadArchive.isSegmentName(name)) {
+            throw new InvalidRequestException("Not a recording segment name: " + name);
+        }
+        Path file = Path.of(properties.directory()).resolve(name);
+        if (!Files.isRegularFile(file)) {
+            throw new InvalidRequestException("No such recording segment: " + name);
+        }
+        return file;
+    }
+
+    //Maps the time since the first replayed fetch onto the recording, sped up and wrapped around as configured.
+    private long replayPosition() {
+        long now = clock.getAsLong();
+        replayStartedAt.compareAndSet(-1L, now);
+        double speed = properties.replaySpeed() > 0 ? properties.replaySpeed() : 1.0;
+        long elapsed = (long) ((now - replayStartedAt.get()) * speed);
+        long span = lastRecordedAt - firstRecordedAt;
+        long offset = properties.replayLoop() ? elapsed % (span + 1) : Math.min(elapsed, span);
+        return firstRecordedAt + offset;
+    }
+
+    private static int latestAtOrBefore(List<PayloadArchive.Entry> timeline, long moment) {
+        int low = 0;
+        int high = timeline.size() - 1;
+        int found = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (timeline.get(mid).recordedAt() <= moment) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    //Lets queued payloads reach the archive, so a graceful stop keeps the end of the recording.
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            APP_LOGGER.warn("Gave up waiting for {} payload recordings on shutdown", pendingWrites.get());
+            writer.shutdownNow();
+        }
+        try {
+            archive.close();
+        } catch (IOException ex) {
+            APP_LOGGER.warn("Could not close the recording archive: {}", ex.getMessage());
+        }
+    }
+}
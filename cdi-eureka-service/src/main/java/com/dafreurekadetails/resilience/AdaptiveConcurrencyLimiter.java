@@ -0,0 +1,119 @@
+package com.dafreurekadetails.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient-style adaptive concurrency limiter for a single upstream target.
+ * <p>
+ * The limiter keeps a slow moving average of the observed round-trip time as the
+ * "no load" baseline and compares every new sample against it. While latency stays
+ * within {@code rttTolerance} of the baseline the limit grows by roughly {@code sqrt(limit)};
+ * when latency rises, or a call times out or cannot connect, the limit shrinks so that
+ * excess requests are rejected immediately instead of queueing on a slow target.
+ * <p>
+ * Acquiring a permit is lock-free; limit updates are serialized per limiter.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int LONG_RTT_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Tries to take a slot without blocking.
+     *
+     * @return {@code true} if the call may proceed and must later be completed with one of the
+     *         {@code on*} methods, {@code false} if the target is at its limit
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes a call that returned normally and feeds its latency into the limit.
+     *
+     * @param rttNanos observed round-trip time in nanoseconds
+     */
+    public void onSuccess(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        update(rttNanos, inFlightAtCompletion);
+    }
+
+    /**
+     * Completes a call that timed out or could not reach the target; the limit backs off.
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    /**
+     * Completes a call whose outcome says nothing about the target's capacity.
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtCompletion) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos = longRttNanos + (rttNanos - longRttNanos) / LONG_RTT_WINDOW;
+        }
+        //Recover the baseline quickly once latency drops back after an incident.
+        if (longRttNanos > 2.0 * rttNanos) {
+            longRttNanos = 2.0 * rttNanos;
+        }
+        //An under-used limit is not evidence that the target can take more.
+        if (inFlightAtCompletion < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,123 @@
+package com.dafreurekadetails.resilience;
+
+import com.dafreurekadetails.dto.response.ReturnCode;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker with a short negative cache for a single upstream target.
+ * <p>
+ * After {@code failureThreshold} consecutive connectivity failures, or a single
+ * {@link ReturnCode#INVALID_HOST}, the breaker opens and remembers the failure's return code.
+ * While open, calls are rejected without touching the network. Once the open period has
+ * passed, exactly one call is let through as a half-open probe: its success closes the breaker,
+ * its failure opens it again.
+ * <p>
+ * All state transitions are lock-free.
+ */
+public class CircuitBreaker {
+
+    enum Mode { CLOSED, OPEN, HALF_OPEN }
+
+    private record State(Mode mode, int consecutiveFailures, long openUntilNanos, ReturnCode lastFailure) {
+    }
+
+    private static final State CLOSED = new State(Mode.CLOSED, 0, 0L, null);
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long invalidHostOpenNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<State> state = new AtomicReference<>(CLOSED);
+
+    public CircuitBreaker(int failureThreshold, long openNanos, long invalidHostOpenNanos) {
+        this(failureThreshold, openNanos, invalidHostOpenNanos, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openNanos, long invalidHostOpenNanos, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+        this.invalidHostOpenNanos = invalidHostOpenNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Decides whether a call may go to the target.
+     *
+     * @return {@code null} if the call may proceed, otherwise the cached return code to fail with
+     */
+    public ReturnCode tryPass() {
+        while (true) {
+            State current = state.get();
+            switch (current.mode()) {
+                case CLOSED:
+                    return null;
+                case HALF_OPEN:
+                    return current.lastFailure();
+                default:
+                    if (nanoClock.getAsLong() - current.openUntilNanos() < 0) {
+                        return current.lastFailure();
+                    }
+                    State probing = new State(Mode.HALF_OPEN, current.consecutiveFailures(), current.openUntilNanos(), current.lastFailure());
+                    if (state.compareAndSet(current, probing)) {
+                        return null;
+                    }
+            }
+        }
+    }
+
+    /**
+     * Records a call that reached the target.
+     */
+    public void onSuccess() {
+        if (state.get() != CLOSED) {
+            state.set(CLOSED);
+        }
+    }
+
+    /**
+     * Records a connectivity failure.
+     *
+     * @param returnCode the return code the failure was mapped to
+     */
+    public void onFailure(ReturnCode returnCode) {
+        while (true) {
+            State current = state.get();
+            State next;
+            if (current.mode() == Mode.OPEN) {
+                //A call that started before the breaker opened; nothing new to learn.
+                return;
+            }
+            int failures = current.consecutiveFailures() + 1;
+            if (current.mode() == Mode.HALF_OPEN || returnCode == ReturnCode.INVALID_HOST || failures >= failureThreshold) {
+                long duration = returnCode == ReturnCode.INVALID_HOST ? invalidHostOpenNanos : openNanos;
+                next = new State(Mode.OPEN, failures, nanoClock.getAsLong() + duration, returnCode);
+            } else {
+                next = new State(Mode.CLOSED, failures, 0L, returnCode);
+            }
+            if (state.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records a call that ended without telling anything about the target's health.
+     * A pending half-open probe is given back so the next call can probe again.
+     */
+    public void onIgnored() {
+        State current = state.get();
+        if (current.mode() == Mode.HALF_OPEN) {
+            state.compareAndSet(current, new State(Mode.OPEN, current.consecutiveFailures(), current.openUntilNanos(), current.lastFailure()));
+        }
+    }
+
+    Mode mode() {
+        return state.get().mode();
+    }
+
+    long openUntilNanos() {
+        return state.get().openUntilNanos();
+    }
+}
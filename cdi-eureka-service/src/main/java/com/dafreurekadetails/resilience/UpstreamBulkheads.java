@@ -0,0 +1,98 @@
+package com.dafreurekadetails.resilience;
+
+import com.dafreurekadetails.config.BulkheadProperties;
+import com.dafreurekadetails.dto.response.ReturnCode;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import com.dafreurekadetails.logger.AppLogger;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * UpstreamBulkheads isolates Eureka targets from each other by giving every upstream URL
+ * its own {@link AdaptiveConcurrencyLimiter}.
+ * <p>
+ * A slow target can only hold as many request threads as its current limit allows;
+ * further calls to it are shed immediately with {@link ReturnCode#SERVICE_UNAVAILABLE}
+ * while calls to healthy targets are unaffected.
+ */
+@Component
+public class UpstreamBulkheads {
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(UpstreamBulkheads.class);
+    private final BulkheadProperties properties;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public UpstreamBulkheads(BulkheadProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Acquires a slot for a call to the given upstream URL.
+     *
+     * @param url the upstream URL the call goes to
+     * @return a permit that must be completed exactly once
+     * @throws ServiceUnavailableException if the target is already at its concurrency limit
+     */
+    public Permit acquire(String url) {
+        if (!properties.enabled()) {
+            return Permit.NOOP;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiterFor(url);
+        if (!limiter.tryAcquire()) {
+            APP_LOGGER.warn("Shedding call to {}: {} calls in flight, limit {}", url, limiter.inFlight(), limiter.limit());
+            throw new ServiceUnavailableException(ReturnCode.SERVICE_UNAVAILABLE,
+                    "Too many concurrent requests to Eureka server: " + url);
+        }
+        return new Permit(limiter, System.nanoTime());
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(String url) {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(url);
+        if (limiter != null) {
+            return limiter;
+        }
+        if (limiters.size() >= properties.maxTargets()) {
+            //Targets come from client input, so idle limiters are dropped instead of growing without bound.
+            limiters.values().removeIf(l -> l.inFlight() == 0);
+        }
+        return limiters.computeIfAbsent(url, u -> new AdaptiveConcurrencyLimiter(
+                properties.initialLimit(), properties.minLimit(), properties.maxLimit(), properties.rttTolerance()));
+    }
+
+    /**
+     * A slot held on one upstream target.
+     */
+    public static class Permit {
+        static final Permit NOOP = new Permit(null, 0L);
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long startNanos;
+
+        Permit(AdaptiveConcurrencyLimiter limiter, long startNanos) {
+            this.limiter = limiter;
+            this.startNanos = startNanos;
+        }
+
+        //The call completed; its latency updates the limit.
+        public void onSuccess() {
+            if (limiter != null) {
+                limiter.onSuccess(System.nanoTime() - startNanos);
+            }
+        }
+
+        //The call timed out or could not connect; the limit backs off.
+        public void onDropped() {
+            if (limiter != null) {
+                limiter.onDropped();
+            }
+        }
+
+        //The call failed for a reason unrelated to target capacity.
+        public void onIgnored() {
+            if (limiter != null) {
+                limiter.onIgnored();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.dafreurekadetails.resilience;
+
+import com.dafreurekadetails.config.CircuitBreakerProperties;
+import com.dafreurekadetails.dto.response.ReturnCode;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * UpstreamCircuitBreakers keeps one {@link CircuitBreaker} per Eureka target URL,
+ * so a dead or unresolvable target fails in microseconds instead of paying the connect timeout.
+ */
+@Component
+public class UpstreamCircuitBreakers {
+
+    private static final CircuitBreaker NEVER_OPEN = new CircuitBreaker(Integer.MAX_VALUE, 0L, 0L) {
+        @Override
+        public void onFailure(ReturnCode returnCode) {
+        }
+    };
+
+    private final CircuitBreakerProperties properties;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public UpstreamCircuitBreakers(CircuitBreakerProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the breaker guarding the given upstream URL.
+     *
+     * @param url the upstream URL
+     * @return the target's breaker, or one that never opens when breakers are disabled
+     */
+    public CircuitBreaker forTarget(String url) {
+        if (!properties.enabled()) {
+            return NEVER_OPEN;
+        }
+        CircuitBreaker breaker = breakers.get(url);
+        if (breaker != null) {
+            return breaker;
+        }
+        if (breakers.size() >= properties.maxTargets()) {
+            //Targets come from client input; healthy breakers carry no state worth keeping.
+            breakers.values().removeIf(b -> b.mode() == CircuitBreaker.Mode.CLOSED);
+            if (breakers.size() >= properties.maxTargets()) {
+                //Every tracked target is failing; the one due for a probe soonest loses the least.
+                evictSoonestToProbe();
+            }
+        }
+        return breakers.computeIfAbsent(url, u -> new CircuitBreaker(
+                properties.failureThreshold(),
+                properties.openDuration().toNanos(),
+                properties.invalidHostOpenDuration().toNanos()));
+    }
+
+    private void evictSoonestToProbe() {
+        Map.Entry<String, CircuitBreaker> soonest = null;
+        for (Map.Entry<String, CircuitBreaker> entry : breakers.entrySet()) {
+            if (soonest == null || entry.getValue().openUntilNanos() - soonest.getValue().openUntilNanos() < 0) {
+                soonest = entry;
+            }
+        }
+        if (soonest != null) {
+            breakers.remove(soonest.getKey(), soonest.getValue());
+        }
+    }
+
+    int targetCount() {
+        return breakers.size();
+    }
+}
@@ -0,0 +1,188 @@
+package com.dafreurekadetails.service;
+
+import com.dafreurekadetails.config.BatchProperties;
+import com.dafreurekadetails.config.TimeoutProperties;
+import com.dafreurekadetails.deadline.Deadline;
+import com.dafreurekadetails.deadline.DeadlineContext;
+import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.dto.request.EurekaQueryRequest;
+import com.dafreurekadetails.dto.response.BatchItemResult;
+import com.dafreurekadetails.dto.response.BatchQueryResponse;
+import com.dafreurekadetails.dto.response.ReturnCode;
+import com.dafreurekadetails.exception.ApiException;
+import com.dafreurekadetails.exception.GroupingException;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.logger.AppLogger;
+import com.dafreurekadetails.monitoring.EurekaQueryEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+/**
+ * BatchQueryService runs several Eureka queries concurrently and reports the outcome of each one
+ * separately, so a slow or failing cluster neither blocks nor fails the rest of the batch.
+ * <p>
+ * Queries run on virtual threads, at most {@code maxParallelism} of them at a time per batch. The
+ * whole batch runs under one {@link Deadline}; each query runs under its own budget capped by it,
+ * and queries still running when the batch deadline passes are cancelled and reported as timed out.
+ * <p>
+ * Each query is validated and recorded as an {@link EurekaQueryEvent} exactly like a single query.
+ * The batch reports success as long as one of its queries succeeded; when all of them failed it
+ * carries their common return code, or {@code UNKNOWN} if they failed for different reasons.
+ */
+@Service
+public class BatchQueryService {
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(BatchQueryService.class);
+    private final EurekaService eurekaService;
+    private final TimeoutProperties timeouts;
+    private final BatchProperties batch;
+    private final ExecutorService batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BatchQueryService(EurekaService eurekaService, TimeoutProperties timeouts, BatchProperties batch) {
+        this.eurekaService = eurekaService;
+        this.timeouts = timeouts;
+        this.batch = batch;
+    }
+
+    /**
+     * Runs every query of the batch and collects their results in request order.
+     *
+     * @param queries   the queries to run; each may carry its own time budget
+     * @param timeoutMs the time budget of the whole batch in milliseconds, or {@code null} for the server default
+     * @return a {@link BatchQueryResponse} with one result per query
+     * @throws InvalidRequestException if the batch holds more queries than allowed
+     */
+    public BatchQueryResponse handleBatch(List<EurekaQueryRequest> queries, Long timeoutMs) {
+        if (queries.size() > batch.maxItems()) {
+            throw new InvalidRequestException("A batch may hold at most " + batch.maxItems() + " queries, got " + queries.size());
+        }
+        long startTime = System.currentTimeMillis();
+        String transactionId = MDC.get("transactionId");
+        Deadline batchDeadline = Deadline.after(timeouts.budgetFor(timeoutMs));
+        Semaphore permits = new Semaphore(Math.max(1, batch.maxParallelism()));
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        APP_LOGGER.info("Starting batch of {} Eureka queries", queries.size());
+
+        List<Future<BatchItemResult>> futures = new ArrayList<>(queries.size());
+        for (EurekaQueryRequest query : queries) {
+            futures.add(batchExecutor.submit(() -> {
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                return runItem(query, batchDeadline, permits);
+            }));
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(queries.size());
+        int succeeded = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            BatchItemResult result = await(futures, i, queries.get(i), batchDeadline, startTime);
+            if (ReturnCode.SUCCESS.getCode().equals(result.returnCode())) {
+                succeeded++;
+            }
+            results.add(result);
+        }
+
+        double elapsedTime = calculateElapsedTime(startTime);
+        APP_LOGGER.info("Batch completed in {} ms: {} of {} queries succeeded", elapsedTime, succeeded, queries.size());
+        ReturnCode outcome = batchOutcome(results, succeeded);
+        return new BatchQueryResponse(outcome.getCode(),
+                succeeded + " of " + queries.size() + " queries succeeded.",
+                outcome.status(), transactionId, elapsedTime, results);
+    }
+
+    //Waits for one query no longer than the batch has left; a query still running after that is cancelled.
+    private BatchItemResult await(List<Future<BatchItemResult>> futures, int index, EurekaQueryRequest query,
+                                  Deadline batchDeadline, long startTime) {
+        Future<BatchItemResult> future = futures.get(index);
+        try {
+            return future.get(Math.max(0, batchDeadline.remainingNanos()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            APP_LOGGER.warn("Batch query to {} cancelled at the batch deadline", query.eurekaServerURL());
+            return BatchItemResult.failure(query, calculateElapsedTime(startTime), ReturnCode.TIMEOUT,
+                    "Batch deadline of " + batchDeadline.budgetMillis() + " ms exceeded before the query completed");
+        } catch (InterruptedException ex) {
+            futures.forEach(pending -> pending.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new GroupingException("Batch interrupted while waiting for " + query.eurekaServerURL(), ex);
+        } catch (ExecutionException ex) {
+            return BatchItemResult.failure(query, calculateElapsedTime(startTime), ReturnCode.UNKNOWN, ex.getCause().getMessage());
+        }
+    }
+
+    private BatchItemResult runItem(EurekaQueryRequest query, Deadline batchDeadline, Semaphore permits) {
+        long startTime = System.currentTimeMillis();
+        EurekaQueryEvent event = new EurekaQueryEvent();
+        event.begin();
+        ReturnCode outcome = ReturnCode.UNKNOWN;
+        boolean acquired = false;
+        try {
+            EurekaQueryService.validateEurekaURL(query.eurekaServerURL());
+            acquired = permits.tryAcquire(Math.max(0, batchDeadline.remainingNanos()), TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                outcome = ReturnCode.TIMEOUT;
+                return BatchItemResult.failure(query, calculateElapsedTime(startTime), ReturnCode.TIMEOUT,
+                        "Batch deadline of " + batchDeadline.budgetMillis() + " ms exceeded while waiting for a free slot");
+            }
+            //The query's own budget starts once it actually runs, but never outlives the batch.
+            DeadlineContext.bind(batchDeadline.within(timeouts.budgetFor(query.timeoutMs())));
+            DeadlineContext.check("querying " + query.eurekaServerURL());
+            GroupedResult data = query.asOf() != null
+                    ? eurekaService.groupAsOf(query.groupBy(), query.eurekaServerURL(), query.asOf())
+                    : eurekaService.group(query.groupBy(), query.eurekaServerURL());
+            outcome = ReturnCode.SUCCESS;
+            return BatchItemResult.success(query, calculateElapsedTime(startTime), data);
+
+        } catch (ApiException ex) {
+            APP_LOGGER.warn("Batch query to {} failed: {}", query.eurekaServerURL(), ex.getMessage());
+            outcome = ex.returnCode();
+            return BatchItemResult.failure(query, calculateElapsedTime(startTime), ex.returnCode(), ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            outcome = ReturnCode.TIMEOUT;
+            return BatchItemResult.failure(query, calculateElapsedTime(startTime), ReturnCode.TIMEOUT, "Query cancelled");
+        } catch (Exception ex) {
+            APP_LOGGER.error("Batch query to {} failed: {}", query.eurekaServerURL(), ex.getMessage(), ex);
+            return BatchItemResult.failure(query, calculateElapsedTime(startTime), ReturnCode.UNKNOWN, ex.getMessage());
+        } finally {
+            if (acquired) {
+                permits.release();
+            }
+            DeadlineContext.clear();
+            EurekaQueryService.commitEvent(event, MDC.get("transactionId"), query.groupBy(), query.eurekaServerURL(), outcome);
+            MDC.clear();
+        }
+    }
+
+    //A batch fails only when none of its queries succeeded, with their common return code if they share one.
+    private static ReturnCode batchOutcome(List<BatchItemResult> results, int succeeded) {
+        if (succeeded > 0 || results.isEmpty()) {
+            return ReturnCode.SUCCESS;
+        }
+        String first = results.get(0).returnCode();
+        boolean shared = results.stream().allMatch(result -> first.equals(result.returnCode()));
+        return shared ? ReturnCode.valueOf(first) : ReturnCode.UNKNOWN;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
+    private double calculateElapsedTime(long startTime) {
+        return (System.currentTimeMillis() - startTime);
+    }
+}
@@ -1,77 +1,319 @@
 package com.dafreurekadetails.service;
 
+import com.dafreurekadetails.deadline.Deadline;
+import com.dafreurekadetails.deadline.DeadlineContext;
 import com.dafreurekadetails.dto.response.ReturnCode;
+import com.dafreurekadetails.exception.ApiException;
+import com.dafreurekadetails.exception.DeadlineExceededException;
 import com.dafreurekadetails.exception.EurekaTimeoutException;
 import com.dafreurekadetails.exception.ServiceUnavailableException;
 import com.dafreurekadetails.logger.AppLogger;
+import com.dafreurekadetails.monitoring.EurekaFetchEvent;
+import com.dafreurekadetails.recording.RecordedResponse;
+import com.dafreurekadetails.recording.RegistryRecorder;
+import com.dafreurekadetails.resilience.CircuitBreaker;
+import com.dafreurekadetails.resilience.UpstreamBulkheads;
+import com.dafreurekadetails.resilience.UpstreamCircuitBreakers;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.MDC;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 /**
  * EurekaClientHelper is a utility component responsible for communicating with
  * a Eureka server and retrieving application registration data.
  * <p>
  * It uses {@link RestTemplate} to make REST calls to the Eureka API and
- * provides a parsed {@link JsonNode} representation of the /apps endpoint.
+ * provides a parsed {@link JsonNode} representation of the /apps endpoint, or streams its raw body.
  * <p>
  * This class centralizes all network-related error handling and maps known issues
  * like timeouts, host resolution failures, or connection errors to domain-specific exceptions.
+ * Every call runs inside the target's bulkhead (see {@link UpstreamBulkheads}), and targets
+ * that keep failing to connect are short-circuited (see {@link UpstreamCircuitBreakers}).
+ * When the request has a {@link Deadline}, the call runs on a virtual thread and is cancelled
+ * as soon as the remaining budget is spent. The call keeps its bulkhead permit until the cancelled
+ * call has actually stopped, but the expiry is left out of the limiter and the circuit breaker:
+ * only read and connect timeouts of the target count against it.
+ * <p>
+ * When a {@link RegistryRecorder} is active, fetched bodies are read whole and archived, or, in
+ * replay mode, recorded bodies are served without calling Eureka at all.
  */
 @Component
 public class EurekaClientHelper {
 
     private static final AppLogger APP_LOGGER = AppLogger.getLogger(EurekaClientHelper.class);
     private final RestTemplate restTemplate;
+    private final UpstreamBulkheads bulkheads;
+    private final UpstreamCircuitBreakers circuitBreakers;
+    private final RegistryRecorder recorder;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService upstreamExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
-    public EurekaClientHelper(RestTemplate restTemplate) {
+    public EurekaClientHelper(RestTemplate restTemplate, UpstreamBulkheads bulkheads, UpstreamCircuitBreakers circuitBreakers,
+                              RegistryRecorder recorder, ObjectMapper objectMapper) {
         this.restTemplate = restTemplate;
+        this.bulkheads = bulkheads;
+        this.circuitBreakers = circuitBreakers;
+        this.recorder = recorder;
+        this.objectMapper = objectMapper;
     }
     /**
      * Calls the /apps endpoint of the Eureka server to fetch all registered applications.
      *
      * @param eurekaURL the base URL of the Eureka server (e.g., <a href="http://localhost:8761/eureka"/>)
      * @return a {@link JsonNode} representing the JSON response from the Eureka server
-     * @throws EurekaTimeoutException        if a timeout occurs while connecting
-     * @throws ServiceUnavailableException   if the Eureka server is down, unreachable, or returns an error
+     * @throws EurekaTimeoutException        if a timeout occurs while connecting or the request deadline expires
+     * @throws ServiceUnavailableException   if the Eureka server is down, unreachable, returns an error,
+     *                                       already has too many calls in flight, or is known to be failing
      */
     public JsonNode getEurekaApps(String eurekaURL) {
+        if (recorder.isActive()) {
+            byte[] payload = payload(eurekaURL);
+            try {
+                return objectMapper.readTree(payload);
+            } catch (IOException ex) {
+                throw new ServiceUnavailableException(ReturnCode.SERVICE_UNAVAILABLE, "Unreadable Eureka apps payload from: " + eurekaURL, ex);
+            }
+        }
+        return fetch(eurekaURL, url -> restTemplate.getForEntity(url, JsonNode.class));
+    }
+
+    /**
+     * Calls the /apps endpoint of the Eureka server and hands the raw response body to the extractor,
+     * so that callers can stream through the registry without building a JSON tree.
+     *
+     * @param eurekaURL the base URL of the Eureka server (e.g., <a href="http://localhost:8761/eureka"/>)
+     * @param extractor reads the response; it runs while the connection is open
+     * @return what the extractor returned
+     * @throws EurekaTimeoutException        if a timeout occurs while connecting or the request deadline expires
+     * @throws ServiceUnavailableException   if the Eureka server is down, unreachable, returns an error,
+     *                                       already has too many calls in flight, or is known to be failing
+     */
+    public <T> T streamEurekaApps(String eurekaURL, ResponseExtractor<T> extractor) {
+        if (recorder.isActive()) {
+            byte[] payload = payload(eurekaURL);
+            try {
+                return extractor.extractData(new RecordedResponse(payload));
+            } catch (IOException ex) {
+                throw new ServiceUnavailableException(ReturnCode.SERVICE_UNAVAILABLE, "Unreadable Eureka apps payload from: " + eurekaURL, ex);
+            }
+        }
+        return fetch(eurekaURL, url -> restTemplate.execute(url, HttpMethod.GET, null,
+                response -> new ResponseEntity<>(extractor.extractData(response), response.getHeaders(), response.getStatusCode())));
+    }
+
+    //Replays the recorded body, or fetches the whole body so the recorder can archive it before it is parsed.
+    private byte[] payload(String eurekaURL) {
+        if (recorder.isReplaying()) {
+            DeadlineContext.check("replaying Eureka apps");
+            return recorder.replay(buildAppsURL(eurekaURL));
+        }
+        byte[] payload = fetch(eurekaURL, url -> restTemplate.execute(url, HttpMethod.GET,
+                restTemplate.acceptHeaderRequestCallback(JsonNode.class),
+                response -> new ResponseEntity<>(response.getBody().readAllBytes(), response.getHeaders(), response.getStatusCode())));
+        recorder.record(buildAppsURL(eurekaURL), payload);
+        return payload;
+    }
+
+    //Shared by both reads: bulkhead, circuit breaker, deadline, error mapping and the fetch event.
+    private <T> T fetch(String eurekaURL, Function<String, ResponseEntity<T>> call) {
 
         String url = buildAppsURL(eurekaURL);
         APP_LOGGER.debug("Fetching Eureka apps from: {}", url);
 
+        DeadlineContext.check("fetching Eureka apps");
+        CircuitBreaker breaker = circuitBreakers.forTarget(url);
+        ReturnCode cachedFailure = breaker.tryPass();
+        if (cachedFailure != null) {
+            APP_LOGGER.debug("Circuit open for {}, failing fast with {}", url, cachedFailure);
+            throw new ServiceUnavailableException(cachedFailure, "Eureka server is failing, rejecting call until it recovers: " + url);
+        }
+        UpstreamBulkheads.Permit permit;
+        try {
+            permit = bulkheads.acquire(url);
+        } catch (ApiException ex) {
+            breaker.onIgnored();
+            throw ex;
+        }
+
+        EurekaFetchEvent event = new EurekaFetchEvent();
+        event.begin();
+        long bytesRead = -1L;
+        ReturnCode outcome = ReturnCode.UNKNOWN;
+        boolean deadlineExpired = false;
+        CompletableFuture<Void> callStopped = new CompletableFuture<>();
         try {
-            ResponseEntity<JsonNode> response = restTemplate.getForEntity(url, JsonNode.class);
+            ResponseEntity<T> response = exchange(url, call, callStopped);
 
             APP_LOGGER.debug("Successfully fetched Eureka apps from: {}", url);
+            if (response.getHeaders() != null) {
+                bytesRead = response.getHeaders().getContentLength();
+            }
+            outcome = ReturnCode.SUCCESS;
             return response.getBody();
 
         } catch (ResourceAccessException ex) {
             APP_LOGGER.error("Resource access error when connecting to Eureka: {}", ex.getMessage());
 
             if (ex.getCause() instanceof SocketTimeoutException) {
+                outcome = ReturnCode.TIMEOUT;
                 throw new EurekaTimeoutException("Connection timeout to Eureka server: " + url, ex);
             } else if (ex.getCause() instanceof ConnectException) {
+                outcome = ReturnCode.SERVICE_DOWN;
                 throw new ServiceUnavailableException(ReturnCode.SERVICE_DOWN, "Cannot connect to Eureka server: " + url, ex);
             } else if (ex.getCause() instanceof UnknownHostException) {
+                outcome = ReturnCode.INVALID_HOST;
                 throw new ServiceUnavailableException(ReturnCode.INVALID_HOST, "Unknown host in Eureka URL: " + url, ex);
             } else {
                 throw new ServiceUnavailableException(ReturnCode.UNKNOWN, "Cannot connect to Eureka server: " + url, ex);
             }
 
+        } catch (DeadlineExceededException ex) {
+            APP_LOGGER.warn("Request deadline expired while calling Eureka: {}", url);
+            outcome = ReturnCode.TIMEOUT;
+            deadlineExpired = true;
+            throw ex;
+
         } catch (RestClientException ex) {
             APP_LOGGER.error("REST client error when connecting to Eureka: {}", ex.getMessage());
+            outcome = ReturnCode.SERVICE_UNAVAILABLE;
             throw new ServiceUnavailableException(ReturnCode.SERVICE_UNAVAILABLE, "Service is currently not responding: " + url, ex);
 
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(ReturnCode.UNKNOWN, "Interrupted while calling Eureka server: " + url, ex);
+
         } catch (Exception ex) {
             APP_LOGGER.error("Unexpected error when connecting to Eureka: {}", ex.getMessage(), ex);
             throw new ServiceUnavailableException(ReturnCode.UNKNOWN, "Unexpected error connecting to Eureka: " + url, ex);
+        } finally {
+            //A cancelled call may still hold its connection, so its permit is only released once it has stopped.
+            //The caller picks its own deadline, so its expiry says nothing about the target's health.
+            ReturnCode targetOutcome = deadlineExpired ? ReturnCode.UNKNOWN : outcome;
+            callStopped.whenComplete((ignored, failure) -> {
+                completePermit(permit, targetOutcome);
+                completeBreaker(breaker, targetOutcome);
+            });
+            commitEvent(event, url, bytesRead, outcome);
+        }
+    }
+
+    /**
+     * Performs the HTTP call, bounded by the current request deadline if there is one.
+     * On expiry the call is cancelled, which interrupts the virtual thread and closes its socket.
+     *
+     * @param callStopped completed once the call has returned, failed or been aborted, which may be
+     *                    after this method has thrown for an expired deadline
+     */
+    private <T> ResponseEntity<T> exchange(String url, Function<String, ResponseEntity<T>> call,
+                                           CompletableFuture<Void> callStopped) throws InterruptedException {
+        Deadline deadline = DeadlineContext.current();
+        if (deadline == null) {
+            try {
+                return call.apply(url);
+            } finally {
+                callStopped.complete(null);
+            }
+        }
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        //Whoever claims the call first either runs it or, when cancelling before it started, stops it.
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<ResponseEntity<T>> future;
+        try {
+            future = upstreamExecutor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                try {
+                    return call.apply(url);
+                } finally {
+                    callStopped.complete(null);
+                }
+            });
+        } catch (RuntimeException ex) {
+            callStopped.complete(null);
+            throw ex;
+        }
+        try {
+            return future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            cancel(future, claimed, callStopped);
+            throw new DeadlineExceededException("Request deadline of " + deadline.budgetMillis()
+                    + " ms exceeded while waiting for Eureka server: " + url, ex);
+        } catch (InterruptedException ex) {
+            cancel(future, claimed, callStopped);
+            throw ex;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RestClientException("Eureka call failed: " + url, ex.getCause());
+        }
+    }
+
+    private static void cancel(Future<?> future, AtomicBoolean claimed, CompletableFuture<Void> callStopped) {
+        future.cancel(true);
+        if (claimed.compareAndSet(false, true)) {
+            callStopped.complete(null);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        upstreamExecutor.shutdownNow();
+    }
+
+    //Only timeouts and refused connections say the target is overloaded.
+    private void completePermit(UpstreamBulkheads.Permit permit, ReturnCode outcome) {
+        switch (outcome) {
+            case SUCCESS -> permit.onSuccess();
+            case TIMEOUT, SERVICE_DOWN -> permit.onDropped();
+            default -> permit.onIgnored();
+        }
+    }
+
+    //Any answer from the target proves it is reachable; only connectivity failures count against it.
+    private void completeBreaker(CircuitBreaker breaker, ReturnCode outcome) {
+        switch (outcome) {
+            case TIMEOUT, SERVICE_DOWN, INVALID_HOST -> breaker.onFailure(outcome);
+            case UNKNOWN -> breaker.onIgnored();
+            default -> breaker.onSuccess();
+        }
+    }
+
+    //Fields are only populated when the recording actually keeps the event.
+    private void commitEvent(EurekaFetchEvent event, String url, long bytesRead, ReturnCode outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.transactionId = MDC.get("transactionId");
+            event.eurekaUrl = url;
+            event.bytesRead = bytesRead;
+            event.returnCode = outcome.getCode();
+            event.commit();
         }
     }
 
@@ -1,5 +1,8 @@
 package com.dafreurekadetails.service;
 
+import com.dafreurekadetails.config.TimeoutProperties;
+import com.dafreurekadetails.deadline.Deadline;
+import com.dafreurekadetails.deadline.DeadlineContext;
 import com.dafreurekadetails.dto.GroupedResult;
 import com.dafreurekadetails.dto.response.EurekaQueryResponse;
 import com.dafreurekadetails.dto.response.ReturnCode;
@@ -7,6 +10,8 @@ import com.dafreurekadetails.exception.ApiException;
 import com.dafreurekadetails.exception.GroupingException;
 import com.dafreurekadetails.exception.InvalidRequestException;
 import com.dafreurekadetails.logger.AppLogger;
+import com.dafreurekadetails.monitoring.EurekaQueryEvent;
+import com.dafreurekadetails.snapshot.IndexedField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -17,20 +22,35 @@ import org.springframework.web.context.request.RequestContextHolder;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.UUID;
+import java.util.function.Supplier;
 /**
  * EurekaQueryService is responsible for handling the main flow of querying the Eureka server
  * and returning grouped application data based on the provided grouping strategy.
  * <p>
  * It validates the Eureka URL, delegates the grouping logic to EurekaService,
- * and constructs a well-formed response object.
+ * and constructs a well-formed response object. Every query runs under a {@link Deadline}
+ * derived from the caller's time budget, which lower layers enforce through {@link DeadlineContext}.
  */
 @Service
 public class EurekaQueryService {
 
     private static final AppLogger APP_LOGGER = AppLogger.getLogger(EurekaQueryResponse.class);
     private final EurekaService eurekaService;
-    public EurekaQueryService(EurekaService eurekaService) {
+    private final TimeoutProperties timeouts;
+    public EurekaQueryService(EurekaService eurekaService, TimeoutProperties timeouts) {
         this.eurekaService = eurekaService;
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * Handles the Eureka query request using the server's default time budget.
+     *
+     * @param groupBy    the grouping strategy to use (e.g., by services, by servers)
+     * @param eurekaURL  the URL of the Eureka server to query
+     * @return a structured {@link EurekaQueryResponse} containing the grouped result
+     */
+    public EurekaQueryResponse<GroupedResult> handleQuery(String groupBy, String eurekaURL) {
+        return handleQuery(groupBy, eurekaURL, null);
     }
 
     /**
@@ -39,28 +59,103 @@ public class EurekaQueryService {
      *
      * @param groupBy    the grouping strategy to use (e.g., by services, by servers)
      * @param eurekaURL  the URL of the Eureka server to query
+     * @param timeoutMs  the caller's time budget in milliseconds, or {@code null} for the server default
      * @return a structured {@link EurekaQueryResponse} containing the grouped result
+     * @throws com.dafreurekadetails.exception.EurekaTimeoutException if the budget is spent before the query completes
      */
-    public EurekaQueryResponse<GroupedResult> handleQuery(String groupBy, String eurekaURL) {
+    public EurekaQueryResponse<GroupedResult> handleQuery(String groupBy, String eurekaURL, Long timeoutMs) {
+        return execute(groupBy, eurekaURL, timeoutMs, () -> eurekaService.group(groupBy, eurekaURL));
+    }
+
+    /**
+     * Handles a query for the registry as it was at an earlier moment, served from the registry history.
+     *
+     * @param groupBy    the grouping strategy to use (e.g., by services, by servers)
+     * @param eurekaURL  the URL of the Eureka server whose history to read
+     * @param asOf       the moment to look at, in milliseconds since the epoch
+     * @param timeoutMs  the caller's time budget in milliseconds, or {@code null} for the server default
+     * @return a structured {@link EurekaQueryResponse} containing the grouped result as of that moment
+     */
+    public EurekaQueryResponse<GroupedResult> handleQueryAsOf(String groupBy, String eurekaURL, long asOf, Long timeoutMs) {
+        return execute(groupBy, eurekaURL, timeoutMs, () -> eurekaService.groupAsOf(groupBy, eurekaURL, asOf));
+    }
+
+    /**
+     * Handles an index lookup: only the instances whose field equals the given value are grouped.
+     *
+     * @param groupBy    the grouping strategy to use (e.g., by services, by servers)
+     * @param eurekaURL  the URL of the Eureka server to query
+     * @param field      the indexed field to match on
+     * @param value      the value the field must equal
+     * @param timeoutMs  the caller's time budget in milliseconds, or {@code null} for the server default
+     * @return a structured {@link EurekaQueryResponse} containing the grouped matching instances
+     * @throws com.dafreurekadetails.exception.EurekaTimeoutException if the budget is spent before the lookup completes
+     */
+    public EurekaQueryResponse<GroupedResult> handleLookup(String groupBy, String eurekaURL, IndexedField field, String value, Long timeoutMs) {
+        return execute(groupBy, eurekaURL, timeoutMs, () -> eurekaService.lookup(groupBy, eurekaURL, field, value));
+    }
+
+    /**
+     * Handles a type-ahead search over the registry's service and host names.
+     *
+     * @param eurekaURL  the URL of the Eureka server to query
+     * @param query      the typed prefix
+     * @param kind       {@code services}, {@code hosts} or {@code all}
+     * @param fuzzy      whether to tolerate typos in the query
+     * @param limit      the maximum number of matches
+     * @param timeoutMs  the caller's time budget in milliseconds, or {@code null} for the server default
+     * @return a structured {@link EurekaQueryResponse} containing the matching names
+     * @throws com.dafreurekadetails.exception.EurekaTimeoutException if the budget is spent before the search completes
+     */
+    public EurekaQueryResponse<GroupedResult> handleSearch(String eurekaURL, String query, String kind, boolean fuzzy, int limit, Long timeoutMs) {
+        return execute("search", eurekaURL, timeoutMs, () -> eurekaService.search(eurekaURL, query, kind, fuzzy, limit));
+    }
+
+    /**
+     * Handles a diff between two registries, each either current or as recorded at an earlier moment.
+     *
+     * @param baseURL    the Eureka server URL to compare from
+     * @param baseAsOf   the moment of the base registry in milliseconds since the epoch, or {@code null} for now
+     * @param targetURL  the Eureka server URL to compare to
+     * @param targetAsOf the moment of the target registry in milliseconds since the epoch, or {@code null} for now
+     * @param timeoutMs  the caller's time budget in milliseconds, or {@code null} for the server default
+     * @return a structured {@link EurekaQueryResponse} containing the differences
+     * @throws com.dafreurekadetails.exception.EurekaTimeoutException if the budget is spent before both registries are loaded
+     */
+    public EurekaQueryResponse<GroupedResult> handleDiff(String baseURL, Long baseAsOf, String targetURL, Long targetAsOf, Long timeoutMs) {
+        return execute("diff", baseURL, timeoutMs, () -> {
+            validateEurekaURL(targetURL);
+            return eurekaService.diff(baseURL, baseAsOf, targetURL, targetAsOf);
+        });
+    }
+
+    private EurekaQueryResponse<GroupedResult> execute(String groupBy, String eurekaURL, Long timeoutMs, Supplier<GroupedResult> grouping) {
         long startTime = System.currentTimeMillis();
         String transactionId = (String) RequestContextHolder.getRequestAttributes()
                 .getAttribute("transactionId", RequestAttributes.SCOPE_REQUEST);
 
         APP_LOGGER.info("Starting Eureka query - GroupBy: {}, URL: {}", groupBy, eurekaURL);
 
+        EurekaQueryEvent event = new EurekaQueryEvent();
+        event.begin();
+        ReturnCode outcome = ReturnCode.UNKNOWN;
+        Deadline previousDeadline = DeadlineContext.current();
+        DeadlineContext.bind(Deadline.after(timeouts.budgetFor(timeoutMs)));
         try {
             validateEurekaURL(eurekaURL);
 
-            GroupedResult data = eurekaService.group(groupBy, eurekaURL);
+            GroupedResult data = grouping.get();
             double elapsedTime = calculateElapsedTime(startTime);
 
             APP_LOGGER.info("Eureka query completed successfully in {} ms", elapsedTime);
 
+            outcome = ReturnCode.SUCCESS;
             return EurekaQueryResponse.from(ReturnCode.SUCCESS,ReturnCode.SUCCESS.getMessage(), transactionId, elapsedTime, data);
 
         }catch (ApiException ex) {
             double elapsedTime = calculateElapsedTime(startTime);
             APP_LOGGER.warn("Handled API error after {} ms: {}", elapsedTime, ex.getMessage());
+            outcome = ex.returnCode();
             throw ex;
 
         } catch (Exception ex) {
@@ -68,15 +163,39 @@ public class EurekaQueryService {
             APP_LOGGER.error("Eureka query failed after {} ms: {}" ,elapsedTime, ex.getMessage(), ex);
             throw new GroupingException("Eureka query [" + transactionId + "] failed after " + (long) elapsedTime + " ms", ex);
 
+        } finally {
+            restoreDeadline(previousDeadline);
+            commitEvent(event, transactionId, groupBy, eurekaURL, outcome);
+        }
+    }
+
+    private void restoreDeadline(Deadline previousDeadline) {
+        if (previousDeadline != null) {
+            DeadlineContext.bind(previousDeadline);
+        } else {
+            DeadlineContext.clear();
+        }
+    }
+
+    //Fields are only populated when the recording actually keeps the event.
+    static void commitEvent(EurekaQueryEvent event, String transactionId, String groupBy, String eurekaURL, ReturnCode outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.transactionId = transactionId;
+            event.groupBy = groupBy;
+            event.eurekaUrl = eurekaURL;
+            event.returnCode = outcome.getCode();
+            event.commit();
         }
     }
     /**
      * Validates the Eureka URL to ensure it is well-formed and points to a valid Eureka endpoint.
+     * Batch queries validate each of their URLs through here as well.
      *
      * @param url the URL to validate
      * @throws InvalidRequestException if the URL is invalid or missing required parts
      */
-    private void validateEurekaURL(String url) {
+    static void validateEurekaURL(String url) {
         if (url == null) {
             throw new InvalidRequestException("Invalid URL format: null");
         }
@@ -1,19 +1,56 @@
 package com.dafreurekadetails.service;
 
+import com.dafreurekadetails.deadline.Deadline;
+import com.dafreurekadetails.deadline.DeadlineContext;
+import com.dafreurekadetails.dto.DiffResult;
 import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.dto.SearchResult;
+import com.dafreurekadetails.dto.diffdto.InstanceDiff;
+import com.dafreurekadetails.dto.searchdto.NameMatch;
+import com.dafreurekadetails.exception.GroupingException;
+import com.dafreurekadetails.exception.InvalidRequestException;
 import com.dafreurekadetails.service.strategy.GroupingStrategy;
 import com.dafreurekadetails.service.strategy.GroupingStrategyFactory;
+import com.dafreurekadetails.snapshot.IndexedField;
+import com.dafreurekadetails.snapshot.IndexedRegistry;
+import com.dafreurekadetails.snapshot.NameIndex;
+import com.dafreurekadetails.snapshot.RegistryHistory;
+import com.dafreurekadetails.snapshot.RegistryView;
+import com.dafreurekadetails.snapshot.SnapshotDiffer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 /**
  * EurekaService delegates the grouping logic to the appropriate {@link GroupingStrategy}
- * implementation based on the given grouping key.
+ * implementation based on the given grouping key. When the snapshot store is enabled the
+ * strategy groups the cached off-heap registry instead of fetching it; when the registry history
+ * is enabled, registries are loaded through the {@link RegistrySnapshotLoader} so that every
+ * fetch is recorded.
  */
 @Service
 public class EurekaService {
     private final GroupingStrategyFactory strategyFactory;
+    private final RegistrySnapshotLoader snapshotLoader;
+    private final RegistryHistory history;
+    private final ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
-    public EurekaService(GroupingStrategyFactory strategyFactory) {
+    public EurekaService(GroupingStrategyFactory strategyFactory, RegistrySnapshotLoader snapshotLoader,
+                         RegistryHistory history) {
         this.strategyFactory = strategyFactory;
+        this.snapshotLoader = snapshotLoader;
+        this.history = history;
     }
     /**
      * Executes grouping logic for Eureka apps using the strategy resolved by the given key.
@@ -24,6 +61,173 @@ public class EurekaService {
      */
     public GroupedResult group(String groupBy, String eurekaURL){
         GroupingStrategy strategy = strategyFactory.resolve(groupBy);
+        if (snapshotLoader.isEnabled()) {
+            return strategy.group(snapshotLoader.load(eurekaURL));
+        }
         return strategy.group(eurekaURL);
     }
+
+    /**
+     * Groups the registry of a Eureka server as it was last recorded at or before the given time,
+     * rebuilt from the {@link RegistryHistory} without contacting the server.
+     *
+     * @param groupBy    the key to determine which strategy to use
+     * @param eurekaURL  the Eureka server URL whose history to read
+     * @param asOf       the moment to look at, in milliseconds since the epoch
+     * @return the grouped result as of that moment
+     * @throws InvalidRequestException if the history is disabled or holds no recording that old
+     */
+    public GroupedResult groupAsOf(String groupBy, String eurekaURL, long asOf) {
+        GroupingStrategy strategy = strategyFactory.resolve(groupBy);
+        return strategy.group(recorded(eurekaURL, asOf));
+    }
+
+    private RegistryView recorded(String eurekaURL, long asOf) {
+        if (!history.isEnabled()) {
+            throw new InvalidRequestException("Registry history is disabled; asOf queries need cdi.eureka.history.enabled=true");
+        }
+        RegistryView registry = history.asOf(eurekaURL, asOf);
+        if (registry == null) {
+            Long oldest = history.oldestRecording(eurekaURL);
+            throw new InvalidRequestException("No registry of " + eurekaURL + " recorded at or before " + Instant.ofEpochMilli(asOf)
+                    + (oldest != null ? "; the oldest recording is from " + Instant.ofEpochMilli(oldest) : ""));
+        }
+        return registry;
+    }
+
+    /**
+     * Groups only the instances whose indexed field equals the given value, found through
+     * the registry's secondary indexes rather than a full grouping pass.
+     *
+     * @param groupBy    the key to determine which strategy to use
+     * @param eurekaURL  the Eureka server URL to fetch data from
+     * @param field      the indexed field to match on
+     * @param value      the value the field must equal
+     * @return the grouped matching instances
+     */
+    public GroupedResult lookup(String groupBy, String eurekaURL, IndexedField field, String value) {
+        GroupingStrategy strategy = strategyFactory.resolve(groupBy);
+        IndexedRegistry registry = snapshotLoader.loadIndexed(eurekaURL);
+        return strategy.group(registry.select(field, value));
+    }
+
+    /**
+     * Finds the service and host names starting with the typed query, using the registry's name tries.
+     *
+     * @param eurekaURL  the Eureka server URL to fetch data from
+     * @param query      the typed prefix
+     * @param kind       {@code services}, {@code hosts} or {@code all}
+     * @param fuzzy      whether to tolerate typos in the query
+     * @param limit      the maximum number of matches
+     * @return the best matching names
+     */
+    public SearchResult search(String eurekaURL, String query, String kind, boolean fuzzy, int limit) {
+        NameIndex names = snapshotLoader.loadIndexed(eurekaURL).names();
+        List<NameMatch> matches = names.search(kinds(kind), query, fuzzy, limit).stream()
+                .map(hit -> new NameMatch(hit.match().name(), hit.kind().key(),
+                        hit.match().weight(), hit.match().distance()))
+                .toList();
+        return new SearchResult(matches);
+    }
+
+    /**
+     * Compares the current registries of two Eureka servers, loading both at the same time.
+     *
+     * @param baseURL   the Eureka server URL to compare from
+     * @param targetURL the Eureka server URL to compare to
+     * @return the added, removed and modified instances, with the fields that changed
+     */
+    public DiffResult diff(String baseURL, String targetURL) {
+        return diff(baseURL, null, targetURL, null);
+    }
+
+    /**
+     * Compares two registries, each either current or as last recorded at or before a moment, e.g.
+     * a server now against the same server ten minutes ago. Current registries are loaded at the
+     * same time; recorded ones are rebuilt from the {@link RegistryHistory}.
+     *
+     * @param baseURL    the Eureka server URL to compare from
+     * @param baseAsOf   the moment of the base registry in milliseconds since the epoch, or {@code null} for now
+     * @param targetURL  the Eureka server URL to compare to
+     * @param targetAsOf the moment of the target registry in milliseconds since the epoch, or {@code null} for now
+     * @return the added, removed and modified instances, with the fields that changed
+     * @throws InvalidRequestException if a moment is given but the history is disabled or holds no recording that old
+     */
+    public DiffResult diff(String baseURL, Long baseAsOf, String targetURL, Long targetAsOf) {
+        Future<RegistryView> target = targetAsOf != null
+                ? CompletableFuture.completedFuture(recorded(targetURL, targetAsOf))
+                : loadInBackground(targetURL);
+        RegistryView base;
+        try {
+            base = baseAsOf != null ? recorded(baseURL, baseAsOf) : snapshotLoader.load(baseURL);
+        } catch (RuntimeException ex) {
+            target.cancel(true);
+            throw ex;
+        }
+        return diff(base, join(target, targetURL));
+    }
+
+    static DiffResult diff(RegistryView base, RegistryView target) {
+        List<InstanceDiff> differences = SnapshotDiffer.compare(base, target);
+        int added = 0;
+        int removed = 0;
+        for (InstanceDiff difference : differences) {
+            switch (difference.change()) {
+                case InstanceDiff.ADDED -> added++;
+                case InstanceDiff.REMOVED -> removed++;
+                default -> { }
+            }
+        }
+        int modified = differences.size() - added - removed;
+        return new DiffResult(added, removed, modified, target.size() - added - modified, differences);
+    }
+
+    //The load runs under the caller's deadline and transaction ID, as if it ran on the caller's thread.
+    private Future<RegistryView> loadInBackground(String eurekaURL) {
+        Deadline deadline = DeadlineContext.current();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return loadExecutor.submit(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            if (deadline != null) {
+                DeadlineContext.bind(deadline);
+            }
+            try {
+                return snapshotLoader.load(eurekaURL);
+            } finally {
+                DeadlineContext.clear();
+                MDC.clear();
+            }
+        });
+    }
+
+    //Upstream calls are bounded by the deadline, so the load cannot outlive it.
+    private static RegistryView join(Future<RegistryView> load, String eurekaURL) {
+        try {
+            return load.get();
+        } catch (InterruptedException ex) {
+            load.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new GroupingException("Interrupted while loading registry of " + eurekaURL, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new GroupingException("Failed to load registry of " + eurekaURL, ex.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loadExecutor.shutdownNow();
+    }
+
+    private static Set<NameIndex.Kind> kinds(String kind) {
+        return switch (kind == null ? "all" : kind.toLowerCase(Locale.ROOT)) {
+            case "services" -> EnumSet.of(NameIndex.Kind.SERVICE);
+            case "hosts" -> EnumSet.of(NameIndex.Kind.HOST);
+            default -> EnumSet.allOf(NameIndex.Kind.class);
+        };
+    }
 }
@@ -0,0 +1,196 @@
+package com.dafreurekadetails.service;
+
+import com.dafreurekadetails.deadline.Deadline;
+import com.dafreurekadetails.deadline.DeadlineContext;
+import com.dafreurekadetails.exception.DeadlineExceededException;
+import com.dafreurekadetails.exception.GroupingException;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import com.dafreurekadetails.logger.AppLogger;
+import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.snapshot.IndexedRegistry;
+import com.dafreurekadetails.snapshot.OffHeapSnapshotStore;
+import com.dafreurekadetails.snapshot.RegistryHistory;
+import com.dafreurekadetails.snapshot.RegistrySnapshot;
+import com.dafreurekadetails.snapshot.RegistryView;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+/**
+ * RegistrySnapshotLoader serves registries from the {@link OffHeapSnapshotStore}, fetching and
+ * encoding a fresh snapshot from the Eureka server when the cached one is missing or expired.
+ * Without the store every load fetches the registry, and records every fetched registry in the
+ * {@link RegistryHistory}. Indexed registries, for lookups and searches, are only served from the
+ * store, where their indexes are built once per fetch rather than once per query.
+ * <p>
+ * Concurrent misses for the same URL share a single fetch: the first caller fetches and stores the
+ * registry, and the others wait for it within their own deadlines.
+ */
+@Component
+public class RegistrySnapshotLoader {
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(RegistrySnapshotLoader.class);
+    private final EurekaClientHelper eurekaClient;
+    private final InstanceMapper instanceMapper;
+    private final OffHeapSnapshotStore store;
+    private final RegistryHistory history;
+    private final ConcurrentHashMap<String, CompletableFuture<IndexedRegistry>> inFlight = new ConcurrentHashMap<>();
+
+    public RegistrySnapshotLoader(EurekaClientHelper eurekaClient, InstanceMapper instanceMapper, OffHeapSnapshotStore store,
+                                  RegistryHistory history) {
+        this.eurekaClient = eurekaClient;
+        this.instanceMapper = instanceMapper;
+        this.store = store;
+        this.history = history;
+    }
+
+    /**
+     * @return whether queries should go through this loader: to be served from the snapshot store,
+     *         or to have every fetched registry recorded in the history
+     */
+    public boolean isEnabled() {
+        return store.isEnabled() || history.isEnabled();
+    }
+
+    /**
+     * Returns the registry of the given Eureka server, from the store if it is fresh enough.
+     *
+     * @param eurekaServerUrl the Eureka server URL
+     * @return a view over the registry's instances
+     * @throws InvalidRequestException     if the URL is null or blank
+     * @throws ServiceUnavailableException if the Eureka server does not respond
+     */
+    public RegistryView load(String eurekaServerUrl) {
+        if (!StringUtils.hasText(eurekaServerUrl)) {
+            throw new InvalidRequestException("Eureka server URL cannot be null or blank");
+        }
+        return store.isEnabled()
+                ? loadIndexed(eurekaServerUrl).registry()
+                : fetchSnapshot(eurekaServerUrl);
+    }
+
+    /**
+     * Returns the registry of the given Eureka server with its secondary indexes, from the store
+     * if it is fresh enough.
+     *
+     * @param eurekaServerUrl the Eureka server URL
+     * @return the registry with its indexes
+     * @throws InvalidRequestException     if the URL is null or blank, or the snapshot store is disabled
+     * @throws ServiceUnavailableException if the Eureka server does not respond
+     */
+    public IndexedRegistry loadIndexed(String eurekaServerUrl) {
+        if (!StringUtils.hasText(eurekaServerUrl)) {
+            throw new InvalidRequestException("Eureka server URL cannot be null or blank");
+        }
+        if (!store.isEnabled()) {
+            throw new InvalidRequestException("Lookups and searches are served from the snapshot store;"
+                    + " they need cdi.eureka.snapshot-store.enabled=true");
+        }
+        IndexedRegistry cached = store.get(eurekaServerUrl);
+        if (cached != null) {
+            APP_LOGGER.debug("Serving registry of {} from the snapshot store", eurekaServerUrl);
+            return cached;
+        }
+        return fetchShared(eurekaServerUrl);
+    }
+
+    //A waiter whose fetcher ran out of its own deadline takes over the fetch instead of failing with it.
+    private IndexedRegistry fetchShared(String eurekaServerUrl) {
+        while (true) {
+            CompletableFuture<IndexedRegistry> mine = new CompletableFuture<>();
+            CompletableFuture<IndexedRegistry> running = inFlight.putIfAbsent(eurekaServerUrl, mine);
+            if (running == null) {
+                return fetchAndPublish(eurekaServerUrl, mine);
+            }
+            APP_LOGGER.debug("Waiting for the fetch of {} already in flight", eurekaServerUrl);
+            IndexedRegistry shared = await(running, eurekaServerUrl);
+            if (shared != null) {
+                return shared;
+            }
+            DeadlineContext.check("fetching registry of " + eurekaServerUrl);
+        }
+    }
+
+    private IndexedRegistry fetchAndPublish(String eurekaServerUrl, CompletableFuture<IndexedRegistry> result) {
+        try {
+            //A fetch that finished between the miss and claiming this one has stored its registry already.
+            IndexedRegistry registry = store.get(eurekaServerUrl);
+            if (registry == null) {
+                registry = fetch(eurekaServerUrl);
+            }
+            result.complete(registry);
+            return registry;
+        } catch (RuntimeException | Error ex) {
+            result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(eurekaServerUrl, result);
+        }
+    }
+
+    /**
+     * @return the shared registry, or {@code null} if its fetch ran out of the fetcher's deadline
+     */
+    private static IndexedRegistry await(CompletableFuture<IndexedRegistry> running, String eurekaServerUrl) {
+        Deadline deadline = DeadlineContext.current();
+        try {
+            return deadline != null
+                    ? running.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS)
+                    : running.get();
+        } catch (TimeoutException ex) {
+            throw new DeadlineExceededException("Request deadline of " + deadline.budgetMillis()
+                    + " ms exceeded while waiting for the registry of " + eurekaServerUrl, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GroupingException("Interrupted while waiting for the registry of " + eurekaServerUrl, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof DeadlineExceededException) {
+                return null;
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new GroupingException("Failed to load registry of " + eurekaServerUrl, ex.getCause());
+        }
+    }
+
+    /**
+     * Fetches the registry of the given Eureka server even if the store holds a fresh copy, and
+     * stores it, e.g. to replace a snapshot restored from disk.
+     *
+     * @param eurekaServerUrl the Eureka server URL
+     * @return the fetched registry with its indexes
+     * @throws InvalidRequestException     if the URL is null or blank
+     * @throws ServiceUnavailableException if the Eureka server does not respond
+     */
+    public IndexedRegistry refresh(String eurekaServerUrl) {
+        if (!StringUtils.hasText(eurekaServerUrl)) {
+            throw new InvalidRequestException("Eureka server URL cannot be null or blank");
+        }
+        return fetch(eurekaServerUrl);
+    }
+
+    private IndexedRegistry fetch(String eurekaServerUrl) {
+        return store.put(eurekaServerUrl, fetchSnapshot(eurekaServerUrl));
+    }
+
+    private RegistrySnapshot fetchSnapshot(String eurekaServerUrl) {
+        JsonNode root = eurekaClient.getEurekaApps(eurekaServerUrl);
+        if (root == null || root.isMissingNode()) {
+            throw new ServiceUnavailableException("Eureka server does not response" + eurekaServerUrl);
+        }
+        DeadlineContext.check("encoding registry snapshot");
+        RegistrySnapshot snapshot = instanceMapper.mapToSnapshot(root);
+        history.record(eurekaServerUrl, snapshot);
+        return snapshot;
+    }
+}
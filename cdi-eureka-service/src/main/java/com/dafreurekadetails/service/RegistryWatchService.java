@@ -0,0 +1,308 @@
+package com.dafreurekadetails.service;
+
+import com.dafreurekadetails.config.TimeoutProperties;
+import com.dafreurekadetails.config.WatchProperties;
+import com.dafreurekadetails.deadline.Deadline;
+import com.dafreurekadetails.deadline.DeadlineContext;
+import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.dto.response.EurekaQueryResponse;
+import com.dafreurekadetails.dto.response.ReturnCode;
+import com.dafreurekadetails.dto.watchdto.InstanceChange;
+import com.dafreurekadetails.dto.watchdto.RegistryChanges;
+import com.dafreurekadetails.exception.ApiException;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import com.dafreurekadetails.logger.AppLogger;
+import com.dafreurekadetails.service.strategy.GroupingStrategyFactory;
+import com.dafreurekadetails.snapshot.RegistryView;
+import com.dafreurekadetails.snapshot.SnapshotDiffer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+/**
+ * RegistryWatchService streams registry changes to Server-Sent Events subscribers.
+ * <p>
+ * Every watched Eureka URL has one refresh loop on a virtual thread, shared by all of its
+ * subscribers whatever their grouping. Each refresh is diffed against the previous one with
+ * {@link SnapshotDiffer}, and only the changed instances are pushed. A new subscriber first gets
+ * a grouped snapshot of the latest refresh, so it never misses a change. The loop stops once
+ * its last subscriber has gone. At most {@code max-registries} URLs are watched at once.
+ * <p>
+ * The refresh loop only queues events; each subscriber groups its snapshot and writes to its
+ * stream from its own virtual thread, in the order the events were queued, so a slow client never
+ * holds up the refresh or the other subscribers. A subscriber more than {@code subscriber-backlog}
+ * events behind is disconnected and gets a fresh snapshot when it reconnects.
+ * <p>
+ * Events: {@code snapshot} carries an {@link EurekaQueryResponse} like the apps endpoint,
+ * {@code changes} a {@link RegistryChanges}, and {@code upstream-error} the error of a failed
+ * refresh, after which the stream carries on with the next refresh.
+ */
+@Service
+public class RegistryWatchService {
+
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String CHANGES_EVENT = "changes";
+    static final String ERROR_EVENT = "upstream-error";
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(RegistryWatchService.class);
+    private final RegistrySnapshotLoader snapshotLoader;
+    private final GroupingStrategyFactory strategyFactory;
+    private final TimeoutProperties timeouts;
+    private final WatchProperties watch;
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService senderExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RegistryWatchService(RegistrySnapshotLoader snapshotLoader, GroupingStrategyFactory strategyFactory,
+                                TimeoutProperties timeouts, WatchProperties watch) {
+        this.snapshotLoader = snapshotLoader;
+        this.strategyFactory = strategyFactory;
+        this.timeouts = timeouts;
+        this.watch = watch;
+    }
+
+    /**
+     * @return a new emitter that stays open for the configured stream timeout
+     */
+    public SseEmitter newEmitter() {
+        return new SseEmitter(watch.streamTimeout().toMillis());
+    }
+
+    /**
+     * Subscribes an emitter to the changes of a registry, starting the registry's refresh loop
+     * if nobody watches it yet.
+     *
+     * @param emitter   the stream to send events to
+     * @param eurekaURL the Eureka server URL to watch
+     * @param groupBy   the grouping of the initial snapshot
+     * @throws ServiceUnavailableException if the URL is not watched yet and {@code max-registries} already are
+     */
+    public void subscribe(SseEmitter emitter, String eurekaURL, String groupBy) {
+        Subscriber subscriber = new Subscriber(emitter, groupBy.toLowerCase(Locale.ROOT), MDC.get("transactionId"),
+                Math.max(1, watch.subscriberBacklog()));
+        //Joining inside compute keeps a stopping loop from removing the topic under a new subscriber.
+        Topic topic = topics.compute(eurekaURL, (url, existing) -> {
+            if (existing == null && topics.size() >= watch.maxRegistries()) {
+                throw new ServiceUnavailableException(ReturnCode.SERVICE_UNAVAILABLE,
+                        "At most " + watch.maxRegistries() + " registries can be watched at once");
+            }
+            Topic joined = existing != null ? existing : new Topic(url);
+            synchronized (joined) {
+                joined.subscribers.add(subscriber);
+            }
+            return joined;
+        });
+        emitter.onCompletion(() -> topic.remove(subscriber));
+        emitter.onTimeout(() -> topic.remove(subscriber));
+        emitter.onError(ex -> topic.remove(subscriber));
+
+        synchronized (topic) {
+            //A refresh may have primed the subscriber since it joined.
+            if (topic.latest != null && !subscriber.primed) {
+                prime(topic, subscriber, new Groupings(strategyFactory, topic.latest));
+            }
+        }
+        if (topic.started.compareAndSet(false, true)) {
+            APP_LOGGER.info("Starting watch of {}", eurekaURL);
+            refreshExecutor.submit(() -> run(topic));
+        }
+    }
+
+    /**
+     * @return the number of registries currently being watched
+     */
+    public int watchedRegistries() {
+        return topics.size();
+    }
+
+    private void run(Topic topic) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                refresh(topic);
+                Thread.sleep(watch.refreshInterval());
+                if (topics.computeIfPresent(topic.url, (url, current) -> current == topic && topic.isIdle() ? null : current) != topic) {
+                    APP_LOGGER.info("Stopped watch of {}: no subscribers left", topic.url);
+                    return;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void refresh(Topic topic) {
+        DeadlineContext.bind(Deadline.after(timeouts.defaultRequest()));
+        try {
+            RegistryView next = snapshotLoader.load(topic.url);
+            //Only this loop replaces the latest registry, so it can diff against it without the lock.
+            RegistryView previous = topic.latest;
+            List<InstanceChange> changes = previous != null ? SnapshotDiffer.diff(previous, next) : List.of();
+            synchronized (topic) {
+                publish(topic, next, changes);
+            }
+        } catch (ApiException ex) {
+            APP_LOGGER.warn("Refresh of watched registry {} failed: {}", topic.url, ex.getMessage());
+            synchronized (topic) {
+                for (Subscriber subscriber : List.copyOf(topic.subscribers)) {
+                    enqueue(topic, subscriber, () -> SseEmitter.event().name(ERROR_EVENT).data(EurekaQueryResponse.from(
+                            ex.returnCode(), ex.getMessage(), subscriber.transactionId, 0, null)));
+                }
+            }
+        } catch (Exception ex) {
+            APP_LOGGER.error("Refresh of watched registry {} failed: {}", topic.url, ex.getMessage(), ex);
+        } finally {
+            DeadlineContext.clear();
+        }
+    }
+
+    //Runs under the topic's lock, so every subscriber's queue holds its snapshot before the changes that follow it.
+    private void publish(Topic topic, RegistryView next, List<InstanceChange> changes) {
+        topic.latest = next;
+        if (!changes.isEmpty()) {
+            topic.sequence++;
+            APP_LOGGER.debug("Watched registry {} changed: {} instances", topic.url, changes.size());
+        }
+        String id = Long.toString(topic.sequence);
+        RegistryChanges event = new RegistryChanges(topic.url, topic.sequence, changes);
+        Groupings groupings = new Groupings(strategyFactory, next);
+        for (Subscriber subscriber : List.copyOf(topic.subscribers)) {
+            if (!subscriber.primed) {
+                prime(topic, subscriber, groupings);
+            } else if (!changes.isEmpty()) {
+                enqueue(topic, subscriber, () -> SseEmitter.event().id(id).name(CHANGES_EVENT).data(event));
+            }
+        }
+    }
+
+    //The snapshot is grouped on the subscriber's own thread; subscribers with the same grouping share it.
+    private void prime(Topic topic, Subscriber subscriber, Groupings groupings) {
+        subscriber.primed = true;
+        String id = Long.toString(topic.sequence);
+        enqueue(topic, subscriber, () -> SseEmitter.event().id(id).name(SNAPSHOT_EVENT).data(EurekaQueryResponse.from(
+                ReturnCode.SUCCESS, ReturnCode.SUCCESS.getMessage(), subscriber.transactionId, 0, groupings.get(subscriber.groupBy))));
+    }
+
+    private void enqueue(Topic topic, Subscriber subscriber, Supplier<SseEmitter.SseEventBuilder> event) {
+        if (!subscriber.outbox.offer(event)) {
+            APP_LOGGER.warn("Dropping watch subscriber of {}: more than {} events behind", topic.url, watch.subscriberBacklog());
+            drop(topic, subscriber, new IOException("Subscriber fell more than " + watch.subscriberBacklog() + " events behind"));
+            return;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senderExecutor.execute(() -> drain(topic, subscriber));
+        }
+    }
+
+    //Sends queued events until none are left; a failed send leaves the flag set, as the subscriber is gone.
+    private void drain(Topic topic, Subscriber subscriber) {
+        do {
+            Supplier<SseEmitter.SseEventBuilder> event;
+            while ((event = subscriber.outbox.poll()) != null) {
+                if (!send(topic, subscriber, event)) {
+                    subscriber.outbox.clear();
+                    return;
+                }
+            }
+            subscriber.sending.set(false);
+        } while (!subscriber.outbox.isEmpty() && subscriber.sending.compareAndSet(false, true));
+    }
+
+    private boolean send(Topic topic, Subscriber subscriber, Supplier<SseEmitter.SseEventBuilder> event) {
+        try {
+            subscriber.emitter.send(event.get());
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            APP_LOGGER.debug("Dropping watch subscriber of {}: {}", topic.url, ex.getMessage());
+            drop(topic, subscriber, ex);
+            return false;
+        } catch (RuntimeException ex) {
+            APP_LOGGER.warn("Dropping watch subscriber of {}: grouping its snapshot failed: {}", topic.url, ex.getMessage());
+            drop(topic, subscriber, ex);
+            return false;
+        }
+    }
+
+    private void drop(Topic topic, Subscriber subscriber, Throwable cause) {
+        topic.remove(subscriber);
+        subscriber.emitter.completeWithError(cause);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+        senderExecutor.shutdownNow();
+        topics.values().forEach(topic -> {
+            synchronized (topic) {
+                topic.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+                topic.subscribers.clear();
+            }
+        });
+        topics.clear();
+    }
+
+    //One watched registry; its fields are guarded by its own lock.
+    private static final class Topic {
+        final String url;
+        final List<Subscriber> subscribers = new ArrayList<>();
+        final AtomicBoolean started = new AtomicBoolean();
+        volatile RegistryView latest;
+        long sequence;
+
+        Topic(String url) {
+            this.url = url;
+        }
+
+        synchronized void remove(Subscriber subscriber) {
+            subscribers.remove(subscriber);
+        }
+
+        synchronized boolean isIdle() {
+            return subscribers.isEmpty();
+        }
+    }
+
+    //The groupings of one refresh, computed at most once each by whichever subscriber needs it first.
+    private static final class Groupings {
+        final GroupingStrategyFactory strategyFactory;
+        final RegistryView registry;
+        final Map<String, GroupedResult> results = new ConcurrentHashMap<>();
+
+        Groupings(GroupingStrategyFactory strategyFactory, RegistryView registry) {
+            this.strategyFactory = strategyFactory;
+            this.registry = registry;
+        }
+
+        GroupedResult get(String groupBy) {
+            return results.computeIfAbsent(groupBy, key -> strategyFactory.resolve(key).group(registry));
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final String groupBy;
+        final String transactionId;
+        final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> outbox;
+        final AtomicBoolean sending = new AtomicBoolean();
+        boolean primed;
+
+        Subscriber(SseEmitter emitter, String groupBy, String transactionId, int backlog) {
+            this.emitter = emitter;
+            this.groupBy = groupBy;
+            this.transactionId = transactionId;
+            this.outbox = new LinkedBlockingQueue<>(backlog);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.dafreurekadetails.service;
+
+import com.dafreurekadetails.config.PersistenceProperties;
+import com.dafreurekadetails.config.TimeoutProperties;
+import com.dafreurekadetails.deadline.Deadline;
+import com.dafreurekadetails.deadline.DeadlineContext;
+import com.dafreurekadetails.exception.ApiException;
+import com.dafreurekadetails.logger.AppLogger;
+import com.dafreurekadetails.snapshot.OffHeapSnapshot;
+import com.dafreurekadetails.snapshot.OffHeapSnapshotStore;
+import com.dafreurekadetails.snapshot.SnapshotPersistence;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+/**
+ * SnapshotWarmStart fills the snapshot store from the files persisted by the previous run before
+ * the application takes traffic, then refreshes each restored registry in the background once the
+ * application is ready. Queries are served from the restored snapshots in the meantime.
+ */
+@Component
+public class SnapshotWarmStart {
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(SnapshotWarmStart.class);
+    private final SnapshotPersistence persistence;
+    private final OffHeapSnapshotStore store;
+    private final RegistrySnapshotLoader snapshotLoader;
+    private final TimeoutProperties timeouts;
+    private final PersistenceProperties properties;
+    private final List<String> restored = new ArrayList<>();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SnapshotWarmStart(SnapshotPersistence persistence, OffHeapSnapshotStore store,
+                             RegistrySnapshotLoader snapshotLoader, TimeoutProperties timeouts,
+                             PersistenceProperties properties) {
+        this.persistence = persistence;
+        this.store = store;
+        this.snapshotLoader = snapshotLoader;
+        this.timeouts = timeouts;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    void restore() {
+        if (!persistence.isEnabled()) {
+            return;
+        }
+        if (!store.isEnabled()) {
+            APP_LOGGER.warn("Snapshot persistence needs cdi.eureka.snapshot-store.enabled=true; not restoring snapshots");
+            return;
+        }
+        for (Map.Entry<String, OffHeapSnapshot> file : persistence.restore().entrySet()) {
+            if (store.restore(file.getKey(), file.getValue())) {
+                restored.add(file.getKey());
+            }
+        }
+        APP_LOGGER.info("Restored {} registry snapshots from {}", restored.size(), properties.directory());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void refreshRestored() {
+        for (String eurekaUrl : restored) {
+            refreshExecutor.submit(() -> refresh(eurekaUrl));
+        }
+        restored.clear();
+    }
+
+    private void refresh(String eurekaUrl) {
+        DeadlineContext.bind(Deadline.after(timeouts.defaultRequest()));
+        try {
+            snapshotLoader.refresh(eurekaUrl);
+            APP_LOGGER.info("Replaced restored snapshot of {} with a fresh one", eurekaUrl);
+        } catch (ApiException ex) {
+            APP_LOGGER.warn("Refresh of restored snapshot of {} failed, serving it until it expires: {}",
+                    eurekaUrl, ex.getMessage());
+        } catch (Exception ex) {
+            APP_LOGGER.error("Refresh of restored snapshot of {} failed: {}", eurekaUrl, ex.getMessage(), ex);
+        } finally {
+            DeadlineContext.clear();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -1,6 +1,7 @@
 package com.dafreurekadetails.service.strategy;
 
 import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.snapshot.RegistryView;
 /**
  * GroupingStrategy defines the contract for grouping applications fetched from Eureka.
  * Implementations can group data based on services, servers
@@ -14,4 +15,13 @@ public interface GroupingStrategy {
      * @return grouped data encapsulated in a {@link GroupedResult}
      */
     GroupedResult group(String eurekaServerUrl);
+
+    /**
+     * Performs grouping logic on an already loaded registry, reading instances from the view
+     * instead of fetching and parsing the registry again.
+     *
+     * @param registry the registry to group
+     * @return grouped data encapsulated in a {@link GroupedResult}
+     */
+    GroupedResult group(RegistryView registry);
 }
@@ -0,0 +1,131 @@
+package com.dafreurekadetails.service.strategy;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+/**
+ * NameCounter counts occurrences of names with primitive counters in an open-addressing table.
+ * <p>
+ * Names are read straight from a parser's character buffer, and a {@code String} is only created
+ * the first time a name is seen, so counting a registry costs one allocation per distinct name
+ * rather than one per instance. Each name gets a stable id, which callers can hold on to and
+ * count later; ids stay valid when the table grows.
+ */
+final class NameCounter {
+
+    private static final int EMPTY = -1;
+
+    private String[] names = new String[16];
+    private int[] counts = new int[16];
+    private int[] table = newTable(32);
+    private int size;
+
+    /**
+     * Returns the id of the name held in {@code chars[offset, offset + length)}, adding it if needed.
+     */
+    int idOf(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                return insert(slot, new String(chars, offset, length));
+            }
+            if (matches(names[id], chars, offset, length)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Returns the id of the given name, adding it if needed.
+     */
+    int idOf(String name) {
+        int mask = table.length - 1;
+        for (int slot = mix(name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                return insert(slot, name);
+            }
+            if (names[id].equals(name)) {
+                return id;
+            }
+        }
+    }
+
+    void add(int id, int delta) {
+        counts[id] += delta;
+    }
+
+    void increment(String name) {
+        int id = idOf(name);
+        counts[id]++;
+    }
+
+    /**
+     * @return the names with a positive count, in alphabetical order
+     */
+    Map<String, Integer> toMap() {
+        Map<String, Integer> sorted = new TreeMap<>();
+        for (int id = 0; id < size; id++) {
+            if (counts[id] > 0) {
+                sorted.put(names[id], counts[id]);
+            }
+        }
+        return sorted;
+    }
+
+    private int insert(int slot, String name) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        int id = size++;
+        names[id] = name;
+        table[slot] = id;
+        //Kept at most half full, so probe sequences stay short.
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = newTable(capacity);
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(names[id].hashCode()) & mask;
+            while (rehashed[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = id;
+        }
+        table = rehashed;
+    }
+
+    private static boolean matches(String name, char[] chars, int offset, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Spreads String.hashCode's low bits, which are weak for names differing only in a trailing digit.
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+}
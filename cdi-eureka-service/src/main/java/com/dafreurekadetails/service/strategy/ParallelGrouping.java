@@ -0,0 +1,170 @@
+package com.dafreurekadetails.service.strategy;
+
+import com.dafreurekadetails.config.GroupingProperties;
+import com.dafreurekadetails.deadline.Deadline;
+import com.dafreurekadetails.deadline.DeadlineContext;
+import com.dafreurekadetails.exception.GroupingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelGrouping splits the applications array of a large registry into contiguous chunks of
+ * about the same number of instances, and maps and groups the chunks on a dedicated pool of
+ * platform threads. Each chunk builds its own partial result, which the grouping strategy then
+ * merges in chunk order, so the result is the same as on one thread.
+ * <p>
+ * The request's deadline and MDC are carried over to the pool's threads. Chunks are collected as
+ * they complete, so the first chunk to fail, whatever its position, cancels the others at once, and
+ * its exception is rethrown as it was thrown. With a parallelism of one no pool is created.
+ */
+@Component
+public class ParallelGrouping {
+
+    //More chunks than threads, so a chunk of unusually heavy applications does not hold up the rest.
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final boolean enabled;
+    private final int threshold;
+    private final int parallelism;
+    private final ExecutorService pool;
+
+    public ParallelGrouping(GroupingProperties properties) {
+        this.enabled = properties.parallel();
+        this.threshold = properties.parallelThreshold();
+        this.parallelism = properties.parallelism() > 0 ? properties.parallelism() : Runtime.getRuntime().availableProcessors();
+        this.pool = enabled && parallelism > 1
+                ? Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().name("grouping-", 0).daemon().factory())
+                : null;
+    }
+
+    /**
+     * Maps one chunk of the applications array to a partial result.
+     */
+    @FunctionalInterface
+    public interface ChunkGrouper<R> {
+        /**
+         * @param from index of the chunk's first application
+         * @param to   index after the chunk's last application
+         * @return the partial result of the chunk
+         */
+        R group(int from, int to);
+    }
+
+    /**
+     * @param apps the applications array of a registry
+     * @return whether parallel grouping is enabled and the registry has at least the threshold's number of instances
+     */
+    public boolean appliesTo(JsonNode apps) {
+        return pool != null && instanceCount(apps, 0, apps.size()) >= threshold;
+    }
+
+    /**
+     * Groups the chunks of the applications array concurrently.
+     *
+     * @param apps    the applications array of a registry
+     * @param grouper maps one chunk to its partial result
+     * @return the partial results, in the order of the chunks in the array
+     * @throws GroupingException if interrupted while waiting for the chunks
+     */
+    public <R> List<R> groupChunks(JsonNode apps, ChunkGrouper<R> grouper) {
+        List<int[]> chunks = chunks(apps);
+        Deadline deadline = DeadlineContext.current();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        CompletionService<Partial<R>> completion = new ExecutorCompletionService<>(pool);
+        List<Future<Partial<R>>> futures = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            int index = i;
+            int[] chunk = chunks.get(i);
+            futures.add(completion.submit(() -> {
+                DeadlineContext.bind(deadline);
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                try {
+                    return new Partial<>(index, grouper.group(chunk[0], chunk[1]));
+                } finally {
+                    DeadlineContext.clear();
+                    MDC.clear();
+                }
+            }));
+        }
+        List<R> partials = new ArrayList<>(Collections.nCopies(chunks.size(), null));
+        try {
+            for (int completed = 0; completed < chunks.size(); completed++) {
+                Partial<R> partial = completion.take().get();
+                partials.set(partial.index(), partial.result());
+            }
+            return partials;
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new GroupingException("Parallel grouping failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new GroupingException("Interrupted while grouping in parallel", ex);
+        }
+    }
+
+    private record Partial<R>(int index, R result) {
+    }
+
+    /**
+     * Splits the applications array into contiguous {@code [from, to)} ranges of roughly equal
+     * instance counts; an application is never split.
+     */
+    List<int[]> chunks(JsonNode apps) {
+        int total = instanceCount(apps, 0, apps.size());
+        int target = Math.max(1, total / (parallelism * CHUNKS_PER_THREAD));
+        List<int[]> chunks = new ArrayList<>();
+        int from = 0;
+        int instances = 0;
+        for (int i = 0; i < apps.size(); i++) {
+            instances += instanceCount(apps, i, i + 1);
+            if (instances >= target) {
+                chunks.add(new int[]{from, i + 1});
+                from = i + 1;
+                instances = 0;
+            }
+        }
+        if (from < apps.size()) {
+            chunks.add(new int[]{from, apps.size()});
+        }
+        return chunks;
+    }
+
+    //Eureka sends a single instance as an object rather than a one-element array.
+    private static int instanceCount(JsonNode apps, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            JsonNode instances = apps.get(i).path("instance");
+            count += instances.isArray() ? instances.size() : instances.isObject() ? 1 : 0;
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.dafreurekadetails.service.strategy;
 
+import com.dafreurekadetails.deadline.DeadlineContext;
 import com.dafreurekadetails.dto.GroupedResult;
 import com.dafreurekadetails.dto.ServerResult;
 import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.response.ReturnCode;
 import com.dafreurekadetails.dto.serverdto.ServerDetail;
 import com.dafreurekadetails.dto.serverdto.ServerGroup;
 import com.dafreurekadetails.dto.serverdto.ServiceInstance;
@@ -10,8 +12,12 @@ import com.dafreurekadetails.dto.serverdto.ServiceInstanceDetail;
 import com.dafreurekadetails.exception.*;
 import com.dafreurekadetails.logger.AppLogger;
 import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
+import com.dafreurekadetails.monitoring.GroupingEvent;
 import com.dafreurekadetails.service.EurekaClientHelper;
+import com.dafreurekadetails.snapshot.RegistryView;
 import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -24,7 +30,8 @@ import java.util.stream.Collectors;
  * It fetches all registered service instances from the Eureka server, determines their hosting servers
  * (using hostName or a fallback identifier), and groups the services under their respective servers.
  * <p>
- * This strategy is triggered when the grouping type is set to "servers".
+ * This strategy is triggered when the grouping type is set to "servers". Large registries are
+ * grouped on several threads when {@link ParallelGrouping} applies to them.
  */
 @Component("servers")
 public class ServerGroupingStrategy implements GroupingStrategy {
@@ -32,11 +39,27 @@ public class ServerGroupingStrategy implements GroupingStrategy {
     private static final AppLogger APP_LOGGER = AppLogger.getLogger(ServerGroupingStrategy.class);
     private final EurekaClientHelper eurekaClient;
     private final InstanceMapper instanceMapper;
+    private final StringPool stringPool;
+    private final ParallelGrouping parallelGrouping;
 
     public ServerGroupingStrategy(EurekaClientHelper eurekaClient,
-                                  InstanceMapper instanceMapper) {
+                                  InstanceMapper instanceMapper,
+                                  StringPool stringPool) {
+        this(eurekaClient, instanceMapper, stringPool, null);
+    }
+
+    /**
+     * @param parallelGrouping groups large registries on several threads; {@code null} always groups on the calling thread
+     */
+    @Autowired
+    public ServerGroupingStrategy(EurekaClientHelper eurekaClient,
+                                  InstanceMapper instanceMapper,
+                                  StringPool stringPool,
+                                  ParallelGrouping parallelGrouping) {
         this.eurekaClient   = Objects.requireNonNull(eurekaClient,   "EurekaClientHelper cannot be null");
         this.instanceMapper = Objects.requireNonNull(instanceMapper, "InstanceMapper cannot be null");
+        this.stringPool     = Objects.requireNonNull(stringPool,     "StringPool cannot be null");
+        this.parallelGrouping = parallelGrouping;
     }
 
     /**
@@ -56,26 +79,82 @@ public class ServerGroupingStrategy implements GroupingStrategy {
 
         APP_LOGGER.debug("Starting server grouping for Eureka URL: {}", eurekaServerUrl);
 
+        GroupingEvent event = null;
+        int applicationCount = 0;
+        int instanceCount = 0;
+        ReturnCode outcome = ReturnCode.UNKNOWN;
         try {
             JsonNode root = eurekaClient.getEurekaApps(eurekaServerUrl);
             if (root == null) {
             throw new ServiceUnavailableException("Eureka server does not response"+eurekaServerUrl);
             }
+            event = GroupingEvent.started();
 
             Map<String, List<ServiceInstance>> byHost = extractInstancesByHost(root);
             List<ServerGroup> groups = buildServerGroups(byHost);
 
+            applicationCount = root.path("applications").path("application").size();
+            for (List<ServiceInstance> services : byHost.values()) {
+                instanceCount += services.size();
+            }
+            outcome = ReturnCode.SUCCESS;
             return new ServerResult(groups);
 
         }catch (ApiException ex){
             APP_LOGGER.error(ex.getMessage(), eurekaServerUrl);
+            outcome = ex.returnCode();
             throw ex;
         }
         catch (Exception ex) {
             APP_LOGGER.error("Error grouping servers from Eureka URL: {}", eurekaServerUrl, ex);
             throw new GroupingException("Failed to group by server :"+eurekaServerUrl,ex);
+        } finally {
+            if (event != null) {
+                event.complete(eurekaServerUrl, "servers", applicationCount, instanceCount, outcome);
+            }
+        }
+    }
+    /**
+     * Groups the instances of an already loaded registry by server (hostname).
+     *
+     * @param registry the registry to group
+     * @return a {@link GroupedResult} containing service instances grouped by server(host)
+     * @throws GroupingException if any unexpected error occurs while grouping the instances
+     */
+    @Override
+    public GroupedResult group(RegistryView registry) {
+        GroupingEvent event = GroupingEvent.started();
+        Set<String> services = new HashSet<>();
+        int instanceCount = 0;
+        ReturnCode outcome = ReturnCode.UNKNOWN;
+        try {
+            Map<String, List<ServiceInstance>> byHost = new HashMap<>();
+            for (int i = 0; i < registry.size(); i++) {
+                DeadlineContext.check("grouping by server");
+                String hostname = registry.hostName(i);
+                if (!StringUtils.hasText(hostname)) {
+                    APP_LOGGER.debug("Instance for service {} has empty hostname", registry.app(i));
+                    continue;
+                }
+                String serviceName = stringPool.canonical(registry.app(i));
+                ServiceInstance si = new ServiceInstance(new ServiceInstanceDetail(serviceName, registry.detail(i)));
+                byHost.computeIfAbsent(stringPool.canonical(hostname), h -> new ArrayList<>()).add(si);
+                services.add(serviceName);
+                instanceCount++;
+            }
+            outcome = ReturnCode.SUCCESS;
+            return new ServerResult(buildServerGroups(byHost));
+        } catch (ApiException ex) {
+            outcome = ex.returnCode();
+            throw ex;
+        } catch (Exception ex) {
+            APP_LOGGER.error("Error grouping servers from registry snapshot", ex);
+            throw new GroupingException("Failed to group registry snapshot by server", ex);
+        } finally {
+            event.completeSnapshot("servers", services.size(), instanceCount, outcome);
         }
     }
+
     /**
      * Extracts and groups service instances from the Eureka JSON response by their hostnames.
      *
@@ -92,12 +171,46 @@ public class ServerGroupingStrategy implements GroupingStrategy {
                 return byHost;
             }
 
+            if (parallelGrouping != null && parallelGrouping.appliesTo(appsNode)) {
+                return mergeByHost(parallelGrouping.groupChunks(appsNode, (from, to) -> {
+                    Map<String, List<ServiceInstance>> partial = new LinkedHashMap<>();
+                    for (int i = from; i < to; i++) {
+                        DeadlineContext.check("grouping by server");
+                        processApplicationNode(appsNode.get(i), partial);
+                    }
+                    return partial;
+                }));
+            }
+
             for (JsonNode appNode : appsNode) {
+                DeadlineContext.check("grouping by server");
                 processApplicationNode(appNode, byHost);
             }
             return byHost;
     }
 
+    /**
+     * Merges the per-chunk host maps in chunk order. Hosts are added in the order they first appear
+     * in the registry, and through computeIfAbsent as on one thread (it places new keys differently
+     * from put), so the merged map iterates in the same order as the sequentially built one; each
+     * host's services stay in registry order.
+     *
+     * @param partials the host maps of consecutive chunks, each in first-appearance order
+     * @return a map where keys are server names(hostnames) and values are lists of {@link ServiceInstance}s running on those hosts
+     */
+    private Map<String, List<ServiceInstance>> mergeByHost(List<Map<String, List<ServiceInstance>>> partials) {
+        Map<String, List<ServiceInstance>> byHost = new HashMap<>();
+        for (Map<String, List<ServiceInstance>> partial : partials) {
+            partial.forEach((host, services) -> {
+                List<ServiceInstance> merged = byHost.computeIfAbsent(host, h -> services);
+                if (merged != services) {
+                    merged.addAll(services);
+                }
+            });
+        }
+        return byHost;
+    }
+
     /**
      * Processes a single application node from the Eureka JSON response and populates the host-based grouping map.
      *
@@ -105,7 +218,7 @@ public class ServerGroupingStrategy implements GroupingStrategy {
      * @param byHost the map to store service instances grouped by host
      */
     private void processApplicationNode(JsonNode appNode, Map<String, List<ServiceInstance>> byHost) {
-        String serviceName = appNode.path("name").asText(null);
+        String serviceName = stringPool.canonical(appNode.path("name").asText(null));
         if (!StringUtils.hasText(serviceName)) {
             APP_LOGGER.debug("Skipping application with empty name");
             return;
@@ -133,7 +246,7 @@ public class ServerGroupingStrategy implements GroupingStrategy {
                              JsonNode instNode,
                              Map<String, List<ServiceInstance>> byHost) {
 
-        String hostname = instNode.path("hostName").asText(null);
+        String hostname = stringPool.canonical(instNode.path("hostName").asText(null));
         if (!StringUtils.hasText(hostname)) {
             APP_LOGGER.debug("Instance for service {} has empty hostname", serviceName);
             return;
@@ -1,8 +1,10 @@
 package com.dafreurekadetails.service.strategy;
 
+import com.dafreurekadetails.deadline.DeadlineContext;
 import com.dafreurekadetails.dto.GroupedResult;
 import com.dafreurekadetails.dto.ServiceResult;
 import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.response.ReturnCode;
 import com.dafreurekadetails.dto.servicedto.ServiceGroup;
 import com.dafreurekadetails.dto.servicedto.ServiceDetail;
 import com.dafreurekadetails.dto.servicedto.ServerInstance;
@@ -10,10 +12,14 @@ import com.dafreurekadetails.dto.servicedto.ServerInstanceDetail;
 import com.dafreurekadetails.exception.*;
 import com.dafreurekadetails.logger.AppLogger;
 import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
+import com.dafreurekadetails.monitoring.GroupingEvent;
 import com.dafreurekadetails.service.EurekaClientHelper;
+import com.dafreurekadetails.snapshot.RegistryView;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -26,7 +32,8 @@ import java.util.*;
  * and collects its instances. Each group in the final result corresponds to a single service name,
  * containing all its instances (servers).
  * <p>
- * This strategy is triggered when the grouping type is "services".
+ * This strategy is triggered when the grouping type is "services". Large registries are grouped on
+ * several threads when {@link ParallelGrouping} applies to them.
  */
 @Component("services")
 public class ServiceGroupingStrategy implements GroupingStrategy {
@@ -34,10 +41,23 @@ public class ServiceGroupingStrategy implements GroupingStrategy {
     private static final AppLogger APP_LOGGER = AppLogger.getLogger(ServiceGroupingStrategy.class);
     private final EurekaClientHelper eurekaClient;
     private final InstanceMapper mapper;
+    private final StringPool stringPool;
+    private final ParallelGrouping parallelGrouping;
 
-    public ServiceGroupingStrategy(EurekaClientHelper eurekaClient, InstanceMapper mapper) {
+    public ServiceGroupingStrategy(EurekaClientHelper eurekaClient, InstanceMapper mapper, StringPool stringPool) {
+        this(eurekaClient, mapper, stringPool, null);
+    }
+
+    /**
+     * @param parallelGrouping groups large registries on several threads; {@code null} always groups on the calling thread
+     */
+    @Autowired
+    public ServiceGroupingStrategy(EurekaClientHelper eurekaClient, InstanceMapper mapper, StringPool stringPool,
+                                   ParallelGrouping parallelGrouping) {
         this.eurekaClient = Objects.requireNonNull(eurekaClient, "EurekaClientHelper cannot be null");
         this.mapper = Objects.requireNonNull(mapper, "InstanceMapper cannot be null");
+        this.stringPool = Objects.requireNonNull(stringPool, "StringPool cannot be null");
+        this.parallelGrouping = parallelGrouping;
     }
     /**
      * Groups service instances retrieved from the Eureka server by their service names.
@@ -54,6 +74,10 @@ public class ServiceGroupingStrategy implements GroupingStrategy {
             throw new InvalidRequestException("Eureka server URL cannot be null or blank");
         }
 
+        GroupingEvent event = null;
+        int applicationCount = 0;
+        int instanceCount = 0;
+        ReturnCode outcome = ReturnCode.UNKNOWN;
         try {
             APP_LOGGER.debug("Grouping services for Eureka server {}", eurekaServerUrl);
 
@@ -62,23 +86,72 @@ public class ServiceGroupingStrategy implements GroupingStrategy {
                 APP_LOGGER.warn("No data from Eureka server {}", eurekaServerUrl);
                 throw  new ServiceUnavailableException("Eureka server does not response"+eurekaServerUrl);
             }
+            event = GroupingEvent.started();
 
             ArrayNode apps = extractApplicationsArray(root);
             if (apps == null || apps.isEmpty()) {
                 APP_LOGGER.info("Eureka server {} has no applications", eurekaServerUrl);
+                outcome = ReturnCode.SUCCESS;
                 return new ServiceResult(List.of());
             }
 
             List<ServiceGroup> groups = processApplications(apps);
 
+            applicationCount = apps.size();
+            for (ServiceGroup group : groups) {
+                instanceCount += group.service().servers().size();
+            }
+            outcome = ReturnCode.SUCCESS;
             return new ServiceResult(groups);
 
         }catch (ApiException ex){
             APP_LOGGER.error(ex.getMessage(), eurekaServerUrl);
+            outcome = ex.returnCode();
             throw ex;
         }
         catch (Exception ex) {
             throw new GroupingException("Failed to group by service :"+eurekaServerUrl,ex);
+        } finally {
+            if (event != null) {
+                event.complete(eurekaServerUrl, "services", applicationCount, instanceCount, outcome);
+            }
+        }
+    }
+    /**
+     * Groups the instances of an already loaded registry by their service names.
+     *
+     * @param registry the registry to group
+     * @return a grouped result containing all services and their corresponding instances
+     * @throws GroupingException if grouping fails due to unexpected errors
+     */
+    @Override
+    public GroupedResult group(RegistryView registry) {
+        GroupingEvent event = GroupingEvent.started();
+        Map<String, List<ServerInstance>> byService = new LinkedHashMap<>();
+        ReturnCode outcome = ReturnCode.UNKNOWN;
+        try {
+            for (int i = 0; i < registry.size(); i++) {
+                DeadlineContext.check("grouping by service");
+                BaseInstanceDetail det = registry.detail(i);
+                String hostname = determineHostName(registry.hostName(i), det.ipAddr(), registry.instanceId(i));
+                byService.computeIfAbsent(stringPool.canonical(registry.app(i)), s -> new ArrayList<>())
+                        .add(new ServerInstance(new ServerInstanceDetail(hostname, det)));
+            }
+            List<ServiceGroup> groups = new ArrayList<>(byService.size());
+            byService.forEach((serviceName, servers) -> groups.add(new ServiceGroup(new ServiceDetail(serviceName, servers))));
+            outcome = ReturnCode.SUCCESS;
+            return new ServiceResult(groups);
+        } catch (ApiException ex) {
+            outcome = ex.returnCode();
+            throw ex;
+        } catch (Exception ex) {
+            throw new GroupingException("Failed to group registry snapshot by service", ex);
+        } finally {
+            int instanceCount = 0;
+            for (List<ServerInstance> servers : byService.values()) {
+                instanceCount += servers.size();
+            }
+            event.completeSnapshot("services", byService.size(), instanceCount, outcome);
         }
     }
     /**
@@ -95,13 +168,28 @@ public class ServiceGroupingStrategy implements GroupingStrategy {
      * Processes the list of applications (services) returned by Eureka.
      * For each application, it builds a ServiceGroup containing all its instances.
      *
+     * Large arrays are processed in chunks on several threads, and the chunks' groups concatenated
+     * in array order.
+     *
      * @param apps the array of applications from Eureka
      * @return a list of ServiceGroup objects
      */
     private List<ServiceGroup> processApplications(ArrayNode apps) {
+        if (parallelGrouping != null && parallelGrouping.appliesTo(apps)) {
+            List<ServiceGroup> groups = new ArrayList<>(apps.size());
+            for (List<ServiceGroup> partial : parallelGrouping.groupChunks(apps, (from, to) -> processApplications(apps, from, to))) {
+                groups.addAll(partial);
+            }
+            return groups;
+        }
+        return processApplications(apps, 0, apps.size());
+    }
+
+    private List<ServiceGroup> processApplications(ArrayNode apps, int from, int to) {
         List<ServiceGroup> groups = new ArrayList<>();
-        for (JsonNode app : apps) {
-                ServiceGroup sg = processApplication(app);
+        for (int i = from; i < to; i++) {
+                DeadlineContext.check("grouping by service");
+                ServiceGroup sg = processApplication(apps.get(i));
                 if (sg != null) groups.add(sg);
         }
         return groups;
@@ -113,7 +201,7 @@ public class ServiceGroupingStrategy implements GroupingStrategy {
      * @return a ServiceGroup object containing all server instances for this service; null if invalid
      */
     private ServiceGroup processApplication(JsonNode app) {
-        String serviceName = app.path("name").asText();
+        String serviceName = stringPool.canonical(app.path("name").asText());
         if (!StringUtils.hasText(serviceName)) {
             APP_LOGGER.warn("Application name empty – skipping");
             return null;
@@ -183,13 +271,18 @@ public class ServiceGroupingStrategy implements GroupingStrategy {
      * @return the determined hostname or a fallback identifier
      */
     private String determineHostName(JsonNode instanceNode) {
-        String host = instanceNode.path("hostName").asText();
-        if (!host.isBlank()) return host;
+        return determineHostName(
+                instanceNode.path("hostName").asText(),
+                instanceNode.path("ipAddr").asText(),
+                instanceNode.path("instanceId").asText("unknown-host"));
+    }
+
+    private String determineHostName(String hostName, String ipAddr, String instanceId) {
+        if (StringUtils.hasText(hostName)) return stringPool.canonical(hostName);
 
-        host = instanceNode.path("ipAddr").asText();
-        if (!host.isBlank()) return host;
+        if (StringUtils.hasText(ipAddr)) return stringPool.canonical(ipAddr);
 
-        String fallback = instanceNode.path("instanceId").asText("unknown-host");
+        String fallback = instanceId != null ? instanceId : "unknown-host";
         APP_LOGGER.warn("No hostName/ipAddr – using instanceId {}", fallback);
         return fallback;
     }
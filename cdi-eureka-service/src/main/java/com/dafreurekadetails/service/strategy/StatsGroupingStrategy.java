@@ -0,0 +1,314 @@
+package com.dafreurekadetails.service.strategy;
+
+import com.dafreurekadetails.deadline.DeadlineContext;
+import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.dto.StatsResult;
+import com.dafreurekadetails.dto.response.ReturnCode;
+import com.dafreurekadetails.dto.statsdto.RegistryStats;
+import com.dafreurekadetails.exception.ApiException;
+import com.dafreurekadetails.exception.GroupingException;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import com.dafreurekadetails.logger.AppLogger;
+import com.dafreurekadetails.monitoring.GroupingEvent;
+import com.dafreurekadetails.service.EurekaClientHelper;
+import com.dafreurekadetails.snapshot.RegistryView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+/**
+ * StatsGroupingStrategy counts instances per service, host, status and zone without building
+ * any instance DTOs.
+ * <p>
+ * The Eureka response is read in a single streaming pass: names are counted straight from the
+ * parser's buffer into {@link NameCounter}s, so neither a JSON tree nor {@code BaseInstanceDetail},
+ * {@code ServerGroup} or {@code ServiceGroup} objects are created, and memory stays proportional
+ * to the number of distinct names rather than to the size of the registry.
+ * <p>
+ * This strategy is triggered when the grouping type is "stats".
+ */
+@Component("stats")
+public class StatsGroupingStrategy implements GroupingStrategy {
+
+    static final String UNKNOWN = "UNKNOWN";
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(StatsGroupingStrategy.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private final EurekaClientHelper eurekaClient;
+
+    public StatsGroupingStrategy(EurekaClientHelper eurekaClient) {
+        this.eurekaClient = Objects.requireNonNull(eurekaClient, "EurekaClientHelper cannot be null");
+    }
+
+    /**
+     * Counts the instances registered in the Eureka server while streaming its response.
+     *
+     * @param eurekaServerUrl the URL of the Eureka server
+     * @return the instance counts
+     * @throws InvalidRequestException     if the input URL is null or empty
+     * @throws ServiceUnavailableException if the Eureka server does not respond
+     * @throws GroupingException           if counting fails due to unexpected errors
+     */
+    @Override
+    public GroupedResult group(String eurekaServerUrl) {
+        if (!StringUtils.hasText(eurekaServerUrl)) {
+            throw new InvalidRequestException("Eureka server URL cannot be null or blank");
+        }
+
+        try {
+            APP_LOGGER.debug("Counting instances for Eureka server {}", eurekaServerUrl);
+
+            //The deadline bounds the whole fetch, including this read, so the parser needs no checks of its own.
+            RegistryStats stats = eurekaClient.streamEurekaApps(eurekaServerUrl, response -> countTimed(response.getBody(), eurekaServerUrl));
+            if (stats == null) {
+                APP_LOGGER.warn("No data from Eureka server {}", eurekaServerUrl);
+                throw new ServiceUnavailableException("Eureka server does not response" + eurekaServerUrl);
+            }
+            return new StatsResult(stats);
+
+        } catch (ApiException ex) {
+            APP_LOGGER.error(ex.getMessage(), eurekaServerUrl);
+            throw ex;
+        } catch (Exception ex) {
+            throw new GroupingException("Failed to count instances :" + eurekaServerUrl, ex);
+        }
+    }
+
+    //Times the counting pass only, from the moment the response arrives, under a GroupingEvent.
+    private RegistryStats countTimed(InputStream body, String eurekaServerUrl) throws IOException {
+        GroupingEvent event = GroupingEvent.started();
+        RegistryStats stats = null;
+        ReturnCode outcome = ReturnCode.UNKNOWN;
+        try {
+            stats = count(body);
+            outcome = stats != null ? ReturnCode.SUCCESS : ReturnCode.SERVICE_DOWN;
+            return stats;
+        } catch (ApiException ex) {
+            outcome = ex.returnCode();
+            throw ex;
+        } finally {
+            event.complete(eurekaServerUrl, "stats",
+                    stats != null ? stats.applications() : 0, stats != null ? stats.instances() : 0, outcome);
+        }
+    }
+
+    /**
+     * Counts the instances of an already loaded registry.
+     *
+     * @param registry the registry to count
+     * @return the instance counts
+     * @throws GroupingException if counting fails due to unexpected errors
+     */
+    @Override
+    public GroupedResult group(RegistryView registry) {
+        GroupingEvent event = GroupingEvent.started();
+        RegistryStats stats = null;
+        ReturnCode outcome = ReturnCode.UNKNOWN;
+        try {
+            Counters counters = new Counters();
+            for (int i = 0; i < registry.size(); i++) {
+                DeadlineContext.check("counting instances");
+                counters.services.increment(registry.app(i));
+                counters.hosts.increment(orUnknown(registry.hostName(i)));
+                counters.statuses.increment(orUnknown(registry.status(i)));
+                counters.zones.increment(orUnknown(registry.zone(i)));
+                counters.instances++;
+            }
+            stats = counters.toStats();
+            outcome = ReturnCode.SUCCESS;
+            return new StatsResult(stats);
+        } catch (ApiException ex) {
+            outcome = ex.returnCode();
+            throw ex;
+        } catch (Exception ex) {
+            throw new GroupingException("Failed to count registry snapshot instances", ex);
+        } finally {
+            event.completeSnapshot("stats", stats != null ? stats.applications() : 0, stats != null ? stats.instances() : 0, outcome);
+        }
+    }
+
+    /**
+     * Counts a Eureka /apps response in one pass. Applications without a name are skipped together
+     * with their instances, as in the other strategies.
+     *
+     * @param body the response body
+     * @return the counts, or {@code null} if the body is empty
+     */
+    RegistryStats count(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            Counters counters = new Counters();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_OBJECT && "applications".equals(field)) {
+                    readApplications(parser, counters);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return counters.toStats();
+        }
+    }
+
+    private void readApplications(JsonParser parser, Counters counters) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (!"application".equals(field)) {
+                parser.skipChildren();
+            } else if (token == JsonToken.START_ARRAY) {
+                readEach(parser, counters, this::readApplication);
+            } else if (token == JsonToken.START_OBJECT) {
+                readApplication(parser, counters);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    //Instances are only counted once the application turns out to have a name, wherever "name" appears.
+    private void readApplication(JsonParser parser, Counters counters) throws IOException {
+        String name = null;
+        counters.pending.clear();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("name".equals(field) && token == JsonToken.VALUE_STRING) {
+                name = parser.getText();
+            } else if ("instance".equals(field) && token == JsonToken.START_ARRAY) {
+                readEach(parser, counters, this::readInstance);
+            } else if ("instance".equals(field) && token == JsonToken.START_OBJECT) {
+                readInstance(parser, counters);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (!StringUtils.hasText(name)) {
+            APP_LOGGER.warn("Application name empty – skipping");
+            return;
+        }
+        int instances = counters.pending.size / 3;
+        if (instances > 0) {
+            counters.services.add(counters.services.idOf(name), instances);
+            counters.instances += instances;
+        }
+        int[] ids = counters.pending.ids;
+        for (int i = 0; i < counters.pending.size; i += 3) {
+            counters.hosts.add(ids[i], 1);
+            counters.statuses.add(ids[i + 1], 1);
+            counters.zones.add(ids[i + 2], 1);
+        }
+    }
+
+    private void readInstance(JsonParser parser, Counters counters) throws IOException {
+        int host = -1;
+        int status = -1;
+        int zone = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("hostName".equals(field) && token == JsonToken.VALUE_STRING) {
+                host = idOf(parser, counters.hosts);
+            } else if ("status".equals(field) && token == JsonToken.VALUE_STRING) {
+                status = idOf(parser, counters.statuses);
+            } else if ("metadata".equals(field) && token == JsonToken.START_OBJECT) {
+                zone = readZone(parser, counters.zones);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        counters.pending.add(host >= 0 ? host : counters.hosts.idOf(UNKNOWN));
+        counters.pending.add(status >= 0 ? status : counters.statuses.idOf(UNKNOWN));
+        counters.pending.add(zone >= 0 ? zone : counters.zones.idOf(UNKNOWN));
+    }
+
+    private int readZone(JsonParser parser, NameCounter zones) throws IOException {
+        int zone = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("zone".equals(field) && token == JsonToken.VALUE_STRING) {
+                zone = idOf(parser, zones);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return zone;
+    }
+
+    //Blank values count as missing, like in the grouped views.
+    private static int idOf(JsonParser parser, NameCounter counter) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (int i = offset; i < offset + length; i++) {
+            if (!Character.isWhitespace(chars[i])) {
+                return counter.idOf(chars, offset, length);
+            }
+        }
+        return -1;
+    }
+
+    //Reads every object of the array the parser is at, skipping anything else it contains.
+    private static void readEach(JsonParser parser, Counters counters, ObjectReader reader) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                reader.read(parser, counters);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ObjectReader {
+        void read(JsonParser parser, Counters counters) throws IOException;
+    }
+
+    private static String orUnknown(String value) {
+        return StringUtils.hasText(value) ? value : UNKNOWN;
+    }
+
+    //Counters of one pass, plus the name ids of the current application's instances.
+    private static final class Counters {
+        final NameCounter services = new NameCounter();
+        final NameCounter hosts = new NameCounter();
+        final NameCounter statuses = new NameCounter();
+        final NameCounter zones = new NameCounter();
+        final IntList pending = new IntList();
+        int instances;
+
+        RegistryStats toStats() {
+            Map<String, Integer> perService = services.toMap();
+            return new RegistryStats(perService.size(), instances,
+                    perService, hosts.toMap(), statuses.toMap(), zones.toMap());
+        }
+    }
+
+    private static final class IntList {
+        int[] ids = new int[48];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.dafreurekadetails.snapshot;
+
+import java.util.Locale;
+/**
+ * Instance fields that {@link SnapshotIndex} maintains secondary indexes for.
+ */
+public enum IndexedField {
+    HOST("host") {
+        @Override
+        String read(RegistryView registry, int index) {
+            return registry.hostName(index);
+        }
+    },
+    IP("ip") {
+        @Override
+        String read(RegistryView registry, int index) {
+            return registry.ipAddr(index);
+        }
+    },
+    STATUS("status") {
+        @Override
+        String read(RegistryView registry, int index) {
+            return registry.status(index);
+        }
+
+        //Eureka statuses are upper case; lookups should not depend on how the caller spells them.
+        @Override
+        String normalize(String value) {
+            return value == null ? null : value.toUpperCase(Locale.ROOT);
+        }
+    },
+    ZONE("zone") {
+        @Override
+        String read(RegistryView registry, int index) {
+            return registry.zone(index);
+        }
+    },
+    VERSION("version") {
+        @Override
+        String read(RegistryView registry, int index) {
+            return registry.version(index);
+        }
+    };
+
+    private final String key;
+
+    IndexedField(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    abstract String read(RegistryView registry, int index);
+
+    String normalize(String value) {
+        return value;
+    }
+
+    /**
+     * Resolves a field from its request key, ignoring case.
+     *
+     * @param key the field key, e.g. {@code host} or {@code status}
+     * @return the matching field
+     * @throws IllegalArgumentException if no field has that key
+     */
+    public static IndexedField fromKey(String key) {
+        for (IndexedField field : values()) {
+            if (field.key.equalsIgnoreCase(key)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown indexed field: " + key);
+    }
+}
@@ -0,0 +1,28 @@
+package com.dafreurekadetails.snapshot;
+
+/**
+ * A registry together with the secondary indexes built over it.
+ *
+ * @param registry the registry's instances
+ * @param index    the secondary indexes over {@code registry}
+ * @param names    the service and host names of {@code registry}, for type-ahead search
+ */
+public record IndexedRegistry(RegistryView registry, SnapshotIndex index, NameIndex names) {
+
+    /**
+     * Indexes a registry.
+     *
+     * @param registry the registry to index
+     * @return the registry with its indexes
+     */
+    public static IndexedRegistry of(RegistryView registry) {
+        return new IndexedRegistry(registry, SnapshotIndex.build(registry), NameIndex.build(registry));
+    }
+
+    /**
+     * @return a view over the instances whose field equals the given value
+     */
+    public RegistryView select(IndexedField field, String value) {
+        return index.select(registry, field, value);
+    }
+}
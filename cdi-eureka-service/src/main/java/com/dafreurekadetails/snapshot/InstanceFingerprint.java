@@ -0,0 +1,109 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.base.LeaseInfo;
+import com.dafreurekadetails.dto.base.Metadata;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+/**
+ * 64-bit fingerprints of the fields that describe an instance: service, host, addresses, ports,
+ * URLs, status, metadata and lease settings. Lease and update timestamps are left out, since they
+ * change with every heartbeat and differ between Eureka peers. Absent metadata or lease info hashes
+ * like present but empty ones, so equal fingerprints mean equal compared fields.
+ * <p>
+ * Strings are hashed over their UTF-8 bytes, so heap and off-heap snapshots of the same registry
+ * have equal fingerprints, and each snapshot hashes every distinct string only once.
+ */
+final class InstanceFingerprint {
+
+    static final long NULL_HASH = 0x9E3779B97F4A7C15L;
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private InstanceFingerprint() {
+    }
+
+    /**
+     * Fingerprints an instance from its materialized details, for views without cached string hashes.
+     */
+    static long of(String app, String hostName, BaseInstanceDetail detail) {
+        Metadata metadata = detail.metadataMap();
+        LeaseInfo lease = detail.leaseInfo();
+        long h = strings(hash(app), hash(hostName), hash(detail.ipAddr()), hash(detail.url()),
+                hash(detail.homePageUrl()), hash(detail.statusPageUrl()), hash(detail.status()));
+        h = metadata(h,
+                hash(metadata != null ? metadata.version() : null),
+                hash(metadata != null ? metadata.region() : null),
+                hash(metadata != null ? metadata.zone() : null),
+                hash(metadata != null ? metadata.instanceType() : null),
+                hash(metadata != null ? metadata.buildNumber() : null));
+        return finish(h, detail.port(), detail.securePort(), detail.isCoordinatingDiscoveryServer(),
+                lease != null ? lease.renewalIntervalInSecs() : 0, lease != null ? lease.durationInSecs() : 0);
+    }
+
+    static long strings(long app, long hostName, long ipAddr, long healthCheckUrl,
+                        long homePageUrl, long statusPageUrl, long status) {
+        long h = FNV_OFFSET;
+        h = combine(h, app);
+        h = combine(h, hostName);
+        h = combine(h, ipAddr);
+        h = combine(h, healthCheckUrl);
+        h = combine(h, homePageUrl);
+        h = combine(h, statusPageUrl);
+        return combine(h, status);
+    }
+
+    static long metadata(long h, long version, long region, long zone, long instanceType, long buildNumber) {
+        h = combine(h, version);
+        h = combine(h, region);
+        h = combine(h, zone);
+        h = combine(h, instanceType);
+        return combine(h, buildNumber);
+    }
+
+    static long finish(long h, int port, int securePort, boolean coordinating,
+                       int renewalIntervalInSecs, int durationInSecs) {
+        h = combine(h, ((long) port << 32) | (securePort & 0xFFFFFFFFL));
+        h = combine(h, coordinating ? 1 : 0);
+        h = combine(h, ((long) renewalIntervalInSecs << 32) | (durationInSecs & 0xFFFFFFFFL));
+        return mix(h);
+    }
+
+    static long hash(String value) {
+        if (value == null) {
+            return NULL_HASH;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long h = FNV_OFFSET;
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Hashes {@code buffer[start, end)} the same way {@link #hash(String)} hashes a string's UTF-8 bytes.
+     */
+    static long hash(ByteBuffer buffer, int start, int end) {
+        long h = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            h = (h ^ (buffer.get(i) & 0xFF)) * FNV_PRIME;
+        }
+        return mix(h);
+    }
+
+    private static long combine(long h, long value) {
+        return (h ^ mix(value)) * FNV_PRIME;
+    }
+
+    //Murmur3's 64-bit finalizer: every input bit affects every output bit.
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85EC9L;
+        return h ^ (h >>> 33);
+    }
+}
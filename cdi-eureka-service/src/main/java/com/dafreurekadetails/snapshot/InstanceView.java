@@ -0,0 +1,119 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.base.LeaseInfo;
+import com.dafreurekadetails.dto.base.Metadata;
+/**
+ * InstanceView is a flyweight cursor over a {@link RegistrySnapshot}: one object is moved across
+ * instances with {@link #at(int)}, and scalar fields are read straight from the columns without
+ * allocating. {@link #toDetail()} materializes the full {@link BaseInstanceDetail} when a record is needed.
+ * <p>
+ * Views are cheap but not thread-safe; create one per thread.
+ */
+public final class InstanceView {
+
+    private final RegistrySnapshot snapshot;
+    private int index;
+
+    InstanceView(RegistrySnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Moves the view to the given instance.
+     *
+     * @param index the instance index, {@code 0 <= index < snapshot.size()}
+     * @return this view
+     */
+    public InstanceView at(int index) {
+        if (index < 0 || index >= snapshot.size()) {
+            throw new IndexOutOfBoundsException("Instance index " + index + " out of bounds for size " + snapshot.size());
+        }
+        this.index = index;
+        return this;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    public String app() {
+        return snapshot.string(RegistrySnapshot.APP, index);
+    }
+
+    public String instanceId() {
+        return snapshot.string(RegistrySnapshot.INSTANCE_ID, index);
+    }
+
+    public String hostName() {
+        return snapshot.string(RegistrySnapshot.HOST_NAME, index);
+    }
+
+    public String ipAddr() {
+        return snapshot.string(RegistrySnapshot.IP_ADDR, index);
+    }
+
+    public int port() {
+        return snapshot.port(index);
+    }
+
+    public int securePort() {
+        return snapshot.securePort(index);
+    }
+
+    public String healthCheckUrl() {
+        return snapshot.string(RegistrySnapshot.HEALTH_CHECK_URL, index);
+    }
+
+    public String homePageUrl() {
+        return snapshot.string(RegistrySnapshot.HOME_PAGE_URL, index);
+    }
+
+    public String statusPageUrl() {
+        return snapshot.string(RegistrySnapshot.STATUS_PAGE_URL, index);
+    }
+
+    public String status() {
+        return snapshot.string(RegistrySnapshot.STATUS, index);
+    }
+
+    public long lastUpdatedTimestamp() {
+        return snapshot.lastUpdatedTimestamp(index);
+    }
+
+    public long lastDirtyTimestamp() {
+        return snapshot.lastDirtyTimestamp(index);
+    }
+
+    public boolean isCoordinatingDiscoveryServer() {
+        return snapshot.isCoordinatingDiscoveryServer(index);
+    }
+
+    public String version() {
+        return snapshot.string(RegistrySnapshot.VERSION, index);
+    }
+
+    public String region() {
+        return snapshot.string(RegistrySnapshot.REGION, index);
+    }
+
+    public String zone() {
+        return snapshot.string(RegistrySnapshot.ZONE, index);
+    }
+
+    public String instanceType() {
+        return snapshot.string(RegistrySnapshot.INSTANCE_TYPE, index);
+    }
+
+    public Metadata metadata() {
+        return snapshot.metadata(index);
+    }
+
+    public LeaseInfo leaseInfo() {
+        return snapshot.leaseInfo(index);
+    }
+
+    public BaseInstanceDetail toDetail() {
+        return snapshot.detail(index);
+    }
+}
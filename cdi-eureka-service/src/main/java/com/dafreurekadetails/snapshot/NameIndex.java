@@ -0,0 +1,165 @@
+package com.dafreurekadetails.snapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+/**
+ * NameIndex holds a {@link NameTrie} of the service names and one of the host names of a registry,
+ * each name weighted by its instance count, for type-ahead search.
+ * <p>
+ * An index is immutable. {@link #update(RegistryView)} derives the index of a newer snapshot from
+ * this one by applying only the names that appeared, disappeared or changed count, so refreshing
+ * a registry where little changed is cheap.
+ */
+public final class NameIndex {
+
+    private static final NameIndex EMPTY = new NameIndex(new EnumMap<>(Kind.class), new EnumMap<>(Kind.class));
+
+    private final Map<Kind, NameTrie> tries;
+    private final Map<Kind, Map<String, Tally>> tallies;
+
+    /**
+     * The kinds of names that are indexed.
+     */
+    public enum Kind {
+        SERVICE("service"),
+        HOST("host");
+
+        private final String key;
+
+        Kind(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    /**
+     * A search match together with the kind of name it is.
+     *
+     * @param kind  whether the match is a service or a host name
+     * @param match the matched name, its instance count and edit distance
+     */
+    public record Hit(Kind kind, NameTrie.Match match) {
+    }
+
+    private NameIndex(Map<Kind, NameTrie> tries, Map<Kind, Map<String, Tally>> tallies) {
+        this.tries = tries;
+        this.tallies = tallies;
+    }
+
+    public static NameIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Indexes the names of a registry from scratch.
+     *
+     * @param registry the registry to index
+     * @return the index
+     */
+    public static NameIndex build(RegistryView registry) {
+        return EMPTY.update(registry);
+    }
+
+    /**
+     * Returns the index of a newer snapshot, sharing everything that did not change with this one.
+     *
+     * @param registry the newer snapshot
+     * @return the updated index; this index is left unchanged
+     */
+    public NameIndex update(RegistryView registry) {
+        Map<Kind, Map<String, Tally>> counted = count(registry);
+        Map<Kind, NameTrie> updated = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            Map<String, Tally> before = tallies.getOrDefault(kind, Map.of());
+            Map<String, Tally> after = counted.get(kind);
+            NameTrie trie = tries.getOrDefault(kind, NameTrie.empty());
+            for (Map.Entry<String, Tally> entry : after.entrySet()) {
+                Tally previous = before.get(entry.getKey());
+                Tally current = entry.getValue();
+                if (previous == null || previous.count != current.count || !previous.name.equals(current.name)) {
+                    trie = trie.with(current.name, current.count);
+                }
+            }
+            for (Map.Entry<String, Tally> entry : before.entrySet()) {
+                if (!after.containsKey(entry.getKey())) {
+                    trie = trie.with(entry.getValue().name, 0);
+                }
+            }
+            updated.put(kind, trie);
+        }
+        return new NameIndex(updated, counted);
+    }
+
+    /**
+     * @return the trie of the given kind of names
+     */
+    public NameTrie trie(Kind kind) {
+        return tries.getOrDefault(kind, NameTrie.empty());
+    }
+
+    /**
+     * Returns the best names of the given kinds matching the query. Prefix matches are exact;
+     * fuzzy matches also accept one typo in queries up to four characters and two in longer ones.
+     *
+     * @param kinds the kinds of names to search
+     * @param query the typed prefix, matched case-insensitively
+     * @param fuzzy whether to tolerate typos
+     * @param limit the maximum number of hits
+     * @return the hits, closest first, then by most instances, then by name
+     */
+    public List<Hit> search(Set<Kind> kinds, String query, boolean fuzzy, int limit) {
+        int maxEdits = !fuzzy ? 0 : query.trim().length() <= 4 ? 1 : 2;
+        List<Hit> hits = new ArrayList<>();
+        for (Kind kind : kinds) {
+            NameTrie trie = trie(kind);
+            List<NameTrie.Match> matches = maxEdits == 0
+                    ? trie.prefix(query, limit)
+                    : trie.fuzzy(query, maxEdits, limit);
+            for (NameTrie.Match match : matches) {
+                hits.add(new Hit(kind, match));
+            }
+        }
+        hits.sort(Comparator.comparing(Hit::match, NameTrie.RANKING).thenComparing(Hit::kind));
+        return hits.size() > limit ? Collections.unmodifiableList(hits.subList(0, limit)) : hits;
+    }
+
+    //Names are keyed case-insensitively, keeping the spelling of their first occurrence.
+    private static Map<Kind, Map<String, Tally>> count(RegistryView registry) {
+        Map<Kind, Map<String, Tally>> counted = new EnumMap<>(Kind.class);
+        Map<String, Tally> services = new HashMap<>();
+        Map<String, Tally> hosts = new HashMap<>();
+        for (int i = 0; i < registry.size(); i++) {
+            tally(services, registry.app(i));
+            tally(hosts, registry.hostName(i));
+        }
+        counted.put(Kind.SERVICE, services);
+        counted.put(Kind.HOST, hosts);
+        return counted;
+    }
+
+    private static void tally(Map<String, Tally> tallies, String name) {
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        tallies.computeIfAbsent(name.trim().toLowerCase(Locale.ROOT), k -> new Tally(name.trim())).count++;
+    }
+
+    private static final class Tally {
+        final String name;
+        int count;
+
+        Tally(String name) {
+            this.name = name;
+        }
+    }
+}
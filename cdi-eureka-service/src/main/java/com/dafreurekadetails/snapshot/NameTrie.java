@@ -0,0 +1,294 @@
+package com.dafreurekadetails.snapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+/**
+ * NameTrie is an immutable, case-insensitive trie of names weighted by how many instances carry them.
+ * <p>
+ * Every node records the highest weight in its subtree, so a top-K prefix search skips every branch
+ * that cannot beat the K-th best match found so far. Updates copy only the nodes on the changed
+ * name's path and share the rest with the previous trie, so refreshing a snapshot costs time
+ * proportional to the names that changed, and readers of the previous trie are never disturbed.
+ */
+public final class NameTrie {
+
+    private static final NameTrie EMPTY = new NameTrie(Node.EMPTY_ROOT, 0);
+
+    /**
+     * Best matches first: fewer edits, then more instances, then alphabetical.
+     */
+    static final Comparator<Match> RANKING = Comparator.comparingInt(Match::distance)
+            .thenComparing(Comparator.comparingInt(Match::weight).reversed())
+            .thenComparing(Match::name);
+
+    private final Node root;
+    private final int size;
+
+    private NameTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static NameTrie empty() {
+        return EMPTY;
+    }
+
+    /**
+     * A name found by a search.
+     *
+     * @param name     the name as it appears in the registry
+     * @param weight   the number of instances carrying the name
+     * @param distance the number of edits between the query and the closest prefix of the name
+     */
+    public record Match(String name, int weight, int distance) {
+    }
+
+    /**
+     * @return the number of names in the trie
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a trie in which the name has the given weight; a weight of zero removes the name.
+     * This trie is left unchanged.
+     *
+     * @param name   the name, matched case-insensitively
+     * @param weight the number of instances carrying the name
+     * @return the updated trie
+     */
+    public NameTrie with(String name, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative: " + weight);
+        }
+        String key = key(name);
+        if (key.isEmpty()) {
+            return this;
+        }
+        boolean present = weight(name) > 0;
+        Node updated = root.with(key, 0, weight > 0 ? name : null, weight);
+        int newSize = size + (weight > 0 ? (present ? 0 : 1) : (present ? -1 : 0));
+        return new NameTrie(updated != null ? updated : Node.EMPTY_ROOT, newSize);
+    }
+
+    /**
+     * Returns the weight of the given name.
+     *
+     * @param name the name, matched case-insensitively
+     * @return the name's weight, or zero if it is not in the trie
+     */
+    public int weight(String name) {
+        Node node = root.find(key(name));
+        return node != null && node.name != null ? node.weight : 0;
+    }
+
+    /**
+     * Returns the K heaviest names starting with the given prefix.
+     *
+     * @param prefix the prefix, matched case-insensitively; blank matches every name
+     * @param limit  the maximum number of matches
+     * @return the matches, heaviest first
+     */
+    public List<Match> prefix(String prefix, int limit) {
+        Node start = root.find(key(prefix));
+        if (start == null || limit <= 0) {
+            return List.of();
+        }
+        TopK top = new TopK(limit);
+        collect(start, 0, top);
+        return top.sorted();
+    }
+
+    /**
+     * Returns the K best names having a prefix within {@code maxEdits} insertions, deletions or
+     * substitutions of the query, so that type-ahead tolerates typos.
+     *
+     * @param query    the query, matched case-insensitively
+     * @param maxEdits the largest edit distance to accept
+     * @param limit    the maximum number of matches
+     * @return the matches, closest first and then heaviest first
+     */
+    public List<Match> fuzzy(String query, int maxEdits, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        String key = key(query);
+        int[] row = new int[key.length() + 1];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = j;
+        }
+        TopK top = new TopK(limit);
+        fuzzy(root, key, row, row[key.length()], maxEdits, top);
+        return top.sorted();
+    }
+
+    //Every name below a node is a match at the given distance; branches too light to enter the top K are skipped.
+    private static void collect(Node node, int distance, TopK top) {
+        if (!top.admits(distance, node.maxWeight)) {
+            return;
+        }
+        if (node.name != null) {
+            top.offer(new Match(node.name, node.weight, distance));
+        }
+        for (Node child : node.children) {
+            collect(child, distance, top);
+        }
+    }
+
+    //Row j holds the edit distance between the node's path and the first j query characters, and
+    //best the smallest distance between the whole query and any prefix of the path. Rows never
+    //shrink going down, so once every entry exceeds maxEdits the distance below is settled.
+    private static void fuzzy(Node node, String query, int[] row, int best, int maxEdits, TopK top) {
+        int reachable = Math.min(best, min(row));
+        if (reachable > maxEdits || !top.admits(reachable, node.maxWeight)) {
+            return;
+        }
+        if (best == 0 || min(row) > maxEdits) {
+            collect(node, best, top);
+            return;
+        }
+        if (node.name != null && best <= maxEdits) {
+            top.offer(new Match(node.name, node.weight, best));
+        }
+        for (int c = 0; c < node.labels.length; c++) {
+            int[] next = new int[row.length];
+            next[0] = row[0] + 1;
+            for (int j = 1; j < row.length; j++) {
+                int substitution = row[j - 1] + (query.charAt(j - 1) == node.labels[c] ? 0 : 1);
+                next[j] = Math.min(substitution, Math.min(row[j] + 1, next[j - 1] + 1));
+            }
+            fuzzy(node.children[c], query, next, Math.min(best, next[query.length()]), maxEdits, top);
+        }
+    }
+
+    private static int min(int[] row) {
+        int min = Integer.MAX_VALUE;
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static String key(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    //Children are kept sorted by label, so lookups are a binary search and copies stay small.
+    private static final class Node {
+        static final Node EMPTY_ROOT = new Node(new char[0], new Node[0], null, 0);
+
+        final char[] labels;
+        final Node[] children;
+        final String name;
+        final int weight;
+        final int maxWeight;
+
+        Node(char[] labels, Node[] children, String name, int weight) {
+            this.labels = labels;
+            this.children = children;
+            this.name = name;
+            this.weight = weight;
+            int max = weight;
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            this.maxWeight = max;
+        }
+
+        Node find(String key) {
+            Node node = this;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                int slot = Arrays.binarySearch(node.labels, key.charAt(i));
+                node = slot >= 0 ? node.children[slot] : null;
+            }
+            return node;
+        }
+
+        //Returns the copied node, or null when the node ends up with neither a name nor children.
+        Node with(String key, int depth, String newName, int newWeight) {
+            if (depth == key.length()) {
+                return newName == null && children.length == 0
+                        ? null
+                        : new Node(labels, children, newName, newName == null ? 0 : newWeight);
+            }
+            char label = key.charAt(depth);
+            int slot = Arrays.binarySearch(labels, label);
+            if (slot < 0 && newName == null) {
+                return this;
+            }
+            Node child = slot >= 0 ? children[slot] : new Node(new char[0], new Node[0], null, 0);
+            Node updated = child.with(key, depth + 1, newName, newWeight);
+            if (slot >= 0 && updated != null) {
+                Node[] copied = children.clone();
+                copied[slot] = updated;
+                return new Node(labels, copied, name, weight);
+            }
+            if (slot >= 0) {
+                return without(slot);
+            }
+            int insertAt = -slot - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = updated;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            return new Node(newLabels, newChildren, name, weight);
+        }
+
+        private Node without(int slot) {
+            if (children.length == 1 && name == null) {
+                return null;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, slot);
+            System.arraycopy(children, 0, newChildren, 0, slot);
+            System.arraycopy(labels, slot + 1, newLabels, slot, labels.length - slot - 1);
+            System.arraycopy(children, slot + 1, newChildren, slot, children.length - slot - 1);
+            return new Node(newLabels, newChildren, name, weight);
+        }
+    }
+
+    //Bounded heap holding the K best matches, worst on top so it can be replaced cheaply.
+    private static final class TopK {
+        private final int limit;
+        private final PriorityQueue<Match> heap;
+
+        TopK(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit, RANKING.reversed());
+        }
+
+        //A subtree can only contribute if its best possible match would outrank the current K-th.
+        boolean admits(int distance, int maxWeight) {
+            if (heap.size() < limit) {
+                return true;
+            }
+            Match worst = heap.peek();
+            return distance < worst.distance() || (distance == worst.distance() && maxWeight >= worst.weight());
+        }
+
+        void offer(Match match) {
+            if (heap.size() < limit) {
+                heap.add(match);
+            } else if (RANKING.compare(match, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(match);
+            }
+        }
+
+        List<Match> sorted() {
+            List<Match> matches = new ArrayList<>(heap);
+            matches.sort(RANKING);
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.base.LeaseInfo;
+import com.dafreurekadetails.dto.base.Metadata;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+/**
+ * OffHeapSnapshot reads a registry encoded by {@link SnapshotCodec} directly from its buffer,
+ * typically a direct {@link ByteBuffer} outside the Java heap. Nothing is decoded up front:
+ * each accessor reads the column it needs, so grouping walks the buffer instead of an object graph.
+ * <p>
+ * All reads use absolute offsets, so one instance can be shared by concurrent readers.
+ */
+public final class OffHeapSnapshot implements RegistryView {
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int offsetsStart;
+    private final int stringDataStart;
+    private final int stringColumnsStart;
+    private final int intColumnsStart;
+    private final int longColumnsStart;
+    private final int flagsStart;
+    private final int dictionarySize;
+    private volatile long[] hashes;
+    private volatile long[] fingerprints;
+
+    private OffHeapSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < SnapshotCodec.HEADER_BYTES
+                || buffer.getInt(0) != SnapshotCodec.MAGIC
+                || buffer.getInt(4) != SnapshotCodec.VERSION) {
+            throw new IllegalArgumentException("Buffer does not hold a registry snapshot");
+        }
+        this.size = buffer.getInt(8);
+        this.dictionarySize = buffer.getInt(12);
+        this.offsetsStart = SnapshotCodec.HEADER_BYTES;
+        //Sizes come from the bytes themselves, so every section is checked against the buffer before it is read.
+        long dictionaryEnd = offsetsStart + (dictionarySize + 1L) * Integer.BYTES;
+        if (size < 0 || dictionarySize < 0 || dictionaryEnd > buffer.capacity()) {
+            throw new IllegalArgumentException("Registry snapshot is truncated");
+        }
+        this.stringDataStart = (int) dictionaryEnd;
+        int stringDataLength = buffer.getInt(offsetsStart + dictionarySize * Integer.BYTES);
+        long columnsEnd = stringDataStart + (long) stringDataLength
+                + (long) size * (RegistrySnapshot.STRING_COLUMNS * Integer.BYTES
+                + SnapshotCodec.INT_COLUMNS * Integer.BYTES + SnapshotCodec.LONG_COLUMNS * Long.BYTES + 1);
+        if (stringDataLength < 0 || columnsEnd > buffer.capacity()) {
+            throw new IllegalArgumentException("Registry snapshot is truncated");
+        }
+        this.stringColumnsStart = stringDataStart + stringDataLength;
+        this.intColumnsStart = stringColumnsStart + RegistrySnapshot.STRING_COLUMNS * size * Integer.BYTES;
+        this.longColumnsStart = intColumnsStart + SnapshotCodec.INT_COLUMNS * size * Integer.BYTES;
+        this.flagsStart = longColumnsStart + SnapshotCodec.LONG_COLUMNS * size * Long.BYTES;
+    }
+
+    /**
+     * Wraps an encoded snapshot without copying it.
+     *
+     * @param encoded the bytes written by {@link SnapshotCodec#encode}, positioned at their start
+     * @return a view over the encoded snapshot
+     * @throws IllegalArgumentException if the bytes are not a complete snapshot
+     */
+    public static OffHeapSnapshot wrap(ByteBuffer encoded) {
+        return new OffHeapSnapshot(encoded.slice().asReadOnlyBuffer());
+    }
+
+    /**
+     * Encodes a snapshot into newly allocated direct memory.
+     *
+     * @param snapshot the snapshot to move off-heap
+     * @return a view over the encoded snapshot
+     */
+    public static OffHeapSnapshot of(RegistrySnapshot snapshot) {
+        return wrap(SnapshotCodec.encode(snapshot, ByteBuffer::allocateDirect));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String app(int index) {
+        return string(RegistrySnapshot.APP, index);
+    }
+
+    @Override
+    public String instanceId(int index) {
+        return string(RegistrySnapshot.INSTANCE_ID, index);
+    }
+
+    @Override
+    public String hostName(int index) {
+        return string(RegistrySnapshot.HOST_NAME, index);
+    }
+
+    @Override
+    public String status(int index) {
+        return string(RegistrySnapshot.STATUS, index);
+    }
+
+    @Override
+    public String ipAddr(int index) {
+        return string(RegistrySnapshot.IP_ADDR, index);
+    }
+
+    @Override
+    public String zone(int index) {
+        return string(RegistrySnapshot.ZONE, index);
+    }
+
+    @Override
+    public String version(int index) {
+        return string(RegistrySnapshot.VERSION, index);
+    }
+
+    @Override
+    public BaseInstanceDetail detail(int index) {
+        byte flags = flags(index);
+        return new BaseInstanceDetail(
+                string(RegistrySnapshot.IP_ADDR, index),
+                intColumn(0, index),
+                intColumn(1, index),
+                string(RegistrySnapshot.HEALTH_CHECK_URL, index),
+                string(RegistrySnapshot.HOME_PAGE_URL, index),
+                string(RegistrySnapshot.STATUS_PAGE_URL, index),
+                string(RegistrySnapshot.STATUS, index),
+                longColumn(0, index),
+                longColumn(1, index),
+                (flags & SnapshotCodec.FLAG_COORDINATING) != 0,
+                (flags & SnapshotCodec.FLAG_METADATA) != 0 ? metadata(index) : null,
+                (flags & SnapshotCodec.FLAG_LEASE_INFO) != 0 ? leaseInfo(index) : null
+        );
+    }
+
+    @Override
+    public long fingerprint(int index) {
+        checkIndex(index);
+        long[] cached = fingerprints;
+        if (cached == null) {
+            cached = new long[size];
+            for (int i = 0; i < size; i++) {
+                cached[i] = computeFingerprint(i);
+            }
+            fingerprints = cached;
+        }
+        return cached[index];
+    }
+
+    private long computeFingerprint(int index) {
+        long h = InstanceFingerprint.strings(hash(RegistrySnapshot.APP, index), hash(RegistrySnapshot.HOST_NAME, index),
+                hash(RegistrySnapshot.IP_ADDR, index), hash(RegistrySnapshot.HEALTH_CHECK_URL, index),
+                hash(RegistrySnapshot.HOME_PAGE_URL, index), hash(RegistrySnapshot.STATUS_PAGE_URL, index),
+                hash(RegistrySnapshot.STATUS, index));
+        h = InstanceFingerprint.metadata(h, hash(RegistrySnapshot.VERSION, index), hash(RegistrySnapshot.REGION, index),
+                hash(RegistrySnapshot.ZONE, index), hash(RegistrySnapshot.INSTANCE_TYPE, index),
+                hash(RegistrySnapshot.BUILD_NUMBER, index));
+        return InstanceFingerprint.finish(h, intColumn(0, index), intColumn(1, index),
+                (flags(index) & SnapshotCodec.FLAG_COORDINATING) != 0, intColumn(2, index), intColumn(3, index));
+    }
+
+    /**
+     * @return the number of bytes the encoded snapshot occupies
+     */
+    public int encodedBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * @return a read-only view of the encoded bytes, positioned at their start
+     */
+    public ByteBuffer encoded() {
+        return buffer.duplicate().clear();
+    }
+
+    private Metadata metadata(int index) {
+        return new Metadata(
+                string(RegistrySnapshot.VERSION, index),
+                string(RegistrySnapshot.REGION, index),
+                string(RegistrySnapshot.ZONE, index),
+                string(RegistrySnapshot.INSTANCE_TYPE, index),
+                string(RegistrySnapshot.BUILD_NUMBER, index)
+        );
+    }
+
+    private LeaseInfo leaseInfo(int index) {
+        return new LeaseInfo(
+                intColumn(2, index),
+                intColumn(3, index),
+                longColumn(2, index),
+                longColumn(3, index),
+                longColumn(4, index),
+                longColumn(5, index)
+        );
+    }
+
+    private String string(int column, int index) {
+        checkIndex(index);
+        int code = buffer.getInt(stringColumnsStart + (column * size + index) * Integer.BYTES);
+        if (code == StringDictionary.NULL_CODE) {
+            return null;
+        }
+        int start = buffer.getInt(offsetsStart + code * Integer.BYTES);
+        int end = buffer.getInt(offsetsStart + (code + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        buffer.get(stringDataStart + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //String hashes are computed from the encoded bytes once per snapshot, without decoding any string.
+    private long hash(int column, int index) {
+        int code = buffer.getInt(stringColumnsStart + (column * size + index) * Integer.BYTES);
+        if (code == StringDictionary.NULL_CODE) {
+            return InstanceFingerprint.NULL_HASH;
+        }
+        long[] cached = hashes;
+        if (cached == null) {
+            cached = new long[dictionarySize];
+            for (int i = 0; i < dictionarySize; i++) {
+                cached[i] = InstanceFingerprint.hash(buffer, stringDataStart + buffer.getInt(offsetsStart + i * Integer.BYTES),
+                        stringDataStart + buffer.getInt(offsetsStart + (i + 1) * Integer.BYTES));
+            }
+            hashes = cached;
+        }
+        return cached[code];
+    }
+
+    private int intColumn(int column, int index) {
+        checkIndex(index);
+        return buffer.getInt(intColumnsStart + (column * size + index) * Integer.BYTES);
+    }
+
+    private long longColumn(int column, int index) {
+        checkIndex(index);
+        return buffer.getLong(longColumnsStart + (column * size + index) * Long.BYTES);
+    }
+
+    private byte flags(int index) {
+        checkIndex(index);
+        return buffer.get(flagsStart + index);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Instance index " + index + " out of bounds for size " + size);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.config.SnapshotStoreProperties;
+import com.dafreurekadetails.logger.AppLogger;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+/**
+ * OffHeapSnapshotStore caches one encoded registry per Eureka URL in direct memory, so that
+ * dozens of large registries can be held without growing the heap or the GC's live set.
+ * <p>
+ * The store is bounded by the total encoded size; the least recently used snapshots are evicted
+ * first. Evicted buffers are released once no in-flight reader still holds them. Each snapshot is
+ * stored with its {@link SnapshotIndex}, built once per fetch, so lookups never scan the registry,
+ * and with its {@link NameIndex}, which is derived from the previous snapshot of the same URL.
+ * Expired snapshots are no longer served but stay in the store, counted toward {@code maxSize}
+ * and evicted like any other, until the next fetch of their URL derives its name index from them.
+ * Cached snapshots are handed to {@link SnapshotPersistence}, and those it restores on startup are
+ * served like fetched ones until they expire or the next fetch replaces them. A snapshot that leaves
+ * the store, or is too large to enter it, has its file deleted as well.
+ */
+@Component
+public class OffHeapSnapshotStore {
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(OffHeapSnapshotStore.class);
+
+    private final SnapshotStoreProperties properties;
+    private final SnapshotPersistence persistence;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    private record Entry(IndexedRegistry registry, int encodedBytes, long storedAtNanos) {
+    }
+
+    public OffHeapSnapshotStore(SnapshotStoreProperties properties, SnapshotPersistence persistence) {
+        this(properties, persistence, System::nanoTime);
+    }
+
+    OffHeapSnapshotStore(SnapshotStoreProperties properties, SnapshotPersistence persistence, LongSupplier clock) {
+        this.properties = properties;
+        this.persistence = persistence;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Returns the cached snapshot of the given Eureka URL if it is younger than {@code maxAge}.
+     *
+     * @param eurekaUrl the Eureka server URL
+     * @return the cached snapshot with its indexes, or {@code null} if there is none or it has expired
+     */
+    public synchronized IndexedRegistry get(String eurekaUrl) {
+        Entry entry = entries.get(eurekaUrl);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAtNanos() > properties.maxAge().toNanos()) {
+            return null;
+        }
+        return entry.registry();
+    }
+
+    /**
+     * Moves a snapshot off-heap, indexes it and caches it for the given Eureka URL, evicting the
+     * least recently used snapshots until the store fits in {@code maxSize} again.
+     *
+     * @param eurekaUrl the Eureka server URL
+     * @param snapshot  the freshly fetched snapshot
+     * @return the indexed off-heap copy, usable even if it is too large to be kept in the store
+     */
+    public IndexedRegistry put(String eurekaUrl, RegistrySnapshot snapshot) {
+        OffHeapSnapshot encoded = OffHeapSnapshot.of(snapshot);
+        //Positions are identical in both forms, so the indexes are built from the cheaper on-heap columns.
+        IndexedRegistry indexed = new IndexedRegistry(encoded, SnapshotIndex.build(snapshot),
+                previousNames(eurekaUrl).update(snapshot));
+        long maxBytes = properties.maxSize().toBytes();
+        synchronized (this) {
+            remove(eurekaUrl);
+            if (encoded.encodedBytes() > maxBytes) {
+                APP_LOGGER.warn("Snapshot of {} ({} bytes) exceeds the snapshot store size, not caching it",
+                        eurekaUrl, encoded.encodedBytes());
+                persistence.delete(eurekaUrl);
+                return indexed;
+            }
+            cache(eurekaUrl, indexed, encoded.encodedBytes(), maxBytes);
+        }
+        persistence.save(eurekaUrl, encoded);
+        return indexed;
+    }
+
+    /**
+     * Caches a snapshot restored from disk, unless the URL has been fetched in the meantime.
+     *
+     * @param eurekaUrl the Eureka server URL
+     * @param snapshot  the restored snapshot
+     * @return whether the snapshot was cached
+     */
+    public boolean restore(String eurekaUrl, OffHeapSnapshot snapshot) {
+        IndexedRegistry indexed = IndexedRegistry.of(snapshot);
+        long maxBytes = properties.maxSize().toBytes();
+        synchronized (this) {
+            if (entries.containsKey(eurekaUrl)) {
+                return false;
+            }
+            if (snapshot.encodedBytes() > maxBytes) {
+                persistence.delete(eurekaUrl);
+                return false;
+            }
+            cache(eurekaUrl, indexed, snapshot.encodedBytes(), maxBytes);
+            return true;
+        }
+    }
+
+    public synchronized void invalidate(String eurekaUrl) {
+        remove(eurekaUrl);
+        persistence.delete(eurekaUrl);
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    //Expired entries count as previous snapshots too.
+    private synchronized NameIndex previousNames(String eurekaUrl) {
+        Entry previous = entries.get(eurekaUrl);
+        return previous != null ? previous.registry().names() : NameIndex.empty();
+    }
+
+    private void cache(String eurekaUrl, IndexedRegistry indexed, int encodedBytes, long maxBytes) {
+        entries.put(eurekaUrl, new Entry(indexed, encodedBytes, clock.getAsLong()));
+        usedBytes += encodedBytes;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            usedBytes -= evicted.getValue().encodedBytes();
+            eldest.remove();
+            persistence.delete(evicted.getKey());
+            APP_LOGGER.debug("Evicted snapshot of {} from the snapshot store", evicted.getKey());
+        }
+    }
+
+    private void remove(String eurekaUrl) {
+        Entry removed = entries.remove(eurekaUrl);
+        if (removed != null) {
+            usedBytes -= removed.encodedBytes();
+        }
+    }
+}
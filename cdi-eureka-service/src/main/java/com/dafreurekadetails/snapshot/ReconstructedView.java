@@ -0,0 +1,92 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+/**
+ * A {@link RegistryView} over instances picked from several stored snapshots, as rebuilt by
+ * {@link RegistryHistory}: instance {@code i} is instance {@code positions[i]} of {@code sources[sourceOf[i]]}.
+ */
+final class ReconstructedView implements RegistryView {
+
+    private final RegistryView[] sources;
+    private final int[] sourceOf;
+    private final int[] positions;
+
+    ReconstructedView(RegistryView[] sources, int[] sourceOf, int[] positions) {
+        this.sources = sources;
+        this.sourceOf = sourceOf;
+        this.positions = positions;
+    }
+
+    /**
+     * @return a view over all instances of {@code registry}, in order
+     */
+    static ReconstructedView of(RegistryView registry) {
+        int[] positions = new int[registry.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        return new ReconstructedView(new RegistryView[]{registry}, new int[positions.length], positions);
+    }
+
+    int[] sourceOf() {
+        return sourceOf;
+    }
+
+    int[] positions() {
+        return positions;
+    }
+
+    @Override
+    public int size() {
+        return positions.length;
+    }
+
+    @Override
+    public String app(int index) {
+        return source(index).app(positions[index]);
+    }
+
+    @Override
+    public String instanceId(int index) {
+        return source(index).instanceId(positions[index]);
+    }
+
+    @Override
+    public String hostName(int index) {
+        return source(index).hostName(positions[index]);
+    }
+
+    @Override
+    public String status(int index) {
+        return source(index).status(positions[index]);
+    }
+
+    @Override
+    public String ipAddr(int index) {
+        return source(index).ipAddr(positions[index]);
+    }
+
+    @Override
+    public String zone(int index) {
+        return source(index).zone(positions[index]);
+    }
+
+    @Override
+    public String version(int index) {
+        return source(index).version(positions[index]);
+    }
+
+    @Override
+    public BaseInstanceDetail detail(int index) {
+        return source(index).detail(positions[index]);
+    }
+
+    @Override
+    public long fingerprint(int index) {
+        return source(index).fingerprint(positions[index]);
+    }
+
+    private RegistryView source(int index) {
+        return sources[sourceOf[index]];
+    }
+}
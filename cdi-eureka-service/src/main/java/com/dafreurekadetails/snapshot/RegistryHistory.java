@@ -0,0 +1,317 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.config.HistoryProperties;
+import com.dafreurekadetails.logger.AppLogger;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+/**
+ * RegistryHistory keeps a bounded, time-ordered history of the registries fetched from each
+ * Eureka URL, so that queries can see a registry as it was at an earlier moment.
+ * <p>
+ * Each history is a ring of segments: a segment starts with a full checkpoint, followed by up to
+ * {@code checkpointInterval} deltas. A delta stores the new or changed instances of one fetch and
+ * refers to everything else by position in the previous recording, so a fetch where a handful of
+ * instances changed costs a few runs and rows rather than a full registry. Instances are compared
+ * by {@linkplain RegistryView#fingerprint fingerprint}, so timestamps of rebuilt instances are those
+ * of the recording where they last changed, and fetches without changes are not recorded at all.
+ * <p>
+ * Rebuilding a registry replays at most one segment's deltas on top of its checkpoint, as position
+ * arrays over the stored snapshots, without materializing any instance. Once a history outgrows
+ * {@code maxSize}, its oldest segments are dropped.
+ */
+@Component
+public class RegistryHistory {
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(RegistryHistory.class);
+
+    private final HistoryProperties properties;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Timeline> timelines = new LinkedHashMap<>(16, 0.75f, true);
+
+    public RegistryHistory(HistoryProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    RegistryHistory(HistoryProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Records a freshly fetched registry of the given Eureka URL, evicting the least recently used
+     * history if there are more than {@code maxRegistries}.
+     *
+     * @param eurekaUrl the Eureka server URL
+     * @param snapshot  the fetched registry
+     */
+    public void record(String eurekaUrl, RegistrySnapshot snapshot) {
+        if (!properties.enabled()) {
+            return;
+        }
+        Timeline timeline;
+        synchronized (this) {
+            timeline = timelines.computeIfAbsent(eurekaUrl, url -> new Timeline());
+            Iterator<Map.Entry<String, Timeline>> eldest = timelines.entrySet().iterator();
+            while (timelines.size() > Math.max(1, properties.maxRegistries())) {
+                String evicted = eldest.next().getKey();
+                eldest.remove();
+                APP_LOGGER.debug("Dropped registry history of {}", evicted);
+            }
+        }
+        timeline.record(clock, snapshot, Math.max(1, properties.checkpointInterval()), properties.maxSize().toBytes());
+    }
+
+    /**
+     * Rebuilds the registry of the given Eureka URL as last recorded at or before the given time.
+     *
+     * @param eurekaUrl   the Eureka server URL
+     * @param epochMillis the moment to look at, in milliseconds since the epoch
+     * @return the registry as it was, or {@code null} if no recording that old is kept
+     */
+    public RegistryView asOf(String eurekaUrl, long epochMillis) {
+        Timeline timeline = timeline(eurekaUrl);
+        return timeline != null ? timeline.asOf(epochMillis) : null;
+    }
+
+    /**
+     * @return the time of the oldest recording kept for the given Eureka URL, or {@code null} if there is none
+     */
+    public Long oldestRecording(String eurekaUrl) {
+        Timeline timeline = timeline(eurekaUrl);
+        return timeline != null ? timeline.oldestRecording() : null;
+    }
+
+    public synchronized int size() {
+        return timelines.size();
+    }
+
+    long usedBytes(String eurekaUrl) {
+        Timeline timeline = timeline(eurekaUrl);
+        return timeline != null ? timeline.usedBytes() : 0;
+    }
+
+    int segments(String eurekaUrl) {
+        Timeline timeline = timeline(eurekaUrl);
+        return timeline != null ? timeline.segments() : 0;
+    }
+
+    private synchronized Timeline timeline(String eurekaUrl) {
+        return timelines.get(eurekaUrl);
+    }
+
+    //The recordings of one registry; its fields are guarded by its own lock.
+    private static final class Timeline {
+        private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+        private ReconstructedView head;
+        private long usedBytes;
+
+        synchronized void record(LongSupplier clock, RegistrySnapshot snapshot, int checkpointInterval, long maxBytes) {
+            long now = clock.getAsLong();
+            Segment current = segments.peekLast();
+            if (current != null) {
+                Delta delta = Delta.between(head, snapshot, now);
+                if (delta == null) {
+                    return;
+                }
+                if (current.deltas.size() < checkpointInterval) {
+                    current.deltas.add(delta);
+                    current.bytes += delta.estimatedBytes();
+                    usedBytes += delta.estimatedBytes();
+                    head = delta.applyTo(head, current.sources(current.deltas), current.deltas.size());
+                    evict(maxBytes);
+                    return;
+                }
+            }
+            Segment checkpoint = new Segment(now, snapshot);
+            segments.addLast(checkpoint);
+            usedBytes += checkpoint.bytes;
+            head = ReconstructedView.of(snapshot);
+            evict(maxBytes);
+        }
+
+        RegistryView asOf(long epochMillis) {
+            Segment segment = null;
+            List<Delta> deltas;
+            synchronized (this) {
+                for (Iterator<Segment> newest = segments.descendingIterator(); newest.hasNext() && segment == null; ) {
+                    Segment candidate = newest.next();
+                    if (candidate.checkpointAt <= epochMillis) {
+                        segment = candidate;
+                    }
+                }
+                if (segment == null) {
+                    return null;
+                }
+                int count = 0;
+                while (count < segment.deltas.size() && segment.deltas.get(count).recordedAt() <= epochMillis) {
+                    count++;
+                }
+                if (segment == segments.peekLast() && count == segment.deltas.size()) {
+                    return head;
+                }
+                deltas = List.copyOf(segment.deltas.subList(0, count));
+            }
+            //Replayed outside the lock: recorded deltas and checkpoints are never modified.
+            if (deltas.isEmpty()) {
+                return segment.checkpoint;
+            }
+            RegistryView[] sources = segment.sources(deltas);
+            ReconstructedView view = ReconstructedView.of(segment.checkpoint);
+            for (int k = 0; k < deltas.size(); k++) {
+                view = deltas.get(k).applyTo(view, sources, k + 1);
+            }
+            return view;
+        }
+
+        synchronized Long oldestRecording() {
+            return segments.isEmpty() ? null : segments.peekFirst().checkpointAt;
+        }
+
+        synchronized long usedBytes() {
+            return usedBytes;
+        }
+
+        synchronized int segments() {
+            return segments.size();
+        }
+
+        //The newest segment is always kept, so the latest recording can be rebuilt whatever the cap.
+        private void evict(long maxBytes) {
+            while (usedBytes > maxBytes && segments.size() > 1) {
+                usedBytes -= segments.removeFirst().bytes;
+            }
+        }
+    }
+
+    private static final class Segment {
+        final long checkpointAt;
+        final RegistrySnapshot checkpoint;
+        final List<Delta> deltas = new ArrayList<>();
+        long bytes;
+
+        Segment(long checkpointAt, RegistrySnapshot checkpoint) {
+            this.checkpointAt = checkpointAt;
+            this.checkpoint = checkpoint;
+            this.bytes = checkpoint.estimatedBytes();
+        }
+
+        //The checkpoint, then the rows of each of the given deltas, indexed as the deltas refer to them.
+        RegistryView[] sources(List<Delta> replayed) {
+            RegistryView[] sources = new RegistryView[replayed.size() + 1];
+            sources[0] = checkpoint;
+            for (int k = 0; k < replayed.size(); k++) {
+                sources[k + 1] = replayed.get(k).rows();
+            }
+            return sources;
+        }
+    }
+
+    /**
+     * One recording relative to the previous one. {@code runs} holds {@code (start, length)} pairs
+     * in the order of the recording: a non-negative start copies instances of the previous
+     * recording, and a negative start {@code -1 - r} takes instances of {@code rows} from {@code r}.
+     */
+    private record Delta(long recordedAt, int size, int[] runs, RegistrySnapshot rows) {
+
+        //Returns null when the registry did not change.
+        static Delta between(RegistryView previous, RegistrySnapshot next, long recordedAt) {
+            RunsBuilder runs = new RunsBuilder();
+            RegistrySnapshot.Builder rows = RegistrySnapshot.builder();
+            SnapshotDiffer.match(previous, next, new SnapshotDiffer.Matcher() {
+                @Override
+                public void matched(int i, int j) {
+                    if (previous.fingerprint(i) == next.fingerprint(j)) {
+                        runs.copy(i);
+                    } else {
+                        added(j);
+                    }
+                }
+
+                @Override
+                public void added(int j) {
+                    runs.row(rows.size());
+                    rows.add(next.app(j), next.instanceId(j), next.hostName(j), next.detail(j));
+                }
+
+                @Override
+                public void removed(int i) {
+                }
+            });
+            int[] encoded = runs.build();
+            boolean unchanged = rows.size() == 0 && next.size() == previous.size()
+                    && (encoded.length == 0 || encoded.length == 2 && encoded[0] == 0);
+            return unchanged ? null : new Delta(recordedAt, next.size(), encoded, rows.build());
+        }
+
+        ReconstructedView applyTo(ReconstructedView previous, RegistryView[] sources, int rowsSource) {
+            int[] sourceOf = new int[size];
+            int[] positions = new int[size];
+            int out = 0;
+            for (int r = 0; r < runs.length; r += 2) {
+                int start = runs[r];
+                int length = runs[r + 1];
+                if (start >= 0) {
+                    System.arraycopy(previous.sourceOf(), start, sourceOf, out, length);
+                    System.arraycopy(previous.positions(), start, positions, out, length);
+                } else {
+                    Arrays.fill(sourceOf, out, out + length, rowsSource);
+                    for (int k = 0; k < length; k++) {
+                        positions[out + k] = -1 - start + k;
+                    }
+                }
+                out += length;
+            }
+            return new ReconstructedView(sources, sourceOf, positions);
+        }
+
+        long estimatedBytes() {
+            return 48L + 4L * runs.length + rows.estimatedBytes();
+        }
+    }
+
+    //Merges consecutive positions into runs as they are appended.
+    private static final class RunsBuilder {
+        private int[] runs = new int[16];
+        private int length;
+
+        void copy(int position) {
+            append(position);
+        }
+
+        void row(int row) {
+            append(-1 - row);
+        }
+
+        int[] build() {
+            return Arrays.copyOf(runs, length);
+        }
+
+        private void append(int start) {
+            if (length > 0) {
+                int last = runs[length - 2];
+                int extended = last >= 0 ? last + runs[length - 1] : last - runs[length - 1];
+                if ((last >= 0) == (start >= 0) && start == extended) {
+                    runs[length - 1]++;
+                    return;
+                }
+            }
+            if (length == runs.length) {
+                runs = Arrays.copyOf(runs, length * 2);
+            }
+            runs[length++] = start;
+            runs[length++] = 1;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.base.LeaseInfo;
+import com.dafreurekadetails.dto.base.Metadata;
+
+import java.util.Arrays;
+import java.util.BitSet;
+/**
+ * RegistrySnapshot is a compact, immutable, columnar copy of one Eureka registry.
+ * <p>
+ * Instead of one {@link BaseInstanceDetail}/{@link Metadata}/{@link LeaseInfo} object graph per instance,
+ * every field is a column: strings are dictionary-encoded into {@code int[]} codes shared across the
+ * snapshot, ports and timestamps live in primitive arrays and booleans in bit sets. A 50k-instance
+ * registry then costs a few dozen arrays plus its distinct strings, rather than ~150k objects.
+ * Records are materialized on demand through {@link #detail(int)} or read field by field through
+ * an {@link InstanceView} flyweight.
+ */
+public final class RegistrySnapshot implements RegistryView {
+
+    static final int APP = 0;
+    static final int INSTANCE_ID = 1;
+    static final int HOST_NAME = 2;
+    static final int IP_ADDR = 3;
+    static final int HEALTH_CHECK_URL = 4;
+    static final int HOME_PAGE_URL = 5;
+    static final int STATUS_PAGE_URL = 6;
+    static final int STATUS = 7;
+    static final int VERSION = 8;
+    static final int REGION = 9;
+    static final int ZONE = 10;
+    static final int INSTANCE_TYPE = 11;
+    static final int BUILD_NUMBER = 12;
+    static final int STRING_COLUMNS = 13;
+
+    private final int size;
+    private final StringDictionary dictionary;
+    private final int[][] strings;
+    private final int[] port;
+    private final int[] securePort;
+    private final long[] lastUpdatedTimestamp;
+    private final long[] lastDirtyTimestamp;
+    private final BitSet coordinatingDiscoveryServer;
+    private final BitSet hasMetadata;
+    private final BitSet hasLeaseInfo;
+    private final int[] renewalIntervalInSecs;
+    private final int[] durationInSecs;
+    private final long[] registrationTimestamp;
+    private final long[] lastRenewalTimestamp;
+    private final long[] evictionTimestamp;
+    private final long[] serviceUpTimestamp;
+    private volatile long[] fingerprints;
+
+    private RegistrySnapshot(Builder builder) {
+        int n = builder.size;
+        this.size = n;
+        this.dictionary = builder.dictionary.build();
+        this.strings = new int[STRING_COLUMNS][];
+        for (int column = 0; column < STRING_COLUMNS; column++) {
+            strings[column] = Arrays.copyOf(builder.strings[column], n);
+        }
+        this.port = Arrays.copyOf(builder.port, n);
+        this.securePort = Arrays.copyOf(builder.securePort, n);
+        this.lastUpdatedTimestamp = Arrays.copyOf(builder.lastUpdatedTimestamp, n);
+        this.lastDirtyTimestamp = Arrays.copyOf(builder.lastDirtyTimestamp, n);
+        this.coordinatingDiscoveryServer = (BitSet) builder.coordinatingDiscoveryServer.clone();
+        this.hasMetadata = (BitSet) builder.hasMetadata.clone();
+        this.hasLeaseInfo = (BitSet) builder.hasLeaseInfo.clone();
+        this.renewalIntervalInSecs = Arrays.copyOf(builder.renewalIntervalInSecs, n);
+        this.durationInSecs = Arrays.copyOf(builder.durationInSecs, n);
+        this.registrationTimestamp = Arrays.copyOf(builder.registrationTimestamp, n);
+        this.lastRenewalTimestamp = Arrays.copyOf(builder.lastRenewalTimestamp, n);
+        this.evictionTimestamp = Arrays.copyOf(builder.evictionTimestamp, n);
+        this.serviceUpTimestamp = Arrays.copyOf(builder.serviceUpTimestamp, n);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String app(int index) {
+        return string(APP, index);
+    }
+
+    @Override
+    public String instanceId(int index) {
+        return string(INSTANCE_ID, index);
+    }
+
+    @Override
+    public String hostName(int index) {
+        return string(HOST_NAME, index);
+    }
+
+    @Override
+    public String status(int index) {
+        return string(STATUS, index);
+    }
+
+    @Override
+    public String ipAddr(int index) {
+        return string(IP_ADDR, index);
+    }
+
+    @Override
+    public String zone(int index) {
+        return string(ZONE, index);
+    }
+
+    @Override
+    public String version(int index) {
+        return string(VERSION, index);
+    }
+
+    @Override
+    public BaseInstanceDetail detail(int index) {
+        return new BaseInstanceDetail(
+                string(IP_ADDR, index),
+                port[index],
+                securePort[index],
+                string(HEALTH_CHECK_URL, index),
+                string(HOME_PAGE_URL, index),
+                string(STATUS_PAGE_URL, index),
+                string(STATUS, index),
+                lastUpdatedTimestamp[index],
+                lastDirtyTimestamp[index],
+                coordinatingDiscoveryServer.get(index),
+                metadata(index),
+                leaseInfo(index)
+        );
+    }
+
+    //Computed for every instance on first use, so repeated diffs against this snapshot only read an array.
+    @Override
+    public long fingerprint(int index) {
+        long[] cached = fingerprints;
+        if (cached == null) {
+            cached = new long[size];
+            for (int i = 0; i < size; i++) {
+                cached[i] = computeFingerprint(i);
+            }
+            fingerprints = cached;
+        }
+        return cached[index];
+    }
+
+    private long computeFingerprint(int index) {
+        long h = InstanceFingerprint.strings(hash(APP, index), hash(HOST_NAME, index), hash(IP_ADDR, index),
+                hash(HEALTH_CHECK_URL, index), hash(HOME_PAGE_URL, index), hash(STATUS_PAGE_URL, index), hash(STATUS, index));
+        h = InstanceFingerprint.metadata(h, hash(VERSION, index), hash(REGION, index),
+                hash(ZONE, index), hash(INSTANCE_TYPE, index), hash(BUILD_NUMBER, index));
+        return InstanceFingerprint.finish(h, port[index], securePort[index], coordinatingDiscoveryServer.get(index),
+                renewalIntervalInSecs[index], durationInSecs[index]);
+    }
+
+    /**
+     * @return a reusable cursor over this snapshot, positioned at the first instance
+     */
+    public InstanceView view() {
+        return new InstanceView(this);
+    }
+
+    /**
+     * @return the number of distinct strings held by the snapshot
+     */
+    public int dictionarySize() {
+        return dictionary.size();
+    }
+
+    /**
+     * Approximates the heap retained by this snapshot, for sizing caches.
+     *
+     * @return the estimated retained size in bytes
+     */
+    public long estimatedBytes() {
+        long columns = (long) size * (4L * STRING_COLUMNS + 4L * 4 + 8L * 6) + 16L * (STRING_COLUMNS + 10);
+        long bits = 3L * (size / 8 + 16);
+        return 96L + columns + bits + dictionary.estimatedBytes();
+    }
+
+    String string(int column, int index) {
+        return dictionary.decode(strings[column][index]);
+    }
+
+    private long hash(int column, int index) {
+        return dictionary.hash(strings[column][index]);
+    }
+
+    int code(int column, int index) {
+        return strings[column][index];
+    }
+
+    StringDictionary dictionary() {
+        return dictionary;
+    }
+
+    boolean hasMetadata(int index) {
+        return hasMetadata.get(index);
+    }
+
+    boolean hasLeaseInfo(int index) {
+        return hasLeaseInfo.get(index);
+    }
+
+    int renewalIntervalInSecs(int index) {
+        return renewalIntervalInSecs[index];
+    }
+
+    int durationInSecs(int index) {
+        return durationInSecs[index];
+    }
+
+    long registrationTimestamp(int index) {
+        return registrationTimestamp[index];
+    }
+
+    long lastRenewalTimestamp(int index) {
+        return lastRenewalTimestamp[index];
+    }
+
+    long evictionTimestamp(int index) {
+        return evictionTimestamp[index];
+    }
+
+    long serviceUpTimestamp(int index) {
+        return serviceUpTimestamp[index];
+    }
+
+    int port(int index) {
+        return port[index];
+    }
+
+    int securePort(int index) {
+        return securePort[index];
+    }
+
+    long lastUpdatedTimestamp(int index) {
+        return lastUpdatedTimestamp[index];
+    }
+
+    long lastDirtyTimestamp(int index) {
+        return lastDirtyTimestamp[index];
+    }
+
+    boolean isCoordinatingDiscoveryServer(int index) {
+        return coordinatingDiscoveryServer.get(index);
+    }
+
+    Metadata metadata(int index) {
+        if (!hasMetadata.get(index)) {
+            return null;
+        }
+        return new Metadata(
+                string(VERSION, index),
+                string(REGION, index),
+                string(ZONE, index),
+                string(INSTANCE_TYPE, index),
+                string(BUILD_NUMBER, index)
+        );
+    }
+
+    LeaseInfo leaseInfo(int index) {
+        if (!hasLeaseInfo.get(index)) {
+            return null;
+        }
+        return new LeaseInfo(
+                renewalIntervalInSecs[index],
+                durationInSecs[index],
+                registrationTimestamp[index],
+                lastRenewalTimestamp[index],
+                evictionTimestamp[index],
+                serviceUpTimestamp[index]
+        );
+    }
+
+    /**
+     * Accumulates instances column by column; {@link #build()} trims the columns to size.
+     */
+    public static final class Builder {
+        private final StringDictionary.Builder dictionary = new StringDictionary.Builder();
+        private int size;
+        private int[][] strings = new int[STRING_COLUMNS][64];
+        private int[] port = new int[64];
+        private int[] securePort = new int[64];
+        private long[] lastUpdatedTimestamp = new long[64];
+        private long[] lastDirtyTimestamp = new long[64];
+        private final BitSet coordinatingDiscoveryServer = new BitSet();
+        private final BitSet hasMetadata = new BitSet();
+        private final BitSet hasLeaseInfo = new BitSet();
+        private int[] renewalIntervalInSecs = new int[64];
+        private int[] durationInSecs = new int[64];
+        private long[] registrationTimestamp = new long[64];
+        private long[] lastRenewalTimestamp = new long[64];
+        private long[] evictionTimestamp = new long[64];
+        private long[] serviceUpTimestamp = new long[64];
+
+        private Builder() {
+        }
+
+        /**
+         * Appends one instance.
+         *
+         * @param app        the application (service) name
+         * @param instanceId the Eureka instance ID
+         * @param hostName   the host the instance runs on
+         * @param detail     the mapped instance details
+         * @return this builder
+         */
+        public Builder add(String app, String instanceId, String hostName, BaseInstanceDetail detail) {
+            ensureCapacity(size + 1);
+            int i = size++;
+            put(APP, i, app);
+            put(INSTANCE_ID, i, instanceId);
+            put(HOST_NAME, i, hostName);
+            put(IP_ADDR, i, detail.ipAddr());
+            put(HEALTH_CHECK_URL, i, detail.url());
+            put(HOME_PAGE_URL, i, detail.homePageUrl());
+            put(STATUS_PAGE_URL, i, detail.statusPageUrl());
+            put(STATUS, i, detail.status());
+            port[i] = detail.port();
+            securePort[i] = detail.securePort();
+            lastUpdatedTimestamp[i] = detail.lastUpdatedTimestamp();
+            lastDirtyTimestamp[i] = detail.lastDirtyTimestamp();
+            coordinatingDiscoveryServer.set(i, detail.isCoordinatingDiscoveryServer());
+
+            Metadata metadata = detail.metadataMap();
+            hasMetadata.set(i, metadata != null);
+            put(VERSION, i, metadata != null ? metadata.version() : null);
+            put(REGION, i, metadata != null ? metadata.region() : null);
+            put(ZONE, i, metadata != null ? metadata.zone() : null);
+            put(INSTANCE_TYPE, i, metadata != null ? metadata.instanceType() : null);
+            put(BUILD_NUMBER, i, metadata != null ? metadata.buildNumber() : null);
+
+            LeaseInfo lease = detail.leaseInfo();
+            hasLeaseInfo.set(i, lease != null);
+            if (lease != null) {
+                renewalIntervalInSecs[i] = lease.renewalIntervalInSecs();
+                durationInSecs[i] = lease.durationInSecs();
+                registrationTimestamp[i] = lease.registrationTimestamp();
+                lastRenewalTimestamp[i] = lease.lastRenewalTimestamp();
+                evictionTimestamp[i] = lease.evictionTimestamp();
+                serviceUpTimestamp[i] = lease.serviceUpTimestamp();
+            }
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public RegistrySnapshot build() {
+            return new RegistrySnapshot(this);
+        }
+
+        private void put(int column, int index, String value) {
+            strings[column][index] = dictionary.encode(value);
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= port.length) {
+                return;
+            }
+            int capacity = Math.max(required, port.length * 2);
+            for (int column = 0; column < STRING_COLUMNS; column++) {
+                strings[column] = Arrays.copyOf(strings[column], capacity);
+            }
+            port = Arrays.copyOf(port, capacity);
+            securePort = Arrays.copyOf(securePort, capacity);
+            lastUpdatedTimestamp = Arrays.copyOf(lastUpdatedTimestamp, capacity);
+            lastDirtyTimestamp = Arrays.copyOf(lastDirtyTimestamp, capacity);
+            renewalIntervalInSecs = Arrays.copyOf(renewalIntervalInSecs, capacity);
+            durationInSecs = Arrays.copyOf(durationInSecs, capacity);
+            registrationTimestamp = Arrays.copyOf(registrationTimestamp, capacity);
+            lastRenewalTimestamp = Arrays.copyOf(lastRenewalTimestamp, capacity);
+            evictionTimestamp = Arrays.copyOf(evictionTimestamp, capacity);
+            serviceUpTimestamp = Arrays.copyOf(serviceUpTimestamp, capacity);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+/**
+ * RegistryView is a read-only, index-addressed view of the instances of one Eureka registry.
+ * Implementations store instances in whatever compact form suits them and materialize
+ * {@link BaseInstanceDetail} records only when asked.
+ */
+public interface RegistryView {
+
+    /**
+     * @return the number of instances in the registry
+     */
+    int size();
+
+    String app(int index);
+
+    String instanceId(int index);
+
+    String hostName(int index);
+
+    String status(int index);
+
+    String ipAddr(int index);
+
+    String zone(int index);
+
+    String version(int index);
+
+    /**
+     * Materializes the details of one instance.
+     *
+     * @param index the instance index, {@code 0 <= index < size()}
+     * @return a new {@link BaseInstanceDetail} for the instance
+     */
+    BaseInstanceDetail detail(int index);
+
+    /**
+     * Fingerprints the fields that describe an instance, leaving out timestamps, so that two views
+     * of the same registry can skip unchanged instances without materializing them.
+     *
+     * @param index the instance index, {@code 0 <= index < size()}
+     * @return a 64-bit hash that is equal for instances with equal descriptive fields
+     */
+    default long fingerprint(int index) {
+        return InstanceFingerprint.of(app(index), hostName(index), detail(index));
+    }
+}
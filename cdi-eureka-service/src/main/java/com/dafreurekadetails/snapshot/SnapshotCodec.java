@@ -0,0 +1,102 @@
+package com.dafreurekadetails.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+/**
+ * SnapshotCodec writes a {@link RegistrySnapshot} into a flat binary layout that
+ * {@link OffHeapSnapshot} reads in place:
+ * <pre>
+ * header          magic, version, instance count n, dictionary size d   (4 ints)
+ * string offsets  d + 1 ints, relative to the start of the string data
+ * string data     UTF-8 bytes of every dictionary entry
+ * string columns  {@value RegistrySnapshot#STRING_COLUMNS} x n dictionary codes (-1 = null)
+ * int columns     port, securePort, renewalIntervalInSecs, durationInSecs   (4 x n ints)
+ * long columns    lastUpdated, lastDirty, registration, lastRenewal,
+ *                 eviction, serviceUp timestamps                            (6 x n longs)
+ * flags           n bytes: coordinating, has metadata, has lease info
+ * </pre>
+ */
+public final class SnapshotCodec {
+
+    static final int MAGIC = 0x45525331;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 * Integer.BYTES;
+    static final int INT_COLUMNS = 4;
+    static final int LONG_COLUMNS = 6;
+
+    static final byte FLAG_COORDINATING = 1;
+    static final byte FLAG_METADATA = 1 << 1;
+    static final byte FLAG_LEASE_INFO = 1 << 2;
+
+    private SnapshotCodec() {
+    }
+
+    /**
+     * Encodes the snapshot into a buffer obtained from {@code allocator}.
+     *
+     * @param snapshot  the snapshot to encode
+     * @param allocator returns a buffer with at least the requested number of bytes remaining,
+     *                  e.g. {@code ByteBuffer::allocateDirect} or a mapped file region
+     * @return the encoded bytes, positioned at their start
+     */
+    public static ByteBuffer encode(RegistrySnapshot snapshot, IntFunction<ByteBuffer> allocator) {
+        StringDictionary dictionary = snapshot.dictionary();
+        int d = dictionary.size();
+        byte[][] utf8 = new byte[d][];
+        long stringBytes = 0;
+        for (int code = 0; code < d; code++) {
+            utf8[code] = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+            stringBytes += utf8[code].length;
+        }
+        int n = snapshot.size();
+        long total = HEADER_BYTES
+                + (long) (d + 1) * Integer.BYTES
+                + stringBytes
+                + (long) RegistrySnapshot.STRING_COLUMNS * n * Integer.BYTES
+                + (long) INT_COLUMNS * n * Integer.BYTES
+                + (long) LONG_COLUMNS * n * Long.BYTES
+                + n;
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Snapshot of " + n + " instances is too large to encode: " + total + " bytes");
+        }
+
+        ByteBuffer target = allocator.apply((int) total);
+        ByteBuffer out = target.slice(target.position(), (int) total);
+        out.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(d);
+
+        int offset = 0;
+        out.putInt(offset);
+        for (byte[] bytes : utf8) {
+            offset += bytes.length;
+            out.putInt(offset);
+        }
+        for (byte[] bytes : utf8) {
+            out.put(bytes);
+        }
+
+        for (int column = 0; column < RegistrySnapshot.STRING_COLUMNS; column++) {
+            for (int i = 0; i < n; i++) {
+                out.putInt(snapshot.code(column, i));
+            }
+        }
+        for (int i = 0; i < n; i++) out.putInt(snapshot.port(i));
+        for (int i = 0; i < n; i++) out.putInt(snapshot.securePort(i));
+        for (int i = 0; i < n; i++) out.putInt(snapshot.renewalIntervalInSecs(i));
+        for (int i = 0; i < n; i++) out.putInt(snapshot.durationInSecs(i));
+        for (int i = 0; i < n; i++) out.putLong(snapshot.lastUpdatedTimestamp(i));
+        for (int i = 0; i < n; i++) out.putLong(snapshot.lastDirtyTimestamp(i));
+        for (int i = 0; i < n; i++) out.putLong(snapshot.registrationTimestamp(i));
+        for (int i = 0; i < n; i++) out.putLong(snapshot.lastRenewalTimestamp(i));
+        for (int i = 0; i < n; i++) out.putLong(snapshot.evictionTimestamp(i));
+        for (int i = 0; i < n; i++) out.putLong(snapshot.serviceUpTimestamp(i));
+        for (int i = 0; i < n; i++) {
+            byte flags = 0;
+            if (snapshot.isCoordinatingDiscoveryServer(i)) flags |= FLAG_COORDINATING;
+            if (snapshot.hasMetadata(i)) flags |= FLAG_METADATA;
+            if (snapshot.hasLeaseInfo(i)) flags |= FLAG_LEASE_INFO;
+            out.put(flags);
+        }
+        return out.flip();
+    }
+}
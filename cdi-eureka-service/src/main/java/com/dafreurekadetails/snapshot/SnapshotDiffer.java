@@ -0,0 +1,219 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.base.LeaseInfo;
+import com.dafreurekadetails.dto.base.Metadata;
+import com.dafreurekadetails.dto.diffdto.FieldChange;
+import com.dafreurekadetails.dto.diffdto.InstanceDiff;
+import com.dafreurekadetails.dto.watchdto.InstanceChange;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+/**
+ * SnapshotDiffer computes which instances were added, removed or changed between two snapshots
+ * of a registry, or between the registries of two Eureka servers. Instances are identified by
+ * service name and instance ID.
+ * <p>
+ * Eureka returns instances in a stable order, so successive snapshots usually line up index by
+ * index: the common leading run is compared in place, and only the remainder is matched through
+ * a hash map.
+ */
+public final class SnapshotDiffer {
+
+    //Compared in this order; timestamps are left out, like in the fingerprints.
+    private static final List<Field> FIELDS = List.of(
+            new Field("ipAddr", BaseInstanceDetail::ipAddr),
+            new Field("port", BaseInstanceDetail::port),
+            new Field("securePort", BaseInstanceDetail::securePort),
+            new Field("healthCheckUrl", BaseInstanceDetail::url),
+            new Field("homePageUrl", BaseInstanceDetail::homePageUrl),
+            new Field("statusPageUrl", BaseInstanceDetail::statusPageUrl),
+            new Field("status", BaseInstanceDetail::status),
+            new Field("isCoordinatingDiscoveryServer", BaseInstanceDetail::isCoordinatingDiscoveryServer),
+            new Field("version", metadata(Metadata::version)),
+            new Field("region", metadata(Metadata::region)),
+            new Field("zone", metadata(Metadata::zone)),
+            new Field("instanceType", metadata(Metadata::instanceType)),
+            new Field("buildNumber", metadata(Metadata::buildNumber)),
+            new Field("renewalIntervalInSecs", lease(LeaseInfo::renewalIntervalInSecs)),
+            new Field("durationInSecs", lease(LeaseInfo::durationInSecs)));
+
+    private SnapshotDiffer() {
+    }
+
+    /**
+     * Lists the instances added, removed or changed in status, as pushed to watch subscribers.
+     *
+     * @param before the older snapshot
+     * @param after  the newer snapshot
+     * @return the changes in the order of {@code after}, followed by removals in the order of {@code before}
+     */
+    public static List<InstanceChange> diff(RegistryView before, RegistryView after) {
+        List<InstanceChange> changes = new ArrayList<>();
+        if (before == after) {
+            return changes;
+        }
+        match(before, after, new Matcher() {
+            @Override
+            public void matched(int i, int j) {
+                String previous = before.status(i);
+                if (!Objects.equals(previous, after.status(j))) {
+                    changes.add(change(InstanceChange.STATUS, after, j, previous));
+                }
+            }
+
+            @Override
+            public void added(int j) {
+                changes.add(change(InstanceChange.ADDED, after, j, null));
+            }
+
+            @Override
+            public void removed(int i) {
+                changes.add(change(InstanceChange.REMOVED, before, i, null));
+            }
+        });
+        return changes;
+    }
+
+    /**
+     * Lists the instances that differ between two registries, with the fields that changed.
+     * Instances with equal {@linkplain RegistryView#fingerprint fingerprints} are skipped without
+     * being materialized, so the cost grows with the number of differences rather than the registry size.
+     *
+     * @param base   the registry to compare from
+     * @param target the registry to compare to
+     * @return the differences in the order of {@code target}, followed by removals in the order of {@code base}
+     */
+    public static List<InstanceDiff> compare(RegistryView base, RegistryView target) {
+        List<InstanceDiff> differences = new ArrayList<>();
+        if (base == target) {
+            return differences;
+        }
+        match(base, target, new Matcher() {
+            @Override
+            public void matched(int i, int j) {
+                if (base.fingerprint(i) != target.fingerprint(j)) {
+                    List<FieldChange> fields = changedFields(base, i, target, j);
+                    if (!fields.isEmpty()) {
+                        differences.add(new InstanceDiff(InstanceDiff.MODIFIED, target.app(j), target.instanceId(j),
+                                target.hostName(j), fields));
+                    }
+                }
+            }
+
+            @Override
+            public void added(int j) {
+                differences.add(new InstanceDiff(InstanceDiff.ADDED, target.app(j), target.instanceId(j),
+                        target.hostName(j), List.of()));
+            }
+
+            @Override
+            public void removed(int i) {
+                differences.add(new InstanceDiff(InstanceDiff.REMOVED, base.app(i), base.instanceId(i),
+                        base.hostName(i), List.of()));
+            }
+        });
+        return differences;
+    }
+
+    /**
+     * Reports every instance of both views exactly once: as matched or added in the order of
+     * {@code after}, then as removed.
+     */
+    static void match(RegistryView before, RegistryView after, Matcher matcher) {
+        int aligned = 0;
+        int common = Math.min(before.size(), after.size());
+        while (aligned < common && sameInstance(before, aligned, after, aligned)) {
+            matcher.matched(aligned, aligned);
+            aligned++;
+        }
+        if (aligned == before.size() && aligned == after.size()) {
+            return;
+        }
+
+        Map<Key, Integer> remaining = new HashMap<>();
+        for (int i = aligned; i < before.size(); i++) {
+            remaining.put(key(before, i), i);
+        }
+        BitSet matched = new BitSet(before.size());
+        for (int j = aligned; j < after.size(); j++) {
+            Integer previous = remaining.get(key(after, j));
+            if (previous == null) {
+                matcher.added(j);
+            } else {
+                matched.set(previous);
+                matcher.matched(previous, j);
+            }
+        }
+        for (int i = aligned; i < before.size(); i++) {
+            if (!matched.get(i)) {
+                matcher.removed(i);
+            }
+        }
+    }
+
+    private static List<FieldChange> changedFields(RegistryView base, int i, RegistryView target, int j) {
+        List<FieldChange> fields = new ArrayList<>();
+        addIfChanged(fields, "hostName", base.hostName(i), target.hostName(j));
+        BaseInstanceDetail before = base.detail(i);
+        BaseInstanceDetail after = target.detail(j);
+        for (Field field : FIELDS) {
+            addIfChanged(fields, field.name(), field.value().apply(before), field.value().apply(after));
+        }
+        return fields;
+    }
+
+    private static void addIfChanged(List<FieldChange> fields, String name, Object before, Object after) {
+        if (!Objects.equals(before, after)) {
+            fields.add(new FieldChange(name, Objects.toString(before, null), Objects.toString(after, null)));
+        }
+    }
+
+    private static InstanceChange change(String type, RegistryView registry, int i, String previousStatus) {
+        return new InstanceChange(type, registry.app(i), registry.instanceId(i), registry.hostName(i),
+                registry.status(i), previousStatus);
+    }
+
+    private static boolean sameInstance(RegistryView before, int i, RegistryView after, int j) {
+        return Objects.equals(before.app(i), after.app(j))
+                && Objects.equals(identity(before, i), identity(after, j));
+    }
+
+    private static Key key(RegistryView registry, int i) {
+        return new Key(registry.app(i), identity(registry, i));
+    }
+
+    //Instances without an ID fall back to their host, which is what Eureka derives the ID from.
+    private static String identity(RegistryView registry, int i) {
+        String instanceId = registry.instanceId(i);
+        return instanceId != null ? instanceId : registry.hostName(i);
+    }
+
+    private static Function<BaseInstanceDetail, Object> metadata(Function<Metadata, Object> value) {
+        return detail -> detail.metadataMap() != null ? value.apply(detail.metadataMap()) : null;
+    }
+
+    //Absent lease info reads as zero, as it is stored in snapshots.
+    private static Function<BaseInstanceDetail, Object> lease(Function<LeaseInfo, Object> value) {
+        return detail -> value.apply(detail.leaseInfo() != null ? detail.leaseInfo() : new LeaseInfo(0, 0, 0, 0, 0, 0));
+    }
+
+    interface Matcher {
+        void matched(int i, int j);
+
+        void added(int j);
+
+        void removed(int i);
+    }
+
+    private record Field(String name, Function<BaseInstanceDetail, Object> value) {
+    }
+
+    private record Key(String app, String instanceId) {
+    }
+}
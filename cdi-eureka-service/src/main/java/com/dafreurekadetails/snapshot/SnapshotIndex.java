@@ -0,0 +1,101 @@
+package com.dafreurekadetails.snapshot;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+/**
+ * SnapshotIndex holds one secondary index per {@link IndexedField} of a registry snapshot:
+ * a map from each distinct value to the ascending indexes of the instances that carry it.
+ * Lookups are a single hash probe instead of a pass over the whole registry.
+ * <p>
+ * Instances whose value is {@code null} or blank are not indexed. Indexes are immutable once built.
+ */
+public final class SnapshotIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<IndexedField, Map<String, int[]>> indexes;
+
+    private SnapshotIndex(Map<IndexedField, Map<String, int[]>> indexes) {
+        this.indexes = indexes;
+    }
+
+    /**
+     * Builds every index in one pass over the registry.
+     *
+     * @param registry the registry to index; its positions are what lookups return
+     * @return the built index
+     */
+    public static SnapshotIndex build(RegistryView registry) {
+        Map<IndexedField, Map<String, Postings>> building = new EnumMap<>(IndexedField.class);
+        for (IndexedField field : IndexedField.values()) {
+            building.put(field, new HashMap<>());
+        }
+        for (int i = 0; i < registry.size(); i++) {
+            for (IndexedField field : IndexedField.values()) {
+                String value = field.normalize(field.read(registry, i));
+                if (value != null && !value.isBlank()) {
+                    building.get(field).computeIfAbsent(value, v -> new Postings()).add(i);
+                }
+            }
+        }
+        Map<IndexedField, Map<String, int[]>> indexes = new EnumMap<>(IndexedField.class);
+        building.forEach((field, postings) -> {
+            Map<String, int[]> index = new HashMap<>(postings.size() * 4 / 3 + 1);
+            postings.forEach((value, list) -> index.put(value, list.toArray()));
+            indexes.put(field, index);
+        });
+        return new SnapshotIndex(indexes);
+    }
+
+    /**
+     * Returns the positions of the instances whose field equals the given value.
+     *
+     * @param field the indexed field
+     * @param value the value to look up
+     * @return ascending instance positions; empty if none match. Callers must not modify the array.
+     */
+    public int[] lookup(IndexedField field, String value) {
+        int[] matches = indexes.get(field).get(field.normalize(value));
+        return matches != null ? matches : NONE;
+    }
+
+    /**
+     * @return the distinct values of the field present in the snapshot
+     */
+    public Set<String> values(IndexedField field) {
+        return Collections.unmodifiableSet(indexes.get(field).keySet());
+    }
+
+    /**
+     * Returns a view of just the instances whose field equals the given value.
+     *
+     * @param registry the registry this index was built over
+     * @param field    the indexed field
+     * @param value    the value to look up
+     * @return a view over the matching instances, in registry order
+     */
+    public RegistryView select(RegistryView registry, IndexedField field, String value) {
+        return new SubsetView(registry, lookup(field, value));
+    }
+
+    //Growable int list, so building does not box every position.
+    private static final class Postings {
+        private int[] positions = new int[4];
+        private int size;
+
+        void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.config.PersistenceProperties;
+import com.dafreurekadetails.logger.AppLogger;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+/**
+ * SnapshotPersistence keeps a copy of every cached registry on disk, so that a restarted instance
+ * can serve stale-but-usable registries at once instead of sending its first wave of queries to
+ * the Eureka servers.
+ * <p>
+ * Files hold the Eureka URL followed by the {@link SnapshotCodec} encoding unchanged, one per URL,
+ * named after the SHA-256 of the URL so that names stay short whatever the URL. They are written
+ * from the off-heap buffer through a {@link FileChannel} by a single background writer, which only
+ * writes the newest snapshot of a URL if it falls behind, and are replaced atomically so a crash
+ * never leaves a torn file. The store deletes the file of a snapshot it evicts, so the directory
+ * holds no more files than the store holds snapshots. On startup they are memory-mapped and read
+ * in place, like the store's direct buffers.
+ */
+@Component
+public class SnapshotPersistence {
+
+    static final String SUFFIX = ".snapshot";
+    static final int MAGIC = 0x534E4150;
+
+    private static final int MAX_URL_BYTES = 0xFFFF;
+
+    private static final AppLogger APP_LOGGER = AppLogger.getLogger(SnapshotPersistence.class);
+
+    private final PersistenceProperties properties;
+    private final LongSupplier clock;
+    private final Map<String, OffHeapSnapshot> pending = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("snapshot-writer").factory());
+
+    public SnapshotPersistence(PersistenceProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    SnapshotPersistence(PersistenceProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Queues a snapshot to be written to disk in the background.
+     *
+     * @param eurekaUrl the Eureka server URL
+     * @param snapshot  the encoded snapshot
+     */
+    public void save(String eurekaUrl, OffHeapSnapshot snapshot) {
+        if (!properties.enabled()) {
+            return;
+        }
+        //A write already queued for the URL picks up the newer snapshot.
+        if (pending.put(eurekaUrl, snapshot) == null) {
+            writer.execute(() -> flush(eurekaUrl));
+        }
+    }
+
+    /**
+     * Deletes the file of a snapshot in the background, after any write of it already queued.
+     *
+     * @param eurekaUrl the Eureka server URL
+     */
+    public void delete(String eurekaUrl) {
+        if (!properties.enabled()) {
+            return;
+        }
+        pending.remove(eurekaUrl);
+        writer.execute(() -> {
+            try {
+                Files.deleteIfExists(Path.of(properties.directory()).resolve(fileName(eurekaUrl)));
+            } catch (IOException ex) {
+                APP_LOGGER.warn("Could not delete snapshot of {}: {}", eurekaUrl, ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Maps the snapshot files left by a previous run, deleting those older than {@code maxAge}.
+     * Unreadable files are skipped.
+     *
+     * @return the restored snapshots by Eureka URL
+     */
+    public Map<String, OffHeapSnapshot> restore() {
+        Map<String, OffHeapSnapshot> restored = new LinkedHashMap<>();
+        Path directory = Path.of(properties.directory());
+        if (!properties.enabled() || !Files.isDirectory(directory)) {
+            return restored;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    long age = clock.getAsLong() - Files.getLastModifiedTime(file).toMillis();
+                    if (age > properties.maxAge().toMillis()) {
+                        APP_LOGGER.info("Deleting snapshot file {} older than {}", file, properties.maxAge());
+                        Files.deleteIfExists(file);
+                        continue;
+                    }
+                    ByteBuffer mapped = map(file);
+                    String eurekaUrl = eurekaUrl(mapped);
+                    if (!file.getFileName().toString().equals(fileName(eurekaUrl))) {
+                        throw new IllegalArgumentException("file is not named after its URL");
+                    }
+                    restored.put(eurekaUrl, OffHeapSnapshot.wrap(mapped));
+                } catch (IOException | IllegalArgumentException ex) {
+                    APP_LOGGER.warn("Skipping unreadable snapshot file {}: {}", file, ex.getMessage());
+                }
+            }
+        } catch (IOException ex) {
+            APP_LOGGER.warn("Could not list snapshot files in {}: {}", directory, ex.getMessage());
+        }
+        return restored;
+    }
+
+    private void flush(String eurekaUrl) {
+        OffHeapSnapshot snapshot = pending.remove(eurekaUrl);
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            write(eurekaUrl, snapshot.encoded());
+        } catch (IOException ex) {
+            APP_LOGGER.warn("Could not persist snapshot of {}: {}", eurekaUrl, ex.getMessage());
+        }
+    }
+
+    void write(String eurekaUrl, ByteBuffer encoded) throws IOException {
+        byte[] urlBytes = eurekaUrl.getBytes(StandardCharsets.UTF_8);
+        if (urlBytes.length > MAX_URL_BYTES) {
+            throw new IOException("URL too long to persist: " + urlBytes.length + " bytes");
+        }
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Short.BYTES + urlBytes.length)
+                .putInt(MAGIC)
+                .putShort((short) urlBytes.length)
+                .put(urlBytes)
+                .flip();
+        Path directory = Files.createDirectories(Path.of(properties.directory()));
+        Path target = directory.resolve(fileName(eurekaUrl));
+        Path temporary = directory.resolve(fileName(eurekaUrl) + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] parts = {header, encoded};
+            while (encoded.hasRemaining()) {
+                channel.write(parts);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        APP_LOGGER.debug("Persisted snapshot of {} to {}", eurekaUrl, target);
+    }
+
+    //The mapping stays valid after the channel is closed, and is released with the last reference to it.
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    //Reads the URL in front of the encoded snapshot and leaves the buffer positioned at the snapshot.
+    private static String eurekaUrl(ByteBuffer mapped) {
+        if (mapped.remaining() < Integer.BYTES + Short.BYTES || mapped.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a snapshot file");
+        }
+        int urlLength = mapped.getShort() & MAX_URL_BYTES;
+        if (urlLength > mapped.remaining()) {
+            throw new IllegalArgumentException("Snapshot file is truncated");
+        }
+        byte[] urlBytes = new byte[urlLength];
+        mapped.get(urlBytes);
+        return new String(urlBytes, StandardCharsets.UTF_8);
+    }
+
+    static String fileName(String eurekaUrl) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(eurekaUrl.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + SUFFIX;
+        } catch (NoSuchAlgorithmException ex) {
+            //Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    //Lets queued writes finish, so a graceful redeploy leaves the newest snapshots behind.
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            APP_LOGGER.warn("Gave up waiting for {} snapshot writes on shutdown", pending.size());
+            writer.shutdownNow();
+        }
+    }
+}
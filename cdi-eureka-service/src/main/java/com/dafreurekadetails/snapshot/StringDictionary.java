@@ -0,0 +1,78 @@
+package com.dafreurekadetails.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * Maps every distinct string of a snapshot to a dense int code; {@code -1} stands for {@code null}.
+ */
+final class StringDictionary {
+
+    static final int NULL_CODE = -1;
+
+    private final String[] values;
+    private volatile long[] hashes;
+
+    private StringDictionary(String[] values) {
+        this.values = values;
+    }
+
+    String decode(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    /**
+     * @return the {@link InstanceFingerprint} hash of the string with the given code
+     */
+    long hash(int code) {
+        if (code == NULL_CODE) {
+            return InstanceFingerprint.NULL_HASH;
+        }
+        long[] cached = hashes;
+        if (cached == null) {
+            //Racing threads compute identical arrays, so publishing either one is fine.
+            cached = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                cached[i] = InstanceFingerprint.hash(values[i]);
+            }
+            hashes = cached;
+        }
+        return cached[code];
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    //Approximates String header + array header + Latin-1 payload, which is what compact strings use for registry data.
+    long estimatedBytes() {
+        long bytes = 16L + 4L * values.length;
+        for (String value : values) {
+            bytes += 24L + 16L + value.length();
+        }
+        return bytes;
+    }
+
+    static final class Builder {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        StringDictionary build() {
+            return new StringDictionary(values.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+/**
+ * A {@link RegistryView} over selected positions of another view, as returned by index lookups.
+ */
+final class SubsetView implements RegistryView {
+
+    private final RegistryView registry;
+    private final int[] positions;
+
+    SubsetView(RegistryView registry, int[] positions) {
+        this.registry = registry;
+        this.positions = positions;
+    }
+
+    @Override
+    public int size() {
+        return positions.length;
+    }
+
+    @Override
+    public String app(int index) {
+        return registry.app(positions[index]);
+    }
+
+    @Override
+    public String instanceId(int index) {
+        return registry.instanceId(positions[index]);
+    }
+
+    @Override
+    public String hostName(int index) {
+        return registry.hostName(positions[index]);
+    }
+
+    @Override
+    public String status(int index) {
+        return registry.status(positions[index]);
+    }
+
+    @Override
+    public String ipAddr(int index) {
+        return registry.ipAddr(positions[index]);
+    }
+
+    @Override
+    public String zone(int index) {
+        return registry.zone(positions[index]);
+    }
+
+    @Override
+    public String version(int index) {
+        return registry.version(positions[index]);
+    }
+
+    @Override
+    public BaseInstanceDetail detail(int index) {
+        return registry.detail(positions[index]);
+    }
+
+    @Override
+    public long fingerprint(int index) {
+        return registry.fingerprint(positions[index]);
+    }
+}
@@ -0,0 +1,16 @@
+package com.dafreurekadetails.transaction;
+
+/**
+ * Strategy for creating transaction IDs used to correlate logs, responses and upstream calls.
+ * Implementations must be thread-safe and should not block.
+ */
+@FunctionalInterface
+public interface TransactionIdGenerator {
+
+    /**
+     * Creates a new transaction ID.
+     *
+     * @return a new, unique transaction ID
+     */
+    String generate();
+}
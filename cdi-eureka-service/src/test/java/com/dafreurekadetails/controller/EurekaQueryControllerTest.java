@@ -1,14 +1,26 @@
 package com.dafreurekadetails.controller;
 
+import com.dafreurekadetails.dto.DiffResult;
 import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.dto.SearchResult;
 import com.dafreurekadetails.dto.ServerResult;
 import com.dafreurekadetails.dto.ServiceResult;
 import com.dafreurekadetails.dto.base.BaseInstanceDetail;
 import com.dafreurekadetails.dto.base.LeaseInfo;
 import com.dafreurekadetails.dto.base.Metadata;
+import com.dafreurekadetails.dto.diffdto.FieldChange;
+import com.dafreurekadetails.dto.diffdto.InstanceDiff;
+import com.dafreurekadetails.dto.recordingdto.RecordingSegment;
+import com.dafreurekadetails.dto.request.BatchQueryRequest;
 import com.dafreurekadetails.dto.request.EurekaQueryRequest;
+import com.dafreurekadetails.dto.request.RegistryDiffRequest;
+import com.dafreurekadetails.dto.request.RegistryLookupRequest;
+import com.dafreurekadetails.dto.request.RegistrySearchRequest;
+import com.dafreurekadetails.dto.response.BatchItemResult;
+import com.dafreurekadetails.dto.response.BatchQueryResponse;
 import com.dafreurekadetails.dto.response.EurekaQueryResponse;
 import com.dafreurekadetails.dto.response.ReturnCode;
+import com.dafreurekadetails.dto.searchdto.NameMatch;
 import com.dafreurekadetails.dto.serverdto.ServerDetail;
 import com.dafreurekadetails.dto.serverdto.ServerGroup;
 import com.dafreurekadetails.dto.serverdto.ServiceInstance;
@@ -17,7 +29,12 @@ import com.dafreurekadetails.dto.servicedto.ServerInstance;
 import com.dafreurekadetails.dto.servicedto.ServerInstanceDetail;
 import com.dafreurekadetails.dto.servicedto.ServiceDetail;
 import com.dafreurekadetails.dto.servicedto.ServiceGroup;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.recording.RegistryRecorder;
+import com.dafreurekadetails.service.BatchQueryService;
 import com.dafreurekadetails.service.EurekaQueryService;
+import com.dafreurekadetails.service.RegistryWatchService;
+import com.dafreurekadetails.snapshot.IndexedField;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,13 +42,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,6 +68,15 @@ class EurekaQueryControllerTest {
     @MockitoBean
     private EurekaQueryService eurekaQueryService;
 
+    @MockitoBean
+    private BatchQueryService batchQueryService;
+
+    @MockitoBean
+    private RegistryWatchService registryWatchService;
+
+    @MockitoBean
+    private RegistryRecorder registryRecorder;
+
 
     @Test
     void shouldSuccessfullyGetAppsWithServersGroupBy() throws Exception {
@@ -58,7 +87,7 @@ class EurekaQueryControllerTest {
 
         EurekaQueryResponse<GroupedResult> mockResponse = createMockServerResponse();
 
-        when(eurekaQueryService.handleQuery(eq(request.groupBy()), eq(request.eurekaServerURL())))
+        when(eurekaQueryService.handleQuery(eq(request.groupBy()), eq(request.eurekaServerURL()), isNull()))
                 .thenReturn(mockResponse);
 
         mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps")
@@ -77,7 +106,7 @@ class EurekaQueryControllerTest {
                 .andExpect(jsonPath("$.servers[0].server.services[0].service.serviceName").value("MY-SERVICE"));
 
         verify(eurekaQueryService, times(1))
-                .handleQuery("servers", "http://localhost:8761/eureka");
+                .handleQuery("servers", "http://localhost:8761/eureka", null);
     }
 
     @Test
@@ -89,7 +118,7 @@ class EurekaQueryControllerTest {
 
         EurekaQueryResponse<GroupedResult> mockResponse = createMockServiceResponse();
 
-        when(eurekaQueryService.handleQuery(eq(request.groupBy()), eq(request.eurekaServerURL())))
+        when(eurekaQueryService.handleQuery(eq(request.groupBy()), eq(request.eurekaServerURL()), isNull()))
                 .thenReturn(mockResponse);
 
         mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps")
@@ -112,7 +141,7 @@ class EurekaQueryControllerTest {
                 .andExpect(jsonPath("$.services[0].service.servers[1].server.hostname").value("SERVER-2"))
                 .andExpect(jsonPath("$.services[0].service.servers[0].server.instanceDetail.ipAddr").value("127.0.0.1"));
 
-        verify(eurekaQueryService).handleQuery("services", "http://localhost:8761/eureka");
+        verify(eurekaQueryService).handleQuery("services", "http://localhost:8761/eureka", null);
     }
 
     @Test
@@ -123,7 +152,7 @@ class EurekaQueryControllerTest {
         );
 
         EurekaQueryResponse<GroupedResult> mockResponse = createMockServerResponse();
-        when(eurekaQueryService.handleQuery(eq("SERVERS"), any(String.class)))
+        when(eurekaQueryService.handleQuery(eq("SERVERS"), any(String.class), isNull()))
                 .thenReturn(mockResponse);
 
         mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps")
@@ -132,9 +161,66 @@ class EurekaQueryControllerTest {
                 .andDo(print())
                 .andExpect(status().is(ReturnCode.SUCCESS.status()));
 
-        verify(eurekaQueryService).handleQuery("SERVERS", "http://localhost:8761/eureka");
+        verify(eurekaQueryService).handleQuery("SERVERS", "http://localhost:8761/eureka", null);
     }
 
+    @Test
+    void shouldPassTimeoutHeaderToService() throws Exception {
+        EurekaQueryRequest request = new EurekaQueryRequest(
+                "http://localhost:8761/eureka",
+                "servers"
+        );
+        when(eurekaQueryService.handleQuery(eq("servers"), any(String.class), eq(1500L)))
+                .thenReturn(createMockServerResponse());
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(EurekaQueryController.REQUEST_TIMEOUT_HEADER, "1500")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().is(ReturnCode.SUCCESS.status()));
+
+        verify(eurekaQueryService).handleQuery("servers", "http://localhost:8761/eureka", 1500L);
+    }
+
+    @Test
+    void shouldPreferBodyTimeoutOverHeader() throws Exception {
+        EurekaQueryRequest request = new EurekaQueryRequest(
+                "http://localhost:8761/eureka",
+                "servers",
+                750L
+        );
+        when(eurekaQueryService.handleQuery(eq("servers"), any(String.class), eq(750L)))
+                .thenReturn(createMockServerResponse());
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(EurekaQueryController.REQUEST_TIMEOUT_HEADER, "1500")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().is(ReturnCode.SUCCESS.status()));
+
+        verify(eurekaQueryService).handleQuery("servers", "http://localhost:8761/eureka", 750L);
+    }
+
+
+    @Test
+    void shouldServeQueriesWithAsOfFromHistory() throws Exception {
+        EurekaQueryRequest request = new EurekaQueryRequest(
+                "http://localhost:8761/eureka",
+                "servers",
+                null,
+                1_760_000_000_000L
+        );
+        when(eurekaQueryService.handleQueryAsOf(eq("servers"), any(String.class), eq(1_760_000_000_000L), isNull()))
+                .thenReturn(createMockServerResponse());
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().is(ReturnCode.SUCCESS.status()));
+
+        verify(eurekaQueryService).handleQueryAsOf("servers", "http://localhost:8761/eureka", 1_760_000_000_000L, null);
+        verify(eurekaQueryService, never()).handleQuery(any(), any(), any());
+    }
 
     @Test
     void shouldReturnStructuredValidationErrorResponse() throws Exception {
@@ -152,10 +238,10 @@ class EurekaQueryControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.returnCode").value("INVALID_REQUEST"))
                 .andExpect(jsonPath("$.message").value(containsString("groupBy")))
-                .andExpect(jsonPath("$.message").value(containsString("must be either 'servers' or 'services'")))
+                .andExpect(jsonPath("$.message").value(containsString("must be one of 'servers', 'services' or 'stats'")))
                 .andExpect(jsonPath("$.data").doesNotExist());
 
-        verify(eurekaQueryService, never()).handleQuery(any(), any());
+        verify(eurekaQueryService, never()).handleQuery(any(), any(), any());
     }
 
     @Test
@@ -177,7 +263,7 @@ class EurekaQueryControllerTest {
                 .andExpect(jsonPath("$.message").value(containsString("required")))
                 .andExpect(jsonPath("$.data").doesNotExist());
 
-        verify(eurekaQueryService, never()).handleQuery(any(), any());
+        verify(eurekaQueryService, never()).handleQuery(any(), any(), any());
     }
 
     @Test
@@ -199,7 +285,7 @@ class EurekaQueryControllerTest {
                 .andExpect(jsonPath("$.message").value(containsString("http:// or https://")))
                 .andExpect(jsonPath("$.data").doesNotExist());
 
-        verify(eurekaQueryService, never()).handleQuery(any(), any());
+        verify(eurekaQueryService, never()).handleQuery(any(), any(), any());
     }
 
 
@@ -222,7 +308,7 @@ class EurekaQueryControllerTest {
                 .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("Eureka server URL must not be blank")))
                 .andExpect(jsonPath("$.data").doesNotExist());
 
-        verify(eurekaQueryService, never()).handleQuery(any(), any());
+        verify(eurekaQueryService, never()).handleQuery(any(), any(), any());
     }
 
 
@@ -245,7 +331,7 @@ class EurekaQueryControllerTest {
                 .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("GroupBy parameter is required.")))
                 .andExpect(jsonPath("$.data").doesNotExist());
 
-        verify(eurekaQueryService, never()).handleQuery(any(), any());
+        verify(eurekaQueryService, never()).handleQuery(any(), any(), any());
     }
 
     @Test
@@ -261,10 +347,222 @@ class EurekaQueryControllerTest {
                 .andExpect(jsonPath("$.message", org.hamcrest.Matchers.containsString("Malformed JSON")))
                 .andExpect(jsonPath("$.data").doesNotExist());
 
-        verify(eurekaQueryService, never()).handleQuery(any(), any());
+        verify(eurekaQueryService, never()).handleQuery(any(), any(), any());
+    }
+
+
+
+    @Test
+    void shouldLookupAppsByIndexedField() throws Exception {
+        RegistryLookupRequest request = new RegistryLookupRequest(
+                "http://localhost:8761/eureka", "servers", "Status", "DOWN");
+
+        when(eurekaQueryService.handleLookup(eq("servers"), eq(request.eurekaServerURL()),
+                eq(IndexedField.STATUS), eq("DOWN"), isNull()))
+                .thenReturn(createMockServerResponse());
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().is(ReturnCode.SUCCESS.status()))
+                .andExpect(jsonPath("$.returnCode").value("SUCCESS"))
+                .andExpect(jsonPath("$.servers[0].server.hostName").value("localhost"));
+
+        verify(eurekaQueryService, times(1)).handleLookup(eq("servers"), eq(request.eurekaServerURL()),
+                eq(IndexedField.STATUS), eq("DOWN"), isNull());
     }
 
+    @Test
+    void shouldReturnValidationErrorForUnknownLookupField() throws Exception {
+        String invalidRequest = """
+        {
+          "eurekaServerURL": "http://localhost:8761/eureka",
+          "groupBy": "servers",
+          "field": "region",
+          "value": "EU"
+        }
+        """;
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(invalidRequest))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.returnCode").value("INVALID_REQUEST"))
+                .andExpect(jsonPath("$.message").value(containsString("field must be one of")));
 
+        verify(eurekaQueryService, never()).handleLookup(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldSearchNamesWithDefaults() throws Exception {
+        RegistrySearchRequest request = new RegistrySearchRequest("http://localhost:8761/eureka", "ord");
+        EurekaQueryResponse<GroupedResult> mockResponse = EurekaQueryResponse.from(ReturnCode.SUCCESS,
+                "Query executed successfully", "TXN-12345", 1,
+                new SearchResult(List.of(new NameMatch("ORDER-SERVICE", "service", 2, 0))));
+
+        when(eurekaQueryService.handleSearch(eq(request.eurekaServerURL()), eq("ord"), eq("all"), eq(false), eq(10), isNull()))
+                .thenReturn(mockResponse);
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().is(ReturnCode.SUCCESS.status()))
+                .andExpect(jsonPath("$.matches", hasSize(1)))
+                .andExpect(jsonPath("$.matches[0].name").value("ORDER-SERVICE"))
+                .andExpect(jsonPath("$.matches[0].kind").value("service"))
+                .andExpect(jsonPath("$.matches[0].instances").value(2));
+    }
+
+    @Test
+    void shouldReturnValidationErrorForSearchLimitOutOfRange() throws Exception {
+        String invalidRequest = """
+        {
+          "eurekaServerURL": "http://localhost:8761/eureka",
+          "query": "ord",
+          "limit": 500
+        }
+        """;
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(invalidRequest))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.returnCode").value("INVALID_REQUEST"))
+                .andExpect(jsonPath("$.message").value(containsString("limit must be between 1 and 100")));
+
+        verify(eurekaQueryService, never()).handleSearch(any(), any(), any(), anyBoolean(), anyInt(), any());
+    }
+
+    @Test
+    void shouldDiffRegistriesOfTwoServers() throws Exception {
+        RegistryDiffRequest request = new RegistryDiffRequest("http://eureka1:8761/eureka", "http://eureka2:8761/eureka");
+        EurekaQueryResponse<GroupedResult> mockResponse = EurekaQueryResponse.from(ReturnCode.SUCCESS,
+                "Query executed successfully", "TXN-12345", 1,
+                new DiffResult(0, 0, 1, 10, List.of(new InstanceDiff(InstanceDiff.MODIFIED, "ORDER-SERVICE", "h1:order",
+                        "h1", List.of(new FieldChange("status", "UP", "DOWN"))))));
+
+        when(eurekaQueryService.handleDiff(eq(request.eurekaServerURL()), isNull(), eq(request.compareToURL()), isNull(), isNull()))
+                .thenReturn(mockResponse);
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps/diff")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().is(ReturnCode.SUCCESS.status()))
+                .andExpect(jsonPath("$.modified").value(1))
+                .andExpect(jsonPath("$.unchanged").value(10))
+                .andExpect(jsonPath("$.differences[0].change").value("modified"))
+                .andExpect(jsonPath("$.differences[0].fields[0].field").value("status"))
+                .andExpect(jsonPath("$.differences[0].fields[0].target").value("DOWN"));
+    }
+
+    @Test
+    void shouldDiffAServerAgainstItsEarlierRegistry_WhenOnlyAsOfIsGiven() throws Exception {
+        String eurekaUrl = "http://eureka1:8761/eureka";
+        EurekaQueryResponse<GroupedResult> mockResponse = EurekaQueryResponse.from(ReturnCode.SUCCESS,
+                "Query executed successfully", "TXN-12345", 1, new DiffResult(1, 0, 0, 10, List.of()));
+
+        when(eurekaQueryService.handleDiff(eq(eurekaUrl), eq(1760000000000L), eq(eurekaUrl), isNull(), isNull()))
+                .thenReturn(mockResponse);
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps/diff")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"eurekaServerURL\": \"" + eurekaUrl + "\", \"asOf\": 1760000000000}"))
+                .andExpect(status().is(ReturnCode.SUCCESS.status()))
+                .andExpect(jsonPath("$.added").value(1));
+    }
+
+    @Test
+    void shouldReturnPerQueryResultsOfBatch() throws Exception {
+        EurekaQueryRequest first = new EurekaQueryRequest("http://eu-west:8761/eureka", "servers");
+        EurekaQueryRequest second = new EurekaQueryRequest("http://us-east:8761/eureka", "services");
+        BatchQueryRequest request = new BatchQueryRequest(List.of(first, second), 3000L);
+        BatchQueryResponse mockResponse = new BatchQueryResponse(ReturnCode.SUCCESS.getCode(), "1 of 2 queries succeeded.",
+                ReturnCode.SUCCESS.status(), "TXN-12345", 120, List.of(
+                BatchItemResult.success(first, 80, createMockServerResponse().data()),
+                BatchItemResult.failure(second, 120, ReturnCode.SERVICE_DOWN, "Eureka server is down")));
+
+        when(batchQueryService.handleBatch(eq(request.queries()), eq(3000L))).thenReturn(mockResponse);
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().is(ReturnCode.SUCCESS.status()))
+                .andExpect(jsonPath("$.returnCode").value("SUCCESS"))
+                .andExpect(jsonPath("$.results", hasSize(2)))
+                .andExpect(jsonPath("$.results[0].returnCode").value("SUCCESS"))
+                .andExpect(jsonPath("$.results[0].servers[0].server.hostName").value("localhost"))
+                .andExpect(jsonPath("$.results[1].returnCode").value("SERVICE_DOWN"))
+                .andExpect(jsonPath("$.results[1].eurekaServerURL").value("http://us-east:8761/eureka"));
+    }
+
+    @Test
+    void shouldReturnValidationErrorForInvalidQueryInBatch() throws Exception {
+        String invalidRequest = """
+        {
+          "queries": [
+            { "eurekaServerURL": "http://localhost:8761/eureka", "groupBy": "servers" },
+            { "eurekaServerURL": "http://localhost:8761/eureka", "groupBy": "zones" }
+          ]
+        }
+        """;
+
+        mockMvc.perform(post("/cdi-eureka-service/v1/eureka/apps/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(invalidRequest))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.returnCode").value("INVALID_REQUEST"))
+                .andExpect(jsonPath("$.message").value(containsString("groupBy must be one of")));
+
+        verify(batchQueryService, never()).handleBatch(any(), any());
+    }
+
+    @Test
+    void shouldOpenWatchStreamForRegistry() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(registryWatchService.newEmitter()).thenReturn(emitter);
+
+        mockMvc.perform(get("/cdi-eureka-service/v1/eureka/apps/watch")
+                        .param("eurekaServerURL", "http://localhost:8761/eureka")
+                        .param("groupBy", "services")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(registryWatchService).subscribe(emitter, "http://localhost:8761/eureka", "services");
+    }
+
+    @Test
+    void shouldReturnValidationErrorForInvalidWatchGroupBy() throws Exception {
+        mockMvc.perform(get("/cdi-eureka-service/v1/eureka/apps/watch")
+                        .param("eurekaServerURL", "http://localhost:8761/eureka")
+                        .param("groupBy", "zones"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.returnCode").value("INVALID_REQUEST"))
+                .andExpect(jsonPath("$.message").value(containsString("groupBy must be one of")));
+
+        verify(registryWatchService, never()).subscribe(any(), any(), any());
+    }
+
+    @Test
+    void shouldListRecordingSegments() throws Exception {
+        when(registryRecorder.segments()).thenReturn(List.of(
+                new RecordingSegment("recording-1700000000000.bin", 4096, 12, 1700000000000L, 1700000330000L)));
+
+        mockMvc.perform(get("/cdi-eureka-service/v1/eureka/recordings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("recording-1700000000000.bin"))
+                .andExpect(jsonPath("$[0].payloads").value(12));
+    }
+
+    @Test
+    void shouldRejectExportOfUnknownRecording() throws Exception {
+        when(registryRecorder.segment("secrets.txt"))
+                .thenThrow(new InvalidRequestException("Not a recording segment name: secrets.txt"));
+
+        mockMvc.perform(get("/cdi-eureka-service/v1/eureka/recordings/secrets.txt"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.returnCode").value("INVALID_REQUEST"));
+    }
 
     private EurekaQueryResponse<GroupedResult> createMockServerResponse() {
         BaseInstanceDetail instanceDetail = createBaseInstanceDetail();
@@ -0,0 +1,74 @@
+package com.dafreurekadetails.interceptor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransactionIdInterceptorTest {
+
+    private final TransactionIdInterceptor interceptor = new TransactionIdInterceptor(() -> "generated-id");
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void preHandle_ShouldGenerateId_WhenHeaderIsMissing() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+
+        assertThat(request.getAttribute("transactionId")).isEqualTo("generated-id");
+        assertThat(MDC.get("transactionId")).isEqualTo("generated-id");
+        assertThat(response.getHeader(TransactionIdInterceptor.TRANSACTION_ID_HEADER)).isEqualTo("generated-id");
+    }
+
+    @Test
+    void preHandle_ShouldReuseIncomingId_WhenHeaderIsValid() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TransactionIdInterceptor.TRANSACTION_ID_HEADER, "0190a2b4-7c1e-7d3f-9a61-2f4e5b6c7d8e");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+
+        assertThat(request.getAttribute("transactionId")).isEqualTo("0190a2b4-7c1e-7d3f-9a61-2f4e5b6c7d8e");
+        assertThat(response.getHeader(TransactionIdInterceptor.TRANSACTION_ID_HEADER)).isEqualTo("0190a2b4-7c1e-7d3f-9a61-2f4e5b6c7d8e");
+    }
+
+    @Test
+    void preHandle_ShouldGenerateId_WhenIncomingIdContainsUnsafeCharacters() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TransactionIdInterceptor.TRANSACTION_ID_HEADER, "abc\r\nINFO forged line");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertThat(request.getAttribute("transactionId")).isEqualTo("generated-id");
+    }
+
+    @Test
+    void preHandle_ShouldGenerateId_WhenIncomingIdIsTooLong() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TransactionIdInterceptor.TRANSACTION_ID_HEADER, "a".repeat(65));
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertThat(request.getAttribute("transactionId")).isEqualTo("generated-id");
+    }
+
+    @Test
+    void afterCompletion_ShouldClearMdc() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(MDC.get("transactionId")).isNull();
+    }
+}
@@ -1,28 +1,31 @@
 package com.dafreurekadetails.mapper;
 
+import com.dafreurekadetails.config.StringPoolProperties;
 import com.dafreurekadetails.dto.base.BaseInstanceDetail;
 import com.dafreurekadetails.dto.base.LeaseInfo;
 import com.dafreurekadetails.dto.base.Metadata;
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
+import com.dafreurekadetails.snapshot.RegistrySnapshot;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 @ExtendWith(MockitoExtension.class)
 public class InstanceMapperTest {
-    @InjectMocks
     private InstanceMapper instanceMapper;
     private JsonNodeFactory nodeFactory;
 
     @BeforeEach
     void setUp() {
         nodeFactory = JsonNodeFactory.instance;
+        instanceMapper = new InstanceMapper(new StringPool(new StringPoolProperties(true, 1024)));
     }
 
     @Test
@@ -153,6 +156,24 @@ public class InstanceMapperTest {
         Metadata result = instanceMapper.mapMetadata(metadataNode);
 
         assertThat(result).isNotNull();
+        assertThat(result.zone()).isEqualTo("us-east-1a");
+        assertThat(result.version()).isNull();
+    }
+
+    @Test
+    void mapToBaseInstanceDetail_ShouldShareRepeatedValues_AcrossInstances() {
+        ObjectNode firstNode = nodeFactory.objectNode();
+        firstNode.put("status", new String("UP"));
+        firstNode.set("metadata", nodeFactory.objectNode().put("zone", new String("us-east-1a")));
+        ObjectNode secondNode = nodeFactory.objectNode();
+        secondNode.put("status", new String("UP"));
+        secondNode.set("metadata", nodeFactory.objectNode().put("zone", new String("us-east-1a")));
+
+        BaseInstanceDetail first = instanceMapper.mapToBaseInstanceDetail(firstNode);
+        BaseInstanceDetail second = instanceMapper.mapToBaseInstanceDetail(secondNode);
+
+        assertThat(second.status()).isSameAs(first.status());
+        assertThat(second.metadataMap().zone()).isSameAs(first.metadataMap().zone());
     }
 
     @Test
@@ -171,6 +192,25 @@ public class InstanceMapperTest {
         assertThat(result).isNull();
     }
 
+    @Test
+    void mapToSnapshot_ShouldSkipNamelessApplications_AndKeepHostlessInstances() {
+        ObjectNode root = EurekaTestDataBuilder.createRootNodeWithMultipleApplications();
+        ArrayNode applications = (ArrayNode) root.path("applications").path("application");
+        applications.addAll(((ArrayNode) EurekaTestDataBuilder.createRootNodeWithEmptyServiceName()
+                .path("applications").path("application")));
+        applications.addAll(((ArrayNode) EurekaTestDataBuilder.createRootNodeWithBlankHostname()
+                .path("applications").path("application")));
+
+        RegistrySnapshot snapshot = instanceMapper.mapToSnapshot(root);
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.app(0)).isEqualTo("SERVICE-A");
+        assertThat(snapshot.hostName(1)).isEqualTo("host2");
+        assertThat(snapshot.detail(1).ipAddr()).isEqualTo("127.0.0.2");
+        assertThat(snapshot.app(2)).isEqualTo("TEST-SERVICE");
+        assertThat(snapshot.hostName(2)).isEmpty();
+    }
+
     @Test
     void mapToBaseInstanceDetail_ShouldMapLeaseInfo_WhenPresent() {
         ObjectNode leaseInfoNode = nodeFactory.objectNode();
@@ -0,0 +1,58 @@
+package com.dafreurekadetails.mapper;
+
+import com.dafreurekadetails.config.StringPoolProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringPoolTest {
+
+    @Test
+    void canonical_ShouldReturnSameInstance_ForEqualValues() {
+        StringPool pool = new StringPool(new StringPoolProperties(true, 16));
+
+        String first = pool.canonical(new String("UP"));
+        String second = pool.canonical(new String("UP"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(pool.size()).isEqualTo(1);
+    }
+
+    @Test
+    void canonical_ShouldReturnNull_ForNull() {
+        StringPool pool = new StringPool(new StringPoolProperties(true, 16));
+
+        assertThat(pool.canonical(null)).isNull();
+        assertThat(pool.size()).isZero();
+    }
+
+    @Test
+    void canonical_ShouldPassValuesThrough_WhenDisabled() {
+        StringPool pool = new StringPool(new StringPoolProperties(false, 16));
+        String value = new String("UP");
+
+        assertThat(pool.canonical(value)).isSameAs(value);
+        assertThat(pool.size()).isZero();
+    }
+
+    @Test
+    void canonical_ShouldStayBounded_WhenMoreDistinctValuesThanMaxEntries() {
+        StringPool pool = new StringPool(new StringPoolProperties(true, 8));
+
+        for (int i = 0; i < 100; i++) {
+            pool.canonical("value-" + i);
+        }
+
+        assertThat(pool.size()).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void clear_ShouldDropPooledValues() {
+        StringPool pool = new StringPool(new StringPoolProperties(true, 16));
+        pool.canonical("UP");
+
+        pool.clear();
+
+        assertThat(pool.size()).isZero();
+    }
+}
@@ -0,0 +1,120 @@
+package com.dafreurekadetails.monitoring;
+
+import com.dafreurekadetails.config.StringPoolProperties;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
+import com.dafreurekadetails.service.EurekaClientHelper;
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
+import com.dafreurekadetails.service.strategy.ServerGroupingStrategy;
+import com.dafreurekadetails.service.strategy.ServiceGroupingStrategy;
+import com.dafreurekadetails.service.strategy.StatsGroupingStrategy;
+import com.dafreurekadetails.snapshot.RegistrySnapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GroupingEventTest {
+
+    private static final String EUREKA_URL = "http://localhost:8761/eureka";
+    private static final long FETCH_MILLIS = 300;
+
+    private final JsonNode root = EurekaTestDataBuilder.createSyntheticRegistry(5, 4);
+    private StringPool stringPool;
+    private InstanceMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        stringPool = new StringPool(new StringPoolProperties(true, 1024));
+        mapper = new InstanceMapper(stringPool);
+    }
+
+    @Test
+    void groupingEvent_ShouldCoverGroupingButNotTheFetch() throws Exception {
+        EurekaClientHelper client = slowClient(root);
+
+        List<RecordedEvent> events = record(() -> new ServiceGroupingStrategy(client, mapper, stringPool).group(EUREKA_URL));
+
+        assertThat(events).hasSize(1);
+        RecordedEvent event = events.get(0);
+        assertThat(event.getString("eurekaUrl")).isEqualTo(EUREKA_URL);
+        assertThat(event.getString("groupBy")).isEqualTo("services");
+        assertThat(event.getInt("applicationCount")).isEqualTo(5);
+        assertThat(event.getInt("instanceCount")).isEqualTo(20);
+        assertThat(event.getString("returnCode")).isEqualTo("SUCCESS");
+        assertThat(event.getDuration().toMillis()).isLessThan(FETCH_MILLIS);
+    }
+
+    @Test
+    void groupingEvent_ShouldNotBeRecorded_WhenTheFetchFails() throws Exception {
+        EurekaClientHelper client = slowClient(null);
+
+        List<RecordedEvent> events = record(() -> assertThatThrownBy(
+                () -> new ServerGroupingStrategy(client, mapper, stringPool).group(EUREKA_URL))
+                .isInstanceOf(ServiceUnavailableException.class));
+
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void groupingEvent_ShouldBeRecordedAsFromSnapshot_WhenALoadedRegistryIsGrouped() throws Exception {
+        EurekaClientHelper client = slowClient(root);
+        RegistrySnapshot snapshot = mapper.mapToSnapshot(root);
+
+        List<RecordedEvent> events = record(() -> {
+            new ServerGroupingStrategy(client, mapper, stringPool).group(snapshot);
+            new StatsGroupingStrategy(client).group(snapshot);
+        });
+
+        assertThat(events).hasSize(2);
+        for (RecordedEvent event : events) {
+            assertThat(event.getBoolean("fromSnapshot")).isTrue();
+            assertThat(event.getString("eurekaUrl")).isNull();
+            assertThat(event.getInt("applicationCount")).isEqualTo(5);
+            assertThat(event.getInt("instanceCount")).isEqualTo(20);
+            assertThat(event.getString("returnCode")).isEqualTo("SUCCESS");
+        }
+        assertThat(events.get(0).getString("groupBy")).isEqualTo("servers");
+        assertThat(events.get(1).getString("groupBy")).isEqualTo("stats");
+    }
+
+    private static EurekaClientHelper slowClient(JsonNode response) {
+        return new EurekaClientHelper(null, null, null, null, null) {
+            @Override
+            public JsonNode getEurekaApps(String eurekaURL) {
+                try {
+                    Thread.sleep(FETCH_MILLIS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return response;
+            }
+        };
+    }
+
+    private static List<RecordedEvent> record(Runnable action) throws Exception {
+        Path file = Files.createTempFile("grouping-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(GroupingEvent.class);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("com.dafreurekadetails.Grouping"))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
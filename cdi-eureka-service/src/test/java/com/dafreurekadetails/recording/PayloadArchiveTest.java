@@ -0,0 +1,121 @@
+package com.dafreurekadetails.recording;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PayloadArchiveTest {
+
+    private static final String URL = "http://eureka-1:8761/eureka/apps";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_ShouldReturnThePayloadsAsAppended() throws Exception {
+        PayloadArchive archive = new PayloadArchive(directory, 1 << 20, 1 << 20);
+        archive.append(1000L, URL, payload(1));
+        archive.append(2000L, URL, payload(2));
+        archive.close();
+
+        List<PayloadArchive.Entry> entries = archive.scan();
+
+        assertThat(entries).hasSize(2);
+        assertThat(entries.get(0).recordedAt()).isEqualTo(1000L);
+        assertThat(entries.get(1).url()).isEqualTo(URL);
+        assertThat(archive.read(entries.get(0))).isEqualTo(payload(1));
+        assertThat(archive.read(entries.get(1))).isEqualTo(payload(2));
+    }
+
+    @Test
+    void append_ShouldRollOverAndDeleteTheOldestSegments_WhenFull() throws Exception {
+        PayloadArchive archive = new PayloadArchive(directory, 1, 1);
+        archive.append(1000L, URL, payload(1));
+        archive.append(2000L, URL, payload(2));
+        archive.append(3000L, URL, payload(3));
+        archive.close();
+
+        List<Path> segments = archive.segments();
+
+        assertThat(segments).hasSize(1);
+        assertThat(segments.get(0).getFileName().toString()).isEqualTo("recording-3000.bin");
+        assertThat(archive.read(archive.scan().get(0))).isEqualTo(payload(3));
+    }
+
+    @Test
+    void scan_ShouldStopAtATruncatedRecord() throws Exception {
+        PayloadArchive archive = new PayloadArchive(directory, 1 << 20, 1 << 20);
+        archive.append(1000L, URL, payload(1));
+        archive.append(2000L, URL, payload(2));
+        archive.close();
+        Path segment = archive.segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        assertThat(archive.scan()).hasSize(1);
+    }
+
+    @Test
+    void scan_ShouldStopAtARecordWithANegativeCompressedLength() throws Exception {
+        List<PayloadArchive.Entry> entries = appendThree();
+        //The raw and compressed lengths sit right before each payload.
+        overwriteInt(entries.get(1).offset() - Integer.BYTES, -64);
+
+        assertThat(new PayloadArchive(directory, 1 << 20, 1 << 20).scan()).hasSize(1);
+    }
+
+    @Test
+    void scan_ShouldStopAtARecordWithANegativeRawLength() throws Exception {
+        List<PayloadArchive.Entry> entries = appendThree();
+        overwriteInt(entries.get(1).offset() - 2 * Integer.BYTES, -1);
+
+        assertThat(new PayloadArchive(directory, 1 << 20, 1 << 20).scan()).hasSize(1);
+    }
+
+    @Test
+    void scan_ShouldSkipFilesThatAreNotSegments() throws Exception {
+        Files.write(directory.resolve("recording-1000.bin"), new byte[]{1, 2, 3});
+
+        assertThat(new PayloadArchive(directory, 1 << 20, 1 << 20).scan()).isEmpty();
+    }
+
+    @Test
+    void segments_ShouldSkipNamesWhoseDigitsDoNotFitATimestamp() throws Exception {
+        PayloadArchive archive = new PayloadArchive(directory, 1 << 20, 1 << 20);
+        archive.append(1000L, URL, payload(1));
+        archive.close();
+        Files.write(directory.resolve("recording-99999999999999999999.bin"), new byte[0]);
+        Files.write(directory.resolve("recording-1000-99999999999.bin"), new byte[0]);
+
+        assertThat(archive.segments()).containsExactly(directory.resolve("recording-1000.bin"));
+    }
+
+    private List<PayloadArchive.Entry> appendThree() throws Exception {
+        PayloadArchive archive = new PayloadArchive(directory, 1 << 20, 1 << 20);
+        archive.append(1000L, URL, payload(1));
+        archive.append(2000L, URL, payload(2));
+        archive.append(3000L, URL, payload(3));
+        archive.close();
+        return archive.scan();
+    }
+
+    private void overwriteInt(long position, int value) throws Exception {
+        try (FileChannel channel = FileChannel.open(directory.resolve("recording-1000.bin"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(value).flip(), position);
+        }
+    }
+
+    private static byte[] payload(int version) {
+        return ("{\"applications\":{\"versions__delta\":\"" + version + "\",\"application\":[]}}").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+package com.dafreurekadetails.recording;
+
+import com.dafreurekadetails.config.RecordingProperties;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RegistryRecorderTest {
+
+    private static final String URL = "http://eureka-1:8761/eureka/apps";
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void replay_ShouldFollowTheRecordedTimeline() throws Exception {
+        record(0, 1, 2);
+        RegistryRecorder replay = recorder(RecordingProperties.Mode.REPLAY, 1.0, false);
+        replay.loadRecordings();
+
+        assertThat(replay.replay(URL)).isEqualTo(payload(0));
+        now.addAndGet(1500);
+        assertThat(replay.replay(URL)).isEqualTo(payload(1));
+        now.addAndGet(10_000);
+        assertThat(replay.replay(URL)).isEqualTo(payload(2));
+    }
+
+    @Test
+    void replay_ShouldStartOver_WhenLoopingAndSpedUp() throws Exception {
+        record(0, 1, 2);
+        RegistryRecorder replay = recorder(RecordingProperties.Mode.REPLAY, 10.0, true);
+        replay.loadRecordings();
+
+        assertThat(replay.replay(URL)).isEqualTo(payload(0));
+        now.addAndGet(150);
+        assertThat(replay.replay(URL)).isEqualTo(payload(1));
+        now.addAndGet(100);
+        assertThat(replay.replay(URL)).isEqualTo(payload(0));
+    }
+
+    @Test
+    void replay_ShouldThrow_WhenTheUrlWasNeverRecorded() throws Exception {
+        record(0);
+        RegistryRecorder replay = recorder(RecordingProperties.Mode.REPLAY, 1.0, true);
+        replay.loadRecordings();
+
+        assertThatThrownBy(() -> replay.replay("http://eureka-2:8761/eureka/apps"))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void segment_ShouldRejectNamesOutsideTheArchive() throws Exception {
+        record(0);
+        RegistryRecorder recorder = recorder(RecordingProperties.Mode.OFF, 1.0, true);
+
+        assertThat(recorder.segments()).hasSize(1);
+        assertThat(recorder.segment(recorder.segments().get(0).name())).exists();
+        assertThatThrownBy(() -> recorder.segment("../application.yml")).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> recorder.segment("recording-1.bin")).isInstanceOf(InvalidRequestException.class);
+    }
+
+    //Records one payload per version, a second apart.
+    private void record(int... versions) throws InterruptedException {
+        RegistryRecorder recorder = recorder(RecordingProperties.Mode.RECORD, 1.0, true);
+        for (int version : versions) {
+            recorder.record(URL, payload(version));
+            now.addAndGet(1000);
+        }
+        recorder.shutdown();
+    }
+
+    private RegistryRecorder recorder(RecordingProperties.Mode mode, double speed, boolean loop) {
+        return new RegistryRecorder(new RecordingProperties(mode, directory.toString(),
+                DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), speed, loop), now::get);
+    }
+
+    private static byte[] payload(int version) {
+        return ("{\"applications\":{\"versions__delta\":\"" + version + "\"}}").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,87 @@
+package com.dafreurekadetails.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASELINE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void tryAcquire_ShouldRejectCalls_WhenLimitIsReached() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+
+        limiter.onIgnored();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void onDropped_ShouldShrinkLimit_ButNotBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 10, 2.0);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.onDropped();
+        }
+
+        assertThat(limiter.limit()).isEqualTo(2);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void onSuccess_ShouldGrowLimit_WhenSaturatedAndLatencyIsStable() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 100, 2.0);
+
+        for (int round = 0; round < 20; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.onSuccess(BASELINE_RTT);
+            }
+        }
+
+        assertThat(limiter.limit()).isGreaterThan(4);
+    }
+
+    @Test
+    void onSuccess_ShouldShrinkLimit_WhenLatencyRisesWellAboveBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 2.0);
+        saturateWith(limiter, BASELINE_RTT);
+        int limitBefore = limiter.limit();
+
+        for (int round = 0; round < 10; round++) {
+            saturateWith(limiter, BASELINE_RTT * 20);
+        }
+
+        assertThat(limiter.limit()).isLessThan(limitBefore);
+    }
+
+    @Test
+    void constructor_ShouldRejectInvalidBounds() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(5, 0, 10, 2.0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(5, 10, 2, 2.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void saturateWith(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.onSuccess(rttNanos);
+        }
+    }
+}
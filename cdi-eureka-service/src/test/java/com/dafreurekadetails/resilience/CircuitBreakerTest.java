@@ -0,0 +1,115 @@
+package com.dafreurekadetails.resilience;
+
+import com.dafreurekadetails.dto.response.ReturnCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerTest {
+
+    private static final long OPEN_NANOS = 5_000_000_000L;
+    private static final long INVALID_HOST_OPEN_NANOS = 30_000_000_000L;
+
+    private AtomicLong clock;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000L);
+        breaker = new CircuitBreaker(3, OPEN_NANOS, INVALID_HOST_OPEN_NANOS, clock::get);
+    }
+
+    @Test
+    void tryPass_ShouldAllowCalls_WhileFailuresAreBelowThreshold() {
+        breaker.onFailure(ReturnCode.SERVICE_DOWN);
+        breaker.onFailure(ReturnCode.SERVICE_DOWN);
+
+        assertThat(breaker.tryPass()).isNull();
+        assertThat(breaker.mode()).isEqualTo(CircuitBreaker.Mode.CLOSED);
+    }
+
+    @Test
+    void tryPass_ShouldReturnCachedFailure_WhenThresholdIsReached() {
+        breaker.onFailure(ReturnCode.SERVICE_DOWN);
+        breaker.onFailure(ReturnCode.SERVICE_DOWN);
+        breaker.onFailure(ReturnCode.TIMEOUT);
+
+        assertThat(breaker.tryPass()).isEqualTo(ReturnCode.TIMEOUT);
+        assertThat(breaker.mode()).isEqualTo(CircuitBreaker.Mode.OPEN);
+    }
+
+    @Test
+    void onSuccess_ShouldResetConsecutiveFailures() {
+        breaker.onFailure(ReturnCode.SERVICE_DOWN);
+        breaker.onFailure(ReturnCode.SERVICE_DOWN);
+        breaker.onSuccess();
+        breaker.onFailure(ReturnCode.SERVICE_DOWN);
+
+        assertThat(breaker.tryPass()).isNull();
+    }
+
+    @Test
+    void onFailure_ShouldOpenImmediately_WhenHostIsInvalid() {
+        breaker.onFailure(ReturnCode.INVALID_HOST);
+
+        assertThat(breaker.tryPass()).isEqualTo(ReturnCode.INVALID_HOST);
+        clock.addAndGet(OPEN_NANOS);
+        assertThat(breaker.tryPass()).isEqualTo(ReturnCode.INVALID_HOST);
+        clock.addAndGet(INVALID_HOST_OPEN_NANOS);
+        assertThat(breaker.tryPass()).isNull();
+    }
+
+    @Test
+    void tryPass_ShouldLetSingleProbeThrough_AfterOpenPeriod() {
+        openBreaker();
+        clock.addAndGet(OPEN_NANOS);
+
+        assertThat(breaker.tryPass()).isNull();
+        assertThat(breaker.mode()).isEqualTo(CircuitBreaker.Mode.HALF_OPEN);
+        assertThat(breaker.tryPass()).isEqualTo(ReturnCode.SERVICE_DOWN);
+    }
+
+    @Test
+    void onSuccess_ShouldCloseBreaker_WhenProbeSucceeds() {
+        openBreaker();
+        clock.addAndGet(OPEN_NANOS);
+        breaker.tryPass();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.mode()).isEqualTo(CircuitBreaker.Mode.CLOSED);
+        assertThat(breaker.tryPass()).isNull();
+    }
+
+    @Test
+    void onFailure_ShouldReopenBreaker_WhenProbeFails() {
+        openBreaker();
+        clock.addAndGet(OPEN_NANOS);
+        breaker.tryPass();
+
+        breaker.onFailure(ReturnCode.SERVICE_DOWN);
+
+        assertThat(breaker.mode()).isEqualTo(CircuitBreaker.Mode.OPEN);
+        assertThat(breaker.tryPass()).isEqualTo(ReturnCode.SERVICE_DOWN);
+    }
+
+    @Test
+    void onIgnored_ShouldReleaseProbe_WhenProbeEndsWithoutVerdict() {
+        openBreaker();
+        clock.addAndGet(OPEN_NANOS);
+        breaker.tryPass();
+
+        breaker.onIgnored();
+
+        assertThat(breaker.tryPass()).isNull();
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(ReturnCode.SERVICE_DOWN);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.dafreurekadetails.resilience;
+
+import com.dafreurekadetails.config.CircuitBreakerProperties;
+import com.dafreurekadetails.dto.response.ReturnCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UpstreamCircuitBreakersTest {
+
+    private final UpstreamCircuitBreakers breakers = new UpstreamCircuitBreakers(
+            new CircuitBreakerProperties(true, 3, Duration.ofSeconds(5), Duration.ofSeconds(30), 2));
+
+    @Test
+    void forTarget_ShouldDropClosedBreakers_WhenAtCapacity() {
+        breakers.forTarget("http://a");
+        breakers.forTarget("http://b").onFailure(ReturnCode.INVALID_HOST);
+
+        breakers.forTarget("http://c");
+
+        assertThat(breakers.targetCount()).isEqualTo(2);
+        assertThat(breakers.forTarget("http://b").tryPass()).isEqualTo(ReturnCode.INVALID_HOST);
+    }
+
+    @Test
+    void forTarget_ShouldStayBounded_WhenEveryTrackedBreakerIsOpen() {
+        breakers.forTarget("http://a").onFailure(ReturnCode.INVALID_HOST);
+        breakers.forTarget("http://b").onFailure(ReturnCode.INVALID_HOST);
+        for (int i = 0; i < 3; i++) {
+            breakers.forTarget("http://down").onFailure(ReturnCode.SERVICE_DOWN);
+        }
+
+        assertThat(breakers.targetCount()).isEqualTo(2);
+        //The invalid host opened first was due for a probe soonest and made room for the new target.
+        assertThat(breakers.forTarget("http://down").tryPass()).isEqualTo(ReturnCode.SERVICE_DOWN);
+    }
+}
@@ -0,0 +1,192 @@
+package com.dafreurekadetails.service;
+
+import com.dafreurekadetails.config.BatchProperties;
+import com.dafreurekadetails.config.TimeoutProperties;
+import com.dafreurekadetails.deadline.DeadlineContext;
+import com.dafreurekadetails.dto.ServiceResult;
+import com.dafreurekadetails.dto.request.EurekaQueryRequest;
+import com.dafreurekadetails.dto.response.BatchItemResult;
+import com.dafreurekadetails.dto.response.BatchQueryResponse;
+import com.dafreurekadetails.dto.response.ReturnCode;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchQueryServiceTest {
+
+    @Mock
+    private EurekaService eurekaService;
+
+    private BatchQueryService batchQueryService;
+
+    private static final String EU_URL = "http://eu-west:8761/eureka";
+    private static final String US_URL = "http://us-east:8761/eureka";
+    private static final String TRANSACTION_ID = "test-transaction-123";
+    private static final TimeoutProperties TIMEOUTS = new TimeoutProperties(
+            Duration.ofSeconds(10), Duration.ofSeconds(60), Duration.ofSeconds(2), Duration.ofSeconds(30));
+
+    @BeforeEach
+    void setUp() {
+        batchQueryService = new BatchQueryService(eurekaService, TIMEOUTS, new BatchProperties(3, 2));
+        MDC.put("transactionId", TRANSACTION_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchQueryService.shutdown();
+        MDC.clear();
+    }
+
+    @Test
+    void handleBatch_ShouldReportEachQuerySeparately_WhenOneClusterFails() {
+        ServiceResult euResult = new ServiceResult(List.of());
+        when(eurekaService.group("services", EU_URL)).thenReturn(euResult);
+        when(eurekaService.group("servers", US_URL)).thenThrow(new ServiceUnavailableException("Eureka server is down"));
+
+        BatchQueryResponse response = batchQueryService.handleBatch(List.of(
+                new EurekaQueryRequest(EU_URL, "services"),
+                new EurekaQueryRequest(US_URL, "servers")), null);
+
+        assertEquals(ReturnCode.SUCCESS.getCode(), response.returnCode());
+        assertEquals("1 of 2 queries succeeded.", response.message());
+        assertEquals(TRANSACTION_ID, response.transactionID());
+        assertEquals(2, response.results().size());
+
+        BatchItemResult eu = response.results().get(0);
+        assertEquals(EU_URL, eu.eurekaServerURL());
+        assertEquals(ReturnCode.SUCCESS.getCode(), eu.returnCode());
+        assertSame(euResult, eu.data());
+
+        BatchItemResult us = response.results().get(1);
+        assertEquals(US_URL, us.eurekaServerURL());
+        assertEquals(ReturnCode.SERVICE_DOWN.getCode(), us.returnCode());
+        assertEquals(ReturnCode.SERVICE_DOWN.status(), us.httpStatusCode());
+        assertNull(us.data());
+    }
+
+    @Test
+    void handleBatch_ShouldTimeOutSlowQuery_WithoutHoldingBackTheOthers() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(eurekaService.group("services", US_URL)).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return new ServiceResult(List.of());
+        });
+        when(eurekaService.group("services", EU_URL)).thenReturn(new ServiceResult(List.of()));
+
+        long start = System.nanoTime();
+        BatchQueryResponse response = batchQueryService.handleBatch(List.of(
+                new EurekaQueryRequest(US_URL, "services"),
+                new EurekaQueryRequest(EU_URL, "services")), 200L);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertEquals(ReturnCode.TIMEOUT.getCode(), response.results().get(0).returnCode());
+        assertEquals(ReturnCode.SUCCESS.getCode(), response.results().get(1).returnCode());
+        assertTrue(elapsedMs < 5_000, "batch should return at its deadline, took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void handleBatch_ShouldBindEachQueryItsOwnDeadline_CappedByTheBatch() {
+        AtomicInteger budget = new AtomicInteger();
+        when(eurekaService.group("services", EU_URL)).thenAnswer(invocation -> {
+            budget.set((int) DeadlineContext.current().budgetMillis());
+            assertEquals(TRANSACTION_ID, MDC.get("transactionId"));
+            return new ServiceResult(List.of());
+        });
+
+        batchQueryService.handleBatch(List.of(new EurekaQueryRequest(EU_URL, "services", 500L)), 5_000L);
+
+        assertEquals(500, budget.get());
+        assertNull(DeadlineContext.current());
+    }
+
+    @Test
+    void handleBatch_ShouldRunAtMostMaxParallelismQueriesAtOnce() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(eurekaService.group(eq("services"), anyString())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return new ServiceResult(List.of());
+        });
+
+        BatchQueryResponse response = batchQueryService.handleBatch(List.of(
+                new EurekaQueryRequest(EU_URL, "services"),
+                new EurekaQueryRequest(US_URL, "services"),
+                new EurekaQueryRequest("http://ap-south:8761/eureka", "services")), null);
+
+        assertEquals("3 of 3 queries succeeded.", response.message());
+        assertTrue(peak.get() <= 2, "at most 2 queries should overlap, saw " + peak.get());
+    }
+
+    @Test
+    void handleBatch_ShouldRejectInvalidURLs_PerQuery() {
+        when(eurekaService.group("services", EU_URL)).thenReturn(new ServiceResult(List.of()));
+
+        BatchQueryResponse response = batchQueryService.handleBatch(List.of(
+                new EurekaQueryRequest(EU_URL, "services"),
+                new EurekaQueryRequest("ftp://us-east:8761/eureka", "services")), null);
+
+        assertEquals(ReturnCode.SUCCESS.getCode(), response.results().get(0).returnCode());
+        BatchItemResult invalid = response.results().get(1);
+        assertEquals(ReturnCode.INVALID_REQUEST.getCode(), invalid.returnCode());
+        assertEquals("Eureka URL must start with http:// or https://", invalid.message());
+        verify(eurekaService, never()).group("services", "ftp://us-east:8761/eureka");
+    }
+
+    @Test
+    void handleBatch_ShouldCarryTheFailuresReturnCode_WhenNoQuerySucceeds() {
+        when(eurekaService.group(eq("services"), anyString())).thenThrow(new ServiceUnavailableException("Eureka server is down"));
+
+        BatchQueryResponse response = batchQueryService.handleBatch(List.of(
+                new EurekaQueryRequest(EU_URL, "services"),
+                new EurekaQueryRequest(US_URL, "services")), null);
+
+        assertEquals(ReturnCode.SERVICE_DOWN.getCode(), response.returnCode());
+        assertEquals(ReturnCode.SERVICE_DOWN.status(), response.httpStatusCode());
+        assertEquals("0 of 2 queries succeeded.", response.message());
+    }
+
+    @Test
+    void handleBatch_ShouldReportUnknown_WhenQueriesFailForDifferentReasons() {
+        when(eurekaService.group("services", EU_URL)).thenThrow(new ServiceUnavailableException("Eureka server is down"));
+
+        BatchQueryResponse response = batchQueryService.handleBatch(List.of(
+                new EurekaQueryRequest(EU_URL, "services"),
+                new EurekaQueryRequest("http://us-east:8761/registry", "services")), null);
+
+        assertEquals(ReturnCode.UNKNOWN.getCode(), response.returnCode());
+    }
+
+    @Test
+    void handleBatch_ShouldRejectBatch_WhenItHoldsTooManyQueries() {
+        List<EurekaQueryRequest> queries = List.of(
+                new EurekaQueryRequest(EU_URL, "services"),
+                new EurekaQueryRequest(EU_URL, "servers"),
+                new EurekaQueryRequest(US_URL, "services"),
+                new EurekaQueryRequest(US_URL, "servers"));
+
+        InvalidRequestException thrown = assertThrows(InvalidRequestException.class,
+                () -> batchQueryService.handleBatch(queries, null));
+
+        assertEquals(ReturnCode.INVALID_REQUEST, thrown.returnCode());
+        verifyNoInteractions(eurekaService);
+    }
+}
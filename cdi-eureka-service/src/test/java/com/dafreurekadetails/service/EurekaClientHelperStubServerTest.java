@@ -0,0 +1,126 @@
+package com.dafreurekadetails.service;
+
+import com.dafreurekadetails.config.BulkheadProperties;
+import com.dafreurekadetails.config.CircuitBreakerProperties;
+import com.dafreurekadetails.config.RecordingProperties;
+import com.dafreurekadetails.deadline.Deadline;
+import com.dafreurekadetails.deadline.DeadlineContext;
+import com.dafreurekadetails.dto.response.ReturnCode;
+import com.dafreurekadetails.exception.DeadlineExceededException;
+import com.dafreurekadetails.exception.EurekaTimeoutException;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import com.dafreurekadetails.recording.RegistryRecorder;
+import com.dafreurekadetails.resilience.UpstreamBulkheads;
+import com.dafreurekadetails.resilience.UpstreamCircuitBreakers;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link EurekaClientHelper} against a {@link StubEurekaServer}, through real sockets.
+ */
+public class EurekaClientHelperStubServerTest {
+
+    private StubEurekaServer eureka;
+    private UpstreamCircuitBreakers circuitBreakers;
+    private EurekaClientHelper eurekaClientHelper;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        eureka = StubEurekaServer.withSyntheticRegistry(3, 2);
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(1000);
+        requestFactory.setReadTimeout(200);
+        circuitBreakers = new UpstreamCircuitBreakers(new CircuitBreakerProperties(true, 3, Duration.ofSeconds(5), Duration.ofSeconds(30), 1024));
+        eurekaClientHelper = new EurekaClientHelper(new RestTemplate(requestFactory),
+                new UpstreamBulkheads(new BulkheadProperties(true, 4, 1, 10, 2.0, 1024)),
+                circuitBreakers,
+                new RegistryRecorder(new RecordingProperties(RecordingProperties.Mode.OFF, "unused",
+                        DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), 1.0, true)),
+                new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        DeadlineContext.clear();
+        eurekaClientHelper.shutdown();
+        eureka.close();
+    }
+
+    @Test
+    void getEurekaApps_ShouldParseTheServedRegistry() {
+        JsonNode result = eurekaClientHelper.getEurekaApps(eureka.url());
+
+        assertEquals(3, result.path("applications").path("application").size());
+        assertEquals(1, eureka.requestCount());
+    }
+
+    @Test
+    void getEurekaApps_ShouldThrowServiceUnavailable_WhenServerAnswersWithAnError() {
+        eureka.failingNext(1, 503);
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> eurekaClientHelper.getEurekaApps(eureka.url()));
+
+        assertEquals(ReturnCode.SERVICE_UNAVAILABLE, exception.returnCode());
+        assertNotNull(eurekaClientHelper.getEurekaApps(eureka.url()));
+    }
+
+    @Test
+    void getEurekaApps_ShouldThrowServiceUnavailable_WhenConnectionIsDropped() {
+        //HttpURLConnection sends a GET again once when the connection drops before the response.
+        eureka.failingNext(2, StubEurekaServer.DROP_CONNECTION);
+
+        assertThrows(ServiceUnavailableException.class, () -> eurekaClientHelper.getEurekaApps(eureka.url()));
+    }
+
+    @Test
+    void getEurekaApps_ShouldThrowEurekaTimeoutException_WhenSlowerThanReadTimeout() {
+        eureka.withLatency(Duration.ofMillis(1000));
+
+        assertThrows(EurekaTimeoutException.class, () -> eurekaClientHelper.getEurekaApps(eureka.url()));
+    }
+
+    @Test
+    void getEurekaApps_ShouldParseTheWholeBody_WhenItDripsIn() {
+        eureka.dripping(256, Duration.ofMillis(1));
+
+        JsonNode result = eurekaClientHelper.getEurekaApps(eureka.url());
+
+        assertEquals(3, result.path("applications").path("application").size());
+    }
+
+    @Test
+    void streamEurekaApps_ShouldStopReading_WhenDeadlineExpiresMidBody() {
+        eureka.dripping(16, Duration.ofMillis(50));
+        DeadlineContext.bind(Deadline.after(Duration.ofMillis(150)));
+
+        assertThrows(DeadlineExceededException.class,
+                () -> eurekaClientHelper.streamEurekaApps(eureka.url(), response -> response.getBody().readAllBytes()));
+    }
+
+    @Test
+    void getEurekaApps_ShouldKeepTheBreakerClosed_WhenOnlyTheCallersDeadlineExpires() throws InterruptedException {
+        eureka.dripping(16, Duration.ofMillis(50));
+        for (int i = 0; i < 3; i++) {
+            DeadlineContext.bind(Deadline.after(Duration.ofMillis(100)));
+            assertThrows(DeadlineExceededException.class, () -> eurekaClientHelper.getEurekaApps(eureka.url()));
+            DeadlineContext.clear();
+        }
+
+        //The cancelled calls report to the breaker once they have stopped.
+        TimeUnit.MILLISECONDS.sleep(1000);
+        assertNull(circuitBreakers.forTarget(eureka.url() + "/apps").tryPass());
+    }
+}
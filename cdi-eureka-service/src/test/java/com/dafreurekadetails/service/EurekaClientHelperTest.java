@@ -1,20 +1,26 @@
 package com.dafreurekadetails.service;
 
+import com.dafreurekadetails.config.BulkheadProperties;
+import com.dafreurekadetails.config.CircuitBreakerProperties;
 import com.dafreurekadetails.dto.response.ReturnCode;
 import com.dafreurekadetails.exception.EurekaTimeoutException;
 import com.dafreurekadetails.exception.ServiceUnavailableException;
+import com.dafreurekadetails.recording.RegistryRecorder;
+import com.dafreurekadetails.resilience.UpstreamBulkheads;
+import com.dafreurekadetails.resilience.UpstreamCircuitBreakers;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -22,6 +28,7 @@ import java.io.IOException;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
@@ -30,7 +37,9 @@ import static org.mockito.Mockito.*;
 public class EurekaClientHelperTest {
     @Mock
     private RestTemplate restTemplate;
-    @InjectMocks
+    @Mock
+    private RegistryRecorder recorder;
+    private UpstreamBulkheads bulkheads;
     private EurekaClientHelper eurekaClientHelper;
     private JsonNode mockJsonNode;
     private String eurekaURL;
@@ -39,7 +48,11 @@ public class EurekaClientHelperTest {
     @BeforeEach
     void setUp() throws JsonProcessingException {
         MockitoAnnotations.openMocks(this);
+        bulkheads = new UpstreamBulkheads(new BulkheadProperties(true, 1, 1, 10, 2.0, 1024));
+        UpstreamCircuitBreakers circuitBreakers = new UpstreamCircuitBreakers(
+                new CircuitBreakerProperties(true, 3, Duration.ofSeconds(5), Duration.ofSeconds(30), 1024));
         ObjectMapper objectMapper = new ObjectMapper();
+        eurekaClientHelper = new EurekaClientHelper(restTemplate, bulkheads, circuitBreakers, recorder, objectMapper);
         String mockJson = "{\"applications\":{\"application\":[{\"name\":\"TEST-SERVICE\"}]}}";
         mockJsonNode = objectMapper.readTree(mockJson);
         eurekaURL = "http://localhost:8761";
@@ -59,6 +72,43 @@ public class EurekaClientHelperTest {
 
         verify(restTemplate).getForEntity(eq(expectedUrl), eq(JsonNode.class));
     }
+    @Test
+    void streamEurekaApps_ShouldReturnWhatTheExtractorRead() {
+        when(restTemplate.execute(eq(expectedUrl), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenReturn(new ResponseEntity<>("counted", HttpStatus.OK));
+
+        String result = eurekaClientHelper.streamEurekaApps(eurekaURL, response -> "unused");
+
+        assertEquals("counted", result);
+        verify(restTemplate, never()).getForEntity(anyString(), eq(JsonNode.class));
+    }
+
+    @Test
+    void getEurekaApps_ShouldRecordTheRawPayload_WhenRecording() {
+        byte[] payload = "{\"applications\":{\"application\":[{\"name\":\"TEST-SERVICE\"}]}}".getBytes();
+        when(recorder.isActive()).thenReturn(true);
+        when(restTemplate.execute(eq(expectedUrl), eq(HttpMethod.GET), any(), any(ResponseExtractor.class)))
+                .thenReturn(new ResponseEntity<>(payload, HttpStatus.OK));
+
+        JsonNode result = eurekaClientHelper.getEurekaApps(eurekaURL);
+
+        assertEquals(mockJsonNode, result);
+        verify(recorder).record(expectedUrl, payload);
+    }
+
+    @Test
+    void streamEurekaApps_ShouldServeTheRecordedPayload_WhenReplaying() {
+        byte[] payload = "{\"applications\":{}}".getBytes();
+        when(recorder.isActive()).thenReturn(true);
+        when(recorder.isReplaying()).thenReturn(true);
+        when(recorder.replay(expectedUrl)).thenReturn(payload);
+
+        byte[] result = eurekaClientHelper.streamEurekaApps(eurekaURL, response -> response.getBody().readAllBytes());
+
+        assertArrayEquals(payload, result);
+        verifyNoInteractions(restTemplate);
+    }
+
     @Test
     void getEurekaApps_ShouldThrowEurekaTimeoutException_WhenSocketTimeoutException() {
         // Given
@@ -197,4 +247,65 @@ public class EurekaClientHelperTest {
         verify(restTemplate).getForEntity(eq(expectedURL), eq(JsonNode.class));
         reset(restTemplate);
     }
+    @Test
+    void getEurekaApps_ShouldShedWithServiceUnavailable_WhenTargetIsAtConcurrencyLimit() {
+        UpstreamBulkheads.Permit held = bulkheads.acquire(expectedUrl);
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> eurekaClientHelper.getEurekaApps(eurekaURL));
+
+        assertEquals(ReturnCode.SERVICE_UNAVAILABLE, exception.returnCode());
+        assertTrue(exception.getMessage().contains("Too many concurrent requests"));
+        verify(restTemplate, never()).getForEntity(eq(expectedUrl), eq(JsonNode.class));
+        held.onIgnored();
+    }
+    @Test
+    void getEurekaApps_ShouldNotShedOtherTargets_WhenOneTargetIsAtConcurrencyLimit() {
+        UpstreamBulkheads.Permit held = bulkheads.acquire("http://slow-host:8761/apps");
+        ResponseEntity<JsonNode> mockResponse = new ResponseEntity<>(mockJsonNode, HttpStatus.OK);
+        when(restTemplate.getForEntity(eq(expectedUrl), eq(JsonNode.class))).thenReturn(mockResponse);
+
+        assertEquals(mockJsonNode, eurekaClientHelper.getEurekaApps(eurekaURL));
+        held.onIgnored();
+    }
+    @Test
+    void getEurekaApps_ShouldReleaseSlot_WhenCallFails() {
+        when(restTemplate.getForEntity(eq(expectedUrl), eq(JsonNode.class)))
+                .thenThrow(new RestClientException("REST client error"))
+                .thenReturn(new ResponseEntity<>(mockJsonNode, HttpStatus.OK));
+
+        assertThrows(ServiceUnavailableException.class, () -> eurekaClientHelper.getEurekaApps(eurekaURL));
+
+        assertEquals(mockJsonNode, eurekaClientHelper.getEurekaApps(eurekaURL));
+    }
+    @Test
+    void getEurekaApps_ShouldFailFastWithInvalidHost_WhenHostWasAlreadyUnresolvable() {
+        String eurekaURL = "http://invalid-host:8761";
+        String expectedURL = "http://invalid-host:8761/apps";
+        when(restTemplate.getForEntity(eq(expectedURL), eq(JsonNode.class)))
+                .thenThrow(new ResourceAccessException("Host not found", new UnknownHostException("Unknown host")));
+        assertThrows(ServiceUnavailableException.class, () -> eurekaClientHelper.getEurekaApps(eurekaURL));
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> eurekaClientHelper.getEurekaApps(eurekaURL));
+
+        assertEquals(ReturnCode.INVALID_HOST, exception.returnCode());
+        assertTrue(exception.getMessage().contains("rejecting call until it recovers"));
+        verify(restTemplate, times(1)).getForEntity(eq(expectedURL), eq(JsonNode.class));
+    }
+    @Test
+    void getEurekaApps_ShouldFailFastWithServiceDown_AfterRepeatedConnectFailures() {
+        when(restTemplate.getForEntity(eq(expectedUrl), eq(JsonNode.class)))
+                .thenThrow(new ResourceAccessException("Connection failed", new ConnectException("Connection refused")));
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ServiceUnavailableException.class, () -> eurekaClientHelper.getEurekaApps(eurekaURL));
+        }
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> eurekaClientHelper.getEurekaApps(eurekaURL));
+
+        assertEquals(ReturnCode.SERVICE_DOWN, exception.returnCode());
+        assertNull(exception.getCause());
+        verify(restTemplate, times(3)).getForEntity(eq(expectedUrl), eq(JsonNode.class));
+    }
 }
@@ -1,22 +1,28 @@
 package com.dafreurekadetails.service;
 
+import com.dafreurekadetails.config.TimeoutProperties;
+import com.dafreurekadetails.deadline.Deadline;
+import com.dafreurekadetails.deadline.DeadlineContext;
 import com.dafreurekadetails.dto.GroupedResult;
 import com.dafreurekadetails.dto.ServiceResult;
 import com.dafreurekadetails.dto.response.EurekaQueryResponse;
 import com.dafreurekadetails.dto.response.ReturnCode;
 import com.dafreurekadetails.exception.ApiException;
+import com.dafreurekadetails.exception.DeadlineExceededException;
 import com.dafreurekadetails.exception.GroupingException;
 import com.dafreurekadetails.exception.InvalidRequestException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -32,7 +38,6 @@ public class EurekaQueryServiceTest {
     @Mock
     private ServiceResult serviceResult;
 
-    @InjectMocks
     private EurekaQueryService eurekaQueryService;
 
     private static final String VALID_EUREKA_URL = "http://localhost:8761/eureka/apps";
@@ -42,6 +47,8 @@ public class EurekaQueryServiceTest {
 
     @BeforeEach
     void setUp() {
+        eurekaQueryService = new EurekaQueryService(eurekaService, new TimeoutProperties(
+                Duration.ofSeconds(10), Duration.ofSeconds(60), Duration.ofSeconds(2), Duration.ofSeconds(30)));
         when(requestAttributes.getAttribute("transactionId", RequestAttributes.SCOPE_REQUEST))
                 .thenReturn(TRANSACTION_ID);
     }
@@ -161,6 +168,45 @@ public class EurekaQueryServiceTest {
         }
     }
 
+    @Test
+    void handleQuery_ShouldBindCappedDeadline_WhileQueryRuns() {
+        AtomicReference<Deadline> seen = new AtomicReference<>();
+        when(eurekaService.group(GROUP_BY, VALID_EUREKA_URL))
+                .thenAnswer(invocation -> {
+                    seen.set(DeadlineContext.current());
+                    return serviceResult;
+                });
+
+        try (MockedStatic<RequestContextHolder> mockedRequestContextHolder = mockStatic(RequestContextHolder.class)) {
+            mockedRequestContextHolder.when(RequestContextHolder::getRequestAttributes).thenReturn(requestAttributes);
+            eurekaQueryService.handleQuery(GROUP_BY, VALID_EUREKA_URL, 120_000L);
+        }
+
+        assertNotNull(seen.get());
+        assertEquals(60_000L, seen.get().budgetMillis());
+        assertNull(DeadlineContext.current());
+    }
+
+    @Test
+    void handleQuery_ShouldThrowDeadlineExceededException_WhenBudgetIsSpent() {
+        when(eurekaService.group(GROUP_BY, VALID_EUREKA_URL))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(20);
+                    DeadlineContext.check("grouping");
+                    return serviceResult;
+                });
+
+        try (MockedStatic<RequestContextHolder> mockedRequestContextHolder = mockStatic(RequestContextHolder.class)) {
+            mockedRequestContextHolder.when(RequestContextHolder::getRequestAttributes).thenReturn(requestAttributes);
+
+            DeadlineExceededException thrown = assertThrows(DeadlineExceededException.class, () ->
+                    eurekaQueryService.handleQuery(GROUP_BY, VALID_EUREKA_URL, 5L));
+
+            assertEquals(ReturnCode.TIMEOUT, thrown.returnCode());
+        }
+        assertNull(DeadlineContext.current());
+    }
+
     private EurekaQueryResponse<? extends GroupedResult> callHandleQueryWithMockedContext() {
         try (MockedStatic<RequestContextHolder> mockedRequestContextHolder = mockStatic(RequestContextHolder.class)) {
             mockedRequestContextHolder.when(RequestContextHolder::getRequestAttributes).thenReturn(requestAttributes);
@@ -1,19 +1,35 @@
 package com.dafreurekadetails.service;
 
+import com.dafreurekadetails.dto.DiffResult;
 import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.dto.SearchResult;
 import com.dafreurekadetails.dto.ServerResult;
 import com.dafreurekadetails.dto.ServiceResult;
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.diffdto.InstanceDiff;
+import com.dafreurekadetails.dto.searchdto.NameMatch;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
 import com.dafreurekadetails.service.strategy.GroupingStrategy;
 import com.dafreurekadetails.service.strategy.GroupingStrategyFactory;
 import com.dafreurekadetails.service.strategy.ServerGroupingStrategy;
 import com.dafreurekadetails.service.strategy.ServiceGroupingStrategy;
+import com.dafreurekadetails.snapshot.IndexedField;
+import com.dafreurekadetails.snapshot.IndexedRegistry;
+import com.dafreurekadetails.snapshot.RegistryHistory;
+import com.dafreurekadetails.snapshot.RegistrySnapshot;
+import com.dafreurekadetails.snapshot.RegistryView;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,6 +50,18 @@ class EurekaServiceTest {
     @Mock
     private ServerResult serverResult;
 
+    @Mock
+    private RegistrySnapshotLoader snapshotLoader;
+
+    @Mock
+    private RegistryView registryView;
+
+    @Mock
+    private IndexedRegistry indexedRegistry;
+
+    @Mock
+    private RegistryHistory history;
+
     @InjectMocks
     private EurekaService eurekaService;
 
@@ -82,7 +110,137 @@ class EurekaServiceTest {
         verify(strategyFactory).resolve(null);
         verify(serverGroupingStrategy).group(eurekaUrl);
     }
-}
 
+    @Test
+    void group_ShouldGroupLoadedSnapshot_WhenSnapshotStoreIsEnabled() {
+        String eurekaUrl = "http://localhost:8080/eureka";
+
+        when(strategyFactory.resolve("services")).thenReturn(serviceGroupingStrategy);
+        when(snapshotLoader.isEnabled()).thenReturn(true);
+        when(snapshotLoader.load(eurekaUrl)).thenReturn(registryView);
+        when(serviceGroupingStrategy.group(registryView)).thenReturn(serviceResult);
+
+        GroupedResult result = eurekaService.group("services", eurekaUrl);
 
+        assertEquals(serviceResult, result);
+        verify(serviceGroupingStrategy, never()).group(eurekaUrl);
+    }
+
+    @Test
+    void groupAsOf_ShouldGroupTheRecordedRegistry_WithoutLoadingIt() {
+        String eurekaUrl = "http://localhost:8080/eureka";
+
+        when(history.isEnabled()).thenReturn(true);
+        when(strategyFactory.resolve("services")).thenReturn(serviceGroupingStrategy);
+        when(history.asOf(eurekaUrl, 1_000L)).thenReturn(registryView);
+        when(serviceGroupingStrategy.group(registryView)).thenReturn(serviceResult);
+
+        GroupedResult result = eurekaService.groupAsOf("services", eurekaUrl, 1_000L);
+
+        assertEquals(serviceResult, result);
+        verify(snapshotLoader, never()).load(eurekaUrl);
+    }
+
+    @Test
+    void groupAsOf_ShouldRejectMomentsOlderThanTheHistory() {
+        String eurekaUrl = "http://localhost:8080/eureka";
 
+        when(history.isEnabled()).thenReturn(true);
+        when(strategyFactory.resolve("services")).thenReturn(serviceGroupingStrategy);
+        when(history.asOf(eurekaUrl, 1_000L)).thenReturn(null);
+        when(history.oldestRecording(eurekaUrl)).thenReturn(5_000L);
+
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> eurekaService.groupAsOf("services", eurekaUrl, 1_000L));
+
+        assertEquals("No registry of http://localhost:8080/eureka recorded at or before 1970-01-01T00:00:01Z;"
+                + " the oldest recording is from 1970-01-01T00:00:05Z", ex.getMessage());
+    }
+
+    @Test
+    void lookup_ShouldGroupOnlyTheInstancesSelectedByTheIndex() {
+        String eurekaUrl = "http://localhost:8080/eureka";
+
+        when(strategyFactory.resolve("servers")).thenReturn(serverGroupingStrategy);
+        when(snapshotLoader.loadIndexed(eurekaUrl)).thenReturn(indexedRegistry);
+        when(indexedRegistry.select(IndexedField.HOST, "server-1")).thenReturn(registryView);
+        when(serverGroupingStrategy.group(registryView)).thenReturn(serverResult);
+
+        GroupedResult result = eurekaService.lookup("servers", eurekaUrl, IndexedField.HOST, "server-1");
+
+        assertEquals(serverResult, result);
+        verify(serverGroupingStrategy, never()).group(eurekaUrl);
+    }
+
+    @Test
+    void search_ShouldReturnMatchingNamesOfRequestedKind() {
+        String eurekaUrl = "http://localhost:8080/eureka";
+        RegistrySnapshot registry = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "order-1", "orders-host", EurekaTestDataBuilder.createMockInstanceDetail())
+                .add("ORDER-SERVICE", "order-2", "shared-host", EurekaTestDataBuilder.createMockInstanceDetail())
+                .add("PAYMENT-SERVICE", "payment-1", "shared-host", EurekaTestDataBuilder.createMockInstanceDetail())
+                .build();
+        when(snapshotLoader.loadIndexed(eurekaUrl)).thenReturn(IndexedRegistry.of(registry));
+
+        SearchResult services = eurekaService.search(eurekaUrl, "ord", "services", false, 10);
+        SearchResult all = eurekaService.search(eurekaUrl, "o", "all", false, 10);
+
+        assertEquals(List.of(new NameMatch("ORDER-SERVICE", "service", 2, 0)), services.matches());
+        assertEquals(List.of(new NameMatch("ORDER-SERVICE", "service", 2, 0),
+                new NameMatch("orders-host", "host", 1, 0)), all.matches());
+    }
+
+    @Test
+    void diff_ShouldCompareTheRegistriesOfBothServers() {
+        BaseInstanceDetail up = new BaseInstanceDetail("10.0.0.1", 8080, 0, null, null, null, "UP", 0L, 0L, false, null, null);
+        BaseInstanceDetail down = new BaseInstanceDetail("10.0.0.1", 8080, 0, null, null, null, "DOWN", 0L, 0L, false, null, null);
+        when(snapshotLoader.load("http://eureka1:8761/eureka")).thenReturn(RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", up)
+                .add("USER-SERVICE", "h2:user", "h2", up)
+                .add("CART-SERVICE", "h3:cart", "h3", up)
+                .build());
+        when(snapshotLoader.load("http://eureka2:8761/eureka")).thenReturn(RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", down)
+                .add("USER-SERVICE", "h2:user", "h2", up)
+                .add("CART-SERVICE", "h3:cart", "h3", up)
+                .add("CART-SERVICE", "h4:cart", "h4", up)
+                .build());
+
+        DiffResult result = eurekaService.diff("http://eureka1:8761/eureka", "http://eureka2:8761/eureka");
+
+        assertEquals(1, result.added());
+        assertEquals(0, result.removed());
+        assertEquals(1, result.modified());
+        assertEquals(2, result.unchanged());
+        assertEquals(List.of(InstanceDiff.MODIFIED, InstanceDiff.ADDED),
+                result.differences().stream().map(InstanceDiff::change).toList());
+    }
+
+    @Test
+    void diff_ShouldCompareAServerWithItsRecordedRegistry_WhenAsOfIsGiven() {
+        String eurekaUrl = "http://eureka1:8761/eureka";
+        BaseInstanceDetail up = new BaseInstanceDetail("10.0.0.1", 8080, 0, null, null, null, "UP", 0L, 0L, false, null, null);
+        when(history.isEnabled()).thenReturn(true);
+        when(history.asOf(eurekaUrl, 1_000L)).thenReturn(RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", up)
+                .build());
+        when(snapshotLoader.load(eurekaUrl)).thenReturn(RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", up)
+                .add("USER-SERVICE", "h2:user", "h2", up)
+                .build());
+
+        DiffResult result = eurekaService.diff(eurekaUrl, 1_000L, eurekaUrl, null);
+
+        assertEquals(1, result.added());
+        assertEquals(1, result.unchanged());
+    }
+
+    @Test
+    void diff_ShouldBeRejected_WhenAsOfIsGivenButHistoryIsDisabled() {
+        when(history.isEnabled()).thenReturn(false);
+
+        assertThrows(InvalidRequestException.class,
+                () -> eurekaService.diff("http://eureka1:8761/eureka", null, "http://eureka1:8761/eureka", 1_000L));
+        verify(snapshotLoader, never()).load("http://eureka1:8761/eureka");
+    }
+}
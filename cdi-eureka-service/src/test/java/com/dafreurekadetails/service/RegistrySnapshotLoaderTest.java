@@ -0,0 +1,163 @@
+package com.dafreurekadetails.service;
+
+import com.dafreurekadetails.config.HistoryProperties;
+import com.dafreurekadetails.config.PersistenceProperties;
+import com.dafreurekadetails.config.SnapshotStoreProperties;
+import com.dafreurekadetails.config.StringPoolProperties;
+import com.dafreurekadetails.dto.StatsResult;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
+import com.dafreurekadetails.service.strategy.GroupingStrategyFactory;
+import com.dafreurekadetails.service.strategy.StatsGroupingStrategy;
+import com.dafreurekadetails.snapshot.OffHeapSnapshotStore;
+import com.dafreurekadetails.snapshot.RegistryHistory;
+import com.dafreurekadetails.snapshot.RegistrySnapshot;
+import com.dafreurekadetails.snapshot.RegistryView;
+import com.dafreurekadetails.snapshot.SnapshotPersistence;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RegistrySnapshotLoaderTest {
+
+    private static final String EUREKA_URL = "http://localhost:8761/eureka";
+
+    private final JsonNode root = EurekaTestDataBuilder.createSyntheticRegistry(5, 4);
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+    private volatile JsonNode response = root;
+    private InstanceMapper mapper;
+    private EurekaClientHelper client;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new InstanceMapper(new StringPool(new StringPoolProperties(true, 1024)));
+        client = new EurekaClientHelper(null, null, null, null, null) {
+            @Override
+            public JsonNode getEurekaApps(String eurekaURL) {
+                fetches.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return response;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void load_ShouldShareOneFetch_WhenConcurrentCallersMissTheStore() throws Exception {
+        RegistrySnapshotLoader loader = loader(true);
+
+        List<Future<RegistryView>> loads = loadConcurrently(loader);
+        release.countDown();
+
+        RegistryView first = loads.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<RegistryView> load : loads) {
+            assertThat(load.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        }
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void load_ShouldFailEveryWaiter_WhenTheSharedFetchFails() throws Exception {
+        RegistrySnapshotLoader loader = loader(true);
+        response = null;
+
+        List<Future<RegistryView>> loads = loadConcurrently(loader);
+        release.countDown();
+
+        for (Future<RegistryView> load : loads) {
+            assertThatThrownBy(() -> load.get(5, TimeUnit.SECONDS))
+                    .hasMessageContaining("Eureka server does not response");
+        }
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void load_ShouldReturnTheUnindexedSnapshot_WhenTheStoreIsDisabled() {
+        RegistrySnapshotLoader loader = loader(false);
+        release.countDown();
+
+        RegistryView registry = loader.load(EUREKA_URL);
+
+        assertThat(registry).isInstanceOf(RegistrySnapshot.class);
+        assertThat(registry.size()).isEqualTo(20);
+    }
+
+    @Test
+    void loadIndexed_ShouldBeRejected_WhenTheStoreIsDisabled() {
+        RegistrySnapshotLoader loader = loader(false);
+
+        assertThatThrownBy(() -> loader.loadIndexed(EUREKA_URL))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("snapshot-store.enabled");
+        assertThat(fetches.get()).isEqualTo(0);
+    }
+
+    @Test
+    void group_ShouldRecordEveryFetchInTheHistory_WhenOnlyTheHistoryIsEnabled() {
+        RegistryHistory history = new RegistryHistory(new HistoryProperties(true, DataSize.ofMegabytes(1), 16, 16));
+        RegistrySnapshotLoader loader = loader(false, history);
+        EurekaService eurekaService = new EurekaService(
+                new GroupingStrategyFactory(Map.of("stats", new StatsGroupingStrategy(client))), loader, history);
+        release.countDown();
+
+        StatsResult stats = (StatsResult) eurekaService.group("stats", EUREKA_URL);
+
+        assertThat(stats.stats().instances()).isEqualTo(20);
+        RegistryView recorded = history.asOf(EUREKA_URL, System.currentTimeMillis());
+        assertThat(recorded).isNotNull();
+        assertThat(recorded.size()).isEqualTo(20);
+    }
+
+    private List<Future<RegistryView>> loadConcurrently(RegistrySnapshotLoader loader) throws InterruptedException {
+        List<Future<RegistryView>> loads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            loads.add(callers.submit(() -> loader.load(EUREKA_URL)));
+        }
+        //Gives every caller time to miss the store and join the fetch in flight.
+        long giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (fetches.get() == 0 && System.nanoTime() - giveUpAt < 0) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        return loads;
+    }
+
+    private RegistrySnapshotLoader loader(boolean storeEnabled) {
+        return loader(storeEnabled, new RegistryHistory(new HistoryProperties(false, DataSize.ofMegabytes(1), 16, 16)));
+    }
+
+    private RegistrySnapshotLoader loader(boolean storeEnabled, RegistryHistory history) {
+        OffHeapSnapshotStore store = new OffHeapSnapshotStore(
+                new SnapshotStoreProperties(storeEnabled, DataSize.ofMegabytes(16), Duration.ofSeconds(30)),
+                new SnapshotPersistence(new PersistenceProperties(false, "unused", Duration.ofHours(1))));
+        return new RegistrySnapshotLoader(client, mapper, store, history);
+    }
+}
@@ -0,0 +1,203 @@
+package com.dafreurekadetails.service;
+
+import com.dafreurekadetails.config.TimeoutProperties;
+import com.dafreurekadetails.config.WatchProperties;
+import com.dafreurekadetails.dto.ServiceResult;
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.response.EurekaQueryResponse;
+import com.dafreurekadetails.dto.response.ReturnCode;
+import com.dafreurekadetails.dto.watchdto.InstanceChange;
+import com.dafreurekadetails.dto.watchdto.RegistryChanges;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import com.dafreurekadetails.service.strategy.GroupingStrategy;
+import com.dafreurekadetails.service.strategy.GroupingStrategyFactory;
+import com.dafreurekadetails.snapshot.RegistrySnapshot;
+import com.dafreurekadetails.snapshot.RegistryView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RegistryWatchServiceTest {
+
+    @Mock
+    private RegistrySnapshotLoader snapshotLoader;
+
+    @Mock
+    private GroupingStrategy servicesStrategy;
+
+    private static final String EUREKA_URL = "http://localhost:8761/eureka";
+    private static final TimeoutProperties TIMEOUTS = new TimeoutProperties(
+            Duration.ofSeconds(10), Duration.ofSeconds(60), Duration.ofSeconds(2), Duration.ofSeconds(30));
+
+    private RegistryWatchService watchService;
+
+    @BeforeEach
+    void setUp() {
+        GroupingStrategyFactory factory = new GroupingStrategyFactory(Map.of("services", servicesStrategy, "servers", servicesStrategy));
+        lenient().when(servicesStrategy.group(any(RegistryView.class))).thenReturn(new ServiceResult(List.of()));
+        watchService = new RegistryWatchService(snapshotLoader, factory, TIMEOUTS,
+                new WatchProperties(Duration.ofMillis(20), Duration.ofMinutes(1), 2, 8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        watchService.shutdown();
+    }
+
+    @Test
+    void subscribe_ShouldSendSnapshotThenOnlyTheChangedInstances() throws Exception {
+        RegistrySnapshot first = registry("UP");
+        RegistrySnapshot second = registry("DOWN");
+        when(snapshotLoader.load(EUREKA_URL)).thenReturn(first, first, second);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        watchService.subscribe(emitter, EUREKA_URL, "services");
+
+        Event snapshot = emitter.next();
+        assertEquals("snapshot", snapshot.name());
+        EurekaQueryResponse<?> response = assertInstanceOf(EurekaQueryResponse.class, snapshot.data());
+        assertEquals(ReturnCode.SUCCESS.getCode(), response.returnCode());
+
+        Event changes = emitter.next();
+        assertEquals("changes", changes.name());
+        RegistryChanges registryChanges = assertInstanceOf(RegistryChanges.class, changes.data());
+        assertEquals(1, registryChanges.sequence());
+        assertEquals(List.of(new InstanceChange(InstanceChange.STATUS, "ORDER-SERVICE", "h1:order", "h1", "DOWN", "UP")),
+                registryChanges.changes());
+    }
+
+    @Test
+    void subscribe_ShouldServeLateSubscribersFromTheSharedRefreshLoop() throws Exception {
+        watchService = new RegistryWatchService(snapshotLoader,
+                new GroupingStrategyFactory(Map.of("services", servicesStrategy)), TIMEOUTS,
+                new WatchProperties(Duration.ofMinutes(1), Duration.ofMinutes(1), 2, 8));
+        when(snapshotLoader.load(EUREKA_URL)).thenReturn(registry("UP"));
+        RecordingEmitter early = new RecordingEmitter();
+        RecordingEmitter late = new RecordingEmitter();
+
+        watchService.subscribe(early, EUREKA_URL, "services");
+        assertEquals("snapshot", early.next().name());
+        watchService.subscribe(late, EUREKA_URL, "services");
+
+        assertEquals("snapshot", late.next().name());
+        assertEquals(1, watchService.watchedRegistries());
+        verify(snapshotLoader, times(1)).load(EUREKA_URL);
+    }
+
+    @Test
+    void subscribe_ShouldReportFailedRefreshes_AndKeepStreaming() throws Exception {
+        when(snapshotLoader.load(EUREKA_URL))
+                .thenThrow(new ServiceUnavailableException("Eureka server is down"))
+                .thenReturn(registry("UP"));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        watchService.subscribe(emitter, EUREKA_URL, "services");
+
+        Event error = emitter.next();
+        assertEquals("upstream-error", error.name());
+        EurekaQueryResponse<?> response = assertInstanceOf(EurekaQueryResponse.class, error.data());
+        assertEquals(ReturnCode.SERVICE_DOWN.getCode(), response.returnCode());
+        assertEquals("snapshot", emitter.next().name());
+    }
+
+    @Test
+    void subscribe_ShouldKeepStreamingToOthers_WhileOneSubscriberIsStuck() throws Exception {
+        RegistrySnapshot first = registry("UP");
+        RegistrySnapshot second = registry("DOWN");
+        when(snapshotLoader.load(EUREKA_URL)).thenReturn(first, first, second);
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingEmitter stuck = new RecordingEmitter(unblock);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        watchService.subscribe(stuck, EUREKA_URL, "services");
+        watchService.subscribe(emitter, EUREKA_URL, "services");
+
+        assertEquals("snapshot", emitter.next().name());
+        assertEquals("changes", emitter.next().name());
+        unblock.countDown();
+        assertEquals("snapshot", stuck.next().name());
+    }
+
+    @Test
+    void subscribe_ShouldRefuseFurtherRegistries_OnceMaxRegistriesAreWatched() {
+        lenient().when(snapshotLoader.load(anyString())).thenReturn(registry("UP"));
+        watchService.subscribe(new RecordingEmitter(), EUREKA_URL, "services");
+        watchService.subscribe(new RecordingEmitter(), "http://eu-west:8761/eureka", "services");
+
+        ServiceUnavailableException thrown = assertThrows(ServiceUnavailableException.class,
+                () -> watchService.subscribe(new RecordingEmitter(), "http://us-east:8761/eureka", "services"));
+
+        assertEquals(ReturnCode.SERVICE_UNAVAILABLE, thrown.returnCode());
+        watchService.subscribe(new RecordingEmitter(), EUREKA_URL, "servers");
+        assertEquals(2, watchService.watchedRegistries());
+    }
+
+    private static RegistrySnapshot registry(String orderStatus) {
+        return RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", detail(orderStatus))
+                .add("USER-SERVICE", "h2:user", "h2", detail("UP"))
+                .build();
+    }
+
+    private static BaseInstanceDetail detail(String status) {
+        return new BaseInstanceDetail("10.0.0.1", 8080, 0, null, null, null, status,
+                0L, 0L, false, null, null);
+    }
+
+    private record Event(String name, Object data) {
+    }
+
+    //Keeps the events instead of writing them to a response, optionally stalling like a slow client.
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch stall;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch stall) {
+            this.stall = stall;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                stall.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", ex);
+            }
+            List<Object> parts = builder.build().stream().map(ResponseBodyEmitter.DataWithMediaType::getData).toList();
+            String header = (String) parts.get(0);
+            String name = header.substring(header.indexOf("event:") + 6, header.indexOf('\n', header.indexOf("event:")));
+            events.add(new Event(name, parts.get(1)));
+        }
+
+        Event next() throws InterruptedException {
+            Event event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event within 5 seconds");
+            return event;
+        }
+    }
+}
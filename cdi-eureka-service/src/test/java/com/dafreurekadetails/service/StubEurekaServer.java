@@ -0,0 +1,211 @@
+package com.dafreurekadetails.service;
+
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Embedded stub of a Eureka server, for tests and benchmarks that should go through real sockets
+ * instead of a mocked {@code RestTemplate}.
+ * <p>
+ * Serves {@code GET /eureka/apps} and {@code GET /eureka/apps/delta} on a free loopback port from
+ * payloads set by the caller, e.g. those of {@link EurekaTestDataBuilder}. Latency, failed requests
+ * and bodies that trickle in slowly can be injected, and changed between requests:
+ * <pre>
+ * try (StubEurekaServer eureka = StubEurekaServer.withSyntheticRegistry(500, 100)) {
+ *     eureka.withLatency(Duration.ofMillis(20)).failingNext(1, 503);
+ *     client.getEurekaApps(eureka.url());
+ * }
+ * </pre>
+ */
+public final class StubEurekaServer implements AutoCloseable {
+
+    /** Status for {@link #failingNext(int, int)} that closes the connection without any response. */
+    public static final int DROP_CONNECTION = -1;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String EMPTY_DELTA = "{\"applications\":{\"versions__delta\":\"1\",\"apps__hashcode\":\"\",\"application\":[]}}";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private volatile byte[] apps;
+    private volatile byte[] delta;
+    private volatile Duration latency = Duration.ZERO;
+    private volatile int failureStatus;
+    private volatile int dripChunkBytes;
+    private volatile Duration dripPause = Duration.ZERO;
+
+    private StubEurekaServer() throws IOException {
+        reset();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        server.createContext("/eureka/apps", exchange -> handle(exchange, () -> apps));
+        server.createContext("/eureka/apps/delta", exchange -> handle(exchange, () -> delta));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Starts a server with an empty registry.
+     */
+    public static StubEurekaServer start() throws IOException {
+        return new StubEurekaServer();
+    }
+
+    /**
+     * Starts a server with {@link EurekaTestDataBuilder#createSyntheticRegistry(int, int)} as its registry.
+     */
+    public static StubEurekaServer withSyntheticRegistry(int applications, int instancesPerApplication) throws IOException {
+        return start().serving(EurekaTestDataBuilder.createSyntheticRegistry(applications, instancesPerApplication));
+    }
+
+    /**
+     * Base URL to hand to the client, e.g. {@code http://127.0.0.1:54321/eureka}.
+     */
+    public String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/eureka";
+    }
+
+    /**
+     * Sets the registry served by {@code /apps}; it is serialized once, here.
+     */
+    public StubEurekaServer serving(JsonNode registry) {
+        apps = toBytes(registry);
+        return this;
+    }
+
+    /**
+     * Sets the payload served by {@code /apps/delta}; an empty delta by default.
+     */
+    public StubEurekaServer servingDelta(JsonNode registryDelta) {
+        delta = toBytes(registryDelta);
+        return this;
+    }
+
+    /**
+     * Delays every response by {@code latency} before its headers are sent.
+     */
+    public StubEurekaServer withLatency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Answers the next {@code count} requests with {@code status} and no body, or drops their
+     * connection if the status is {@link #DROP_CONNECTION}.
+     */
+    public StubEurekaServer failingNext(int count, int status) {
+        failureStatus = status;
+        failuresLeft.set(count);
+        return this;
+    }
+
+    /**
+     * Sends bodies {@code chunkBytes} at a time, pausing {@code pause} after each chunk.
+     */
+    public StubEurekaServer dripping(int chunkBytes, Duration pause) {
+        dripPause = pause;
+        dripChunkBytes = chunkBytes;
+        return this;
+    }
+
+    /**
+     * Goes back to an empty registry served at once, without failures, and resets the request count.
+     */
+    public StubEurekaServer reset() {
+        apps = toBytes(EurekaTestDataBuilder.createRootNodeWithEmptyApplications());
+        delta = EMPTY_DELTA.getBytes();
+        latency = Duration.ZERO;
+        failuresLeft.set(0);
+        dripChunkBytes = 0;
+        requests.set(0);
+        return this;
+    }
+
+    /**
+     * Number of requests received so far, failed ones included.
+     */
+    public int requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange, Supplier<byte[]> payload) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (!pause(latency)) {
+                return;
+            }
+            if (failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                //Closing an exchange whose headers were never sent closes its connection.
+                if (failureStatus != DROP_CONNECTION) {
+                    exchange.sendResponseHeaders(failureStatus, -1);
+                }
+                return;
+            }
+            byte[] body = payload.get();
+            int chunk = dripChunkBytes;
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, chunk > 0 ? 0 : body.length);
+            OutputStream out = exchange.getResponseBody();
+            if (chunk <= 0) {
+                out.write(body);
+                return;
+            }
+            for (int offset = 0; offset < body.length; offset += chunk) {
+                out.write(body, offset, Math.min(chunk, body.length - offset));
+                out.flush();
+                if (!pause(dripPause)) {
+                    return;
+                }
+            }
+        } catch (IOException ex) {
+            //The client hung up, e.g. after its timeout; nothing left to answer.
+        }
+    }
+
+    private static boolean pause(Duration duration) {
+        if (duration.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static byte[] toBytes(JsonNode payload) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(payload);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
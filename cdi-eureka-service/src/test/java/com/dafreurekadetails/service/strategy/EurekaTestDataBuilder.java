@@ -199,6 +199,56 @@ public class EurekaTestDataBuilder {
         return createRootNode(applicationArray);
     }
 
+    /**
+     * Creates a large, realistic registry: {@code applications} services with {@code instancesPerApplication}
+     * instances each, spread over one host per 25 instances, with the low-cardinality status and metadata
+     * values a production registry repeats. Output is deterministic for the same arguments.
+     */
+    public static ObjectNode createSyntheticRegistry(int applications, int instancesPerApplication) {
+        String[] statuses = {"UP", "UP", "UP", "UP", "DOWN", "STARTING", "OUT_OF_SERVICE"};
+        String[] regions = {"eu-west-1", "us-east-1", "ap-south-1"};
+        String[] instanceTypes = {"m5.large", "m5.xlarge", "c5.large", "r5.large"};
+        int hosts = Math.max(1, applications * instancesPerApplication / 25);
+        long currentTime = 1_700_000_000_000L;
+
+        ArrayNode applicationArray = NODE_FACTORY.arrayNode();
+        int instanceIndex = 0;
+        for (int a = 0; a < applications; a++) {
+            String serviceName = "SERVICE-" + a;
+            ObjectNode app = createApplication(serviceName);
+            ArrayNode instanceArray = NODE_FACTORY.arrayNode();
+            for (int i = 0; i < instancesPerApplication; i++, instanceIndex++) {
+                int host = (instanceIndex * 7919) % hosts;
+                String hostname = "node-" + host + ".cluster.local";
+                String ipAddr = "10." + (host >> 16 & 255) + "." + (host >> 8 & 255) + "." + (host & 255);
+                int port = 8000 + i % 100;
+                String region = regions[host % regions.length];
+
+                ObjectNode instance = createBasicInstanceNode(hostname, ipAddr, hostname + ":" + serviceName.toLowerCase() + ":" + port);
+                instance.put("app", serviceName);
+                instance.put("status", statuses[instanceIndex % statuses.length]);
+                instance.set("port", createPortNode(port, true));
+                instance.set("securePort", createPortNode(DEFAULT_HTTPS_PORT, false));
+                instance.put("lastUpdatedTimestamp", currentTime - instanceIndex);
+                instance.put("lastDirtyTimestamp", currentTime - instanceIndex - 1000);
+                instance.set("leaseInfo", createLeaseInfoNode(currentTime));
+
+                ObjectNode metadata = NODE_FACTORY.objectNode();
+                metadata.put("version", "1." + (a % 4) + "." + (i % 3));
+                metadata.put("region", region);
+                metadata.put("zone", region + (char) ('a' + host % 3));
+                metadata.put("instanceType", instanceTypes[host % instanceTypes.length]);
+                metadata.put("buildNumber", String.valueOf(1000 + a % 50));
+                instance.set("metadata", metadata);
+
+                instanceArray.add(instance);
+            }
+            app.set("instance", instanceArray);
+            applicationArray.add(app);
+        }
+        return createRootNode(applicationArray);
+    }
+
     // ========== Private Helper Methods ==========
 
     private static ObjectNode createRootNode(ArrayNode applicationArray) {
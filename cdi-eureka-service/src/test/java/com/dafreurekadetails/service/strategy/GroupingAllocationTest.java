@@ -0,0 +1,113 @@
+package com.dafreurekadetails.service.strategy;
+
+import com.dafreurekadetails.config.StringPoolProperties;
+import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
+import com.dafreurekadetails.service.EurekaClientHelper;
+import com.dafreurekadetails.snapshot.RegistrySnapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Guards the bytes allocated per instance by one grouping call against recorded budgets, so that a
+ * change that makes the hot path allocate much more fails the build instead of showing up as GC
+ * pressure in production.
+ * <p>
+ * Each call is measured with {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}
+ * on a fixed synthetic registry, after enough warmup calls for the JIT to apply escape analysis as
+ * it would in production; the lowest of several measurements is kept. Budgets are about 25% above
+ * what was measured when they were recorded. Lower a budget when an optimization lands, and only
+ * raise one with the reason in the commit message. Only the calling thread's allocations are counted,
+ * so the strategies are built without {@link ParallelGrouping} and group on the calling thread.
+ */
+public class GroupingAllocationTest {
+
+    //Bytes per instance, recorded on JDK 21 with the default G1 collector: 1040, 964, 248 and 221.
+    private static final long SERVER_GROUPING_BUDGET = 1300;
+    private static final long SERVICE_GROUPING_BUDGET = 1200;
+    private static final long SERVER_SNAPSHOT_GROUPING_BUDGET = 310;
+    private static final long SERVICE_SNAPSHOT_GROUPING_BUDGET = 280;
+
+    private static final String EUREKA_URL = "http://localhost:8761/eureka";
+    private static final int APPLICATIONS = 100;
+    private static final int INSTANCES_PER_APPLICATION = 50;
+    private static final int INSTANCES = APPLICATIONS * INSTANCES_PER_APPLICATION;
+    private static final int WARMUP_CALLS = 30;
+    private static final int MEASURED_CALLS = 5;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private ServerGroupingStrategy serverStrategy;
+    private ServiceGroupingStrategy serviceStrategy;
+    private RegistrySnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported(), "JVM cannot measure thread allocation");
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        JsonNode root = EurekaTestDataBuilder.createSyntheticRegistry(APPLICATIONS, INSTANCES_PER_APPLICATION);
+        StringPool stringPool = new StringPool(new StringPoolProperties(true, 16384));
+        InstanceMapper mapper = new InstanceMapper(stringPool);
+        EurekaClientHelper client = new EurekaClientHelper(null, null, null, null, null) {
+            @Override
+            public JsonNode getEurekaApps(String eurekaURL) {
+                return root;
+            }
+        };
+        serverStrategy = new ServerGroupingStrategy(client, mapper, stringPool);
+        serviceStrategy = new ServiceGroupingStrategy(client, mapper, stringPool);
+        snapshot = mapper.mapToSnapshot(root);
+    }
+
+    @Test
+    void serverGrouping_ShouldStayWithinAllocationBudget() {
+        assertWithinBudget("ServerGroupingStrategy.group(url)", () -> serverStrategy.group(EUREKA_URL), SERVER_GROUPING_BUDGET);
+    }
+
+    @Test
+    void serviceGrouping_ShouldStayWithinAllocationBudget() {
+        assertWithinBudget("ServiceGroupingStrategy.group(url)", () -> serviceStrategy.group(EUREKA_URL), SERVICE_GROUPING_BUDGET);
+    }
+
+    @Test
+    void serverGroupingOfSnapshot_ShouldStayWithinAllocationBudget() {
+        assertWithinBudget("ServerGroupingStrategy.group(view)", () -> serverStrategy.group(snapshot), SERVER_SNAPSHOT_GROUPING_BUDGET);
+    }
+
+    @Test
+    void serviceGroupingOfSnapshot_ShouldStayWithinAllocationBudget() {
+        assertWithinBudget("ServiceGroupingStrategy.group(view)", () -> serviceStrategy.group(snapshot), SERVICE_SNAPSHOT_GROUPING_BUDGET);
+    }
+
+    private static void assertWithinBudget(String call, Supplier<GroupedResult> grouping, long budget) {
+        long perInstance = allocatedBytesPerInstance(grouping);
+        assertThat(perInstance)
+                .as("%s allocates %d bytes per instance, over its budget of %d", call, perInstance, budget)
+                .isLessThanOrEqualTo(budget);
+    }
+
+    //The result is kept alive until after the reading, so it cannot be optimized away.
+    private static long allocatedBytesPerInstance(Supplier<GroupedResult> grouping) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            grouping.get();
+        }
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            GroupedResult result = grouping.get();
+            long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+            assertThat(result).isNotNull();
+            lowest = Math.min(lowest, allocated);
+        }
+        return lowest / INSTANCES;
+    }
+}
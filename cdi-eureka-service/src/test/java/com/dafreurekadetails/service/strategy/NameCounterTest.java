@@ -0,0 +1,41 @@
+package com.dafreurekadetails.service.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NameCounterTest {
+
+    @Test
+    void idOf_ShouldReturnSameId_ForStringAndCharacterSlice() {
+        NameCounter counter = new NameCounter();
+        char[] buffer = "xxhost-1yy".toCharArray();
+
+        int fromString = counter.idOf("host-1");
+        int fromSlice = counter.idOf(buffer, 2, 6);
+
+        assertThat(fromSlice).isEqualTo(fromString);
+    }
+
+    @Test
+    void ids_ShouldStayValid_WhenTableGrows() {
+        NameCounter counter = new NameCounter();
+        int first = counter.idOf("name-0");
+        for (int i = 1; i < 1000; i++) {
+            counter.increment("name-" + i);
+        }
+
+        counter.add(first, 5);
+
+        assertThat(counter.toMap()).hasSize(1000).containsEntry("name-0", 5).containsEntry("name-999", 1);
+    }
+
+    @Test
+    void toMap_ShouldOmitNamesWithoutCount() {
+        NameCounter counter = new NameCounter();
+        counter.idOf("pending");
+        counter.increment("counted");
+
+        assertThat(counter.toMap()).containsOnlyKeys("counted");
+    }
+}
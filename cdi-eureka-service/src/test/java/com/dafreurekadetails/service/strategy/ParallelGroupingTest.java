@@ -0,0 +1,148 @@
+package com.dafreurekadetails.service.strategy;
+
+import com.dafreurekadetails.config.GroupingProperties;
+import com.dafreurekadetails.config.StringPoolProperties;
+import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
+import com.dafreurekadetails.service.EurekaClientHelper;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelGroupingTest {
+
+    private static final String EUREKA_URL = "http://localhost:8761/eureka";
+
+    private final JsonNode root = EurekaTestDataBuilder.createSyntheticRegistry(60, 25);
+    private final JsonNode apps = root.path("applications").path("application");
+    private ParallelGrouping parallelGrouping;
+    private EurekaClientHelper client;
+    private InstanceMapper mapper;
+    private StringPool stringPool;
+
+    @BeforeEach
+    void setUp() {
+        parallelGrouping = new ParallelGrouping(new GroupingProperties(true, 1000, 4));
+        stringPool = new StringPool(new StringPoolProperties(true, 16384));
+        mapper = new InstanceMapper(stringPool);
+        client = new EurekaClientHelper(null, null, null, null, null) {
+            @Override
+            public JsonNode getEurekaApps(String eurekaURL) {
+                return root;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelGrouping.shutdown();
+    }
+
+    @Test
+    void serverGrouping_ShouldEqualTheSequentialResult_WhenRunInParallel() {
+        GroupedResult sequential = new ServerGroupingStrategy(client, mapper, stringPool).group(EUREKA_URL);
+        GroupedResult parallel = new ServerGroupingStrategy(client, mapper, stringPool, parallelGrouping).group(EUREKA_URL);
+
+        assertThat(parallel).isEqualTo(sequential);
+    }
+
+    @Test
+    void serviceGrouping_ShouldEqualTheSequentialResult_WhenRunInParallel() {
+        GroupedResult sequential = new ServiceGroupingStrategy(client, mapper, stringPool).group(EUREKA_URL);
+        GroupedResult parallel = new ServiceGroupingStrategy(client, mapper, stringPool, parallelGrouping).group(EUREKA_URL);
+
+        assertThat(parallel).isEqualTo(sequential);
+    }
+
+    @Test
+    void appliesTo_ShouldBeFalse_WhenBelowThresholdOrDisabled() {
+        ParallelGrouping highThreshold = new ParallelGrouping(new GroupingProperties(true, 1501, 4));
+        ParallelGrouping disabled = new ParallelGrouping(new GroupingProperties(false, 1, 4));
+        try {
+            assertThat(parallelGrouping.appliesTo(apps)).isTrue();
+            assertThat(highThreshold.appliesTo(apps)).isFalse();
+            assertThat(disabled.appliesTo(apps)).isFalse();
+        } finally {
+            highThreshold.shutdown();
+            disabled.shutdown();
+        }
+    }
+
+    @Test
+    void chunks_ShouldCoverEveryApplicationOnceInOrder() {
+        List<int[]> chunks = parallelGrouping.chunks(apps);
+
+        assertThat(chunks.size()).isGreaterThan(1);
+        int next = 0;
+        for (int[] chunk : chunks) {
+            assertThat(chunk[0]).isEqualTo(next);
+            assertThat(chunk[1]).isGreaterThan(chunk[0]);
+            next = chunk[1];
+        }
+        assertThat(next).isEqualTo(apps.size());
+    }
+
+    @Test
+    void groupChunks_ShouldRethrowTheChunksException_WhenAChunkFails() {
+        assertThatThrownBy(() -> parallelGrouping.groupChunks(apps, (from, to) -> {
+            if (from > 0) {
+                throw new InvalidRequestException("chunk starting at " + from + " failed");
+            }
+            return from;
+        }))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("failed");
+    }
+
+    @Test
+    void groupChunks_ShouldCancelTheOtherChunks_AsSoonAsALaterChunkFails() {
+        CountDownLatch firstChunkStopped = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> parallelGrouping.groupChunks(apps, (from, to) -> {
+            if (from > 0) {
+                throw new InvalidRequestException("chunk starting at " + from + " failed");
+            }
+            try {
+                Thread.sleep(10_000);
+                return from;
+            } catch (InterruptedException ex) {
+                firstChunkStopped.countDown();
+                throw new IllegalStateException("cancelled", ex);
+            }
+        }))
+                .isInstanceOf(InvalidRequestException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5_000L);
+        assertThat(awaitQuietly(firstChunkStopped)).isTrue();
+    }
+
+    @Test
+    void appliesTo_ShouldBeFalse_WhenParallelismIsOne() {
+        ParallelGrouping single = new ParallelGrouping(new GroupingProperties(true, 1, 1));
+        try {
+            assertThat(single.appliesTo(apps)).isFalse();
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.dafreurekadetails.service.strategy;
 
+import com.dafreurekadetails.config.StringPoolProperties;
 import com.dafreurekadetails.dto.GroupedResult;
 import com.dafreurekadetails.dto.ServerResult;
 import com.dafreurekadetails.dto.base.BaseInstanceDetail;
 import com.dafreurekadetails.dto.serverdto.ServerGroup;
 import com.dafreurekadetails.exception.*;
 import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
 import com.dafreurekadetails.service.EurekaClientHelper;
+import com.dafreurekadetails.snapshot.RegistryView;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +22,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.util.List;
 
@@ -34,6 +39,9 @@ public class ServerGroupingStrategyTest {
     @Mock
     private InstanceMapper instanceMapper;
 
+    @Spy
+    private StringPool stringPool = new StringPool(new StringPoolProperties(true, 1024));
+
     @InjectMocks
     private ServerGroupingStrategy serverGroupingStrategy;
 
@@ -46,7 +54,7 @@ public class ServerGroupingStrategyTest {
     @Test
     @DisplayName("Constructor should throw exception when EurekaClientHelper is null")
     void constructor_ShouldThrowException_WhenEurekaClientHelperIsNull() {
-        assertThatThrownBy(() -> new ServerGroupingStrategy(null, instanceMapper))
+        assertThatThrownBy(() -> new ServerGroupingStrategy(null, instanceMapper, stringPool))
                 .isInstanceOf(NullPointerException.class)
                 .hasMessage("EurekaClientHelper cannot be null");
     }
@@ -54,11 +62,19 @@ public class ServerGroupingStrategyTest {
     @Test
     @DisplayName("Constructor should throw exception when InstanceMapper is null")
     void constructor_ShouldThrowException_WhenInstanceMapperIsNull() {
-        assertThatThrownBy(() -> new ServerGroupingStrategy(eurekaClientHelper, null))
+        assertThatThrownBy(() -> new ServerGroupingStrategy(eurekaClientHelper, null, stringPool))
                 .isInstanceOf(NullPointerException.class)
                 .hasMessage("InstanceMapper cannot be null");
     }
 
+    @Test
+    @DisplayName("Constructor should throw exception when StringPool is null")
+    void constructor_ShouldThrowException_WhenStringPoolIsNull() {
+        assertThatThrownBy(() -> new ServerGroupingStrategy(eurekaClientHelper, instanceMapper, null))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("StringPool cannot be null");
+    }
+
     @ParameterizedTest
     @NullAndEmptySource
     @ValueSource(strings = {"", "   "})
@@ -351,5 +367,21 @@ public class ServerGroupingStrategyTest {
         assertThat(serverGroup.server().services().get(0).service().serviceName()).isEqualTo("CDI-EUREKA-SERVICE");
     }
 
-}
+    @Test
+    @DisplayName("Group should group a registry view by host and skip instances without hostname")
+    void groupRegistryView_ShouldGroupByHost_AndSkipInstancesWithoutHostname() {
+        ObjectNode root = createRootNodeWithMultipleServicesOnSameHost("server-1");
+        ((ArrayNode) root.path("applications").path("application"))
+                .addAll((ArrayNode) createRootNodeWithBlankHostname().path("applications").path("application"));
+        RegistryView registry = new InstanceMapper(stringPool).mapToSnapshot(root);
+
+        GroupedResult result = serverGroupingStrategy.group(registry);
 
+        ServerResult serverResult = (ServerResult) result;
+        assertThat(serverResult.servers()).hasSize(1);
+        assertThat(serverResult.servers().get(0).server().hostName()).isEqualTo("server-1");
+        assertThat(serverResult.servers().get(0).server().services())
+                .extracting(service -> service.service().serviceName())
+                .containsExactly("SERVICE-A", "SERVICE-B");
+    }
+}
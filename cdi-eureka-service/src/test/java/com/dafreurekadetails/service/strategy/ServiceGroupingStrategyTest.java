@@ -1,13 +1,17 @@
 package com.dafreurekadetails.service.strategy;
 
+import com.dafreurekadetails.config.StringPoolProperties;
 import com.dafreurekadetails.dto.GroupedResult;
 import com.dafreurekadetails.dto.ServiceResult;
 import com.dafreurekadetails.dto.base.BaseInstanceDetail;
 import com.dafreurekadetails.dto.servicedto.ServiceGroup;
 import com.dafreurekadetails.exception.*;
 import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
 import com.dafreurekadetails.service.EurekaClientHelper;
+import com.dafreurekadetails.snapshot.RegistryView;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +23,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.util.List;
 
@@ -35,6 +40,9 @@ public class ServiceGroupingStrategyTest {
     @Mock
     private InstanceMapper instanceMapper;
 
+    @Spy
+    private StringPool stringPool = new StringPool(new StringPoolProperties(true, 1024));
+
     @InjectMocks
     private ServiceGroupingStrategy serviceGroupingStrategy;
 
@@ -49,7 +57,7 @@ public class ServiceGroupingStrategyTest {
     @Test
     @DisplayName("Constructor should throw exception when EurekaClientHelper is null")
     void constructor_ShouldThrowException_WhenEurekaClientHelperIsNull() {
-        assertThatThrownBy(() -> new ServiceGroupingStrategy(null, instanceMapper))
+        assertThatThrownBy(() -> new ServiceGroupingStrategy(null, instanceMapper, stringPool))
                 .isInstanceOf(NullPointerException.class)
                 .hasMessage("EurekaClientHelper cannot be null");
     }
@@ -57,11 +65,19 @@ public class ServiceGroupingStrategyTest {
     @Test
     @DisplayName("Constructor should throw exception when InstanceMapper is null")
     void constructor_ShouldThrowException_WhenInstanceMapperIsNull() {
-        assertThatThrownBy(() -> new ServiceGroupingStrategy(eurekaClientHelper, null))
+        assertThatThrownBy(() -> new ServiceGroupingStrategy(eurekaClientHelper, null, stringPool))
                 .isInstanceOf(NullPointerException.class)
                 .hasMessage("InstanceMapper cannot be null");
     }
 
+    @Test
+    @DisplayName("Constructor should throw exception when StringPool is null")
+    void constructor_ShouldThrowException_WhenStringPoolIsNull() {
+        assertThatThrownBy(() -> new ServiceGroupingStrategy(eurekaClientHelper, instanceMapper, null))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("StringPool cannot be null");
+    }
+
 
     @ParameterizedTest
     @NullAndEmptySource
@@ -276,4 +292,23 @@ public class ServiceGroupingStrategyTest {
                 .isInstanceOf(ApiException.class)
                 .hasMessage("Service down");
     }
+
+    @Test
+    @DisplayName("Group should group a registry view by service and fall back to ipAddr for blank hostnames")
+    void groupRegistryView_ShouldGroupByService_AndFallBackToIpAddr() {
+        ObjectNode root = createRootNodeWithMultipleInstances("SERVICE-A");
+        ((ArrayNode) root.path("applications").path("application"))
+                .addAll((ArrayNode) createRootNodeWithBlankHostname("SERVICE-B", "10.0.0.9").path("applications").path("application"));
+        RegistryView registry = new InstanceMapper(stringPool).mapToSnapshot(root);
+
+        GroupedResult result = serviceGroupingStrategy.group(registry);
+
+        ServiceResult serviceResult = (ServiceResult) result;
+        assertThat(serviceResult.services()).hasSize(2);
+        assertThat(serviceResult.services().get(0).service().serviceName()).isEqualTo("SERVICE-A");
+        assertThat(serviceResult.services().get(0).service().servers()).hasSize(2);
+        assertThat(serviceResult.services().get(1).service().servers().get(0).server().hostname()).isEqualTo("10.0.0.9");
+        assertThat(serviceResult.services().get(1).service().servers().get(0).server().instanceDetail())
+                .isEqualTo(registry.detail(2));
+    }
 }
@@ -0,0 +1,130 @@
+package com.dafreurekadetails.service.strategy;
+
+import com.dafreurekadetails.config.StringPoolProperties;
+import com.dafreurekadetails.dto.GroupedResult;
+import com.dafreurekadetails.dto.StatsResult;
+import com.dafreurekadetails.dto.statsdto.RegistryStats;
+import com.dafreurekadetails.exception.InvalidRequestException;
+import com.dafreurekadetails.exception.ServiceUnavailableException;
+import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
+import com.dafreurekadetails.service.EurekaClientHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static com.dafreurekadetails.service.strategy.EurekaTestDataBuilder.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StatsGroupingStrategyTest {
+
+    private static final String EUREKA_URL = "http://localhost:8761/eureka";
+
+    @Mock
+    private EurekaClientHelper eurekaClientHelper;
+
+    private StatsGroupingStrategy statsGroupingStrategy;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        statsGroupingStrategy = new StatsGroupingStrategy(eurekaClientHelper);
+    }
+
+    @Test
+    @DisplayName("Should count instances per service, host, status and zone while streaming")
+    void group_ShouldCountInstances_WhenStreamingResponse() throws IOException {
+        respondWith(createRootNodeWithServiceOnMultipleHosts("ORDER-SERVICE"));
+
+        GroupedResult result = statsGroupingStrategy.group(EUREKA_URL);
+
+        assertThat(result).isInstanceOf(StatsResult.class);
+        RegistryStats stats = ((StatsResult) result).stats();
+        assertThat(stats.applications()).isEqualTo(1);
+        assertThat(stats.instances()).isEqualTo(stats.instancesPerHost().values().stream().mapToInt(Integer::intValue).sum());
+        assertThat(stats.instancesPerService()).containsEntry("ORDER-SERVICE", stats.instances());
+    }
+
+    @Test
+    void count_ShouldSkipNamelessApplications_AndCountMissingValuesAsUnknown() throws IOException {
+        ObjectNode root = createRootNodeWithSingleApplication("ORDER-SERVICE", "host-1");
+        ArrayNode apps = (ArrayNode) root.path("applications").path("application");
+        ObjectNode nameless = apps.addObject();
+        nameless.set("instance", createBasicInstanceNode("ghost-host", "10.0.0.9", "ghost-1"));
+        ObjectNode late = objectMapper.createObjectNode();
+        ObjectNode hostless = createBasicInstanceNode("", "10.0.0.8", "late-1");
+        hostless.putObject("metadata").put("zone", "zone-a");
+        late.set("instance", hostless);
+        late.put("name", "LATE-SERVICE");
+        apps.add(late);
+
+        RegistryStats stats = statsGroupingStrategy.count(body(root));
+
+        assertThat(stats.applications()).isEqualTo(2);
+        assertThat(stats.instances()).isEqualTo(2);
+        assertThat(stats.instancesPerService()).isEqualTo(Map.of("LATE-SERVICE", 1, "ORDER-SERVICE", 1));
+        assertThat(stats.instancesPerHost()).containsEntry(StatsGroupingStrategy.UNKNOWN, 1).doesNotContainKey("ghost-host");
+        assertThat(stats.instancesPerZone()).isEqualTo(Map.of(StatsGroupingStrategy.UNKNOWN, 1, "zone-a", 1));
+    }
+
+    @Test
+    void count_ShouldMatchCountsOfTheSnapshotView() throws IOException {
+        ObjectNode root = createSyntheticRegistry(20, 15);
+        StringPool stringPool = new StringPool(new StringPoolProperties(true, 1024));
+
+        RegistryStats streamed = statsGroupingStrategy.count(body(root));
+        GroupedResult viewed = statsGroupingStrategy.group(new InstanceMapper(stringPool).mapToSnapshot(root));
+
+        assertThat(viewed).isEqualTo(new StatsResult(streamed));
+        assertThat(streamed.instances()).isEqualTo(300);
+    }
+
+    @Test
+    void count_ShouldReturnNull_WhenBodyIsEmpty() throws IOException {
+        assertThat(statsGroupingStrategy.count(new ByteArrayInputStream(new byte[0]))).isNull();
+    }
+
+    @Test
+    void group_ShouldThrowServiceUnavailable_WhenEurekaReturnsNothing() throws IOException {
+        respondWith(null);
+
+        assertThatThrownBy(() -> statsGroupingStrategy.group(EUREKA_URL))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void group_ShouldThrowInvalidRequest_WhenUrlIsBlank() {
+        assertThatThrownBy(() -> statsGroupingStrategy.group(" "))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    //Feeds the serialized registry (or an empty body) to whatever extractor the strategy passes.
+    @SuppressWarnings("unchecked")
+    private void respondWith(ObjectNode root) throws IOException {
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        when(response.getBody()).thenReturn(root != null ? body(root) : new ByteArrayInputStream(new byte[0]));
+        when(eurekaClientHelper.streamEurekaApps(eq(EUREKA_URL), any()))
+                .thenAnswer(invocation -> ((ResponseExtractor<Object>) invocation.getArgument(1)).extractData(response));
+    }
+
+    private ByteArrayInputStream body(ObjectNode root) throws IOException {
+        return new ByteArrayInputStream(objectMapper.writeValueAsBytes(root));
+    }
+}
@@ -0,0 +1,71 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class NameIndexTest {
+
+    @Test
+    void build_ShouldWeightServiceAndHostNamesByInstanceCount() {
+        NameIndex index = NameIndex.build(registry("ORDER-SERVICE", "host-1", "ORDER-SERVICE", "host-2",
+                "PAYMENT-SERVICE", "host-1"));
+
+        assertThat(index.trie(NameIndex.Kind.SERVICE).weight("ORDER-SERVICE")).isEqualTo(2);
+        assertThat(index.trie(NameIndex.Kind.HOST).weight("host-1")).isEqualTo(2);
+        assertThat(index.trie(NameIndex.Kind.HOST).size()).isEqualTo(2);
+    }
+
+    @Test
+    void update_ShouldMatchAFreshBuild_AndLeavePreviousIndexUnchanged() {
+        NameIndex before = NameIndex.build(registry("ORDER-SERVICE", "host-1", "ORDER-SERVICE", "host-2",
+                "PAYMENT-SERVICE", "host-1"));
+        RegistryView next = registry("ORDER-SERVICE", "host-2", "SHIPPING-SERVICE", "host-3");
+
+        NameIndex after = before.update(next);
+        NameIndex fresh = NameIndex.build(next);
+
+        for (String query : List.of("", "o", "host", "pay", "ship")) {
+            assertThat(after.search(EnumSet.allOf(NameIndex.Kind.class), query, false, 10))
+                    .isEqualTo(fresh.search(EnumSet.allOf(NameIndex.Kind.class), query, false, 10));
+        }
+        assertThat(after.trie(NameIndex.Kind.SERVICE).weight("PAYMENT-SERVICE")).isZero();
+        assertThat(before.trie(NameIndex.Kind.SERVICE).weight("PAYMENT-SERVICE")).isEqualTo(1);
+    }
+
+    @Test
+    void search_ShouldMergeKindsAndApplyLimit() {
+        NameIndex index = NameIndex.build(registry("HOST-MONITOR", "host-1", "HOST-MONITOR", "host-2",
+                "HOST-MONITOR", "host-1"));
+
+        List<NameIndex.Hit> hits = index.search(EnumSet.allOf(NameIndex.Kind.class), "host", false, 2);
+
+        assertThat(hits).extracting(NameIndex.Hit::kind, hit -> hit.match().name())
+                .containsExactly(
+                        tuple(NameIndex.Kind.SERVICE, "HOST-MONITOR"),
+                        tuple(NameIndex.Kind.HOST, "host-1"));
+    }
+
+    @Test
+    void search_ShouldTolerateTypos_OnlyWhenFuzzy() {
+        NameIndex index = NameIndex.build(registry("PAYMENT-SERVICE", "host-1"));
+
+        assertThat(index.search(EnumSet.of(NameIndex.Kind.SERVICE), "paymnet", false, 10)).isEmpty();
+        assertThat(index.search(EnumSet.of(NameIndex.Kind.SERVICE), "paymnet", true, 10))
+                .extracting(hit -> hit.match().name()).containsExactly("PAYMENT-SERVICE");
+    }
+
+    //Alternating service and host names, one instance per pair.
+    private static RegistryView registry(String... serviceAndHost) {
+        RegistrySnapshot.Builder builder = RegistrySnapshot.builder();
+        for (int i = 0; i < serviceAndHost.length; i += 2) {
+            builder.add(serviceAndHost[i], "id-" + i, serviceAndHost[i + 1], EurekaTestDataBuilder.createMockInstanceDetail());
+        }
+        return builder.build();
+    }
+}
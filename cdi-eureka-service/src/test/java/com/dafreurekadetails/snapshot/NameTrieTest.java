@@ -0,0 +1,67 @@
+package com.dafreurekadetails.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NameTrieTest {
+
+    private final NameTrie trie = NameTrie.empty()
+            .with("ORDER-SERVICE", 4)
+            .with("ORDER-HISTORY", 1)
+            .with("ORDERS-API", 2)
+            .with("PAYMENT-SERVICE", 3);
+
+    @Test
+    void prefix_ShouldReturnMatchesByInstanceCount_IgnoringCase() {
+        assertThat(trie.prefix("order", 10)).extracting(NameTrie.Match::name)
+                .containsExactly("ORDER-SERVICE", "ORDERS-API", "ORDER-HISTORY");
+    }
+
+    @Test
+    void prefix_ShouldReturnOnlyTopK() {
+        assertThat(trie.prefix("", 2)).extracting(NameTrie.Match::name)
+                .containsExactly("ORDER-SERVICE", "PAYMENT-SERVICE");
+    }
+
+    @Test
+    void prefix_ShouldReturnEmpty_WhenNoNameMatches() {
+        assertThat(trie.prefix("inventory", 10)).isEmpty();
+    }
+
+    @Test
+    void fuzzy_ShouldTolerateTypos_RankingCloserMatchesFirst() {
+        assertThat(trie.fuzzy("oder", 1, 10)).extracting(NameTrie.Match::name)
+                .containsExactly("ORDER-SERVICE", "ORDERS-API", "ORDER-HISTORY");
+        assertThat(trie.fuzzy("paymnt", 1, 10))
+                .containsExactly(new NameTrie.Match("PAYMENT-SERVICE", 3, 1));
+        assertThat(trie.fuzzy("order-s", 1, 10)).first()
+                .isEqualTo(new NameTrie.Match("ORDER-SERVICE", 4, 0));
+    }
+
+    @Test
+    void with_ShouldLeaveOriginalTrieUnchanged() {
+        NameTrie updated = trie.with("ORDER-SERVICE", 0).with("ORDER-QUEUE", 7);
+
+        assertThat(updated.size()).isEqualTo(4);
+        assertThat(updated.weight("order-service")).isZero();
+        assertThat(updated.prefix("order", 1)).extracting(NameTrie.Match::name).containsExactly("ORDER-QUEUE");
+        assertThat(trie.size()).isEqualTo(4);
+        assertThat(trie.weight("ORDER-SERVICE")).isEqualTo(4);
+        assertThat(trie.weight("ORDER-QUEUE")).isZero();
+    }
+
+    @Test
+    void with_ShouldUpdateWeightOfExistingName() {
+        NameTrie updated = trie.with("order-history", 9);
+
+        assertThat(updated.size()).isEqualTo(4);
+        assertThat(updated.prefix("order", 1)).containsExactly(new NameTrie.Match("order-history", 9, 0));
+    }
+
+    @Test
+    void with_ShouldRejectNegativeWeight() {
+        assertThatThrownBy(() -> trie.with("ORDER-SERVICE", -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,165 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.config.PersistenceProperties;
+import com.dafreurekadetails.config.SnapshotStoreProperties;
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OffHeapSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong now = new AtomicLong();
+    private RegistrySnapshot snapshot;
+    private int encodedBytes;
+
+    @BeforeEach
+    void setUp() {
+        RegistrySnapshot.Builder builder = RegistrySnapshot.builder();
+        for (int i = 0; i < 10; i++) {
+            builder.add("SERVICE-A", "id-" + i, "host-" + i, EurekaTestDataBuilder.createMockInstanceDetail());
+        }
+        snapshot = builder.build();
+        encodedBytes = OffHeapSnapshot.of(snapshot).encodedBytes();
+    }
+
+    @Test
+    void get_ShouldReturnStoredSnapshot_UntilItExpires() {
+        OffHeapSnapshotStore store = store(DataSize.ofMegabytes(1), Duration.ofSeconds(30));
+
+        IndexedRegistry stored = store.put("http://a/eureka", snapshot);
+
+        assertThat(store.get("http://a/eureka")).isSameAs(stored);
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(store.get("http://a/eureka")).isNull();
+    }
+
+    @Test
+    void put_ShouldEvictExpiredSnapshots_LikeAnyOther() {
+        OffHeapSnapshotStore store = store(DataSize.ofBytes(2L * encodedBytes), Duration.ofSeconds(30));
+        store.put("http://a/eureka", snapshot);
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(store.get("http://a/eureka")).isNull();
+        assertThat(store.usedBytes()).isEqualTo(encodedBytes);
+
+        store.put("http://b/eureka", snapshot);
+        store.put("http://c/eureka", snapshot);
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.usedBytes()).isEqualTo(2L * encodedBytes);
+        assertThat(store.get("http://b/eureka")).isNotNull();
+        assertThat(store.get("http://c/eureka")).isNotNull();
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsed_WhenSizeIsExceeded() {
+        OffHeapSnapshotStore store = store(DataSize.ofBytes(2L * encodedBytes), Duration.ofSeconds(30));
+        store.put("http://a/eureka", snapshot);
+        store.put("http://b/eureka", snapshot);
+        store.get("http://a/eureka");
+
+        store.put("http://c/eureka", snapshot);
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.get("http://b/eureka")).isNull();
+        assertThat(store.get("http://a/eureka")).isNotNull();
+        assertThat(store.get("http://c/eureka")).isNotNull();
+        assertThat(store.usedBytes()).isEqualTo(2L * encodedBytes);
+    }
+
+    @Test
+    void put_ShouldReplaceSnapshotOfSameUrl() {
+        OffHeapSnapshotStore store = store(DataSize.ofMegabytes(1), Duration.ofSeconds(30));
+        store.put("http://a/eureka", snapshot);
+
+        IndexedRegistry replacement = store.put("http://a/eureka", snapshot);
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.usedBytes()).isEqualTo(encodedBytes);
+        assertThat(store.get("http://a/eureka")).isSameAs(replacement);
+    }
+
+    @Test
+    void put_ShouldNotCacheSnapshotLargerThanStore_ButStillReturnIt() {
+        OffHeapSnapshotStore store = store(DataSize.ofBytes(encodedBytes - 1L), Duration.ofSeconds(30));
+
+        IndexedRegistry returned = store.put("http://a/eureka", snapshot);
+
+        assertThat(returned.registry().size()).isEqualTo(10);
+        assertThat(store.size()).isZero();
+        assertThat(store.usedBytes()).isZero();
+    }
+
+    @Test
+    void put_ShouldIndexTheStoredSnapshot() {
+        OffHeapSnapshotStore store = store(DataSize.ofMegabytes(1), Duration.ofSeconds(30));
+
+        IndexedRegistry stored = store.put("http://a/eureka", snapshot);
+
+        assertThat(stored.registry()).isInstanceOf(OffHeapSnapshot.class);
+        assertThat(stored.select(IndexedField.HOST, "host-3").size()).isEqualTo(1);
+        assertThat(stored.select(IndexedField.HOST, "host-3").instanceId(0)).isEqualTo("id-3");
+    }
+
+    @Test
+    void put_ShouldDeriveNameIndexFromPreviousSnapshot_EvenAfterItExpired() {
+        OffHeapSnapshotStore store = store(DataSize.ofMegabytes(1), Duration.ofSeconds(30));
+        IndexedRegistry first = store.put("http://a/eureka", snapshot);
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(store.get("http://a/eureka")).isNull();
+
+        RegistrySnapshot next = RegistrySnapshot.builder()
+                .add("SERVICE-B", "id-0", "host-0", EurekaTestDataBuilder.createMockInstanceDetail())
+                .build();
+        IndexedRegistry second = store.put("http://a/eureka", next);
+
+        assertThat(second.names().trie(NameIndex.Kind.SERVICE).weight("SERVICE-B")).isEqualTo(1);
+        assertThat(second.names().trie(NameIndex.Kind.SERVICE).weight("SERVICE-A")).isZero();
+        assertThat(second.names().trie(NameIndex.Kind.HOST).size()).isEqualTo(1);
+        assertThat(first.names().trie(NameIndex.Kind.SERVICE).weight("SERVICE-A")).isEqualTo(10);
+    }
+
+    @Test
+    void restore_ShouldCacheRestoredSnapshot_UnlessTheUrlWasFetchedSince() {
+        OffHeapSnapshotStore store = store(DataSize.ofMegabytes(1), Duration.ofSeconds(30));
+        IndexedRegistry fetched = store.put("http://a/eureka", snapshot);
+
+        assertThat(store.restore("http://a/eureka", OffHeapSnapshot.of(snapshot))).isFalse();
+        assertThat(store.restore("http://b/eureka", OffHeapSnapshot.of(snapshot))).isTrue();
+
+        assertThat(store.get("http://a/eureka")).isSameAs(fetched);
+        assertThat(store.get("http://b/eureka").registry().size()).isEqualTo(10);
+        assertThat(store.usedBytes()).isEqualTo(2L * encodedBytes);
+    }
+
+    @Test
+    void put_ShouldDeleteTheFilesOfEvictedSnapshots() throws Exception {
+        SnapshotPersistence persistence = new SnapshotPersistence(
+                new PersistenceProperties(true, directory.toString(), Duration.ofDays(1)));
+        OffHeapSnapshotStore store = new OffHeapSnapshotStore(
+                new SnapshotStoreProperties(true, DataSize.ofBytes(encodedBytes), Duration.ofSeconds(30)), persistence, now::get);
+
+        store.put("http://a/eureka", snapshot);
+        store.put("http://b/eureka", snapshot);
+        persistence.shutdown();
+
+        assertThat(Files.exists(directory.resolve(SnapshotPersistence.fileName("http://a/eureka")))).isFalse();
+        assertThat(Files.exists(directory.resolve(SnapshotPersistence.fileName("http://b/eureka")))).isTrue();
+    }
+
+    private OffHeapSnapshotStore store(DataSize maxSize, Duration maxAge) {
+        return new OffHeapSnapshotStore(new SnapshotStoreProperties(true, maxSize, maxAge),
+                new SnapshotPersistence(new PersistenceProperties(false, "unused", Duration.ofDays(1))), now::get);
+    }
+}
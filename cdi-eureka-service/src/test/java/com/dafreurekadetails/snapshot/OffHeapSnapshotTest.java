@@ -0,0 +1,99 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.config.StringPoolProperties;
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OffHeapSnapshotTest {
+
+    private final InstanceMapper mapper = new InstanceMapper(new StringPool(new StringPoolProperties(true, 1024)));
+
+    @Test
+    void of_ShouldPreserveEveryInstance() {
+        RegistrySnapshot snapshot = mapper.mapToSnapshot(EurekaTestDataBuilder.createSyntheticRegistry(5, 7));
+
+        OffHeapSnapshot offHeap = OffHeapSnapshot.of(snapshot);
+
+        assertThat(offHeap.size()).isEqualTo(snapshot.size());
+        assertThat(offHeap.encoded().isDirect()).isTrue();
+        for (int i = 0; i < snapshot.size(); i++) {
+            assertThat(offHeap.app(i)).isEqualTo(snapshot.app(i));
+            assertThat(offHeap.instanceId(i)).isEqualTo(snapshot.instanceId(i));
+            assertThat(offHeap.hostName(i)).isEqualTo(snapshot.hostName(i));
+            assertThat(offHeap.status(i)).isEqualTo(snapshot.status(i));
+            assertThat(offHeap.detail(i)).isEqualTo(snapshot.detail(i));
+        }
+    }
+
+    @Test
+    void of_ShouldPreserveNullsAndNonAsciiStrings() {
+        BaseInstanceDetail detail = new BaseInstanceDetail("10.0.0.1", 8080, 0,
+                null, null, null, "UP", 1L, 2L, true, null, null);
+        RegistrySnapshot snapshot = RegistrySnapshot.builder()
+                .add("SERVİCE-Ü", null, "hôst-1", detail)
+                .build();
+
+        OffHeapSnapshot offHeap = OffHeapSnapshot.of(snapshot);
+
+        assertThat(offHeap.app(0)).isEqualTo("SERVİCE-Ü");
+        assertThat(offHeap.instanceId(0)).isNull();
+        assertThat(offHeap.hostName(0)).isEqualTo("hôst-1");
+        assertThat(offHeap.detail(0)).isEqualTo(detail);
+    }
+
+    @Test
+    void wrap_ShouldReadEncodedBytesCopiedElsewhere() {
+        RegistrySnapshot snapshot = mapper.mapToSnapshot(EurekaTestDataBuilder.createRootNodeWithMultipleApplications());
+        ByteBuffer encoded = OffHeapSnapshot.of(snapshot).encoded();
+        ByteBuffer heapCopy = ByteBuffer.allocate(encoded.remaining()).put(encoded).flip();
+
+        OffHeapSnapshot copy = OffHeapSnapshot.wrap(heapCopy);
+
+        assertThat(copy.size()).isEqualTo(2);
+        assertThat(copy.detail(1)).isEqualTo(snapshot.detail(1));
+    }
+
+    @Test
+    void wrap_ShouldRejectBytesThatAreNotASnapshot() {
+        assertThatThrownBy(() -> OffHeapSnapshot.wrap(ByteBuffer.allocate(64)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void wrap_ShouldRejectEveryTruncatedPrefixOfASnapshot() {
+        ByteBuffer encoded = OffHeapSnapshot.of(mapper.mapToSnapshot(EurekaTestDataBuilder.createSyntheticRegistry(2, 3))).encoded();
+
+        for (int length = 0; length < encoded.capacity(); length++) {
+            ByteBuffer prefix = encoded.duplicate().limit(length);
+            assertThatThrownBy(() -> OffHeapSnapshot.wrap(prefix))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void wrap_ShouldRejectSizesThatPointPastTheBuffer() {
+        ByteBuffer encoded = OffHeapSnapshot.of(mapper.mapToSnapshot(EurekaTestDataBuilder.createSyntheticRegistry(2, 3))).encoded();
+        ByteBuffer corrupted = ByteBuffer.allocate(encoded.remaining()).put(encoded).flip();
+        corrupted.putInt(12, Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> OffHeapSnapshot.wrap(corrupted))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("truncated");
+    }
+
+    @Test
+    void detail_ShouldRejectIndexOutsideSnapshot() {
+        OffHeapSnapshot offHeap = OffHeapSnapshot.of(RegistrySnapshot.builder().build());
+
+        assertThatThrownBy(() -> offHeap.detail(0))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
@@ -0,0 +1,125 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.config.HistoryProperties;
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RegistryHistoryTest {
+
+    private static final String URL = "http://a/eureka";
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+
+    @Test
+    void asOf_ShouldRebuildEachRecordedRegistry_AcrossCheckpoints() {
+        RegistryHistory history = history(DataSize.ofMegabytes(1), 2);
+        List<RegistrySnapshot> recorded = new ArrayList<>();
+        for (int step = 0; step < 6; step++) {
+            RegistrySnapshot.Builder builder = RegistrySnapshot.builder();
+            for (int i = step; i < step + 5; i++) {
+                builder.add("SERVICE-" + (i % 2), "id-" + i, "host-" + i, detail(i == step + 2 ? "DOWN" : "UP"));
+            }
+            recorded.add(builder.build());
+            now.set(1_000L * (step + 1));
+            history.record(URL, recorded.get(step));
+        }
+
+        assertThat(history.segments(URL)).isEqualTo(2);
+        for (int step = 0; step < 6; step++) {
+            assertThat(instances(history.asOf(URL, 1_000L * (step + 1) + 500))).isEqualTo(instances(recorded.get(step)));
+        }
+        assertThat(history.asOf(URL, 999L)).isNull();
+    }
+
+    @Test
+    void record_ShouldSkipRegistriesWithoutChanges() {
+        RegistryHistory history = history(DataSize.ofMegabytes(1), 16);
+        history.record(URL, registry("UP"));
+        long usedBytes = history.usedBytes(URL);
+
+        now.set(2_000L);
+        history.record(URL, registry("UP"));
+        now.set(3_000L);
+        history.record(URL, registry("DOWN"));
+
+        assertThat(history.usedBytes(URL)).isGreaterThan(usedBytes);
+        assertThat(history.asOf(URL, 2_500L).status(0)).isEqualTo("UP");
+        assertThat(history.asOf(URL, 3_000L).status(0)).isEqualTo("DOWN");
+    }
+
+    @Test
+    void record_ShouldStoreOnlyChangedInstancesInDeltas() {
+        RegistryHistory history = history(DataSize.ofMegabytes(1), 16);
+        RegistrySnapshot.Builder base = RegistrySnapshot.builder();
+        RegistrySnapshot.Builder changed = RegistrySnapshot.builder();
+        for (int i = 0; i < 100; i++) {
+            base.add("SERVICE-A", "id-" + i, "host-" + i, detail("UP"));
+            changed.add("SERVICE-A", "id-" + i, "host-" + i, detail(i == 50 ? "DOWN" : "UP"));
+        }
+        RegistrySnapshot checkpoint = base.build();
+        history.record(URL, checkpoint);
+
+        now.set(2_000L);
+        history.record(URL, changed.build());
+
+        assertThat(history.usedBytes(URL) - checkpoint.estimatedBytes()).isLessThan(checkpoint.estimatedBytes() / 10);
+        assertThat(history.asOf(URL, 2_000L).status(50)).isEqualTo("DOWN");
+    }
+
+    @Test
+    void record_ShouldDropOldestSegments_WhenMaxSizeIsExceeded() {
+        long snapshotBytes = registry("UP").estimatedBytes();
+        RegistryHistory history = history(DataSize.ofBytes(2 * snapshotBytes), 1);
+        for (int step = 0; step < 8; step++) {
+            now.set(1_000L * (step + 1));
+            history.record(URL, registry(step % 2 == 0 ? "UP" : "DOWN"));
+        }
+
+        assertThat(history.usedBytes(URL)).isLessThanOrEqualTo(2 * snapshotBytes);
+        assertThat(history.oldestRecording(URL)).isGreaterThan(1_000L);
+        assertThat(history.asOf(URL, 1_000L)).isNull();
+        assertThat(history.asOf(URL, 8_000L).status(0)).isEqualTo("DOWN");
+    }
+
+    @Test
+    void record_ShouldNotRecord_WhenDisabled() {
+        RegistryHistory history = new RegistryHistory(
+                new HistoryProperties(false, DataSize.ofMegabytes(1), 16, 16), now::get);
+
+        history.record(URL, registry("UP"));
+
+        assertThat(history.size()).isZero();
+        assertThat(history.asOf(URL, now.get())).isNull();
+    }
+
+    private RegistryHistory history(DataSize maxSize, int checkpointInterval) {
+        return new RegistryHistory(new HistoryProperties(true, maxSize, checkpointInterval, 16), now::get);
+    }
+
+    private static RegistrySnapshot registry(String status) {
+        return RegistrySnapshot.builder()
+                .add("SERVICE-A", "id-0", "host-0", detail(status))
+                .add("SERVICE-A", "id-1", "host-1", detail("UP"))
+                .build();
+    }
+
+    private static List<String> instances(RegistryView registry) {
+        List<String> instances = new ArrayList<>();
+        for (int i = 0; i < registry.size(); i++) {
+            instances.add(registry.app(i) + "/" + registry.instanceId(i) + "/" + registry.status(i));
+        }
+        return instances;
+    }
+
+    private static BaseInstanceDetail detail(String status) {
+        return new BaseInstanceDetail("10.0.0.1", 8080, 0, null, null, null, status,
+                0L, 0L, false, null, null);
+    }
+}
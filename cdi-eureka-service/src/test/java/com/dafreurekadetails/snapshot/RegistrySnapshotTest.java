@@ -0,0 +1,81 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.config.StringPoolProperties;
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.base.LeaseInfo;
+import com.dafreurekadetails.dto.base.Metadata;
+import com.dafreurekadetails.mapper.InstanceMapper;
+import com.dafreurekadetails.mapper.StringPool;
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RegistrySnapshotTest {
+
+    @Test
+    void detail_ShouldReturnEqualRecord_ForEveryAddedInstance() {
+        BaseInstanceDetail full = new BaseInstanceDetail("10.0.0.1", 8080, 8443,
+                "http://h1:8080/health", "http://h1:8080/", "http://h1:8080/info", "UP",
+                100L, 90L, true,
+                new Metadata("1.0.0", "eu-west-1", "eu-west-1a", "m5.large", "42"),
+                new LeaseInfo(30, 90, 1L, 2L, 0L, 3L));
+        BaseInstanceDetail sparse = new BaseInstanceDetail("10.0.0.2", 0, 0,
+                null, null, null, "DOWN", 0L, 0L, false, null, null);
+
+        RegistrySnapshot snapshot = RegistrySnapshot.builder()
+                .add("SERVICE-A", "h1:service-a:8080", "h1", full)
+                .add("SERVICE-B", "h2:service-b", "h2", sparse)
+                .build();
+
+        assertThat(snapshot.size()).isEqualTo(2);
+        assertThat(snapshot.detail(0)).isEqualTo(full);
+        assertThat(snapshot.detail(1)).isEqualTo(sparse);
+        assertThat(snapshot.app(1)).isEqualTo("SERVICE-B");
+        assertThat(snapshot.instanceId(0)).isEqualTo("h1:service-a:8080");
+        assertThat(snapshot.hostName(1)).isEqualTo("h2");
+        assertThat(snapshot.status(1)).isEqualTo("DOWN");
+    }
+
+    @Test
+    void build_ShouldStoreRepeatedStringsOnce() {
+        RegistrySnapshot.Builder builder = RegistrySnapshot.builder();
+        for (int i = 0; i < 100; i++) {
+            builder.add("SERVICE-A", "id-" + i, "host-1", EurekaTestDataBuilder.createMockInstanceDetail());
+        }
+
+        RegistrySnapshot snapshot = builder.build();
+
+        assertThat(snapshot.size()).isEqualTo(100);
+        assertThat(snapshot.dictionarySize()).isLessThan(110);
+        assertThat(snapshot.app(99)).isSameAs(snapshot.app(0));
+    }
+
+    @Test
+    void view_ShouldReadFieldsOfTheInstanceItIsPositionedAt() {
+        InstanceMapper mapper = new InstanceMapper(new StringPool(new StringPoolProperties(true, 1024)));
+        RegistrySnapshot snapshot = mapper.mapToSnapshot(EurekaTestDataBuilder.createSyntheticRegistry(3, 4));
+        InstanceView view = snapshot.view();
+
+        for (int i = 0; i < snapshot.size(); i++) {
+            BaseInstanceDetail detail = snapshot.detail(i);
+            view.at(i);
+            assertThat(view.app()).isEqualTo(snapshot.app(i));
+            assertThat(view.ipAddr()).isEqualTo(detail.ipAddr());
+            assertThat(view.port()).isEqualTo(detail.port());
+            assertThat(view.zone()).isEqualTo(detail.metadataMap().zone());
+            assertThat(view.leaseInfo()).isEqualTo(detail.leaseInfo());
+            assertThat(view.toDetail()).isEqualTo(detail);
+        }
+        assertThat(snapshot.size()).isEqualTo(12);
+    }
+
+    @Test
+    void view_ShouldRejectIndexOutsideSnapshot() {
+        RegistrySnapshot snapshot = RegistrySnapshot.builder().build();
+
+        assertThatThrownBy(() -> snapshot.view().at(0))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
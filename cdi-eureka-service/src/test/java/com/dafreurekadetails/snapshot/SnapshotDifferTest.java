@@ -0,0 +1,147 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.base.LeaseInfo;
+import com.dafreurekadetails.dto.base.Metadata;
+import com.dafreurekadetails.dto.diffdto.FieldChange;
+import com.dafreurekadetails.dto.diffdto.InstanceDiff;
+import com.dafreurekadetails.dto.watchdto.InstanceChange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+public class SnapshotDifferTest {
+
+    @Test
+    void diff_ShouldReturnNoChanges_WhenRegistryIsUnchanged() {
+        RegistrySnapshot before = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", detail("UP"))
+                .add("USER-SERVICE", "h2:user", "h2", detail("UP"))
+                .build();
+        RegistrySnapshot after = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", detail("UP"))
+                .add("USER-SERVICE", "h2:user", "h2", detail("UP"))
+                .build();
+
+        assertThat(SnapshotDiffer.diff(before, after)).isEmpty();
+        assertThat(SnapshotDiffer.diff(before, before)).isEmpty();
+    }
+
+    @Test
+    void diff_ShouldReportAddedRemovedAndStatusChangedInstances() {
+        RegistrySnapshot before = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", detail("UP"))
+                .add("ORDER-SERVICE", "h2:order", "h2", detail("UP"))
+                .add("USER-SERVICE", "h3:user", "h3", detail("UP"))
+                .build();
+        RegistrySnapshot after = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", detail("DOWN"))
+                .add("USER-SERVICE", "h3:user", "h3", detail("UP"))
+                .add("USER-SERVICE", "h4:user", "h4", detail("STARTING"))
+                .build();
+
+        List<InstanceChange> changes = SnapshotDiffer.diff(before, after);
+
+        assertThat(changes).containsExactly(
+                new InstanceChange(InstanceChange.STATUS, "ORDER-SERVICE", "h1:order", "h1", "DOWN", "UP"),
+                new InstanceChange(InstanceChange.ADDED, "USER-SERVICE", "h4:user", "h4", "STARTING", null),
+                new InstanceChange(InstanceChange.REMOVED, "ORDER-SERVICE", "h2:order", "h2", "UP", null));
+    }
+
+    @Test
+    void diff_ShouldMatchInstancesByIdentity_WhenOrderChanges() {
+        RegistrySnapshot before = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", detail("UP"))
+                .add("USER-SERVICE", "h2:user", "h2", detail("UP"))
+                .add("CART-SERVICE", "h3:cart", "h3", detail("UP"))
+                .build();
+        RegistrySnapshot after = RegistrySnapshot.builder()
+                .add("CART-SERVICE", "h3:cart", "h3", detail("OUT_OF_SERVICE"))
+                .add("ORDER-SERVICE", "h1:order", "h1", detail("UP"))
+                .add("USER-SERVICE", "h2:user", "h2", detail("UP"))
+                .build();
+
+        assertThat(SnapshotDiffer.diff(before, after)).containsExactly(
+                new InstanceChange(InstanceChange.STATUS, "CART-SERVICE", "h3:cart", "h3", "OUT_OF_SERVICE", "UP"));
+    }
+
+    @Test
+    void diff_ShouldTellApartInstancesWithTheSameIdInDifferentServices() {
+        RegistrySnapshot before = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1", "h1", detail("UP"))
+                .build();
+        RegistrySnapshot after = RegistrySnapshot.builder()
+                .add("USER-SERVICE", "h1", "h1", detail("UP"))
+                .build();
+
+        assertThat(SnapshotDiffer.diff(before, after)).extracting(InstanceChange::change, InstanceChange::serviceName)
+                .containsExactly(
+                        tuple(InstanceChange.ADDED, "USER-SERVICE"),
+                        tuple(InstanceChange.REMOVED, "ORDER-SERVICE"));
+    }
+
+    @Test
+    void compare_ShouldReportTheChangedFieldsOfModifiedInstances() {
+        RegistrySnapshot base = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", full("UP", "1.0.0", 100L))
+                .add("USER-SERVICE", "h2:user", "h2", full("UP", "2.0.0", 100L))
+                .build();
+        RegistrySnapshot target = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", full("DOWN", "1.1.0", 100L))
+                .add("CART-SERVICE", "h3:cart", "h3", full("UP", "1.0.0", 100L))
+                .build();
+
+        List<InstanceDiff> differences = SnapshotDiffer.compare(base, target);
+
+        assertThat(differences).containsExactly(
+                new InstanceDiff(InstanceDiff.MODIFIED, "ORDER-SERVICE", "h1:order", "h1", List.of(
+                        new FieldChange("status", "UP", "DOWN"),
+                        new FieldChange("version", "1.0.0", "1.1.0"))),
+                new InstanceDiff(InstanceDiff.ADDED, "CART-SERVICE", "h3:cart", "h3", List.of()),
+                new InstanceDiff(InstanceDiff.REMOVED, "USER-SERVICE", "h2:user", "h2", List.of()));
+    }
+
+    @Test
+    void compare_ShouldIgnoreTimestamps_WhichDifferBetweenEurekaPeers() {
+        RegistrySnapshot base = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", full("UP", "1.0.0", 100L))
+                .build();
+        RegistrySnapshot target = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", full("UP", "1.0.0", 999L))
+                .build();
+
+        assertThat(base.fingerprint(0)).isEqualTo(target.fingerprint(0));
+        assertThat(SnapshotDiffer.compare(base, target)).isEmpty();
+    }
+
+    @Test
+    void fingerprint_ShouldBeEqualForHeapOffHeapAndMaterializedInstances() {
+        RegistrySnapshot snapshot = RegistrySnapshot.builder()
+                .add("ORDER-SERVICE", "h1:order", "h1", full("UP", "1.0.0", 100L))
+                .add("ZÜRICH-SERVICE", "h2:zürich", "h2", detail("DOWN"))
+                .build();
+        OffHeapSnapshot offHeap = OffHeapSnapshot.of(snapshot);
+
+        for (int i = 0; i < snapshot.size(); i++) {
+            long materialized = InstanceFingerprint.of(snapshot.app(i), snapshot.hostName(i), snapshot.detail(i));
+            assertThat(snapshot.fingerprint(i)).isEqualTo(materialized);
+            assertThat(offHeap.fingerprint(i)).isEqualTo(materialized);
+        }
+        assertThat(snapshot.fingerprint(0)).isNotEqualTo(snapshot.fingerprint(1));
+    }
+
+    private static BaseInstanceDetail full(String status, String version, long timestamp) {
+        return new BaseInstanceDetail("10.0.0.1", 8080, 8443, "http://h:8080/health", "http://h:8080/",
+                "http://h:8080/info", status, timestamp, timestamp, false,
+                new Metadata(version, "eu-west-1", "eu-west-1a", "m5.large", "42"),
+                new LeaseInfo(30, 90, timestamp, timestamp, 0L, timestamp));
+    }
+
+    private static BaseInstanceDetail detail(String status) {
+        return new BaseInstanceDetail("10.0.0.1", 8080, 0, null, null, null, status,
+                0L, 0L, false, null, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.dto.base.BaseInstanceDetail;
+import com.dafreurekadetails.dto.base.Metadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotIndexTest {
+
+    private RegistrySnapshot snapshot;
+    private SnapshotIndex index;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = RegistrySnapshot.builder()
+                .add("SERVICE-A", "a-1", "host-1", detail("10.0.0.1", "UP", "eu-west-1a", "1.0.0"))
+                .add("SERVICE-B", "b-1", "host-1", detail("10.0.0.1", "DOWN", "eu-west-1a", "2.0.0"))
+                .add("SERVICE-A", "a-2", "host-2", detail("10.0.0.2", "DOWN", "eu-west-1b", "1.0.0"))
+                .add("SERVICE-C", "c-1", "", detail("10.0.0.3", "UP", null, null))
+                .build();
+        index = SnapshotIndex.build(snapshot);
+    }
+
+    @Test
+    void lookup_ShouldReturnPositionsOfMatchingInstances_InRegistryOrder() {
+        assertThat(index.lookup(IndexedField.HOST, "host-1")).containsExactly(0, 1);
+        assertThat(index.lookup(IndexedField.IP, "10.0.0.2")).containsExactly(2);
+        assertThat(index.lookup(IndexedField.ZONE, "eu-west-1a")).containsExactly(0, 1);
+        assertThat(index.lookup(IndexedField.VERSION, "1.0.0")).containsExactly(0, 2);
+    }
+
+    @Test
+    void lookup_ShouldMatchStatusIgnoringCase() {
+        assertThat(index.lookup(IndexedField.STATUS, "down")).containsExactly(1, 2);
+    }
+
+    @Test
+    void lookup_ShouldReturnEmpty_WhenNothingMatches() {
+        assertThat(index.lookup(IndexedField.HOST, "host-9")).isEmpty();
+        assertThat(index.lookup(IndexedField.HOST, "")).isEmpty();
+    }
+
+    @Test
+    void values_ShouldSkipNullAndBlankValues() {
+        assertThat(index.values(IndexedField.HOST)).containsExactlyInAnyOrder("host-1", "host-2");
+        assertThat(index.values(IndexedField.ZONE)).containsExactlyInAnyOrder("eu-west-1a", "eu-west-1b");
+    }
+
+    @Test
+    void select_ShouldExposeOnlyMatchingInstances() {
+        RegistryView down = index.select(snapshot, IndexedField.STATUS, "DOWN");
+
+        assertThat(down.size()).isEqualTo(2);
+        assertThat(down.app(0)).isEqualTo("SERVICE-B");
+        assertThat(down.instanceId(1)).isEqualTo("a-2");
+        assertThat(down.detail(1)).isEqualTo(snapshot.detail(2));
+    }
+
+    @Test
+    void fromKey_ShouldResolveFieldIgnoringCase() {
+        assertThat(IndexedField.fromKey("Host")).isEqualTo(IndexedField.HOST);
+        assertThat(IndexedField.fromKey("STATUS")).isEqualTo(IndexedField.STATUS);
+    }
+
+    private static BaseInstanceDetail detail(String ipAddr, String status, String zone, String version) {
+        return new BaseInstanceDetail(ipAddr, 8080, 0, null, null, null, status, 0L, 0L, false,
+                new Metadata(version, null, zone, null, null), null);
+    }
+}
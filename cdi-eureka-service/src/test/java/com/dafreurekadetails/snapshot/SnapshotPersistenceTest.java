@@ -0,0 +1,117 @@
+package com.dafreurekadetails.snapshot;
+
+import com.dafreurekadetails.config.PersistenceProperties;
+import com.dafreurekadetails.service.strategy.EurekaTestDataBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotPersistenceTest {
+
+    private static final String URL = "http://eureka-1:8761/eureka";
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+
+    @Test
+    void restore_ShouldMapTheSnapshotsWrittenBySave() throws Exception {
+        SnapshotPersistence persistence = persistence(true);
+        OffHeapSnapshot snapshot = OffHeapSnapshot.of(snapshot());
+
+        persistence.save(URL, snapshot);
+        persistence.shutdown();
+
+        Map<String, OffHeapSnapshot> restored = persistence(true).restore();
+        assertThat(restored.keySet()).containsExactly(URL);
+        OffHeapSnapshot mapped = restored.get(URL);
+        assertThat(mapped.size()).isEqualTo(3);
+        for (int i = 0; i < snapshot.size(); i++) {
+            assertThat(mapped.instanceId(i)).isEqualTo(snapshot.instanceId(i));
+            assertThat(mapped.detail(i)).isEqualTo(snapshot.detail(i));
+        }
+    }
+
+    @Test
+    void restore_ShouldDeleteFilesOlderThanMaxAge() throws Exception {
+        persistence(true).write(URL, OffHeapSnapshot.of(snapshot()).encoded());
+        Path file = directory.resolve(SnapshotPersistence.fileName(URL));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(now.get() - Duration.ofHours(25).toMillis()));
+
+        assertThat(persistence(true).restore()).isEmpty();
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    void restore_ShouldSkipFilesThatAreNotSnapshots() throws Exception {
+        Files.write(directory.resolve(SnapshotPersistence.fileName(URL)), new byte[]{1, 2, 3});
+
+        assertThat(persistence(true).restore()).isEmpty();
+    }
+
+    @Test
+    void restore_ShouldSkipTruncatedSnapshotFiles() throws Exception {
+        ByteBuffer encoded = OffHeapSnapshot.of(snapshot()).encoded();
+        //Cut inside the string dictionary, whose size the header still announces in full.
+        byte[] truncated = new byte[SnapshotCodec.HEADER_BYTES + Integer.BYTES];
+        encoded.get(truncated);
+        persistence(true).write(URL, ByteBuffer.wrap(truncated));
+
+        assertThat(persistence(true).restore()).isEmpty();
+    }
+
+    @Test
+    void restore_ShouldReadTheUrlFromTheFile_WhateverItsLength() throws Exception {
+        String longUrl = URL + "/" + "segment/".repeat(64);
+        SnapshotPersistence persistence = persistence(true);
+
+        persistence.save(longUrl, OffHeapSnapshot.of(snapshot()));
+        persistence.shutdown();
+
+        assertThat(SnapshotPersistence.fileName(longUrl).length()).isLessThan(255);
+        assertThat(persistence(true).restore().keySet()).containsExactly(longUrl);
+    }
+
+    @Test
+    void delete_ShouldRemoveTheFile() throws Exception {
+        persistence(true).write(URL, OffHeapSnapshot.of(snapshot()).encoded());
+        SnapshotPersistence persistence = persistence(true);
+
+        persistence.delete(URL);
+        persistence.shutdown();
+
+        assertThat(Files.exists(directory.resolve(SnapshotPersistence.fileName(URL)))).isFalse();
+    }
+
+    @Test
+    void save_ShouldNotWrite_WhenDisabled() throws Exception {
+        SnapshotPersistence persistence = persistence(false);
+
+        persistence.save(URL, OffHeapSnapshot.of(snapshot()));
+        persistence.shutdown();
+
+        assertThat(Files.exists(directory.resolve(SnapshotPersistence.fileName(URL)))).isFalse();
+    }
+
+    private SnapshotPersistence persistence(boolean enabled) {
+        return new SnapshotPersistence(new PersistenceProperties(enabled, directory.toString(), Duration.ofHours(24)), now::get);
+    }
+
+    private static RegistrySnapshot snapshot() {
+        RegistrySnapshot.Builder builder = RegistrySnapshot.builder();
+        for (int i = 0; i < 3; i++) {
+            builder.add("SERVICE-A", "id-" + i, "host-" + i, EurekaTestDataBuilder.createMockInstanceDetail());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.dafreurekadetails.transaction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UuidV7TransactionIdGeneratorTest {
+
+    private final UuidV7TransactionIdGenerator generator = new UuidV7TransactionIdGenerator();
+
+    @Test
+    void generate_ShouldReturnVersion7UuidWithRfcVariant() {
+        UUID uuid = UUID.fromString(generator.generate());
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void generate_ShouldEmbedCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = generator.nextUuid();
+        long after = System.currentTimeMillis();
+
+        long embeddedMillis = uuid.getMostSignificantBits() >>> 16;
+        assertThat(embeddedMillis).isBetween(before, after);
+    }
+
+    @Test
+    void generate_ShouldBeOrderedAcrossMilliseconds() throws InterruptedException {
+        UUID first = generator.nextUuid();
+        Thread.sleep(2);
+        UUID second = generator.nextUuid();
+
+        assertThat(Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits())).isNegative();
+    }
+
+    @Test
+    void generate_ShouldNotRepeat() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.generate());
+        }
+        assertThat(ids).hasSize(10_000);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.eurekaserver.events;
+
+import com.example.eurekaserver.grouping.InstanceDetail;
+
+/**
+ * One change of the registry, as sent on the event stream.
+ *
+ * @param sequence       position of the event in this server's stream; increases by one per event
+ * @param type           registered, renewed, status-changed, cancelled or evicted
+ * @param timestamp      when the server saw the change, in milliseconds since the epoch
+ * @param app            name of the service the instance belongs to
+ * @param instanceId     Eureka instance ID
+ * @param hostName       host the instance runs on; null for cancelled and evicted instances not seen before
+ * @param status         current status; the last known one for cancelled and evicted instances
+ * @param previousStatus status before the change, if the instance was known
+ * @param replicated     whether the change was replicated from a peer rather than made on this server
+ * @param instance       the instance as it is now; null for cancelled and evicted instances
+ */
+public record RegistryEvent(
+        long sequence,
+        String type,
+        long timestamp,
+        String app,
+        String instanceId,
+        String hostName,
+        String status,
+        String previousStatus,
+        boolean replicated,
+        InstanceDetail instance
+) {
+
+    public static final String REGISTERED = "registered";
+    public static final String RENEWED = "renewed";
+    public static final String STATUS_CHANGED = "status-changed";
+    public static final String CANCELLED = "cancelled";
+    public static final String EVICTED = "evicted";
+}
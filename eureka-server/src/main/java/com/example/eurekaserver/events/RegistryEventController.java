@@ -0,0 +1,114 @@
+package com.example.eurekaserver.events;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams registry changes as Server-Sent Events. Each event is named after its type and its ID
+ * is {@code <streamId>:<sequence>}, so a reconnecting {@code EventSource} resumes by itself
+ * through {@code Last-Event-ID}; {@code ?after=<streamId>:<sequence>} resumes explicitly. A new
+ * consumer gets the changes from the moment it connects, and should read {@code /eureka/apps} once
+ * for the rest.
+ * <p>
+ * When the requested events are no longer retained, or belong to an earlier run of the server, a
+ * {@code reset} event tells the consumer to reload the registry before applying the changes that
+ * follow it. Each subscriber is served from its own virtual thread, so a slow consumer only falls
+ * behind, and gets a reset, without holding up the registry.
+ */
+@RestController
+@ConditionalOnProperty(name = "registry-events.enabled", havingValue = "true")
+public class RegistryEventController {
+
+    static final String RESET_EVENT = "reset";
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegistryEventController.class);
+
+    private final RegistryEventLog eventLog;
+    private final RegistryEventsProperties properties;
+    private final ExecutorService subscribers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RegistryEventController(RegistryEventLog eventLog, RegistryEventsProperties properties) {
+        this.eventLog = eventLog;
+        this.properties = properties;
+    }
+
+    @GetMapping(value = "/registry-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                             @RequestParam(value = "after", required = false) String after) {
+        SseEmitter emitter = new SseEmitter(0L);
+        long start = resumePoint(lastEventId, after);
+        subscribers.execute(() -> deliver(emitter, start));
+        return emitter;
+    }
+
+    /**
+     * Both resume points are event IDs, {@code <streamId>:<sequence>}; a sequence number is only
+     * meaningful within the run of the server that issued it.
+     *
+     * @return the sequence number to stream after; {@link Long#MAX_VALUE} forces a reset
+     */
+    long resumePoint(String lastEventId, String after) {
+        String eventId = after != null ? after : lastEventId;
+        if (eventId == null || eventId.isBlank()) {
+            return eventLog.lastSequence();
+        }
+        int separator = eventId.lastIndexOf(':');
+        if (separator < 0 || !eventId.substring(0, separator).equals(eventLog.streamId())) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private void deliver(SseEmitter emitter, long start) {
+        long cursor = start;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                RegistryEventLog.Batch batch = eventLog.awaitAfter(cursor, properties.heartbeatInterval());
+                if (batch.reset()) {
+                    cursor = batch.lastSequence();
+                    emitter.send(SseEmitter.event().id(eventId(cursor)).name(RESET_EVENT)
+                            .data(Map.of("streamId", eventLog.streamId(), "sequence", cursor), MediaType.APPLICATION_JSON));
+                } else if (batch.events().isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+                for (RegistryEvent event : batch.events()) {
+                    emitter.send(SseEmitter.event().id(eventId(event.sequence())).name(event.type())
+                            .data(event, MediaType.APPLICATION_JSON));
+                    cursor = event.sequence();
+                }
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException ex) {
+            LOGGER.debug("Dropping registry event subscriber: {}", ex.getMessage());
+            emitter.completeWithError(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+
+    private String eventId(long sequence) {
+        return eventLog.streamId() + ":" + sequence;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.shutdownNow();
+    }
+}
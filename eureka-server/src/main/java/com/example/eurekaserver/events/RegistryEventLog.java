@@ -0,0 +1,233 @@
+package com.example.eurekaserver.events;
+
+import com.example.eurekaserver.grouping.InstanceDetail;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRenewedEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * RegistryEventLog turns the registry's own events into a numbered stream of instance lifecycle
+ * changes, and keeps the most recent ones so that a consumer can resume after a reconnect instead
+ * of fetching the whole registry again.
+ * <p>
+ * The last known state of every instance is kept to tell what a renewal changed: renewals that
+ * change nothing but the lease's renewal and eviction times, by far the most common event, are
+ * dropped without taking the lock. Status overrides are not reported by the registry when they
+ * happen; they show up at the instance's next renewal.
+ * <p>
+ * Sequence numbers start over when the server restarts; the stream ID tells the runs apart.
+ */
+@Component
+@ConditionalOnProperty(name = "registry-events.enabled", havingValue = "true")
+public class RegistryEventLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegistryEventLog.class);
+
+    private final PeerAwareInstanceRegistry registry;
+    private final LongSupplier clock;
+    private final String streamId;
+    private final Map<InstanceKey, Known> known = new ConcurrentHashMap<>();
+    private final RegistryEvent[] buffer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long lastSequence;
+
+    public RegistryEventLog(PeerAwareInstanceRegistry registry, RegistryEventsProperties properties) {
+        this(registry, properties, System::currentTimeMillis);
+    }
+
+    RegistryEventLog(PeerAwareInstanceRegistry registry, RegistryEventsProperties properties, LongSupplier clock) {
+        this.registry = registry;
+        this.clock = clock;
+        this.streamId = Long.toString(clock.getAsLong(), 36);
+        this.buffer = new RegistryEvent[Math.max(1, properties.bufferSize())];
+    }
+
+    /**
+     * The events after a sequence number, or a reset if they are no longer all retained.
+     *
+     * @param reset        true if the consumer must reload the registry and continue from {@code lastSequence}
+     * @param lastSequence the last sequence number of the stream when the batch was taken
+     * @param events       the events in sequence order; empty on a reset or when none arrived in time
+     */
+    public record Batch(boolean reset, long lastSequence, List<RegistryEvent> events) {
+    }
+
+    record InstanceKey(String app, String id) {
+    }
+
+    record Known(String hostName, String status, String overriddenStatus, InstanceDetail detail) {
+
+        static Known of(InstanceInfo info) {
+            InstanceDetail detail = InstanceDetail.of(info);
+            return new Known(info.getHostName(), detail.status(),
+                    info.getOverriddenStatus() != null ? info.getOverriddenStatus().name() : null, detail);
+        }
+
+        //The registry restamps the lease on every read, renewals included; that alone is no change.
+        boolean sameAsRenewed(Known other) {
+            return other != null && Objects.equals(hostName, other.hostName)
+                    && Objects.equals(overriddenStatus, other.overriddenStatus) && detail.sameAsRenewed(other.detail);
+        }
+    }
+
+    /**
+     * @return the ID of this run of the stream, sent with every event ID
+     */
+    public String streamId() {
+        return streamId;
+    }
+
+    /**
+     * @return the sequence number of the latest event, 0 before the first one
+     */
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onRegistered(EurekaInstanceRegisteredEvent event) {
+        InstanceInfo info = event.getInstanceInfo();
+        if (info == null) {
+            return;
+        }
+        Known next = Known.of(info);
+        lock.lock();
+        try {
+            Known previous = known.put(new InstanceKey(info.getAppName(), info.getId()), next);
+            append(RegistryEvent.REGISTERED, info.getAppName(), info.getId(), next, previous, event.isReplication());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onRenewed(EurekaInstanceRenewedEvent event) {
+        InstanceInfo info = event.getInstanceInfo();
+        if (info == null) {
+            return;
+        }
+        InstanceKey key = new InstanceKey(info.getAppName(), info.getId());
+        Known next = Known.of(info);
+        if (next.sameAsRenewed(known.get(key))) {
+            return;
+        }
+        lock.lock();
+        try {
+            Known previous = known.put(key, next);
+            boolean statusChanged = previous != null && !previous.status().equals(next.status());
+            append(statusChanged ? RegistryEvent.STATUS_CHANGED : RegistryEvent.RENEWED,
+                    info.getAppName(), info.getId(), next, previous, event.isReplication());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evictions are reported as cancellations too, before the lease is removed. The registry no
+     * longer returns instances whose lease expired, so a local cancellation of an instance it does
+     * not return is an eviction.
+     */
+    @EventListener
+    public void onCanceled(EurekaInstanceCanceledEvent event) {
+        boolean registered = registry.getInstanceByAppAndId(event.getAppName(), event.getServerId()) != null;
+        lock.lock();
+        try {
+            Known previous = known.remove(new InstanceKey(event.getAppName(), event.getServerId()));
+            if (previous == null && !registered) {
+                return;
+            }
+            boolean evicted = !event.isReplication() && !registered;
+            append(evicted ? RegistryEvent.EVICTED : RegistryEvent.CANCELLED,
+                    event.getAppName(), event.getServerId(), null, previous, event.isReplication());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Instances already in the registry are the starting point; they are not announced as events.
+    @EventListener
+    public void onRegistryAvailable(EurekaRegistryAvailableEvent event) {
+        try {
+            for (Application application : registry.getApplications().getRegisteredApplications()) {
+                for (InstanceInfo info : application.getInstances()) {
+                    known.putIfAbsent(new InstanceKey(info.getAppName(), info.getId()), Known.of(info));
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Could not read the registry the event stream starts from: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Waits until there are events after {@code after}, or until {@code timeout} passed.
+     *
+     * @param after   the sequence number of the last event the consumer has seen
+     * @param timeout how long to wait for a new event
+     * @return the events after {@code after}; a reset if some of them are no longer retained, or
+     *         if {@code after} is ahead of the stream
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Batch awaitAfter(long after, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = timeout.toNanos();
+            while (lastSequence == after && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            long oldestRetained = lastSequence - Math.min(lastSequence, buffer.length) + 1;
+            if (after > lastSequence || after < oldestRetained - 1) {
+                return new Batch(true, lastSequence, List.of());
+            }
+            List<RegistryEvent> events = new ArrayList<>((int) (lastSequence - after));
+            for (long sequence = after + 1; sequence <= lastSequence; sequence++) {
+                events.add(buffer[(int) (sequence % buffer.length)]);
+            }
+            return new Batch(false, lastSequence, events);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Called under the lock, so sequence numbers follow the order in which the states were recorded.
+    private void append(String type, String app, String instanceId, Known current, Known previous, boolean replicated) {
+        long sequence = ++lastSequence;
+        Known described = current != null ? current : previous;
+        buffer[(int) (sequence % buffer.length)] = new RegistryEvent(
+                sequence,
+                type,
+                clock.getAsLong(),
+                app,
+                instanceId,
+                described != null ? described.hostName() : null,
+                described != null ? described.status() : null,
+                previous != null ? previous.status() : null,
+                replicated,
+                current != null ? current.detail() : null);
+        appended.signalAll();
+    }
+}
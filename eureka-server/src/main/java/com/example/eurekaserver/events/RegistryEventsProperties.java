@@ -0,0 +1,21 @@
+package com.example.eurekaserver.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the registry event stream.
+ *
+ * @param enabled           whether registry changes are streamed on {@code GET /registry-events}
+ * @param bufferSize        number of recent events kept for consumers resuming from a sequence number
+ * @param heartbeatInterval how long a quiet stream waits before sending a keep-alive comment
+ */
+@ConfigurationProperties(prefix = "registry-events")
+public record RegistryEventsProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") int bufferSize,
+        @DefaultValue("15s") Duration heartbeatInterval
+) {
+}
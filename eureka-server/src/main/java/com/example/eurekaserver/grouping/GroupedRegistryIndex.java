@@ -0,0 +1,297 @@
+package com.example.eurekaserver.grouping;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRenewedEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * GroupedRegistryIndex keeps the instances of the local registry grouped by service and by host,
+ * and serves both groupings as ready-made JSON, so that consumers read one grouped document
+ * instead of fetching and grouping the whole {@code /eureka/apps} registry themselves.
+ * <p>
+ * The index follows the registry's own events: registrations (including those replicated from
+ * peers) add or replace an instance, cancellations and evictions remove it, and renewals replace
+ * it only if the instance changed, e.g. after a status override. Only the groups an event touches
+ * are rebuilt; a view is serialized again on the first request after a change and reused until
+ * the next one. A periodic comparison with the whole registry repairs anything the events missed.
+ */
+@Component
+@ConditionalOnProperty(name = "grouped-views.enabled", havingValue = "true")
+public class GroupedRegistryIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupedRegistryIndex.class);
+
+    private final PeerAwareInstanceRegistry registry;
+    private final ObjectMapper objectMapper;
+    private final GroupedViewsProperties properties;
+    private final Map<InstanceKey, Entry> instances = new ConcurrentHashMap<>();
+    private final View<ServiceGroup> services = new View<>("services", GroupedRegistryIndex::serviceGroup);
+    private final View<ServerGroup> servers = new View<>("servers", GroupedRegistryIndex::serverGroup);
+    //Tells apart the versions of two runs of the server, which both count from 0.
+    private final long epoch = System.currentTimeMillis();
+    private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("grouped-views-reconcile").daemon().factory());
+    private long version;
+
+    public GroupedRegistryIndex(PeerAwareInstanceRegistry registry, ObjectMapper objectMapper, GroupedViewsProperties properties) {
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * The rendered JSON of a view and the version of the index it was rendered from.
+     *
+     * @param tag  opaque version tag, usable as an ETag
+     * @param body the JSON document, {@code {"servers": [...]}} or {@code {"services": [...]}}
+     */
+    public record RenderedView(String tag, byte[] body) {
+    }
+
+    record InstanceKey(String app, String id) {
+    }
+
+    record Entry(String app, String id, String host, InstanceDetail detail) {
+
+        InstanceKey key() {
+            return new InstanceKey(app, id);
+        }
+
+        //A renewal restamps the lease, which alone is no reason for a new version of the views.
+        boolean sameAsRenewed(Entry other) {
+            return other != null && key().equals(other.key()) && Objects.equals(host, other.host)
+                    && detail.sameAsRenewed(other.detail);
+        }
+
+        //Hosts fall back to the IP address, then to the instance id, as in cdi-eureka-service's service grouping.
+        static Entry of(InstanceInfo info) {
+            InstanceDetail detail = InstanceDetail.of(info);
+            String host = StringUtils.hasText(info.getHostName()) ? info.getHostName()
+                    : StringUtils.hasText(detail.ipAddr()) ? detail.ipAddr() : info.getId();
+            return new Entry(info.getAppName(), info.getId(), host, detail);
+        }
+    }
+
+    @EventListener
+    public void onRegistered(EurekaInstanceRegisteredEvent event) {
+        if (event.getInstanceInfo() != null) {
+            put(Entry.of(event.getInstanceInfo()));
+        }
+    }
+
+    @EventListener
+    public void onRenewed(EurekaInstanceRenewedEvent event) {
+        if (event.getInstanceInfo() != null) {
+            put(Entry.of(event.getInstanceInfo()));
+        }
+    }
+
+    //Evictions are reported as cancellations too.
+    @EventListener
+    public void onCanceled(EurekaInstanceCanceledEvent event) {
+        remove(new InstanceKey(event.getAppName(), event.getServerId()));
+    }
+
+    //The registry is complete once it synced with its peers; from then on it is reconciled periodically.
+    @EventListener
+    public void onRegistryAvailable(EurekaRegistryAvailableEvent event) {
+        reconcile();
+        long interval = properties.reconcileInterval().toMillis();
+        reconciler.scheduleWithFixedDelay(this::reconcile, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the instances grouped by host, hosts and their services sorted by name
+     */
+    public RenderedView servers() {
+        return render(servers);
+    }
+
+    /**
+     * @return the instances grouped by service, services and their instances sorted by name
+     */
+    public RenderedView services() {
+        return render(services);
+    }
+
+    void put(Entry entry) {
+        InstanceKey key = entry.key();
+        //Most renewals change nothing; they are settled without taking the lock.
+        if (entry.sameAsRenewed(instances.get(key))) {
+            return;
+        }
+        synchronized (this) {
+            Entry previous = instances.put(key, entry);
+            if (previous != null) {
+                unindex(previous);
+            }
+            services.add(entry.app(), entry.id(), entry);
+            servers.add(entry.host(), entry.app() + '\u0000' + entry.id(), entry);
+            version++;
+        }
+    }
+
+    void remove(InstanceKey key) {
+        synchronized (this) {
+            Entry previous = instances.remove(key);
+            if (previous != null) {
+                unindex(previous);
+                version++;
+            }
+        }
+    }
+
+    /**
+     * Brings the index in line with the registry. An instance registered while the registry is
+     * read may be dropped here; its next renewal adds it back.
+     */
+    void reconcile() {
+        try {
+            Map<InstanceKey, Entry> current = new HashMap<>();
+            for (Application application : registry.getApplications().getRegisteredApplications()) {
+                for (InstanceInfo info : application.getInstances()) {
+                    Entry entry = Entry.of(info);
+                    current.put(entry.key(), entry);
+                }
+            }
+            for (InstanceKey key : Set.copyOf(instances.keySet())) {
+                if (!current.containsKey(key)) {
+                    remove(key);
+                }
+            }
+            current.values().forEach(this::put);
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Could not reconcile the grouped views with the registry: {}", ex.getMessage());
+        }
+    }
+
+    private void unindex(Entry entry) {
+        services.remove(entry.app(), entry.id());
+        servers.remove(entry.host(), entry.app() + '\u0000' + entry.id());
+    }
+
+    //Groups are collected under the lock; the records are immutable, so serializing them is not.
+    private <T> RenderedView render(View<T> view) {
+        List<T> groups;
+        long renderedVersion;
+        synchronized (this) {
+            if (view.rendered != null && view.renderedVersion == version) {
+                return view.rendered;
+            }
+            renderedVersion = version;
+            groups = view.groups();
+        }
+        RenderedView rendered;
+        try {
+            rendered = new RenderedView(epoch + "-" + renderedVersion, objectMapper.writeValueAsBytes(Map.of(view.field, groups)));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        synchronized (this) {
+            if (view.rendered == null || view.renderedVersion < renderedVersion) {
+                view.rendered = rendered;
+                view.renderedVersion = renderedVersion;
+            }
+        }
+        return rendered;
+    }
+
+    private static ServiceGroup serviceGroup(String serviceName, Iterable<Entry> members) {
+        List<ServiceGroup.HostingServer> hosting = new ArrayList<>();
+        for (Entry entry : members) {
+            hosting.add(new ServiceGroup.HostingServer(new ServiceGroup.ServerInstance(entry.host(), entry.detail())));
+        }
+        return new ServiceGroup(new ServiceGroup.Service(serviceName, List.copyOf(hosting)));
+    }
+
+    private static ServerGroup serverGroup(String hostName, Iterable<Entry> members) {
+        List<ServerGroup.HostedService> hosted = new ArrayList<>();
+        for (Entry entry : members) {
+            hosted.add(new ServerGroup.HostedService(new ServerGroup.ServiceInstance(entry.app(), entry.detail())));
+        }
+        return new ServerGroup(new ServerGroup.Server(hostName, List.copyOf(hosted)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reconciler.shutdownNow();
+    }
+
+    /**
+     * One grouping: its groups sorted by name, each group's members sorted, and the rendered group
+     * kept until a member changes. Guarded by the index's lock.
+     */
+    private static final class View<T> {
+
+        private final String field;
+        private final BiFunction<String, Iterable<Entry>, T> renderer;
+        private final SortedMap<String, Group<T>> groups = new TreeMap<>();
+        private RenderedView rendered;
+        private long renderedVersion;
+
+        View(String field, BiFunction<String, Iterable<Entry>, T> renderer) {
+            this.field = field;
+            this.renderer = renderer;
+        }
+
+        void add(String group, String member, Entry entry) {
+            Group<T> target = groups.computeIfAbsent(group, g -> new Group<>());
+            target.members.put(member, entry);
+            target.rendered = null;
+        }
+
+        void remove(String group, String member) {
+            Group<T> target = groups.get(group);
+            if (target != null && target.members.remove(member) != null) {
+                target.rendered = null;
+                if (target.members.isEmpty()) {
+                    groups.remove(group);
+                }
+            }
+        }
+
+        List<T> groups() {
+            List<T> result = new ArrayList<>(groups.size());
+            groups.forEach((name, group) -> {
+                if (group.rendered == null) {
+                    group.rendered = renderer.apply(name, group.members.values());
+                }
+                result.add(group.rendered);
+            });
+            return result;
+        }
+    }
+
+    private static final class Group<T> {
+        private final SortedMap<String, Entry> members = new TreeMap<>();
+        private T rendered;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.eurekaserver.grouping;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Serves the grouped views of the local registry. Each response carries the view's version as
+ * its ETag, so a consumer polling with {@code If-None-Match} gets a body-less 304 until the
+ * registry changes.
+ */
+@RestController
+@RequestMapping("/grouped-views")
+@ConditionalOnProperty(name = "grouped-views.enabled", havingValue = "true")
+public class GroupedViewController {
+
+    private final GroupedRegistryIndex index;
+
+    public GroupedViewController(GroupedRegistryIndex index) {
+        this.index = index;
+    }
+
+    @GetMapping(value = "/servers", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> servers(WebRequest request) {
+        return respond(index.servers(), request);
+    }
+
+    @GetMapping(value = "/services", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> services(WebRequest request) {
+        return respond(index.services(), request);
+    }
+
+    //checkNotModified has already written the 304 and the ETag when it returns true.
+    private static ResponseEntity<byte[]> respond(GroupedRegistryIndex.RenderedView view, WebRequest request) {
+        String eTag = "\"" + view.tag() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(view.body());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.eurekaserver.grouping;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the grouped registry views.
+ *
+ * @param enabled           whether the views are maintained and served under {@code /grouped-views}
+ * @param reconcileInterval how often the views are compared with the whole registry, to pick up
+ *                          changes no event reports, such as status overrides between renewals
+ */
+@ConfigurationProperties(prefix = "grouped-views")
+public record GroupedViewsProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("60s") Duration reconcileInterval
+) {
+}
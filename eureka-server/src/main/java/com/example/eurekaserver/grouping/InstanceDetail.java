@@ -0,0 +1,71 @@
+package com.example.eurekaserver.grouping;
+
+import com.netflix.appinfo.InstanceInfo;
+
+import java.util.Map;
+
+/**
+ * The fields of a registered instance shown in the grouped views, in the same JSON shape as the
+ * instance details of {@code cdi-eureka-service}, so that it can read a grouped view like one it
+ * grouped itself.
+ * <p>
+ * The registry restamps the lease's renewal and eviction times on the instance whenever it is read,
+ * renewals included, so {@link #sameAsRenewed} leaves them out when telling whether anything changed.
+ */
+public record InstanceDetail(
+        String ipAddr,
+        int port,
+        int securePort,
+        String url,
+        String homePageUrl,
+        String statusPageUrl,
+        String status,
+        long lastUpdatedTimestamp,
+        long lastDirtyTimestamp,
+        boolean isCoordinatingDiscoveryServer,
+        Metadata metadataMap,
+        Lease leaseInfo
+) {
+
+    public record Metadata(String version, String region, String zone, String instanceType, String buildNumber) {
+    }
+
+    public record Lease(int renewalIntervalInSecs, int durationInSecs, long registrationTimestamp,
+                        long lastRenewalTimestamp, long evictionTimestamp, long serviceUpTimestamp) {
+
+        Lease renewedAs(Lease other) {
+            return new Lease(renewalIntervalInSecs, durationInSecs, registrationTimestamp,
+                    other.lastRenewalTimestamp, other.evictionTimestamp, serviceUpTimestamp);
+        }
+    }
+
+    /**
+     * @return whether this detail equals the other one but for the lease's renewal and eviction times
+     */
+    public boolean sameAsRenewed(InstanceDetail other) {
+        return other != null && equals(new InstanceDetail(other.ipAddr, other.port, other.securePort, other.url,
+                other.homePageUrl, other.statusPageUrl, other.status, other.lastUpdatedTimestamp, other.lastDirtyTimestamp,
+                other.isCoordinatingDiscoveryServer, other.metadataMap, other.leaseInfo.renewedAs(leaseInfo)));
+    }
+
+    public static InstanceDetail of(InstanceInfo info) {
+        Map<String, String> metadata = info.getMetadata() != null ? info.getMetadata() : Map.of();
+        com.netflix.appinfo.LeaseInfo lease = info.getLeaseInfo();
+        return new InstanceDetail(
+                info.getIPAddr() != null ? info.getIPAddr() : "",
+                info.getPort(),
+                info.getSecurePort(),
+                info.getHealthCheckUrl(),
+                info.getHomePageUrl(),
+                info.getStatusPageUrl(),
+                info.getStatus() != null ? info.getStatus().name() : "",
+                info.getLastUpdatedTimestamp(),
+                info.getLastDirtyTimestamp() != null ? info.getLastDirtyTimestamp() : 0L,
+                Boolean.TRUE.equals(info.isCoordinatingDiscoveryServer()),
+                new Metadata(metadata.get("version"), metadata.get("region"), metadata.get("zone"),
+                        metadata.get("instanceType"), metadata.get("buildNumber")),
+                lease == null ? new Lease(0, 0, 0L, 0L, 0L, 0L)
+                        : new Lease(lease.getRenewalIntervalInSecs(), lease.getDurationInSecs(), lease.getRegistrationTimestamp(),
+                        lease.getRenewalTimestamp(), lease.getEvictionTimestamp(), lease.getServiceUpTimestamp()));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.eurekaserver.grouping;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+
+/**
+ * One host of the server-grouped view and the service instances running on it.
+ */
+public record ServerGroup(Server server) {
+
+    public record Server(String hostName, List<HostedService> services) {
+    }
+
+    public record HostedService(ServiceInstance service) {
+    }
+
+    public record ServiceInstance(String serviceName, @JsonUnwrapped InstanceDetail instanceDetail) {
+    }
+}
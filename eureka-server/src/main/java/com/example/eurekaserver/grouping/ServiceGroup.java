@@ -0,0 +1,18 @@
+package com.example.eurekaserver.grouping;
+
+import java.util.List;
+
+/**
+ * One service of the service-grouped view and the hosts its instances run on.
+ */
+public record ServiceGroup(Service service) {
+
+    public record Service(String serviceName, List<HostingServer> servers) {
+    }
+
+    public record HostingServer(ServerInstance server) {
+    }
+
+    public record ServerInstance(String hostname, InstanceDetail instanceDetail) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.eurekaserver.events;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RegistryEventControllerTest {
+
+    private RegistryEventController controller;
+
+    @BeforeEach
+    void setUp() {
+        RegistryEventLog eventLog = mock(RegistryEventLog.class);
+        when(eventLog.streamId()).thenReturn("run-2");
+        when(eventLog.lastSequence()).thenReturn(42L);
+        controller = new RegistryEventController(eventLog, new RegistryEventsProperties(true, 4, Duration.ofSeconds(15)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        controller.shutdown();
+    }
+
+    @Test
+    void resumePoint_ShouldStartAtTheLatestEvent_WhenNoneIsGiven() {
+        assertEquals(42L, controller.resumePoint(null, null));
+    }
+
+    @Test
+    void resumePoint_ShouldResumeAfterTheGivenEvent_WhenItBelongsToThisRun() {
+        assertEquals(7L, controller.resumePoint(null, "run-2:7"));
+        assertEquals(9L, controller.resumePoint("run-2:9", null));
+    }
+
+    @Test
+    void resumePoint_ShouldPreferTheExplicitEvent_OverLastEventId() {
+        assertEquals(7L, controller.resumePoint("run-2:9", "run-2:7"));
+    }
+
+    @Test
+    void resumePoint_ShouldForceAReset_WhenTheEventIsFromAnotherRunOrHasNoStreamId() {
+        assertEquals(Long.MAX_VALUE, controller.resumePoint(null, "run-1:7"));
+        assertEquals(Long.MAX_VALUE, controller.resumePoint(null, "7"));
+        assertEquals(Long.MAX_VALUE, controller.resumePoint("run-1:9", null));
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.eurekaserver.events;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRenewedEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RegistryEventLogTest {
+
+    private PeerAwareInstanceRegistry registry;
+    private RegistryEventLog eventLog;
+
+    @BeforeEach
+    void setUp() {
+        registry = mock(PeerAwareInstanceRegistry.class);
+        eventLog = new RegistryEventLog(registry, new RegistryEventsProperties(true, 4, Duration.ofSeconds(15)), () -> 1_000L);
+    }
+
+    @Test
+    void events_ShouldBeNumberedInOrder() throws Exception {
+        register(instance("ORDER-SERVICE", "host-a", InstanceInfo.InstanceStatus.UP), false);
+        register(instance("BILLING-SERVICE", "host-b", InstanceInfo.InstanceStatus.UP), true);
+
+        List<RegistryEvent> events = eventLog.awaitAfter(0, Duration.ZERO).events();
+
+        assertEquals(2, events.size());
+        assertEquals(1, events.get(0).sequence());
+        assertEquals(RegistryEvent.REGISTERED, events.get(0).type());
+        assertEquals("host-a", events.get(0).hostName());
+        assertEquals(2, events.get(1).sequence());
+        assertTrue(events.get(1).replicated());
+    }
+
+    @Test
+    void renewal_ShouldBeSkipped_WhenNothingChanged() throws Exception {
+        InstanceInfo info = instance("ORDER-SERVICE", "host-a", InstanceInfo.InstanceStatus.UP);
+        register(info, false);
+
+        renew(info);
+
+        assertEquals(1, eventLog.lastSequence());
+        assertTrue(eventLog.awaitAfter(1, Duration.ZERO).events().isEmpty());
+    }
+
+    @Test
+    void renewal_ShouldBeSkipped_WhenOnlyTheLeaseTimestampsChanged() throws Exception {
+        InstanceInfo info = instance("ORDER-SERVICE", "host-a", InstanceInfo.InstanceStatus.UP);
+        info.setLeaseInfo(lease(0L));
+        register(info, false);
+
+        InstanceInfo renewed = new InstanceInfo(info);
+        renewed.setLeaseInfo(lease(30_000L));
+        renew(renewed);
+
+        assertEquals(1, eventLog.lastSequence());
+    }
+
+    @Test
+    void renewal_ShouldReportAStatusChange_WhenTheStatusChanged() throws Exception {
+        InstanceInfo info = instance("ORDER-SERVICE", "host-a", InstanceInfo.InstanceStatus.UP);
+        register(info, false);
+
+        info.setStatusWithoutDirty(InstanceInfo.InstanceStatus.OUT_OF_SERVICE);
+        renew(info);
+
+        RegistryEvent event = eventLog.awaitAfter(1, Duration.ZERO).events().get(0);
+        assertEquals(RegistryEvent.STATUS_CHANGED, event.type());
+        assertEquals("OUT_OF_SERVICE", event.status());
+        assertEquals("UP", event.previousStatus());
+    }
+
+    @Test
+    void cancellation_ShouldBeReportedAsEviction_WhenTheLeaseExpired() throws Exception {
+        InstanceInfo cancelled = instance("ORDER-SERVICE", "host-a", InstanceInfo.InstanceStatus.UP);
+        InstanceInfo evicted = instance("BILLING-SERVICE", "host-b", InstanceInfo.InstanceStatus.UP);
+        register(cancelled, false);
+        register(evicted, false);
+        when(registry.getInstanceByAppAndId(cancelled.getAppName(), cancelled.getId())).thenReturn(cancelled);
+
+        eventLog.onCanceled(new EurekaInstanceCanceledEvent(this, cancelled.getAppName(), cancelled.getId(), false));
+        eventLog.onCanceled(new EurekaInstanceCanceledEvent(this, evicted.getAppName(), evicted.getId(), false));
+
+        List<RegistryEvent> events = eventLog.awaitAfter(2, Duration.ZERO).events();
+        assertEquals(RegistryEvent.CANCELLED, events.get(0).type());
+        assertEquals(RegistryEvent.EVICTED, events.get(1).type());
+        assertEquals("host-b", events.get(1).hostName());
+        assertNull(events.get(1).instance());
+    }
+
+    @Test
+    void cancellation_ShouldBeSkipped_WhenTheInstanceWasNeverRegistered() throws Exception {
+        eventLog.onCanceled(new EurekaInstanceCanceledEvent(this, "ORDER-SERVICE", "unknown", false));
+
+        assertEquals(0, eventLog.lastSequence());
+    }
+
+    @Test
+    void awaitAfter_ShouldReset_WhenTheEventsAreNoLongerRetained() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            register(instance("SERVICE-" + i, "host-" + i, InstanceInfo.InstanceStatus.UP), false);
+        }
+
+        RegistryEventLog.Batch stale = eventLog.awaitAfter(1, Duration.ZERO);
+        RegistryEventLog.Batch retained = eventLog.awaitAfter(2, Duration.ZERO);
+        RegistryEventLog.Batch ahead = eventLog.awaitAfter(7, Duration.ZERO);
+
+        assertTrue(stale.reset());
+        assertEquals(6, stale.lastSequence());
+        assertFalse(retained.reset());
+        assertEquals(4, retained.events().size());
+        assertTrue(ahead.reset());
+    }
+
+    @Test
+    void awaitAfter_ShouldWakeUp_WhenAnEventArrives() throws Exception {
+        CompletableFuture<RegistryEventLog.Batch> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return eventLog.awaitAfter(0, Duration.ofSeconds(10));
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        register(instance("ORDER-SERVICE", "host-a", InstanceInfo.InstanceStatus.UP), false);
+
+        assertEquals(1, waiting.get(5, TimeUnit.SECONDS).events().size());
+    }
+
+    private void register(InstanceInfo info, boolean replicated) {
+        eventLog.onRegistered(new EurekaInstanceRegisteredEvent(this, info, 90, replicated));
+    }
+
+    private void renew(InstanceInfo info) {
+        eventLog.onRenewed(new EurekaInstanceRenewedEvent(this, info.getAppName(), info.getId(), info, false));
+    }
+
+    //The lease as the registry stamps it on the instance it hands out.
+    private static LeaseInfo lease(long renewalTimestamp) {
+        return LeaseInfo.Builder.newBuilder()
+                .setRenewalIntervalInSecs(30)
+                .setDurationInSecs(90)
+                .setRegistrationTimestamp(1_000L)
+                .setRenewalTimestamp(renewalTimestamp)
+                .setEvictionTimestamp(renewalTimestamp + 90_000L)
+                .build();
+    }
+
+    private static InstanceInfo instance(String app, String host, InstanceInfo.InstanceStatus status) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName(app)
+                .setInstanceId(host + ":" + app.toLowerCase() + ":8080")
+                .setHostName(host)
+                .setIPAddr("10.0.0.1")
+                .setPort(8080)
+                .setStatus(status)
+                .build();
+    }
+}
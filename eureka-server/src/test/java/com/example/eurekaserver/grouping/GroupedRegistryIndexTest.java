@@ -0,0 +1,173 @@
+package com.example.eurekaserver.grouping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRenewedEvent;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GroupedRegistryIndexTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PeerAwareInstanceRegistry registry;
+    private GroupedRegistryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        registry = mock(PeerAwareInstanceRegistry.class);
+        index = new GroupedRegistryIndex(registry, objectMapper, new GroupedViewsProperties(true, Duration.ofSeconds(60)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void views_ShouldGroupRegisteredInstancesSortedByName() throws Exception {
+        register(instance("ORDER-SERVICE", "host-b", 8080, InstanceInfo.InstanceStatus.UP));
+        register(instance("ORDER-SERVICE", "host-a", 8080, InstanceInfo.InstanceStatus.UP));
+        register(instance("BILLING-SERVICE", "host-a", 9090, InstanceInfo.InstanceStatus.UP));
+
+        JsonNode services = read(index.services()).path("services");
+        assertEquals(2, services.size());
+        assertEquals("BILLING-SERVICE", services.get(0).path("service").path("serviceName").asText());
+        JsonNode orderServers = services.get(1).path("service").path("servers");
+        assertEquals("host-a", orderServers.get(0).path("server").path("hostname").asText());
+        assertEquals("host-b", orderServers.get(1).path("server").path("hostname").asText());
+        assertEquals("UP", orderServers.get(0).path("server").path("instanceDetail").path("status").asText());
+
+        JsonNode servers = read(index.servers()).path("servers");
+        assertEquals(2, servers.size());
+        JsonNode hostA = servers.get(0).path("server");
+        assertEquals("host-a", hostA.path("hostName").asText());
+        assertEquals("BILLING-SERVICE", hostA.path("services").get(0).path("service").path("serviceName").asText());
+        assertEquals(9090, hostA.path("services").get(0).path("service").path("port").asInt());
+        assertEquals("ORDER-SERVICE", hostA.path("services").get(1).path("service").path("serviceName").asText());
+    }
+
+    @Test
+    void renewal_ShouldKeepTheRenderedView_WhenNothingChanged() {
+        InstanceInfo info = instance("ORDER-SERVICE", "host-a", 8080, InstanceInfo.InstanceStatus.UP);
+        register(info);
+        GroupedRegistryIndex.RenderedView before = index.services();
+
+        index.onRenewed(new EurekaInstanceRenewedEvent(this, info.getAppName(), info.getId(), info, false));
+
+        assertEquals(before, index.services());
+    }
+
+    @Test
+    void renewal_ShouldKeepTheRenderedView_WhenTheRegistryOnlyRestampedTheLease() {
+        InstanceInfo info = instance("ORDER-SERVICE", "host-a", 8080, InstanceInfo.InstanceStatus.UP);
+        register(info);
+        GroupedRegistryIndex.RenderedView before = index.services();
+
+        InstanceInfo renewed = decorated(info, 1_000L);
+        index.onRenewed(new EurekaInstanceRenewedEvent(this, renewed.getAppName(), renewed.getId(), renewed, false));
+        InstanceInfo renewedAgain = decorated(info, 31_000L);
+        index.onRenewed(new EurekaInstanceRenewedEvent(this, renewedAgain.getAppName(), renewedAgain.getId(), renewedAgain, false));
+
+        assertEquals(before, index.services());
+    }
+
+    @Test
+    void renewal_ShouldUpdateTheViews_WhenTheStatusChanged() throws Exception {
+        InstanceInfo info = instance("ORDER-SERVICE", "host-a", 8080, InstanceInfo.InstanceStatus.UP);
+        register(info);
+        GroupedRegistryIndex.RenderedView before = index.servers();
+
+        info.setStatusWithoutDirty(InstanceInfo.InstanceStatus.OUT_OF_SERVICE);
+        index.onRenewed(new EurekaInstanceRenewedEvent(this, info.getAppName(), info.getId(), info, false));
+
+        GroupedRegistryIndex.RenderedView after = index.servers();
+        assertNotEquals(before.tag(), after.tag());
+        assertEquals("OUT_OF_SERVICE", read(after).path("servers").get(0)
+                .path("server").path("services").get(0).path("service").path("status").asText());
+    }
+
+    @Test
+    void cancellation_ShouldRemoveTheInstanceAndItsEmptyGroups() throws Exception {
+        InstanceInfo order = instance("ORDER-SERVICE", "host-a", 8080, InstanceInfo.InstanceStatus.UP);
+        register(order);
+        register(instance("BILLING-SERVICE", "host-b", 9090, InstanceInfo.InstanceStatus.UP));
+
+        index.onCanceled(new EurekaInstanceCanceledEvent(this, order.getAppName(), order.getId(), false));
+
+        JsonNode services = read(index.services()).path("services");
+        assertEquals(1, services.size());
+        assertEquals("BILLING-SERVICE", services.get(0).path("service").path("serviceName").asText());
+        JsonNode servers = read(index.servers()).path("servers");
+        assertEquals(1, servers.size());
+        assertEquals("host-b", servers.get(0).path("server").path("hostName").asText());
+    }
+
+    @Test
+    void reconcile_ShouldMatchTheRegistry_WhenEventsWereMissed() throws Exception {
+        register(instance("STALE-SERVICE", "host-a", 8080, InstanceInfo.InstanceStatus.UP));
+        Application application = new Application("ORDER-SERVICE");
+        application.addInstance(instance("ORDER-SERVICE", "host-b", 8080, InstanceInfo.InstanceStatus.DOWN));
+        Applications applications = new Applications();
+        applications.addApplication(application);
+        when(registry.getApplications()).thenReturn(applications);
+
+        index.reconcile();
+
+        JsonNode services = read(index.services()).path("services");
+        assertEquals(1, services.size());
+        JsonNode service = services.get(0).path("service");
+        assertEquals("ORDER-SERVICE", service.path("serviceName").asText());
+        assertEquals("DOWN", service.path("servers").get(0).path("server").path("instanceDetail").path("status").asText());
+    }
+
+    private void register(InstanceInfo info) {
+        index.onRegistered(new EurekaInstanceRegisteredEvent(this, info, 90, false));
+    }
+
+    private JsonNode read(GroupedRegistryIndex.RenderedView view) throws Exception {
+        return objectMapper.readTree(view.body());
+    }
+
+    //A copy with the lease restamped, as the registry hands it out on every read, renewals included.
+    private static InstanceInfo decorated(InstanceInfo info, long renewalTimestamp) {
+        InstanceInfo copy = new InstanceInfo(info);
+        copy.setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                .setRenewalIntervalInSecs(30)
+                .setDurationInSecs(90)
+                .setRegistrationTimestamp(info.getLeaseInfo().getRegistrationTimestamp())
+                .setRenewalTimestamp(renewalTimestamp)
+                .setEvictionTimestamp(renewalTimestamp + 90_000L)
+                .setServiceUpTimestamp(info.getLeaseInfo().getServiceUpTimestamp())
+                .build());
+        return copy;
+    }
+
+    private static InstanceInfo instance(String app, String host, int port, InstanceInfo.InstanceStatus status) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName(app)
+                .setInstanceId(host + ":" + app.toLowerCase() + ":" + port)
+                .setHostName(host)
+                .setIPAddr("10.0.0.1")
+                .setPort(port)
+                .setStatus(status)
+                .setMetadata(Map.of("version", "1.0.0", "zone", "zone-a"))
+                .setLeaseInfo(LeaseInfo.Builder.newBuilder().setRenewalIntervalInSecs(30).setDurationInSecs(90).build())
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.loadgenerator;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Calls the Eureka REST API on behalf of fake instances, the way a Eureka client would: register,
+ * renew, override and clear the status, and cancel.
+ */
+@Component
+class EurekaRegistryClient {
+
+    private final RestClient restClient;
+
+    EurekaRegistryClient() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(10));
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .defaultStatusHandler(HttpStatusCode::isError, (request, response) -> {
+                })
+                .build();
+    }
+
+    /**
+     * Registers the instance with its current status, or re-registers it after a change.
+     *
+     * @return true if Eureka accepted the registration
+     */
+    boolean register(FakeInstance instance) {
+        return restClient.post()
+                .uri(instance.eurekaUrl + "/apps/{app}", instance.app)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(instance.document())
+                .retrieve()
+                .toBodilessEntity()
+                .getStatusCode()
+                .is2xxSuccessful();
+    }
+
+    /**
+     * Renews the instance's lease.
+     *
+     * @return the status code; 404 means Eureka no longer knows the instance and it must register again
+     */
+    int renew(FakeInstance instance) {
+        return restClient.put()
+                .uri(instance.eurekaUrl + "/apps/{app}/{id}?status={status}&lastDirtyTimestamp={timestamp}",
+                        instance.app, instance.instanceId, instance.status, instance.lastDirtyTimestamp)
+                .retrieve()
+                .toBodilessEntity()
+                .getStatusCode()
+                .value();
+    }
+
+    /**
+     * Overrides the instance's status, as an operator taking it out of service would.
+     */
+    boolean overrideStatus(FakeInstance instance, String status) {
+        return restClient.put()
+                .uri(instance.eurekaUrl + "/apps/{app}/{id}/status?value={status}", instance.app, instance.instanceId, status)
+                .retrieve()
+                .toBodilessEntity()
+                .getStatusCode()
+                .is2xxSuccessful();
+    }
+
+    /**
+     * Removes a status override, putting the instance back to {@code UP}.
+     */
+    boolean clearStatusOverride(FakeInstance instance) {
+        return restClient.delete()
+                .uri(instance.eurekaUrl + "/apps/{app}/{id}/status?value=UP", instance.app, instance.instanceId)
+                .retrieve()
+                .toBodilessEntity()
+                .getStatusCode()
+                .is2xxSuccessful();
+    }
+
+    /**
+     * Cancels the instance's lease, as a gracefully stopping instance would.
+     */
+    boolean cancel(FakeInstance instance) {
+        return restClient.delete()
+                .uri(instance.eurekaUrl + "/apps/{app}/{id}", instance.app, instance.instanceId)
+                .retrieve()
+                .toBodilessEntity()
+                .getStatusCode()
+                .is2xxSuccessful();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.loadgenerator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * One synthetic service instance: a fixed identity derived from its index, plus the lifecycle state
+ * the churn moves it through.
+ * <p>
+ * Metadata and lease settings vary the way they do across a real fleet: a handful of versions,
+ * regions and instance types; most instances renewing every 30 seconds and some more often; and a
+ * few instances with a long tail of extra labels.
+ */
+final class FakeInstance {
+
+    enum State {
+        PENDING, REGISTERED, CANCELLED, EXPIRING
+    }
+
+    private static final String[] REGIONS = {"eu-west-1", "us-east-1", "ap-south-1"};
+    private static final String[] INSTANCE_TYPES = {"m5.large", "m5.xlarge", "c5.large", "r5.large"};
+    private static final String[] TEAMS = {"payments", "search", "identity", "catalog", "ops"};
+    private static final int[] RENEWAL_INTERVALS = {30, 30, 30, 30, 30, 30, 10, 10, 5};
+
+    final String app;
+    final String instanceId;
+    final String hostName;
+    final String eurekaUrl;
+    private final String ipAddr;
+    private final int port;
+    private final int renewalIntervalSecs;
+    private final Map<String, String> metadata;
+
+    volatile State state = State.PENDING;
+    volatile String status = "UP";
+    volatile boolean overridden;
+    volatile long lastDirtyTimestamp;
+    volatile ScheduledFuture<?> heartbeat;
+
+    FakeInstance(int index, LoadGeneratorProperties properties) {
+        int application = index % properties.applications();
+        int replica = index / properties.applications();
+        int host = (int) ((index * 7919L) % properties.hosts());
+        String region = REGIONS[host % REGIONS.length];
+
+        this.app = "LOAD-SERVICE-" + application;
+        this.hostName = "load-node-" + host + ".cluster.local";
+        this.ipAddr = "10.200." + (host >> 8 & 255) + "." + (host & 255);
+        this.port = 8000 + replica % 1000;
+        this.instanceId = hostName + ":" + app.toLowerCase() + ":" + port;
+        this.eurekaUrl = trimSlash(properties.eurekaUrls().get(index % properties.eurekaUrls().size()));
+        this.renewalIntervalSecs = RENEWAL_INTERVALS[index % RENEWAL_INTERVALS.length];
+        this.lastDirtyTimestamp = System.currentTimeMillis();
+
+        metadata = new LinkedHashMap<>();
+        metadata.put("version", "1." + application % 5 + "." + replica % 7);
+        metadata.put("region", region);
+        metadata.put("zone", region + (char) ('a' + host % 3));
+        metadata.put("instanceType", INSTANCE_TYPES[host % INSTANCE_TYPES.length]);
+        metadata.put("buildNumber", String.valueOf(1000 + application % 50));
+        metadata.put("team", TEAMS[application % TEAMS.length]);
+        metadata.put("management.port", String.valueOf(port + 1000));
+        if (index % 50 == 0) {
+            for (int label = 0; label < 12; label++) {
+                metadata.put("label." + label, "value-" + (index + label) % 97);
+            }
+        }
+    }
+
+    long renewalIntervalSecs() {
+        return renewalIntervalSecs;
+    }
+
+    long leaseDurationSecs() {
+        return 3L * renewalIntervalSecs;
+    }
+
+    /**
+     * The registration document Eureka expects on {@code POST /apps/{app}}, with the current status.
+     */
+    Map<String, Object> document() {
+        Map<String, Object> instance = new LinkedHashMap<>();
+        instance.put("instanceId", instanceId);
+        instance.put("hostName", hostName);
+        instance.put("app", app);
+        instance.put("ipAddr", ipAddr);
+        instance.put("status", status);
+        instance.put("overriddenStatus", "UNKNOWN");
+        instance.put("port", Map.of("$", port, "@enabled", "true"));
+        instance.put("securePort", Map.of("$", 443, "@enabled", "false"));
+        instance.put("countryId", 1);
+        instance.put("dataCenterInfo", Map.of(
+                "@class", "com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo",
+                "name", "MyOwn"));
+        instance.put("leaseInfo", Map.of(
+                "renewalIntervalInSecs", renewalIntervalSecs,
+                "durationInSecs", leaseDurationSecs()));
+        instance.put("metadata", metadata);
+        instance.put("homePageUrl", "http://" + hostName + ":" + port + "/");
+        instance.put("statusPageUrl", "http://" + hostName + ":" + port + "/actuator/info");
+        instance.put("healthCheckUrl", "http://" + hostName + ":" + port + "/actuator/health");
+        instance.put("vipAddress", app.toLowerCase());
+        instance.put("secureVipAddress", app.toLowerCase());
+        instance.put("isCoordinatingDiscoveryServer", "false");
+        instance.put("lastDirtyTimestamp", String.valueOf(lastDirtyTimestamp));
+        return Map.of("instance", instance);
+    }
+
+    private static String trimSlash(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.loadgenerator;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Shape and churn of the synthetic registry.
+ *
+ * @param eurekaUrls              Eureka servers to register with; instances are spread over them
+ * @param applications            number of fake services
+ * @param instancesPerApplication instances of each service
+ * @param hosts                   number of fake hosts the instances are spread over
+ * @param registrationsPerSecond  pace of the initial registrations
+ * @param churnInterval           how often status flips, cancellations and expirations happen
+ * @param statusFlipsPerTick      instances changing status per tick, and back on a later tick
+ * @param cancellationsPerTick    instances cancelled per tick, as on a graceful shutdown
+ * @param expirationsPerTick      instances that stop heartbeating per tick, so Eureka evicts them
+ * @param reregisterAfter         how long a cancelled or expired instance stays away before registering again
+ * @param seed                    seed of the churn; the same seed picks the same instances
+ * @param cancelOnShutdown        whether every instance is cancelled when the generator stops
+ */
+@ConfigurationProperties(prefix = "load-generator")
+public record LoadGeneratorProperties(
+        List<String> eurekaUrls,
+        @DefaultValue("200") int applications,
+        @DefaultValue("20") int instancesPerApplication,
+        @DefaultValue("400") int hosts,
+        @DefaultValue("200") int registrationsPerSecond,
+        @DefaultValue("1s") Duration churnInterval,
+        @DefaultValue("5") int statusFlipsPerTick,
+        @DefaultValue("2") int cancellationsPerTick,
+        @DefaultValue("1") int expirationsPerTick,
+        @DefaultValue("30s") Duration reregisterAfter,
+        @DefaultValue("42") long seed,
+        @DefaultValue("true") boolean cancelOnShutdown
+) {
+}
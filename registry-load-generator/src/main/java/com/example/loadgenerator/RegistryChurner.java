@@ -0,0 +1,233 @@
+package com.example.loadgenerator;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RegistryChurner registers the fake instances and keeps them as busy as a large fleet: each one
+ * renews its lease at its own interval, and every tick a few of them change status, cancel, or
+ * stop renewing until Eureka evicts them. Cancelled and evicted instances register again after a
+ * while, so the registry size stays roughly constant while it keeps changing.
+ * <p>
+ * Scheduling happens on one thread, which also owns the seeded random choices, so the same seed
+ * churns the same instances; the HTTP calls themselves run on virtual threads.
+ */
+@Component
+public class RegistryChurner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegistryChurner.class);
+    private static final String[] FLIP_STATUSES = {"DOWN", "STARTING", "OUT_OF_SERVICE"};
+    private static final int PICK_ATTEMPTS = 20;
+
+    private final LoadGeneratorProperties properties;
+    private final EurekaRegistryClient eureka;
+    private final List<FakeInstance> instances = new ArrayList<>();
+    private final Random random;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("registry-churn").daemon().factory());
+    private final ExecutorService calls = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong registrations = new AtomicLong();
+    private final AtomicLong renewals = new AtomicLong();
+    private final AtomicLong statusChanges = new AtomicLong();
+    private final AtomicLong cancellations = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public RegistryChurner(LoadGeneratorProperties properties, EurekaRegistryClient eureka) {
+        this.properties = properties;
+        this.eureka = eureka;
+        this.random = new Random(properties.seed());
+        int total = properties.applications() * properties.instancesPerApplication();
+        for (int i = 0; i < total; i++) {
+            instances.add(new FakeInstance(i, properties));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (instances.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Registering {} instances of {} services with {}", instances.size(), properties.applications(), properties.eurekaUrls());
+        long spacing = TimeUnit.SECONDS.toNanos(1) / Math.max(1, properties.registrationsPerSecond());
+        for (int i = 0; i < instances.size(); i++) {
+            FakeInstance instance = instances.get(i);
+            scheduler.schedule(() -> register(instance), i * spacing, TimeUnit.NANOSECONDS);
+        }
+        long rampUp = instances.size() * spacing;
+        long churnInterval = properties.churnInterval().toNanos();
+        scheduler.scheduleAtFixedRate(this::churn, rampUp + churnInterval, churnInterval, TimeUnit.NANOSECONDS);
+        scheduler.scheduleAtFixedRate(this::logProgress, 1, 1, TimeUnit.MINUTES);
+    }
+
+    //Runs on the scheduler thread; the call goes to a virtual thread, and renewals start once it succeeded.
+    private void register(FakeInstance instance) {
+        instance.state = FakeInstance.State.PENDING;
+        call(() -> {
+            if (eureka.register(instance)) {
+                registrations.incrementAndGet();
+                scheduler.execute(() -> startRenewals(instance));
+            } else {
+                failures.incrementAndGet();
+                scheduler.schedule(() -> register(instance), instance.renewalIntervalSecs(), TimeUnit.SECONDS);
+            }
+        });
+    }
+
+    private void startRenewals(FakeInstance instance) {
+        if (instance.state != FakeInstance.State.PENDING) {
+            return;
+        }
+        instance.state = FakeInstance.State.REGISTERED;
+        long interval = instance.renewalIntervalSecs();
+        instance.heartbeat = scheduler.scheduleAtFixedRate(() -> renew(instance), interval, interval, TimeUnit.SECONDS);
+    }
+
+    private void renew(FakeInstance instance) {
+        call(() -> {
+            int status = eureka.renew(instance);
+            if (status == 404) {
+                //Eureka evicted or forgot the instance, e.g. after a restart; a real client registers again.
+                scheduler.execute(() -> {
+                    stopRenewals(instance);
+                    register(instance);
+                });
+            } else if (status >= 300) {
+                failures.incrementAndGet();
+            } else {
+                renewals.incrementAndGet();
+            }
+        });
+    }
+
+    private void churn() {
+        for (int i = 0; i < properties.statusFlipsPerTick(); i++) {
+            FakeInstance instance = pickRegistered();
+            if (instance != null) {
+                flipStatus(instance);
+            }
+        }
+        for (int i = 0; i < properties.cancellationsPerTick(); i++) {
+            FakeInstance instance = pickRegistered();
+            if (instance != null) {
+                cancel(instance);
+            }
+        }
+        for (int i = 0; i < properties.expirationsPerTick(); i++) {
+            FakeInstance instance = pickRegistered();
+            if (instance != null) {
+                expire(instance);
+            }
+        }
+    }
+
+    //UP instances go DOWN or STARTING through a re-registration, or OUT_OF_SERVICE through an override; others go back UP.
+    private void flipStatus(FakeInstance instance) {
+        String next = "UP".equals(instance.status) ? FLIP_STATUSES[random.nextInt(FLIP_STATUSES.length)] : "UP";
+        boolean clearOverride = instance.overridden;
+        instance.status = next;
+        instance.overridden = "OUT_OF_SERVICE".equals(next);
+        instance.lastDirtyTimestamp = System.currentTimeMillis();
+        call(() -> {
+            boolean accepted;
+            if (instance.overridden) {
+                accepted = eureka.overrideStatus(instance, next);
+            } else if (clearOverride) {
+                accepted = eureka.clearStatusOverride(instance);
+            } else {
+                accepted = eureka.register(instance);
+            }
+            (accepted ? statusChanges : failures).incrementAndGet();
+        });
+    }
+
+    private void cancel(FakeInstance instance) {
+        stopRenewals(instance);
+        instance.state = FakeInstance.State.CANCELLED;
+        resetStatus(instance);
+        call(() -> (eureka.cancel(instance) ? cancellations : failures).incrementAndGet());
+        scheduler.schedule(() -> register(instance), properties.reregisterAfter().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    //Eureka evicts a lease some time after it expired; the instance comes back once that has surely happened.
+    private void expire(FakeInstance instance) {
+        stopRenewals(instance);
+        instance.state = FakeInstance.State.EXPIRING;
+        resetStatus(instance);
+        expirations.incrementAndGet();
+        long away = TimeUnit.SECONDS.toMillis(instance.leaseDurationSecs() + 60) + properties.reregisterAfter().toMillis();
+        scheduler.schedule(() -> register(instance), away, TimeUnit.MILLISECONDS);
+    }
+
+    private FakeInstance pickRegistered() {
+        for (int attempt = 0; attempt < PICK_ATTEMPTS; attempt++) {
+            FakeInstance instance = instances.get(random.nextInt(instances.size()));
+            if (instance.state == FakeInstance.State.REGISTERED) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    private void stopRenewals(FakeInstance instance) {
+        if (instance.heartbeat != null) {
+            instance.heartbeat.cancel(false);
+            instance.heartbeat = null;
+        }
+    }
+
+    private static void resetStatus(FakeInstance instance) {
+        instance.status = "UP";
+        instance.overridden = false;
+        instance.lastDirtyTimestamp = System.currentTimeMillis();
+    }
+
+    private void call(Runnable call) {
+        calls.execute(() -> {
+            try {
+                call.run();
+            } catch (RuntimeException ex) {
+                failures.incrementAndGet();
+                LOGGER.debug("Eureka call failed: {}", ex.getMessage());
+            }
+        });
+    }
+
+    private void logProgress() {
+        long registered = instances.stream().filter(instance -> instance.state == FakeInstance.State.REGISTERED).count();
+        LOGGER.info("{} of {} instances registered; so far {} registrations, {} renewals, {} status changes, {} cancellations, {} expirations, {} failed calls",
+                registered, instances.size(), registrations.get(), renewals.get(), statusChanges.get(),
+                cancellations.get(), expirations.get(), failures.get());
+    }
+
+    //Cancels every lease so the registry does not keep thousands of ghosts until they expire.
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        scheduler.shutdownNow();
+        if (properties.cancelOnShutdown()) {
+            LOGGER.info("Cancelling {} instances", instances.size());
+            for (FakeInstance instance : instances) {
+                if (instance.state == FakeInstance.State.REGISTERED) {
+                    call(() -> eureka.cancel(instance));
+                }
+            }
+        }
+        calls.shutdown();
+        if (!calls.awaitTermination(30, TimeUnit.SECONDS)) {
+            calls.shutdownNow();
+        }
+    }
+}
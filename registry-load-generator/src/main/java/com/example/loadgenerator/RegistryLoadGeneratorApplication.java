@@ -0,0 +1,15 @@
+package com.example.loadgenerator;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+
+@SpringBootApplication
+@ConfigurationPropertiesScan
+public class RegistryLoadGeneratorApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(RegistryLoadGeneratorApplication.class, args);
+	}
+
+}
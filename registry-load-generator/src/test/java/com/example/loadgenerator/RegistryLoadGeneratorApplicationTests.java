@@ -0,0 +1,13 @@
+package com.example.loadgenerator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "load-generator.applications=0")
+class RegistryLoadGeneratorApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}